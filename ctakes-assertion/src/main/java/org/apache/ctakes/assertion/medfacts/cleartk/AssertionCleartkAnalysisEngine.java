@@ -21,6 +21,7 @@ package org.apache.ctakes.assertion.medfacts.cleartk;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.ctakes.assertion.attributes.features.selection.FeatureSelection;
 import org.apache.ctakes.assertion.medfacts.cleartk.extractors.FedaFeatureFunction;
+import org.apache.ctakes.core.cleartk.CompiledLinearClassifier;
 import org.apache.ctakes.core.util.DocumentIDAnnotationUtil;
 import org.apache.ctakes.typesystem.type.constants.CONST;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
@@ -142,6 +143,13 @@ public abstract class AssertionCleartkAnalysisEngine extends
    protected String fileDomainMap;
    protected Map<String, String> fileToDomain = new HashMap<>();
 
+   @ConfigurationParameter(
+         name = CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER,
+         mandatory = false,
+         description = CompiledLinearClassifier.COMPILE_CLASSIFIER_DESCRIPTION,
+         defaultValue = "false" )
+   protected boolean compileClassifier;
+
    protected String lastLabel;
 
 
@@ -305,33 +313,14 @@ public abstract class AssertionCleartkAnalysisEngine extends
          ffDomainAdaptor = new FedaFeatureFunction( new ArrayList<>( new HashSet<>( fileToDomain.values() ) ) );
       }
       entityTreeExtractors = new ArrayList<>();
+      if ( compileClassifier && !this.isTraining() ) {
+         this.classifier = CompiledLinearClassifier.compile( this.classifier );
+      }
    }
 
    @Override
    public void process( JCas jCas ) throws AnalysisEngineProcessException {
-      String documentId = DocumentIDAnnotationUtil.getDocumentID( jCas );
-      String domainId = "";
-      String domainFeature = null;
-
-      if ( this.featureFunctionExtractors.size() <= 0 ) {
-         this.ffDomainAdaptor = null;
-      }
-
-      if ( documentId != null ) {
-         logger.debug( "processing next doc: " + documentId );
-         // set the domain to be FeatureFunction'ed into all extractors
-         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-            domainId = fileToDomain.get( documentId );
-            // if domain is not found, no warning -- just considers general domain
-            ffDomainAdaptor.setDomain( domainId );
-         } else if ( !fileToDomain.isEmpty() ) {
-            domainFeature = fileToDomain.get( documentId );
-         }
-      } else {
-         logger.debug( "processing next doc (doc id is null)" );
-      }
-
-      this.lastLabel = "<BEGIN>";
+      final String domainFeature = startDocument( jCas );
 
 //    // get gold standard relation instances during testing for error analysis
 //    if (! this.isTraining() && printErrors) {
@@ -347,15 +336,6 @@ public abstract class AssertionCleartkAnalysisEngine extends
 
       final JCas annotationView = getAnnotationView( jCas );
 
-//    Map<IdentifiedAnnotation, Collection<Sentence>> coveringSentenceMap = JCasUtil.indexCovering(annotationView, IdentifiedAnnotation.class, Sentence.class);
-//    Map<Sentence, Collection<BaseToken>> tokensCoveredInSentenceMap = JCasUtil.indexCovered(annotationView, Sentence.class, BaseToken.class);
-
-//    Map<IdentifiedAnnotation, Collection<Zone>> coveringZoneMap =
-//        JCasUtil.indexCovering(jCas, IdentifiedAnnotation.class, Zone.class);
-//    Map<IdentifiedAnnotation, Collection<Sentence>> coveringSents =
-//        JCasUtil.indexCovering(jCas, IdentifiedAnnotation.class, Sentence.class);
-
-//    List<Instance<String>> instances = new ArrayList<Instance<String>>();
       // generate a list of training instances for each sentence in the document
       // Use an indexed map.  This is faster than calling select and then selectCovering within a loop.
       final Map<Sentence, Collection<Annotation>> sentenceAnnotationMap
@@ -365,22 +345,7 @@ public abstract class AssertionCleartkAnalysisEngine extends
       final Collection<AssertionCuePhraseAnnotation> cues = new ArrayList<>();
       final Collection<BaseToken> baseTokens = new ArrayList<>();
       for(Sentence coveringSent : JCasUtil.select(annotationView, Sentence.class)){
-         Collection<Annotation> coveredAnnotations = sentenceAnnotationMap.get(coveringSent);
-         // Sort Annotations into *Mention, assertion cues and BaseTokens in one loop.
-         // Faster than calling JCasUtil methods for each which has to iterate through the full cas each time.
-         entities.clear();
-         cues.clear();
-         baseTokens.clear();
-         for ( Annotation annotation : coveredAnnotations ) {
-            if ( annotation instanceof EventMention || annotation instanceof EntityMention ) {
-               entities.add( (IdentifiedAnnotation)annotation );
-            } else if ( annotation instanceof AssertionCuePhraseAnnotation ) {
-               cues.add( (AssertionCuePhraseAnnotation)annotation );
-            } else if ( annotation instanceof BaseToken ) {
-               baseTokens.add( (BaseToken)annotation );
-            }
-         }
-
+         sortSentenceAnnotations( sentenceAnnotationMap.get( coveringSent ), entities, cues, baseTokens );
          for ( IdentifiedAnnotation identifiedAnnotation : entities ) {
             if ( identifiedAnnotation.getPolarity() == -1 ) {
                logger.debug( String.format( " - identified annotation: [%d-%d] polarity %d (%s)",
@@ -390,164 +355,225 @@ public abstract class AssertionCleartkAnalysisEngine extends
                      identifiedAnnotation.getClass().getName() ) );
             }
             Instance<String> instance = new Instance<>();
+            instance.addAll( extractContextFeatures( annotationView, identifiedAnnotation, coveringSent, cues, baseTokens,
+                  domainFeature ) );
+            classifyEntity( jCas, identifiedAnnotation, instance );
+         }
+      }
+   }
 
-            if ( domainFeature != null ) {
-               instance.add( new Feature( "Domain", domainFeature ) );
-            }
-//      // extract all features that require only the entity mention annotation
-//      instance.addAll(tokenFeatureExtractor.extract(jCas, entityMention));
-
-            // extract all features that require the token and sentence annotations
-
-            //Sentence sentence = sentenceList.iterator().next();
-      
-      /*
-      if (sentence != null)
-      {
-        for (ContextExtractor<IdentifiedAnnotation> extractor : this.contextFeatureExtractors) {
-          instance.addAll(extractor.extractWithin(annotationView, entityMention, sentence));
-        }
-      } else
-      {
-        // TODO extract context features for annotations that don't fall within a sentence
-        logger.log(Level.WARN, "FIXME/TODO: generate context features for entities that don't fall within a sentence");
+   /**
+    * Sets the document domain and resets the last label.  Called once per document before any entity is classified.
+    *
+    * @param jCas -
+    * @return the domain feature value for the document, or null if there is none
+    */
+   protected String startDocument( final JCas jCas ) {
+      String documentId = DocumentIDAnnotationUtil.getDocumentID( jCas );
+      String domainId = "";
+      String domainFeature = null;
+
+      if ( this.featureFunctionExtractors.size() <= 0 ) {
+         this.ffDomainAdaptor = null;
       }
-      */
-      
-      /*
-      for (ContextExtractor<BaseToken> extractor : this.tokenContextFeatureExtractors) {
-          instance.addAll(extractor.extract(annotationView, entityMention));
-        }
-        */
-
-            // only use extract this version if not doing domain adaptation
-            if ( ffDomainAdaptor == null ) {
-               for ( CleartkExtractor<IdentifiedAnnotation, BaseToken> extractor : this.tokenCleartkExtractors ) {
-//    		  instance.addAll(extractor.extractWithin(annotationView, entityMention, sentence));
-//                  if ( coveringSent != null ) {
-                  instance.addAll( extractor
-                        .extractWithin( annotationView, identifiedAnnotation, coveringSent ) );
-//                  } else {
-//                     instance.addAll( extractor.extract( annotationView, identifiedAnnotation ) );
-//                  }
-               }
-            }
 
-            int closest = Integer.MAX_VALUE;
-            AssertionCuePhraseAnnotation closestCue = null;
-            for ( AssertionCuePhraseAnnotation cue : cues ) {
-               // It is much faster to count between BaseTokens already isolated within the same sentence.
-               final int betweenCount = countBetween( cue, identifiedAnnotation, baseTokens );
-               if ( betweenCount < closest ) {
-                  closestCue = cue;
-                  closest = betweenCount;
-               }
+      if ( documentId != null ) {
+         logger.debug( "processing next doc: " + documentId );
+         // set the domain to be FeatureFunction'ed into all extractors
+         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+            domainId = fileToDomain.get( documentId );
+            // if domain is not found, no warning -- just considers general domain
+            ffDomainAdaptor.setDomain( domainId );
+         } else if ( !fileToDomain.isEmpty() ) {
+            domainFeature = fileToDomain.get( documentId );
+         }
+      } else {
+         logger.debug( "processing next doc (doc id is null)" );
+      }
 
-//          instance.addAll(cuePhraseInWindowExtractor.extractBetween(jCas, cue, entityOrEventMention));
-            }
-            if ( closestCue != null && closest < 21 ) {
-               instance.add( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) );
-//          instance.add(new Feature("ClosestCue_Phrase", closestCue.getCuePhrase()));
-               instance.add( new Feature( "ClosestCue_PhraseFamily", closestCue.getCuePhraseAssertionFamily() ) );
-               instance.add( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) );
-
-               // add hack-ey domain adaptation to these hacked-in features
-               if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-                  instance.addAll( ffDomainAdaptor
-                        .apply( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) ) );
-                  instance.addAll( ffDomainAdaptor
-                        .apply( new Feature( "ClosestCue_PhraseFamily", closestCue
-                              .getCuePhraseAssertionFamily() ) ) );
-                  instance.addAll( ffDomainAdaptor
-                        .apply( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) ) );
-               }
+      this.lastLabel = "<BEGIN>";
+      return domainFeature;
+   }
 
-            }
-//            }
-//      if (cuePhraseFeatures != null && !cuePhraseFeatures.isEmpty())
-//      {
-//        instance.addAll(cuePhraseFeatures);
-//      }
+   /**
+    * Sort Annotations into *Mention, assertion cues and BaseTokens in one loop.
+    * Faster than calling JCasUtil methods for each which has to iterate through the full cas each time.
+    *
+    * @param coveredAnnotations annotations covered by a sentence
+    * @param entities           cleared and filled with event and entity mentions
+    * @param cues               cleared and filled with assertion cue phrases
+    * @param baseTokens         cleared and filled with base tokens
+    */
+   static protected void sortSentenceAnnotations( final Collection<Annotation> coveredAnnotations,
+                                                  final Collection<IdentifiedAnnotation> entities,
+                                                  final Collection<AssertionCuePhraseAnnotation> cues,
+                                                  final Collection<BaseToken> baseTokens ) {
+      entities.clear();
+      cues.clear();
+      baseTokens.clear();
+      for ( Annotation annotation : coveredAnnotations ) {
+         if ( annotation instanceof EventMention || annotation instanceof EntityMention ) {
+            entities.add( (IdentifiedAnnotation)annotation );
+         } else if ( annotation instanceof AssertionCuePhraseAnnotation ) {
+            cues.add( (AssertionCuePhraseAnnotation)annotation );
+         } else if ( annotation instanceof BaseToken ) {
+            baseTokens.add( (BaseToken)annotation );
+         }
+      }
+   }
+
+   /**
+    * Extracts the features that depend only upon the text around the entity :
+    * the domain, the surrounding tokens, the closest cue phrase and the anatomical site type.
+    *
+    * @param annotationView view holding the annotations
+    * @param identifiedAnnotation entity to be classified
+    * @param coveringSent   sentence containing the entity
+    * @param cues           assertion cue phrases in the sentence
+    * @param baseTokens     base tokens in the sentence
+    * @param domainFeature  domain feature value for the document, or null
+    * @return features in the order that they are added to the entity instance
+    */
+   protected List<Feature> extractContextFeatures( final JCas annotationView,
+                                                   final IdentifiedAnnotation identifiedAnnotation,
+                                                   final Sentence coveringSent,
+                                                   final Collection<AssertionCuePhraseAnnotation> cues,
+                                                   final Collection<BaseToken> baseTokens,
+                                                   final String domainFeature )
+         throws AnalysisEngineProcessException {
+      final List<Feature> features = new ArrayList<>();
+      if ( domainFeature != null ) {
+         features.add( new Feature( "Domain", domainFeature ) );
+      }
 
+      // only use extract this version if not doing domain adaptation
+      if ( ffDomainAdaptor == null ) {
+         for ( CleartkExtractor<IdentifiedAnnotation, BaseToken> extractor : this.tokenCleartkExtractors ) {
+            features.addAll( extractor.extractWithin( annotationView, identifiedAnnotation, coveringSent ) );
+         }
+      }
 
-            // 7/9/13 SRH trying to make it work just for anatomical site
-            int eemTypeId = identifiedAnnotation.getTypeID();
-            if ( eemTypeId == CONST.NE_TYPE_ID_ANATOMICAL_SITE ) {
-               // 7/9/13 srh modified per tmiller so it's binary but not numeric feature
-               //instance.add(new Feature("ENTITY_TYPE_" + entityOrEventMention.getTypeID()));
-               instance.add( new Feature( "ENTITY_TYPE_ANAT_SITE" ) );
-               // add hack-ey domain adaptation to these hacked-in features
-               if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-                  instance.addAll( ffDomainAdaptor.apply( new Feature( "ENTITY_TYPE_ANAT_SITE" ) ) );
-               }
-            }
+      int closest = Integer.MAX_VALUE;
+      AssertionCuePhraseAnnotation closestCue = null;
+      for ( AssertionCuePhraseAnnotation cue : cues ) {
+         // It is much faster to count between BaseTokens already isolated within the same sentence.
+         final int betweenCount = countBetween( cue, identifiedAnnotation, baseTokens );
+         if ( betweenCount < closest ) {
+            closestCue = cue;
+            closest = betweenCount;
+         }
+      }
+      if ( closestCue != null && closest < 21 ) {
+         features.add( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) );
+//          instance.add(new Feature("ClosestCue_Phrase", closestCue.getCuePhrase()));
+         features.add( new Feature( "ClosestCue_PhraseFamily", closestCue.getCuePhraseAssertionFamily() ) );
+         features.add( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) );
+
+         // add hack-ey domain adaptation to these hacked-in features
+         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+            features.addAll( ffDomainAdaptor
+                  .apply( new Feature( "ClosestCue_Word", closestCue.getCoveredText() ) ) );
+            features.addAll( ffDomainAdaptor
+                  .apply( new Feature( "ClosestCue_PhraseFamily", closestCue
+                        .getCuePhraseAssertionFamily() ) ) );
+            features.addAll( ffDomainAdaptor
+                  .apply( new Feature( "ClosestCue_PhraseCategory", closestCue.getCuePhraseCategory() ) ) );
+         }
+      }
+
+      // 7/9/13 SRH trying to make it work just for anatomical site
+      int eemTypeId = identifiedAnnotation.getTypeID();
+      if ( eemTypeId == CONST.NE_TYPE_ID_ANATOMICAL_SITE ) {
+         // 7/9/13 srh modified per tmiller so it's binary but not numeric feature
+         //instance.add(new Feature("ENTITY_TYPE_" + entityOrEventMention.getTypeID()));
+         features.add( new Feature( "ENTITY_TYPE_ANAT_SITE" ) );
+         // add hack-ey domain adaptation to these hacked-in features
+         if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+            features.addAll( ffDomainAdaptor.apply( new Feature( "ENTITY_TYPE_ANAT_SITE" ) ) );
+         }
+      }
       /* This hurts recall more than it helps precision
       else if (eemTypeId == CONST.NE_TYPE_ID_DRUG) {
     	  // 7/10 adding drug
     	  instance.add(new Feature("ENTITY_TYPE_DRUG"));
       }
       */
+      return features;
+   }
 
-            // only extract these features if not doing domain adaptation
-            if ( ffDomainAdaptor == null ) {
-               for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityFeatureExtractors ) {
-                  instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
-               }
-            }
+   /**
+    * @return true if the context features of this annotator are the same as those of any other annotator
+    * that can share them.  This is not so for training, domain adaptation or annotators without token features.
+    */
+   protected boolean canShareContextFeatures() {
+      return !this.isTraining()
+             && fileToDomain.isEmpty()
+             && ffDomainAdaptor == null
+             && !tokenCleartkExtractors.isEmpty();
+   }
 
-            for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityTreeExtractors ) {
-               instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
-            }
+   /**
+    * Adds the entity features to an instance that already holds the context features,
+    * then sets the entity attribute from the classifier or writes the training instance.
+    *
+    * @param jCas                 -
+    * @param identifiedAnnotation entity to be classified
+    * @param instance             instance holding the context features of the entity
+    */
+   protected void classifyEntity( final JCas jCas,
+                                  final IdentifiedAnnotation identifiedAnnotation,
+                                  final Instance<String> instance ) throws AnalysisEngineProcessException {
+      // only extract these features if not doing domain adaptation
+      if ( ffDomainAdaptor == null ) {
+         for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityFeatureExtractors ) {
+            instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
+         }
+      }
 
-//      List<Feature> zoneFeatures = extractZoneFeatures(coveringZoneMap, entityOrEventMention);
-//      if (zoneFeatures != null && !zoneFeatures.isEmpty())
-//      {
-//        instance.addAll(zoneFeatures);
-//      }
+      for ( FeatureExtractor1<IdentifiedAnnotation> extractor : this.entityTreeExtractors ) {
+         instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
+      }
 
-            List<Feature> feats = instance.getFeatures();
-//      List<Feature> lcFeats = new ArrayList<Feature>();
+      List<Feature> feats = instance.getFeatures();
 
-            for ( Feature feat : feats ) {
-               if ( feat instanceof TreeFeature ||
-                    (feat.getName() != null && (feat.getName().startsWith( "TreeFrag" ) ||
-                                                feat.getName().startsWith( "WORD" ) ||
-                                                feat.getName().startsWith( "NEG" ))) ) {
-                  continue;
-               }
-               if ( feat.getName() != null &&
-                    (feat.getName().contains( "_TreeFrag" ) || feat.getName().contains( "_WORD" ) ||
-                     feat.getName().contains( "_NEG" )) ) {
-                  continue;
-               }
-               if ( feat.getValue() instanceof String ) {
-                  feat.setValue( ((String)feat.getValue()).toLowerCase() );
-               }
-            }
+      for ( Feature feat : feats ) {
+         if ( feat instanceof TreeFeature ||
+              (feat.getName() != null && (feat.getName().startsWith( "TreeFrag" ) ||
+                                          feat.getName().startsWith( "WORD" ) ||
+                                          feat.getName().startsWith( "NEG" ))) ) {
+            continue;
+         }
+         if ( feat.getName() != null &&
+              (feat.getName().contains( "_TreeFrag" ) || feat.getName().contains( "_WORD" ) ||
+               feat.getName().contains( "_NEG" )) ) {
+            continue;
+         }
+         if ( feat.getValue() instanceof String ) {
+            feat.setValue( ((String)feat.getValue()).toLowerCase() );
+         }
+      }
 
-            if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
-               for ( FeatureFunctionExtractor<IdentifiedAnnotation> extractor : this.featureFunctionExtractors ) {
-                  // TODO: extend to the case where the extractors take a different argument besides entityOrEventMention
-                  instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
-               }
-            }
+      if ( !fileToDomain.isEmpty() && ffDomainAdaptor != null ) {
+         for ( FeatureFunctionExtractor<IdentifiedAnnotation> extractor : this.featureFunctionExtractors ) {
+            // TODO: extend to the case where the extractors take a different argument besides entityOrEventMention
+            instance.addAll( extractor.extract( jCas, identifiedAnnotation ) );
+         }
+      }
 
 
-            // grab the output label
-            setClassLabel( identifiedAnnotation, instance );
+      // grab the output label
+      setClassLabel( identifiedAnnotation, instance );
 
-            if ( this.isTraining() ) {
-               // apply feature selection, if necessary
-               if ( this.featureSelection != null ) {
-                  feats = this.featureSelection.transform( feats );
-               }
+      if ( this.isTraining() ) {
+         // apply feature selection, if necessary
+         if ( this.featureSelection != null ) {
+            feats = this.featureSelection.transform( feats );
+         }
 
-               // ensures that the (possibly) transformed feats are used
-               if ( instance.getOutcome() != null ) {
-                  if ( coin.nextDouble() < this.portionOfDataToUse ) {
-                     this.dataWriter.write( new Instance<>( instance.getOutcome(), feats ) );
-                  }
-               }
+         // ensures that the (possibly) transformed feats are used
+         if ( instance.getOutcome() != null ) {
+            if ( coin.nextDouble() < this.portionOfDataToUse ) {
+               this.dataWriter.write( new Instance<>( instance.getOutcome(), feats ) );
             }
          }
       }
@@ -0,0 +1,288 @@
+package org.apache.ctakes.assertion.medfacts.cleartk;
+
+import org.apache.ctakes.assertion.medfacts.cleartk.AssertionCleartkAnalysisEngine.FEATURE_CONFIG;
+import org.apache.ctakes.core.cleartk.CompiledLinearClassifier;
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.typesystem.type.syntax.BaseToken;
+import org.apache.ctakes.typesystem.type.temporary.assertion.AssertionCuePhraseAnnotation;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.UimaContextFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.cleartk.ml.Feature;
+import org.cleartk.ml.Instance;
+import org.cleartk.ml.jar.GenericJarClassifierFactory;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Sets polarity, uncertainty, history, conditional, generic and subject with one pass of context feature extraction.
+ * <p>
+ * Each of the separate cleartk assertion annotators indexes sentences, sorts annotations and extracts the same
+ * token window and cue phrase features for every entity before adding its own entity features.
+ * This annotator does that work once per document and hands the shared context features to each attribute classifier.
+ * </p>
+ * <p>
+ * Attributes are classified one at a time for all entities in the document, in the order of the standard pipeline.
+ * Entity feature extractors that read an attribute set by an earlier classifier therefore see the same values that
+ * they would in a pipeline of separate annotators, and the results are identical.
+ * This annotator is for classification only.  Training and domain adaptation still use the separate annotators.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "Fused Assertion Annotator (ClearTK)",
+      description = "Annotates Polarity, Uncertainty, History, Conditional, Generic and Subject"
+                    + " with one feature extraction pass.",
+      dependencies = { PipeBitInfo.TypeProduct.SENTENCE, PipeBitInfo.TypeProduct.IDENTIFIED_ANNOTATION }
+)
+public class FusedAssertionAnalysisEngine extends JCasAnnotator_ImplBase {
+
+   static private final Logger LOGGER = Logger.getLogger( "FusedAssertionAnalysisEngine" );
+
+   /**
+    * Attributes in the order of the standard pipeline, with the feature configuration and model of each annotator
+    */
+   public enum AssertionAttribute {
+      POLARITY( PolarityCleartkAnalysisEngine::new, FEATURE_CONFIG.ALL_SYN,
+            "/org/apache/ctakes/assertion/models/polarity/sharpi2b2mipacqnegex/model.jar" ),
+      UNCERTAINTY( UncertaintyCleartkAnalysisEngine::new, FEATURE_CONFIG.ALL_SYN,
+            "/org/apache/ctakes/assertion/models/uncertainty/model.jar" ),
+      HISTORY( HistoryCleartkAnalysisEngine::new, null,
+            "/org/apache/ctakes/assertion/models/historyOf/model.jar" ),
+      CONDITIONAL( ConditionalCleartkAnalysisEngine::new, null,
+            "/org/apache/ctakes/assertion/models/conditional/model.jar" ),
+      GENERIC( GenericCleartkAnalysisEngine::new, null,
+            "/org/apache/ctakes/assertion/models/generic/model.jar" ),
+      SUBJECT( SubjectCleartkAnalysisEngine::new, FEATURE_CONFIG.DEP_REGEX,
+            "/org/apache/ctakes/assertion/models/subject/model.jar" );
+      private final Supplier<AssertionCleartkAnalysisEngine> _creator;
+      private final FEATURE_CONFIG _featureConfig;
+      private final String _defaultModel;
+
+      AssertionAttribute( final Supplier<AssertionCleartkAnalysisEngine> creator,
+                          final FEATURE_CONFIG featureConfig,
+                          final String defaultModel ) {
+         _creator = creator;
+         _featureConfig = featureConfig;
+         _defaultModel = defaultModel;
+      }
+   }
+
+   static public final String PARAM_ATTRIBUTES = "Attributes";
+   @ConfigurationParameter(
+         name = PARAM_ATTRIBUTES,
+         description = "Attributes to classify.  They are always classified in the order of the standard pipeline.",
+         mandatory = false,
+         defaultValue = { "POLARITY", "UNCERTAINTY", "HISTORY", "CONDITIONAL", "GENERIC", "SUBJECT" }
+   )
+   private String[] _attributeNames;
+
+   static public final String PARAM_POLARITY_MODEL = "PolarityModel";
+   @ConfigurationParameter(
+         name = PARAM_POLARITY_MODEL,
+         description = "Polarity model jar, if not the default.",
+         mandatory = false
+   )
+   private String _polarityModel;
+
+   static public final String PARAM_UNCERTAINTY_MODEL = "UncertaintyModel";
+   @ConfigurationParameter(
+         name = PARAM_UNCERTAINTY_MODEL,
+         description = "Uncertainty model jar, if not the default.",
+         mandatory = false
+   )
+   private String _uncertaintyModel;
+
+   static public final String PARAM_HISTORY_MODEL = "HistoryModel";
+   @ConfigurationParameter(
+         name = PARAM_HISTORY_MODEL,
+         description = "History model jar, if not the default.",
+         mandatory = false
+   )
+   private String _historyModel;
+
+   static public final String PARAM_CONDITIONAL_MODEL = "ConditionalModel";
+   @ConfigurationParameter(
+         name = PARAM_CONDITIONAL_MODEL,
+         description = "Conditional model jar, if not the default.",
+         mandatory = false
+   )
+   private String _conditionalModel;
+
+   static public final String PARAM_GENERIC_MODEL = "GenericModel";
+   @ConfigurationParameter(
+         name = PARAM_GENERIC_MODEL,
+         description = "Generic model jar, if not the default.",
+         mandatory = false
+   )
+   private String _genericModel;
+
+   static public final String PARAM_SUBJECT_MODEL = "SubjectModel";
+   @ConfigurationParameter(
+         name = PARAM_SUBJECT_MODEL,
+         description = "Subject model jar, if not the default.",
+         mandatory = false
+   )
+   private String _subjectModel;
+
+   @ConfigurationParameter(
+         name = CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER,
+         description = CompiledLinearClassifier.COMPILE_CLASSIFIER_DESCRIPTION,
+         mandatory = false,
+         defaultValue = "false"
+   )
+   private boolean _compileClassifier;
+
+   private final List<AssertionCleartkAnalysisEngine> _delegates = new ArrayList<>();
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      final EnumSet<AssertionAttribute> attributes = EnumSet.noneOf( AssertionAttribute.class );
+      for ( String name : _attributeNames ) {
+         try {
+            attributes.add( AssertionAttribute.valueOf( name.trim().toUpperCase() ) );
+         } catch ( IllegalArgumentException iaE ) {
+            throw new ResourceInitializationException( new IllegalArgumentException(
+                  "Unknown assertion attribute " + name + " , use one of " + Arrays.toString( AssertionAttribute.values() ) ) );
+         }
+      }
+      if ( attributes.isEmpty() ) {
+         throw new ResourceInitializationException( new IllegalArgumentException( "No assertion attributes" ) );
+      }
+      // EnumSet iterates in declaration order, which is the order of the standard pipeline
+      for ( AssertionAttribute attribute : attributes ) {
+         final String modelPath = getModelPath( attribute );
+         LOGGER.info( "Loading " + attribute.name().toLowerCase() + " model " + modelPath );
+         final List<Object> parameters = new ArrayList<>();
+         parameters.add( GenericJarClassifierFactory.PARAM_CLASSIFIER_JAR_PATH );
+         parameters.add( modelPath );
+         parameters.add( CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER );
+         parameters.add( _compileClassifier );
+         if ( attribute._featureConfig != null ) {
+            parameters.add( AssertionCleartkAnalysisEngine.PARAM_FEATURE_CONFIG );
+            parameters.add( attribute._featureConfig.name() );
+         }
+         final AssertionCleartkAnalysisEngine delegate = attribute._creator.get();
+         delegate.initialize( UimaContextFactory.createUimaContext( parameters.toArray() ) );
+         if ( !delegate.canShareContextFeatures() ) {
+            throw new ResourceInitializationException( new IllegalStateException(
+                  "The " + attribute.name().toLowerCase() + " annotator cannot share context features" ) );
+         }
+         _delegates.add( delegate );
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void process( final JCas jCas ) throws AnalysisEngineProcessException {
+      final AssertionCleartkAnalysisEngine extractor = _delegates.get( 0 );
+      final String domainFeature = extractor.startDocument( jCas );
+      final Map<Sentence, Collection<Annotation>> sentenceAnnotationMap
+            = JCasUtil.indexCovered( jCas, Sentence.class, Annotation.class );
+      final Collection<IdentifiedAnnotation> sentenceEntities = new ArrayList<>();
+      final Collection<AssertionCuePhraseAnnotation> cues = new ArrayList<>();
+      final Collection<BaseToken> baseTokens = new ArrayList<>();
+      // entities in the order that the separate annotators classify them, with the context features of each
+      final List<IdentifiedAnnotation> entities = new ArrayList<>();
+      final List<List<Feature>> contextFeatures = new ArrayList<>();
+      for ( Sentence sentence : JCasUtil.select( jCas, Sentence.class ) ) {
+         AssertionCleartkAnalysisEngine.sortSentenceAnnotations( sentenceAnnotationMap.get( sentence ),
+               sentenceEntities, cues, baseTokens );
+         for ( IdentifiedAnnotation entity : sentenceEntities ) {
+            entities.add( entity );
+            contextFeatures.add( extractor.extractContextFeatures( jCas, entity, sentence, cues, baseTokens,
+                  domainFeature ) );
+         }
+      }
+      for ( AssertionCleartkAnalysisEngine delegate : _delegates ) {
+         if ( delegate != extractor ) {
+            delegate.startDocument( jCas );
+         }
+         for ( int i = 0; i < entities.size(); i++ ) {
+            final Instance<String> instance = new Instance<>();
+            instance.addAll( contextFeatures.get( i ) );
+            delegate.classifyEntity( jCas, entities.get( i ), instance );
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      super.collectionProcessComplete();
+      for ( AssertionCleartkAnalysisEngine delegate : _delegates ) {
+         delegate.collectionProcessComplete();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void destroy() {
+      for ( AssertionCleartkAnalysisEngine delegate : _delegates ) {
+         delegate.destroy();
+      }
+      _delegates.clear();
+      super.destroy();
+   }
+
+   private String getModelPath( final AssertionAttribute attribute ) {
+      final String modelPath;
+      switch ( attribute ) {
+         case POLARITY:
+            modelPath = _polarityModel;
+            break;
+         case UNCERTAINTY:
+            modelPath = _uncertaintyModel;
+            break;
+         case HISTORY:
+            modelPath = _historyModel;
+            break;
+         case CONDITIONAL:
+            modelPath = _conditionalModel;
+            break;
+         case GENERIC:
+            modelPath = _genericModel;
+            break;
+         case SUBJECT:
+            modelPath = _subjectModel;
+            break;
+         default:
+            modelPath = null;
+      }
+      return modelPath == null || modelPath.isEmpty() ? attribute._defaultModel : modelPath;
+   }
+
+   /**
+    * @return a description that classifies all attributes with the default models
+    * @throws ResourceInitializationException -
+    */
+   public static AnalysisEngineDescription createAnnotatorDescription() throws ResourceInitializationException {
+      return AnalysisEngineFactory.createEngineDescription( FusedAssertionAnalysisEngine.class );
+   }
+
+}
@@ -0,0 +1,131 @@
+package org.apache.ctakes.assertion.medfacts.cleartk;
+
+import org.apache.ctakes.assertion.pipelines.PreprocessingPipeline;
+import org.apache.ctakes.typesystem.type.textsem.DiseaseDisorderMention;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textsem.SignSymptomMention;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AggregateBuilder;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that the {@link FusedAssertionAnalysisEngine} sets exactly the same attributes
+ * as a pipeline of the six separate cleartk assertion annotators.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class FusedAssertionAnalysisEngineTester {
+
+   static private final String TEXT = "The patient denies chest pain and shortness of breath.\n"
+                                      + "She may have pneumonia, rule out sepsis.\n"
+                                      + "Her mother had breast cancer and her father has diabetes.\n"
+                                      + "History of asthma as a child.\n"
+                                      + "If the fever returns she should come back for a chest x-ray.\n"
+                                      + "Patients with influenza often have a cough.\n"
+                                      + "No nausea , vomiting or diarrhea.\n";
+
+   static private final String[][] ENTITIES = {
+         { "chest pain", "S" }, { "shortness of breath", "S" }, { "pneumonia", "D" }, { "sepsis", "D" },
+         { "breast cancer", "D" }, { "diabetes", "D" }, { "asthma", "D" }, { "fever", "S" },
+         { "influenza", "D" }, { "cough", "S" }, { "nausea", "S" }, { "vomiting", "S" }, { "diarrhea", "S" } };
+
+   static private AnalysisEngine _preprocessor;
+   static private AnalysisEngine _separate;
+   static private AnalysisEngine _fused;
+
+   @BeforeClass
+   static public void setUp() throws Exception {
+      _preprocessor = AnalysisEngineFactory.createEngine( PreprocessingPipeline.getPreprocessingDescription() );
+      final AggregateBuilder builder = new AggregateBuilder();
+      builder.add( PolarityCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( UncertaintyCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( HistoryCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( ConditionalCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( GenericCleartkAnalysisEngine.createAnnotatorDescription() );
+      builder.add( SubjectCleartkAnalysisEngine.createAnnotatorDescription() );
+      _separate = builder.createAggregate();
+      _fused = AnalysisEngineFactory.createEngine( FusedAssertionAnalysisEngine.createAnnotatorDescription() );
+   }
+
+   @AfterClass
+   static public void tearDown() {
+      _preprocessor.destroy();
+      _separate.destroy();
+      _fused.destroy();
+   }
+
+   @Test
+   public void testSameAttributes() throws Exception {
+      final JCas separateJcas = createJCas();
+      _separate.process( separateJcas );
+      final JCas fusedJcas = createJCas();
+      _fused.process( fusedJcas );
+      final List<String> expected = getAttributes( separateJcas );
+      assertEquals( ENTITIES.length, expected.size() );
+      assertEquals( expected, getAttributes( fusedJcas ) );
+      // Make sure that the fixture exercises the classifiers and not only the attribute defaults
+      assertFalse( "No negated entities", expected.stream().noneMatch( a -> a.contains( " polarity=-1 " ) ) );
+   }
+
+   @Test
+   public void testSubsetOfAttributes() throws Exception {
+      final AnalysisEngine polarityOnly = AnalysisEngineFactory.createEngine( FusedAssertionAnalysisEngine.class,
+            FusedAssertionAnalysisEngine.PARAM_ATTRIBUTES, new String[] { "polarity" } );
+      final AnalysisEngine separatePolarity
+            = AnalysisEngineFactory.createEngine( PolarityCleartkAnalysisEngine.createAnnotatorDescription() );
+      final JCas separateJcas = createJCas();
+      separatePolarity.process( separateJcas );
+      final JCas fusedJcas = createJCas();
+      polarityOnly.process( fusedJcas );
+      assertEquals( getAttributes( separateJcas ), getAttributes( fusedJcas ) );
+      polarityOnly.destroy();
+      separatePolarity.destroy();
+   }
+
+   /**
+    * @return a preprocessed jcas of the test text with the test entities
+    */
+   static private JCas createJCas() throws Exception {
+      final JCas jcas = JCasFactory.createJCas();
+      jcas.setDocumentText( TEXT );
+      _preprocessor.process( jcas );
+      for ( String[] entity : ENTITIES ) {
+         final int begin = TEXT.indexOf( entity[ 0 ] );
+         final int end = begin + entity[ 0 ].length();
+         final IdentifiedAnnotation annotation = entity[ 1 ].equals( "D" )
+                                                 ? new DiseaseDisorderMention( jcas, begin, end )
+                                                 : new SignSymptomMention( jcas, begin, end );
+         annotation.addToIndexes();
+      }
+      return jcas;
+   }
+
+   static private List<String> getAttributes( final JCas jcas ) {
+      final List<String> attributes = new ArrayList<>();
+      for ( IdentifiedAnnotation entity : JCasUtil.select( jcas, IdentifiedAnnotation.class ) ) {
+         attributes.add( entity.getCoveredText()
+                         + " polarity=" + entity.getPolarity()
+                         + " uncertainty=" + entity.getUncertainty()
+                         + " history=" + entity.getHistoryOf()
+                         + " conditional=" + entity.getConditional()
+                         + " generic=" + entity.getGeneric()
+                         + " subject=" + entity.getSubject() );
+      }
+      return attributes;
+   }
+
+}
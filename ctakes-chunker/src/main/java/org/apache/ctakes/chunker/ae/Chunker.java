@@ -18,9 +18,12 @@
  */
 package org.apache.ctakes.chunker.ae;
 
+import opennlp.tools.chunker.ChunkerME;
 import opennlp.tools.chunker.ChunkerModel;
+import org.apache.ctakes.core.concurrent.SharedResourceCache;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.core.util.collection.SentenceCache;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
 import org.apache.ctakes.typesystem.type.textspan.Sentence;
 import org.apache.log4j.Logger;
@@ -36,8 +39,10 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 // import opennlp.tools.lang.english.TreebankChunker; // no longer part of OpenNLP as of 1.5
 
@@ -95,7 +100,28 @@ public class Chunker extends JCasAnnotator_ImplBase {
 	    )
   String chunkerCreatorClassName;
 
-	private opennlp.tools.chunker.Chunker chunker;
+	@ConfigurationParameter(
+	    name = SentenceCache.PARAM_CACHE_SIZE,
+	    mandatory = false,
+	    description = SentenceCache.CACHE_SIZE_DESC
+	    )
+  private int sentenceCacheSize = 0;
+
+	@ConfigurationParameter(
+	    name = SentenceCache.PARAM_CACHE_FILE,
+	    mandatory = false,
+	    description = SentenceCache.CACHE_FILE_DESC
+	    )
+  private String sentenceCachePath;
+
+	// The model is immutable and shared, but a decoder is not thread safe, so each thread gets its own decoder
+	private ThreadLocal<opennlp.tools.chunker.Chunker> chunker;
+
+	// tokens of the sentence being chunked, reused for every sentence on a thread
+	private final ThreadLocal<List<BaseToken>> tokenBuffer = ThreadLocal.withInitial(ArrayList::new);
+
+	// chunk outcomes for repeated sentences and tags, shared by all chunkers using the same model
+	private SentenceCache<String[]> sentenceCache;
 
 	ChunkCreator chunkerCreator;
 
@@ -104,14 +130,12 @@ public class Chunker extends JCasAnnotator_ImplBase {
 		super.initialize(uimaContext);
 
     logger.info("Chunker model file: " + chunkerModelPath); 
-		try (InputStream fis = FileLocator.getAsStream(chunkerModelPath)) {
-			ChunkerModel model = new ChunkerModel(fis);
-			chunker = new opennlp.tools.chunker.ChunkerME(model);
-
-		} catch (IOException e) {
-			logger.info("Chunker model: " + chunkerModelPath); 
-			throw new ResourceInitializationException(e);
-		}
+		// The model is immutable and can be shared by all chunkers and threads.
+		final ChunkerModel model = SharedResourceCache.getInstance()
+				.getResource(ChunkerModel.class.getName() + ":" + chunkerModelPath, () -> loadModel(chunkerModelPath));
+		chunker = ThreadLocal.withInitial(() -> new ChunkerME(model));
+		sentenceCache = SentenceCache.getSharedCache("Chunker", chunkerModelPath, sentenceCacheSize,
+				sentenceCachePath, SentenceCache.STRING_ARRAY_CODEC);
 		
     try {
       chunkerCreator = (ChunkCreator) Class.forName(chunkerCreatorClassName).newInstance();
@@ -123,15 +147,28 @@ public class Chunker extends JCasAnnotator_ImplBase {
     chunkerCreator.initialize(uimaContext);
 	}
 
+	private ChunkerModel loadModel(final String modelPath) throws ResourceInitializationException {
+		try (InputStream fis = FileLocator.getAsStream(modelPath)) {
+			return new ChunkerModel(fis);
+		} catch (IOException e) {
+			logger.info("Chunker model: " + modelPath);
+			throw new ResourceInitializationException(e);
+		}
+	}
+
 	@Override
   public void process(JCas jCas) throws AnalysisEngineProcessException {
 
 		logger.info(" process(JCas)");
 
-		Collection<Sentence> sentences = JCasUtil.select(jCas, Sentence.class);
-		
-		for(Sentence sentence : sentences){
-	    List<BaseToken> tokens = JCasUtil.selectCovered(BaseToken.class, sentence);
+		// Index the tokens of every sentence in one pass over the document
+		final Map<Sentence, Collection<BaseToken>> sentenceTokens
+				= JCasUtil.indexCovered(jCas, Sentence.class, BaseToken.class);
+		final opennlp.tools.chunker.Chunker sentenceChunker = chunker.get();
+		final List<BaseToken> tokens = tokenBuffer.get();
+		for (Collection<BaseToken> covered : sentenceTokens.values()) {
+			tokens.clear();
+			tokens.addAll(covered);
       String[] words = new String[tokens.size()];
       String[] tags = new String[tokens.size()];
       for(int i = 0; i < tokens.size(); i++){
@@ -139,7 +176,15 @@ public class Chunker extends JCasAnnotator_ImplBase {
         tags[i] = tokens.get(i).getPartOfSpeech();
       }
 
-			String[] chunks = chunker.chunk(words, tags);
+			final String key = sentenceCache == null ? null : SentenceCache.createKey(words, tags);
+			String[] chunks = key == null ? null : sentenceCache.get(key);
+			if (chunks == null) {
+				final long start = System.nanoTime();
+				chunks = sentenceChunker.chunk(words, tags);
+				if (key != null) {
+					sentenceCache.put(key, chunks, System.nanoTime() - start);
+				}
+			}
 
 			int chunkBegin = 0;
 			String chunkType = "";
@@ -173,8 +218,18 @@ public class Chunker extends JCasAnnotator_ImplBase {
 			  chunkerCreator.createChunk(jCas, chunkBegin, chunkEnd, chunkType);
 			}
 		}
+		// don't hold the document between calls
+		tokens.clear();
 	}
 	
+	@Override
+  public void collectionProcessComplete() throws AnalysisEngineProcessException {
+		super.collectionProcessComplete();
+		if (sentenceCache != null) {
+			sentenceCache.complete();
+		}
+	}
+
 	public static AnalysisEngineDescription createAnnotatorDescription() throws ResourceInitializationException{
 	  return AnalysisEngineFactory.createEngineDescription(Chunker.class);
 	}
@@ -1,7 +1,8 @@
 package org.apache.ctakes.chunker.concurrent;
 
 import org.apache.ctakes.chunker.ae.Chunker;
-import org.apache.ctakes.core.concurrent.ThreadSafeWrapper;
+import org.apache.ctakes.core.concurrent.ThreadLocalDelegates;
+import org.apache.ctakes.core.concurrent.ThreadLocalWrapper;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -13,7 +14,8 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for model memory.
+ * The singleton keeps one delegate per thread, so processing is not blocked by other threads.
+ * Delegates share a single model through the {@link org.apache.ctakes.core.concurrent.SharedResourceCache}.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -65,42 +67,23 @@ final public class ThreadSafeChunker extends Chunker {
    }
 
 
-   private enum ChunkerSingleton implements ThreadSafeWrapper<Chunker> {
+   private enum ChunkerSingleton implements ThreadLocalWrapper<Chunker> {
       INSTANCE;
 
       static public ChunkerSingleton getInstance() {
          return INSTANCE;
       }
 
-      private final Chunker _delegate;
-      private boolean _initialized;
+      private final ThreadLocalDelegates<Chunker> _delegates;
 
       ChunkerSingleton() {
-         _delegate = new Chunker();
-      }
-
-      final private Object LOCK = new Object();
-
-      @Override
-      public Object getLock() {
-         return LOCK;
+         _delegates = new ThreadLocalDelegates<>( Chunker::new );
       }
 
       @Override
-      public Chunker getDelegate() {
-         return _delegate;
-      }
-
-      @Override
-      public boolean isInitialized() {
-         return _initialized;
-      }
-
-      @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public ThreadLocalDelegates<Chunker> getDelegates() {
+         return _delegates;
       }
    }
 
-
 }
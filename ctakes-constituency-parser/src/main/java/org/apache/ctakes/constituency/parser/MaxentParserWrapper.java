@@ -22,9 +22,14 @@ import opennlp.tools.parser.AbstractBottomUpParser;
 import opennlp.tools.parser.Parse;
 import opennlp.tools.parser.ParserModel;
 import opennlp.tools.parser.chunking.Parser;
+import opennlp.tools.util.Span;
+import org.apache.ctakes.constituency.parser.util.SentenceParse;
 import org.apache.ctakes.constituency.parser.util.TreeUtils;
 import org.apache.ctakes.core.util.DocumentIDAnnotationUtil;
+import org.apache.ctakes.core.util.collection.SentenceCache;
+import org.apache.ctakes.typesystem.type.syntax.TerminalTreebankNode;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
+import org.apache.ctakes.typesystem.type.syntax.NewlineToken;
 import org.apache.ctakes.typesystem.type.syntax.TopTreebankNode;
 import org.apache.ctakes.typesystem.type.textspan.Sentence;
 import org.apache.log4j.Logger;
@@ -37,20 +42,32 @@ import org.apache.uima.jcas.cas.FSArray;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public class MaxentParserWrapper implements ParserWrapper {
 
+	// node type for the single phrase in a flat parse
+	static private final String FLAT_NODE = "FRAG";
+	// preterminal type for tokens without a part of speech
+	static private final String UNKNOWN_TAG = "X";
+
 	Parser parser = null;
+	private ParserModel model = null;
+	// parser with a smaller beam for long sentences, created when first needed
+	private Parser reducedParser = null;
 	private String parseStr = "";
+	private SentenceCache<SentenceParse> sentenceCache = null;
+	private ParseBudget parseBudget = null;
 	Logger logger = Logger.getLogger(this.getClass().getName());
 
 
 	public MaxentParserWrapper(InputStream is){
 		try {
 			if (is!=null) {
-				ParserModel model = new ParserModel(is);
+				model = new ParserModel(is);
 				parser = new Parser(model, AbstractBottomUpParser.defaultBeamSize, AbstractBottomUpParser.defaultAdvancePercentage);
 			}
 		} catch (IOException e) {
@@ -58,6 +75,20 @@ public class MaxentParserWrapper implements ParserWrapper {
 		}
 	}
 
+	/**
+	 * @param sentenceCache cache of parses for repeated sentences, may be null
+	 */
+	public void setSentenceCache( final SentenceCache<SentenceParse> sentenceCache ) {
+		this.sentenceCache = sentenceCache;
+	}
+
+	/**
+	 * @param parseBudget budget of parse effort for each sentence and document, may be null to fully parse everything
+	 */
+	public void setParseBudget( final ParseBudget parseBudget ) {
+		this.parseBudget = parseBudget;
+	}
+
 	@Override
 	public String getParseString(FSIterator tokens) {
 		return parseStr;
@@ -74,6 +105,9 @@ public class MaxentParserWrapper implements ParserWrapper {
    public void createAnnotations( final JCas jcas ) throws AnalysisEngineProcessException {
       final String docId = DocumentIDAnnotationUtil.getDocumentID( jcas );
       logger.info( "Started processing: " + docId );
+      if ( parseBudget != null ) {
+         parseBudget.startDocument();
+      }
       // iterate over sentences
 		Parse parse = null;
 //      final Collection<Sentence> allSentences = org.apache.uima.fit.util.JCasUtil.select( jcas, Sentence.class );
@@ -91,15 +125,165 @@ public class MaxentParserWrapper implements ParserWrapper {
          if ( tokenString.isEmpty() ) {
             parse = null;
          } else {
-            final Parse inputTokens = TreeUtils.ctakesTokensToOpennlpTokens( sentence.getBegin(), text, terminalArray );
-            parse = parser.parse( inputTokens );
+            final long start = System.nanoTime();
+            final String key = sentenceCache == null ? null : createSentenceKey( sentence, text, terminalArray );
+            final SentenceParse cached = key == null ? null : sentenceCache.get( key );
+            ParseBudget.Strategy strategy = ParseBudget.Strategy.CACHED;
+            if ( cached != null ) {
+               // Same text and token spans as an earlier sentence, so the parse is the same
+               parse = cached.createParse( text );
+            } else {
+               strategy = parseBudget == null ? ParseBudget.Strategy.FULL : parseBudget.getStrategy( terminalArray );
+               parse = parse( sentence.getBegin(), text, terminalArray, sentenceTokens.getValue(), strategy );
+               // Only a full parse is the same as the parse for a repeated sentence without a budget
+               if ( key != null && strategy == ParseBudget.Strategy.FULL ) {
+                  sentenceCache.put( key, new SentenceParse( parse ), System.nanoTime() - start );
+               }
+            }
+            if ( parseBudget != null ) {
+               parseBudget.addSentence( strategy, terminalArray.size(), System.nanoTime() - start );
+            }
          }
          final TopTreebankNode top = TreeUtils.buildAlignedTree( jcas, parse, terminalArray, sentence );
          top.addToIndexes();
 		}
+      if ( parseBudget != null ) {
+         logger.info( parseBudget.getReport( docId ) );
+      }
       logger.info( "Done parsing: " + docId );
    }
 
+   /**
+    * @param sentenceOffset begin offset character index for sentence
+    * @param text           text of the sentence
+    * @param terminalArray  [token] terminals in the sentence
+    * @param tokens         base tokens in the sentence, used for the parts of speech in a flat parse
+    * @param strategy       the way in which the sentence should be parsed
+    * @return opennlp parse of the sentence
+    */
+   private Parse parse( final int sentenceOffset, final String text, final FSArray terminalArray,
+                        final Collection<BaseToken> tokens, final ParseBudget.Strategy strategy ) {
+      switch ( strategy ) {
+         case REDUCED:
+            return getReducedParser().parse(
+                  TreeUtils.ctakesTokensToOpennlpTokens( sentenceOffset, text, terminalArray ) );
+         case SPLIT:
+            return createSplitParse( sentenceOffset, text, terminalArray );
+         case FLAT:
+            return createFlatParse( sentenceOffset, text, terminalArray, tokens );
+         default:
+            return parser.parse( TreeUtils.ctakesTokensToOpennlpTokens( sentenceOffset, text, terminalArray ) );
+      }
+   }
+
+   private Parser getReducedParser() {
+      if ( reducedParser == null ) {
+         reducedParser = new Parser( model, parseBudget.getReducedBeamSize(),
+               AbstractBottomUpParser.defaultAdvancePercentage );
+      }
+      return reducedParser;
+   }
+
+   /**
+    * Parses pieces of a long sentence separately and joins the pieces under a single top node
+    *
+    * @param sentenceOffset begin offset character index for sentence
+    * @param text           text of the sentence
+    * @param terminalArray  [token] terminals in the sentence
+    * @return opennlp parse of the sentence
+    */
+   private Parse createSplitParse( final int sentenceOffset, final String text, final FSArray terminalArray ) {
+      final int tokenCount = terminalArray.size();
+      final List<Parse> children = new ArrayList<>();
+      for ( int first = 0; first < tokenCount; first += parseBudget.getMaxTokens() ) {
+         final int last = Math.min( first + parseBudget.getMaxTokens(), tokenCount ) - 1;
+         final Span pieceSpan = new Span( getSpan( sentenceOffset, terminalArray, first ).getStart(),
+               getSpan( sentenceOffset, terminalArray, last ).getEnd() );
+         final Parse pieceTokens = new Parse( text, pieceSpan, AbstractBottomUpParser.INC_NODE, 0, 0 );
+         for ( int i = first; i <= last; i++ ) {
+            pieceTokens.insert( new Parse( text, getSpan( sentenceOffset, terminalArray, i ),
+                  AbstractBottomUpParser.TOK_NODE, 0, i - first ) );
+         }
+         // head indices in the piece parse are relative to the first token of the piece
+         final Parse piece = new SentenceParse( parser.parse( pieceTokens ) ).createParse( text, first );
+         children.addAll( Arrays.asList( piece.getChildren() ) );
+      }
+      // Like a FRAG, the joined pieces have no head rule of their own, so take the last piece as the head
+      final Parse top = new Parse( text, new Span( 0, text.length() ), AbstractBottomUpParser.TOP_NODE, 1,
+            children.get( children.size() - 1 ).getHeadIndex() );
+      for ( Parse child : children ) {
+         top.insert( child );
+      }
+      return top;
+   }
+
+   /**
+    * Creates a parse with a single phrase holding every token, without running the parser
+    *
+    * @param sentenceOffset begin offset character index for sentence
+    * @param text           text of the sentence
+    * @param terminalArray  [token] terminals in the sentence
+    * @param tokens         base tokens in the sentence
+    * @return opennlp parse of the sentence
+    */
+   static private Parse createFlatParse( final int sentenceOffset, final String text, final FSArray terminalArray,
+                                         final Collection<BaseToken> tokens ) {
+      final List<String> tags = new ArrayList<>( terminalArray.size() );
+      for ( BaseToken token : tokens ) {
+         // same tokens as the terminals
+         if ( !(token instanceof NewlineToken) ) {
+            tags.add( token.getPartOfSpeech() == null ? UNKNOWN_TAG : token.getPartOfSpeech() );
+         }
+      }
+      final int last = terminalArray.size() - 1;
+      // Collins head rules take the last child as the head of a FRAG, and TOP has the head of its only child
+      final Parse phrase = new Parse( text, new Span( getSpan( sentenceOffset, terminalArray, 0 ).getStart(),
+            getSpan( sentenceOffset, terminalArray, last ).getEnd() ), FLAT_NODE, 1, last );
+      final Parse top = new Parse( text, new Span( 0, text.length() ), AbstractBottomUpParser.TOP_NODE, 1,
+            phrase.getHeadIndex() );
+      for ( int i = 0; i <= last; i++ ) {
+         final Span span = getSpan( sentenceOffset, terminalArray, i );
+         final Parse preterminal = new Parse( text, span, tags.get( i ), 1, i );
+         preterminal.insert( new Parse( text, span, AbstractBottomUpParser.TOK_NODE, 0, i ) );
+         phrase.insert( preterminal );
+      }
+      top.insert( phrase );
+      return top;
+   }
+
+   /**
+    * @param sentenceOffset begin offset character index for sentence
+    * @param terminalArray  [token] terminals in the sentence
+    * @param index          index of a terminal
+    * @return span of the terminal relative to the beginning of the sentence
+    */
+   static private Span getSpan( final int sentenceOffset, final FSArray terminalArray, final int index ) {
+      final TerminalTreebankNode token = (TerminalTreebankNode)terminalArray.get( index );
+      return new Span( token.getBegin() - sentenceOffset, token.getEnd() - sentenceOffset );
+   }
+
+   /**
+    * The parser input is the sentence text and the token spans within it
+    *
+    * @param sentence      -
+    * @param text          text of the sentence
+    * @param terminalArray [token] terminals in the sentence
+    * @return sentence cache key for the parser input
+    */
+   static private String createSentenceKey( final Sentence sentence, final String text,
+                                            final FSArray terminalArray ) {
+      final String[] words = new String[ terminalArray.size() ];
+      final String[] begins = new String[ words.length ];
+      final String[] ends = new String[ words.length ];
+      for ( int i = 0; i < words.length; i++ ) {
+         final TerminalTreebankNode token = (TerminalTreebankNode)terminalArray.get( i );
+         words[ i ] = token.getNodeValue();
+         begins[ i ] = String.valueOf( token.getBegin() - sentence.getBegin() );
+         ends[ i ] = String.valueOf( token.getEnd() - sentence.getBegin() );
+      }
+      return SentenceCache.createKey( words, begins, ends, new String[] { text } );
+   }
+
    /**
     * The parser has a really tough time dealing with text lines that act as borders
     *
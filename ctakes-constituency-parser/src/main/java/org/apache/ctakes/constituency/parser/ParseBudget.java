@@ -0,0 +1,174 @@
+package org.apache.ctakes.constituency.parser;
+
+import org.apache.ctakes.typesystem.type.syntax.TerminalTreebankNode;
+import org.apache.uima.jcas.cas.FSArray;
+
+/**
+ * Chooses how much parsing effort each sentence of a document gets, and accounts for where parse time went.
+ * <p>
+ * Parse time grows quickly with sentence length, and a long run-on list line can take seconds.
+ * A sentence with more than the reduced beam token count is parsed with a small beam,
+ * and a sentence with more than the maximum token count is split into pieces that are parsed separately.
+ * Table-like sentences, in which most tokens have no letters, can be given a flat tree.
+ * Once the parse time for a document exceeds the document budget, the rest of its sentences get flat trees.
+ * </p>
+ * Counts are kept for one document at a time, so each parser wrapper needs its own budget.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ParseBudget {
+
+   /**
+    * How a sentence is parsed
+    */
+   public enum Strategy {
+      CACHED( "cached" ),
+      FULL( "full beam" ),
+      REDUCED( "reduced beam" ),
+      SPLIT( "split" ),
+      FLAT( "flat" );
+
+      private final String _name;
+
+      Strategy( final String name ) {
+         _name = name;
+      }
+   }
+
+   // Short sentences parse quickly whatever their content
+   static private final int MIN_TABLE_TOKENS = 8;
+
+   private final int _maxTokens;
+   private final int _reducedBeamTokens;
+   private final int _reducedBeamSize;
+   private final boolean _flatTables;
+   private final long _documentNanos;
+
+   private final int[] _counts = new int[ Strategy.values().length ];
+   private final long[] _nanos = new long[ Strategy.values().length ];
+   private long _totalNanos;
+   private long _slowestNanos;
+   private int _slowestTokens;
+
+   /**
+    * @param maxTokens         sentences with more tokens are split, 0 for no limit
+    * @param reducedBeamTokens sentences with more tokens are parsed with the reduced beam, 0 for no limit
+    * @param reducedBeamSize   beam size for the reduced beam
+    * @param flatTables        true to give table-like sentences flat trees
+    * @param documentMillis    parse time after which the rest of a document gets flat trees, 0 for no limit
+    */
+   public ParseBudget( final int maxTokens, final int reducedBeamTokens, final int reducedBeamSize,
+                       final boolean flatTables, final long documentMillis ) {
+      _maxTokens = maxTokens;
+      _reducedBeamTokens = reducedBeamTokens;
+      _reducedBeamSize = reducedBeamSize;
+      _flatTables = flatTables;
+      _documentNanos = documentMillis * 1000000;
+   }
+
+   public int getMaxTokens() {
+      return _maxTokens;
+   }
+
+   public int getReducedBeamSize() {
+      return _reducedBeamSize;
+   }
+
+   /**
+    * Resets the counts for a new document
+    */
+   public void startDocument() {
+      for ( int i = 0; i < _counts.length; i++ ) {
+         _counts[ i ] = 0;
+         _nanos[ i ] = 0;
+      }
+      _totalNanos = 0;
+      _slowestNanos = 0;
+      _slowestTokens = 0;
+   }
+
+   /**
+    * @param terminalArray [token] terminals in the sentence
+    * @return the way in which the sentence should be parsed
+    */
+   public Strategy getStrategy( final FSArray terminalArray ) {
+      if ( _documentNanos > 0 && _totalNanos > _documentNanos ) {
+         return Strategy.FLAT;
+      }
+      if ( _flatTables && isTableLike( terminalArray ) ) {
+         return Strategy.FLAT;
+      }
+      if ( _maxTokens > 0 && terminalArray.size() > _maxTokens ) {
+         return Strategy.SPLIT;
+      }
+      if ( _reducedBeamTokens > 0 && terminalArray.size() > _reducedBeamTokens ) {
+         return Strategy.REDUCED;
+      }
+      return Strategy.FULL;
+   }
+
+   /**
+    * @param strategy   the way in which the sentence was parsed
+    * @param tokenCount number of tokens in the sentence
+    * @param nanos      time taken to parse the sentence
+    */
+   public void addSentence( final Strategy strategy, final int tokenCount, final long nanos ) {
+      _counts[ strategy.ordinal() ]++;
+      _nanos[ strategy.ordinal() ] += nanos;
+      _totalNanos += nanos;
+      if ( nanos > _slowestNanos ) {
+         _slowestNanos = nanos;
+         _slowestTokens = tokenCount;
+      }
+   }
+
+   /**
+    * @param docId id of the document
+    * @return a single line with the sentence count and parse time for each strategy
+    */
+   public String getReport( final String docId ) {
+      final StringBuilder sb = new StringBuilder();
+      int sentenceCount = 0;
+      for ( int count : _counts ) {
+         sentenceCount += count;
+      }
+      sb.append( "Parsed " ).append( sentenceCount ).append( " sentences of " ).append( docId )
+        .append( " in " ).append( _totalNanos / 1000000 ).append( " ms" );
+      for ( Strategy strategy : Strategy.values() ) {
+         final int count = _counts[ strategy.ordinal() ];
+         if ( count > 0 ) {
+            sb.append( " , " ).append( strategy._name ).append( " " ).append( count )
+              .append( " in " ).append( _nanos[ strategy.ordinal() ] / 1000000 ).append( " ms" );
+         }
+      }
+      if ( _slowestTokens > 0 ) {
+         sb.append( " , slowest " ).append( _slowestTokens ).append( " tokens in " )
+           .append( _slowestNanos / 1000000 ).append( " ms" );
+      }
+      return sb.toString();
+   }
+
+   /**
+    * @param terminalArray [token] terminals in a sentence
+    * @return true if the sentence is long enough to matter and most of its tokens have no letters
+    */
+   static private boolean isTableLike( final FSArray terminalArray ) {
+      if ( terminalArray.size() < MIN_TABLE_TOKENS ) {
+         return false;
+      }
+      int wordCount = 0;
+      for ( int t = 0; t < terminalArray.size(); t++ ) {
+         final String text = ((TerminalTreebankNode)terminalArray.get( t )).getNodeValue();
+         for ( int i = 0; i < text.length(); i++ ) {
+            if ( Character.isLetter( text.charAt( i ) ) ) {
+               wordCount++;
+               break;
+            }
+         }
+      }
+      return wordCount * 2 < terminalArray.size();
+   }
+
+}
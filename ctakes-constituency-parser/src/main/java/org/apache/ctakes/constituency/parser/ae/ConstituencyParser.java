@@ -19,10 +19,13 @@
 package org.apache.ctakes.constituency.parser.ae;
 
 import org.apache.ctakes.constituency.parser.MaxentParserWrapper;
+import org.apache.ctakes.constituency.parser.ParseBudget;
 import org.apache.ctakes.constituency.parser.ParserWrapper;
+import org.apache.ctakes.constituency.parser.util.SentenceParse;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.core.util.DotLogger;
+import org.apache.ctakes.core.util.collection.SentenceCache;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
@@ -52,6 +55,68 @@ public class ConstituencyParser extends JCasAnnotator_ImplBase {
 			defaultValue = "org/apache/ctakes/constituency/parser/models/sharpacq-3.1.bin"
 	)
 	private String modelFilename;
+
+	@ConfigurationParameter(
+			name = SentenceCache.PARAM_CACHE_SIZE,
+			description = SentenceCache.CACHE_SIZE_DESC,
+			mandatory = false
+	)
+	private int sentenceCacheSize = 0;
+
+	@ConfigurationParameter(
+			name = SentenceCache.PARAM_CACHE_FILE,
+			description = SentenceCache.CACHE_FILE_DESC,
+			mandatory = false
+	)
+	private String sentenceCachePath;
+
+	public static final String PARAM_MAX_PARSE_TOKENS = "MaxParseTokens";
+
+	@ConfigurationParameter(
+			name = PARAM_MAX_PARSE_TOKENS,
+			description = "Sentences with more tokens are split into pieces of this size that are parsed separately.  0 for no limit",
+			mandatory = false
+	)
+	private int maxParseTokens = 0;
+
+	public static final String PARAM_REDUCED_BEAM_TOKENS = "ReducedBeamTokens";
+
+	@ConfigurationParameter(
+			name = PARAM_REDUCED_BEAM_TOKENS,
+			description = "Sentences with more tokens are parsed with the reduced beam size.  0 for no limit",
+			mandatory = false
+	)
+	private int reducedBeamTokens = 0;
+
+	public static final String PARAM_REDUCED_BEAM_SIZE = "ReducedBeamSize";
+
+	@ConfigurationParameter(
+			name = PARAM_REDUCED_BEAM_SIZE,
+			description = "Beam size used to parse long sentences",
+			mandatory = false
+	)
+	private int reducedBeamSize = 3;
+
+	public static final String PARAM_FLAT_TABLE_LINES = "FlatTableLines";
+
+	@ConfigurationParameter(
+			name = PARAM_FLAT_TABLE_LINES,
+			description = "Give a flat parse to table-like sentences in which most tokens have no letters",
+			mandatory = false
+	)
+	private boolean flatTableLines = false;
+
+	public static final String PARAM_DOCUMENT_PARSE_MILLIS = "DocumentParseMillis";
+
+	@ConfigurationParameter(
+			name = PARAM_DOCUMENT_PARSE_MILLIS,
+			description = "Parse time after which remaining sentences in a document get a flat parse.  0 for no limit",
+			mandatory = false
+	)
+	private long documentParseMillis = 0;
+
+	// parses of repeated sentences, shared by all parsers using the same model
+	private SentenceCache<SentenceParse> sentenceCache = null;
 	
 	
 	private ParserWrapper parser = null;
@@ -62,7 +127,15 @@ public class ConstituencyParser extends JCasAnnotator_ImplBase {
 		super.initialize( aContext );
 		logger.info( "Initializing ..." );
 		try ( DotLogger dotter = new DotLogger() ) {
-			parser = new MaxentParserWrapper( FileLocator.getAsStream( modelFilename ) );
+			final MaxentParserWrapper maxentParser = new MaxentParserWrapper( FileLocator.getAsStream( modelFilename ) );
+			sentenceCache = SentenceCache.getSharedCache( "Constituency Parser", modelFilename, sentenceCacheSize,
+					sentenceCachePath, SentenceParse.CODEC );
+			maxentParser.setSentenceCache( sentenceCache );
+			if ( maxParseTokens > 0 || reducedBeamTokens > 0 || flatTableLines || documentParseMillis > 0 ) {
+				maxentParser.setParseBudget( new ParseBudget( maxParseTokens, reducedBeamTokens, reducedBeamSize,
+						flatTableLines, documentParseMillis ) );
+			}
+			parser = maxentParser;
 		} catch ( IOException ioE ) {
 			logger.error( "Error reading parser model file/directory: " + ioE.getMessage() );
 			throw new ResourceInitializationException( ioE );
@@ -75,6 +148,14 @@ public class ConstituencyParser extends JCasAnnotator_ImplBase {
 	public void process(JCas jcas) throws AnalysisEngineProcessException {
 		parser.createAnnotations(jcas);
 	}
+
+	@Override
+	public void collectionProcessComplete() throws AnalysisEngineProcessException {
+		super.collectionProcessComplete();
+		if ( sentenceCache != null ) {
+			sentenceCache.complete();
+		}
+	}
 	
 	  public static AnalysisEngineDescription createAnnotatorDescription(
 		      String modelPath) throws ResourceInitializationException {
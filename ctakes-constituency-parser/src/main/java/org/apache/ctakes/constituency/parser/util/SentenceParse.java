@@ -0,0 +1,127 @@
+package org.apache.ctakes.constituency.parser.util;
+
+import opennlp.tools.parser.Parse;
+import opennlp.tools.util.Span;
+import org.apache.ctakes.core.util.collection.SentenceCache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact copy of an opennlp parse of one sentence, with each node in pre-order.
+ * Spans are relative to the beginning of the sentence, so the parse can be recreated for any sentence
+ * with the same text and token spans.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class SentenceParse {
+
+   /**
+    * Writes and reads sentence parses in a sentence cache file
+    */
+   static public final SentenceCache.Codec<SentenceParse> CODEC = new SentenceCache.Codec<SentenceParse>() {
+      @Override
+      public void write( final DataOutput output, final SentenceParse value ) throws IOException {
+         SentenceCache.STRING_ARRAY_CODEC.write( output, value._types );
+         for ( int i = 0; i < value._types.length; i++ ) {
+            output.writeInt( value._begins[ i ] );
+            output.writeInt( value._ends[ i ] );
+            output.writeInt( value._headIndices[ i ] );
+            output.writeInt( value._childCounts[ i ] );
+         }
+      }
+
+      @Override
+      public SentenceParse read( final DataInput input ) throws IOException {
+         final String[] types = SentenceCache.STRING_ARRAY_CODEC.read( input );
+         final int[] begins = new int[ types.length ];
+         final int[] ends = new int[ types.length ];
+         final int[] headIndices = new int[ types.length ];
+         final int[] childCounts = new int[ types.length ];
+         for ( int i = 0; i < types.length; i++ ) {
+            begins[ i ] = input.readInt();
+            ends[ i ] = input.readInt();
+            headIndices[ i ] = input.readInt();
+            childCounts[ i ] = input.readInt();
+         }
+         return new SentenceParse( types, begins, ends, headIndices, childCounts );
+      }
+   };
+
+   private final String[] _types;
+   private final int[] _begins;
+   private final int[] _ends;
+   private final int[] _headIndices;
+   private final int[] _childCounts;
+
+   private SentenceParse( final String[] types, final int[] begins, final int[] ends, final int[] headIndices,
+                          final int[] childCounts ) {
+      _types = types;
+      _begins = begins;
+      _ends = ends;
+      _headIndices = headIndices;
+      _childCounts = childCounts;
+   }
+
+   /**
+    * @param parse parse of a sentence
+    */
+   public SentenceParse( final Parse parse ) {
+      final List<Parse> nodes = new ArrayList<>();
+      addNodes( parse, nodes );
+      final int size = nodes.size();
+      _types = new String[ size ];
+      _begins = new int[ size ];
+      _ends = new int[ size ];
+      _headIndices = new int[ size ];
+      _childCounts = new int[ size ];
+      for ( int i = 0; i < size; i++ ) {
+         final Parse node = nodes.get( i );
+         _types[ i ] = node.getType();
+         _begins[ i ] = node.getSpan().getStart();
+         _ends[ i ] = node.getSpan().getEnd();
+         _headIndices[ i ] = node.getHeadIndex();
+         _childCounts[ i ] = node.getChildCount();
+      }
+   }
+
+   static private void addNodes( final Parse parse, final List<Parse> nodes ) {
+      nodes.add( parse );
+      for ( Parse child : parse.getChildren() ) {
+         addNodes( child, nodes );
+      }
+   }
+
+   /**
+    * @param text text of a sentence with the same text and token spans as the parsed sentence
+    * @return a new parse with the same types, spans and head indices as the original
+    */
+   public Parse createParse( final String text ) {
+      return createParse( text, 0 );
+   }
+
+   /**
+    * @param text       text of a sentence with the same text and token spans as the parsed sentence
+    * @param headOffset added to every head index, used when the parsed tokens are part of a longer sentence
+    * @return a new parse with the same types and spans as the original
+    */
+   public Parse createParse( final String text, final int headOffset ) {
+      return createParse( text, headOffset, new int[] { 0 } );
+   }
+
+   private Parse createParse( final String text, final int headOffset, final int[] nodeIndex ) {
+      final int index = nodeIndex[ 0 ]++;
+      final Parse parse = new Parse( text, new Span( _begins[ index ], _ends[ index ] ), _types[ index ], 0,
+            _headIndices[ index ] + headOffset );
+      for ( int i = 0; i < _childCounts[ index ]; i++ ) {
+         parse.insert( createParse( text, headOffset, nodeIndex ) );
+      }
+      return parse;
+   }
+
+}
@@ -0,0 +1,205 @@
+package org.apache.ctakes.constituency.parser;
+
+import org.apache.ctakes.constituency.parser.util.TreeUtils;
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.typesystem.type.structured.DocumentID;
+import org.apache.ctakes.typesystem.type.syntax.*;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that sentences parsed within a {@link ParseBudget} get well-formed trees over all of their tokens.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class MaxentParserWrapperTester {
+
+   static private final String MODEL = "org/apache/ctakes/constituency/parser/models/sharpacq-3.1.bin";
+
+   static private final int MAX_TOKENS = 10;
+
+   // a short sentence, a table-like line of vitals and a sentence too long to parse whole
+   static private final String[] SENTENCES = {
+         "No known drug allergies .",
+         "BP 120 / 80 , HR 72 , RR 16 , T 98.6 , SpO2 98 %",
+         "The patient was seen in clinic today and she reports that her chest pain has improved since"
+         + " starting the new medication ." };
+
+   static private MaxentParserWrapper _wrapper;
+
+   @BeforeClass
+   static public void loadParser() throws IOException {
+      try ( InputStream modelStream = FileLocator.getAsStream( MODEL ) ) {
+         _wrapper = new MaxentParserWrapper( modelStream );
+      }
+   }
+
+   @Test
+   public void testBudgetTrees() throws Exception {
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( String.join( "\n", SENTENCES ) );
+      final DocumentID documentId = new DocumentID( jCas );
+      documentId.setDocumentID( "vitals" );
+      documentId.addToIndexes();
+      final List<List<BaseToken>> sentenceTokens = new ArrayList<>();
+      int offset = 0;
+      for ( String text : SENTENCES ) {
+         final List<BaseToken> tokens = new ArrayList<>();
+         for ( String word : text.split( " " ) ) {
+            final BaseToken token = createToken( jCas, offset, word );
+            token.addToIndexes();
+            tokens.add( token );
+            offset += word.length() + 1;
+         }
+         new Sentence( jCas, tokens.get( 0 ).getBegin(), tokens.get( tokens.size() - 1 ).getEnd() ).addToIndexes();
+         sentenceTokens.add( tokens );
+      }
+      final ParseBudget budget = new ParseBudget( MAX_TOKENS, 0, 0, true, 0 );
+      _wrapper.setParseBudget( budget );
+      try {
+         _wrapper.createAnnotations( jCas );
+      } finally {
+         _wrapper.setParseBudget( null );
+      }
+      final List<TopTreebankNode> tops = new ArrayList<>( JCasUtil.select( jCas, TopTreebankNode.class ) );
+      assertEquals( SENTENCES.length, tops.size() );
+      for ( int s = 0; s < SENTENCES.length; s++ ) {
+         assertWellFormed( SENTENCES[ s ], tops.get( s ), sentenceTokens.get( s ) );
+      }
+      assertTrue( tops.get( 1 ).getTreebankParse(), tops.get( 1 ).getTreebankParse().startsWith( "(TOP (FRAG " ) );
+      assertTrue( "Split sentence should have more than one piece", tops.get( 2 ).getChildren().size() > 1 );
+      for ( int s = 1; s < SENTENCES.length; s++ ) {
+         final TopTreebankNode top = tops.get( s );
+         assertEquals( "Top should have the head of its last child",
+               top.getChildren( top.getChildren().size() - 1 ).getHeadIndex(), top.getHeadIndex() );
+      }
+      final String report = budget.getReport( "vitals" );
+      assertTrue( report, report.startsWith( "Parsed 3 sentences of vitals in " ) );
+      assertTrue( report, report.contains( " , full beam 1 in " ) );
+      assertTrue( report, report.contains( " , split 1 in " ) );
+      assertTrue( report, report.contains( " , flat 1 in " ) );
+   }
+
+   @Test
+   public void testStrategy() throws Exception {
+      final JCas jCas = JCasFactory.createJCas();
+      jCas.setDocumentText( String.join( "\n", SENTENCES ) );
+      final List<BaseToken> shortTokens = new ArrayList<>();
+      final List<BaseToken> tableTokens = new ArrayList<>();
+      final List<BaseToken> longTokens = new ArrayList<>();
+      int offset = 0;
+      for ( String word : SENTENCES[ 0 ].split( " " ) ) {
+         shortTokens.add( createToken( jCas, offset, word ) );
+         offset += word.length() + 1;
+      }
+      for ( String word : SENTENCES[ 1 ].split( " " ) ) {
+         tableTokens.add( createToken( jCas, offset, word ) );
+         offset += word.length() + 1;
+      }
+      for ( String word : SENTENCES[ 2 ].split( " " ) ) {
+         longTokens.add( createToken( jCas, offset, word ) );
+         offset += word.length() + 1;
+      }
+      final ParseBudget budget = new ParseBudget( MAX_TOKENS, 4, 5, true, 0 );
+      budget.startDocument();
+      assertEquals( ParseBudget.Strategy.REDUCED, budget.getStrategy( TreeUtils.getTerminals( jCas, shortTokens ) ) );
+      assertEquals( ParseBudget.Strategy.FLAT, budget.getStrategy( TreeUtils.getTerminals( jCas, tableTokens ) ) );
+      assertEquals( ParseBudget.Strategy.SPLIT, budget.getStrategy( TreeUtils.getTerminals( jCas, longTokens ) ) );
+      final ParseBudget unlimited = new ParseBudget( 0, 0, 5, false, 0 );
+      assertEquals( ParseBudget.Strategy.FULL, unlimited.getStrategy( TreeUtils.getTerminals( jCas, tableTokens ) ) );
+      assertEquals( ParseBudget.Strategy.FULL, unlimited.getStrategy( TreeUtils.getTerminals( jCas, longTokens ) ) );
+      // once a document is over its time budget the rest of it gets flat trees
+      final ParseBudget timed = new ParseBudget( 0, 0, 5, false, 10 );
+      timed.startDocument();
+      timed.addSentence( ParseBudget.Strategy.FULL, 5, 20000000 );
+      assertEquals( ParseBudget.Strategy.FLAT, timed.getStrategy( TreeUtils.getTerminals( jCas, shortTokens ) ) );
+      timed.startDocument();
+      assertEquals( ParseBudget.Strategy.FULL, timed.getStrategy( TreeUtils.getTerminals( jCas, shortTokens ) ) );
+   }
+
+   @Test
+   public void testReport() {
+      final ParseBudget budget = new ParseBudget( MAX_TOKENS, 0, 5, true, 0 );
+      budget.startDocument();
+      budget.addSentence( ParseBudget.Strategy.CACHED, 5, 1000000 );
+      budget.addSentence( ParseBudget.Strategy.FULL, 12, 30000000 );
+      budget.addSentence( ParseBudget.Strategy.FULL, 8, 9000000 );
+      budget.addSentence( ParseBudget.Strategy.FLAT, 20, 500000 );
+      assertEquals( "Parsed 4 sentences of doc1 in 40 ms , cached 1 in 1 ms , full beam 2 in 39 ms"
+                    + " , flat 1 in 0 ms , slowest 12 tokens in 30 ms", budget.getReport( "doc1" ) );
+      budget.startDocument();
+      assertEquals( "Parsed 0 sentences of doc2 in 0 ms", budget.getReport( "doc2" ) );
+   }
+
+   /**
+    * @param jCas   -
+    * @param offset begin of the token
+    * @param word   text of the token
+    * @return a number , punctuation or word token with a part of speech for word tokens only
+    */
+   static private BaseToken createToken( final JCas jCas, final int offset, final String word ) {
+      final int end = offset + word.length();
+      if ( Character.isDigit( word.charAt( 0 ) ) ) {
+         return new NumToken( jCas, offset, end );
+      } else if ( !Character.isLetter( word.charAt( 0 ) ) ) {
+         return new PunctuationToken( jCas, offset, end );
+      }
+      final WordToken token = new WordToken( jCas, offset, end );
+      token.setPartOfSpeech( Character.isUpperCase( word.charAt( 0 ) ) ? "NNP" : "NN" );
+      return token;
+   }
+
+   /**
+    * Checks that every node is within its parent , every head is a token of the sentence ,
+    * and the leaves are all of the tokens in order.
+    */
+   static private void assertWellFormed( final String text, final TopTreebankNode top, final List<BaseToken> tokens ) {
+      assertEquals( text, tokens.size(), top.getTerminals().size() );
+      for ( int i = 0; i < tokens.size(); i++ ) {
+         assertEquals( text, tokens.get( i ).getBegin(), top.getTerminals( i ).getBegin() );
+         assertEquals( text, tokens.get( i ).getEnd(), top.getTerminals( i ).getEnd() );
+      }
+      assertNull( top.getParent() );
+      assertTrue( text, top.getChildren().size() > 0 );
+      final List<Integer> leaves = new ArrayList<>();
+      addLeaves( text, top, tokens.size(), leaves );
+      final List<Integer> expected = new ArrayList<>();
+      for ( int i = 0; i < tokens.size(); i++ ) {
+         expected.add( i );
+      }
+      assertEquals( text, expected, leaves );
+   }
+
+   static private void addLeaves( final String text, final TreebankNode node, final int tokenCount,
+                                  final List<Integer> leaves ) {
+      if ( node instanceof TerminalTreebankNode ) {
+         leaves.add( ((TerminalTreebankNode)node).getIndex() );
+         return;
+      }
+      assertTrue( text + " head " + node.getHeadIndex(), node.getHeadIndex() >= 0
+                                                         && node.getHeadIndex() < tokenCount );
+      assertNotNull( text + " " + node.getNodeType(), node.getChildren() );
+      assertTrue( text + " " + node.getNodeType(), node.getChildren().size() > 0 );
+      for ( int i = 0; i < node.getChildren().size(); i++ ) {
+         final TreebankNode child = node.getChildren( i );
+         assertSame( text, node, child.getParent() );
+         assertTrue( text, child.getBegin() >= node.getBegin() && child.getEnd() <= node.getEnd() );
+         addLeaves( text, child, tokenCount, leaves );
+      }
+   }
+
+
+}
@@ -0,0 +1,126 @@
+package org.apache.ctakes.constituency.parser.util;
+
+import opennlp.tools.parser.AbstractBottomUpParser;
+import opennlp.tools.parser.Parse;
+import opennlp.tools.parser.ParserModel;
+import opennlp.tools.parser.chunking.Parser;
+import opennlp.tools.util.Span;
+import org.apache.ctakes.core.resource.FileLocator;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a parse recreated from a cached {@link SentenceParse} is the same as a fresh parse of the sentence.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class SentenceParseTester {
+
+   static private final String MODEL = "org/apache/ctakes/constituency/parser/models/sharpacq-3.1.bin";
+
+   static private final String[] SENTENCES = {
+         "No known drug allergies .",
+         "The patient denies chest pain and shortness of breath .",
+         "She was started on metoprolol 25 mg twice daily for her hypertension .",
+         "Follow up with Dr. Smith in 2 weeks ." };
+
+   static private final Pattern TOKEN_PATTERN = Pattern.compile( "\\S+" );
+
+   static private Parser _parser;
+
+   @BeforeClass
+   static public void loadParser() throws IOException {
+      try ( InputStream modelStream = FileLocator.getAsStream( MODEL ) ) {
+         _parser = new Parser( new ParserModel( modelStream ), AbstractBottomUpParser.defaultBeamSize,
+               AbstractBottomUpParser.defaultAdvancePercentage );
+      }
+   }
+
+   @Test
+   public void testCachedParse() throws IOException {
+      for ( String text : SENTENCES ) {
+         final Parse fresh = _parser.parse( createTokens( text ) );
+         final SentenceParse cached = roundTrip( new SentenceParse( fresh ) );
+         // a cache hit is a later sentence with the same text, parsed again without the cache
+         final Parse again = _parser.parse( createTokens( text ) );
+         final List<String> expected = describe( again );
+         assertEquals( text, describe( fresh ), expected );
+         assertEquals( text, expected, describe( cached.createParse( text ) ) );
+         assertEquals( text, show( again ), show( cached.createParse( text ) ) );
+      }
+   }
+
+   @Test
+   public void testHeadOffset() throws IOException {
+      final String text = SENTENCES[ 1 ];
+      final Parse fresh = _parser.parse( createTokens( text ) );
+      final List<Parse> freshNodes = TreeUtils.getNodeList( fresh );
+      final List<Parse> offsetNodes = TreeUtils.getNodeList( new SentenceParse( fresh ).createParse( text, 4 ) );
+      assertEquals( freshNodes.size(), offsetNodes.size() );
+      for ( int i = 0; i < freshNodes.size(); i++ ) {
+         assertEquals( freshNodes.get( i ).getType(), offsetNodes.get( i ).getType() );
+         assertEquals( freshNodes.get( i ).getSpan(), offsetNodes.get( i ).getSpan() );
+         assertEquals( freshNodes.get( i ).getHeadIndex() + 4, offsetNodes.get( i ).getHeadIndex() );
+      }
+      assertTrue( "Parse should have phrases", freshNodes.size() > text.split( " " ).length * 2 );
+   }
+
+   /**
+    * @param text sentence with tokens separated by spaces
+    * @return opennlp parser input for the sentence
+    */
+   static private Parse createTokens( final String text ) {
+      final Parse tokens = new Parse( text, new Span( 0, text.length() ), AbstractBottomUpParser.INC_NODE, 0, 0 );
+      final Matcher matcher = TOKEN_PATTERN.matcher( text );
+      int index = 0;
+      while ( matcher.find() ) {
+         tokens.insert( new Parse( text, new Span( matcher.start(), matcher.end() ),
+               AbstractBottomUpParser.TOK_NODE, 0, index ) );
+         index++;
+      }
+      return tokens;
+   }
+
+   /**
+    * @param parse -
+    * @return every node, breadth first, with its type, span, head index and child count
+    */
+   static private List<String> describe( final Parse parse ) {
+      final List<String> nodes = new ArrayList<>();
+      for ( Parse node : TreeUtils.getNodeList( parse ) ) {
+         nodes.add( node.getType() + " " + node.getSpan() + " head=" + node.getHeadIndex()
+                    + " children=" + node.getChildCount() );
+      }
+      return nodes;
+   }
+
+   static private String show( final Parse parse ) {
+      final StringBuffer sb = new StringBuffer();
+      parse.show( sb );
+      return sb.toString();
+   }
+
+   /**
+    * @param parse -
+    * @return the parse written to and read from a sentence cache file
+    */
+   static private SentenceParse roundTrip( final SentenceParse parse ) throws IOException {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try ( DataOutputStream output = new DataOutputStream( bytes ) ) {
+         SentenceParse.CODEC.write( output, parse );
+      }
+      return SentenceParse.CODEC.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+   }
+
+}
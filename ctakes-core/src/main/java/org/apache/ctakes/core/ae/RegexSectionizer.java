@@ -3,6 +3,7 @@ package org.apache.ctakes.core.ae;
 
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.util.Pair;
+import org.apache.ctakes.core.util.regex.MultiPatternFinder;
 import org.apache.ctakes.core.util.regex.RegexSpanFinder;
 import org.apache.ctakes.core.util.regex.TimeoutMatcher;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
@@ -43,6 +44,16 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
    )
    private boolean _tagDividers = true;
 
+   static public final String PARAM_SINGLE_PASS = "SinglePass";
+   @ConfigurationParameter(
+         name = PARAM_SINGLE_PASS,
+         description = "True if all header, footer and divider expressions should be found in a single pass over "
+                       + "the lines of the text.  Sections are the same, but large section lists run faster.",
+         defaultValue = "false",
+         mandatory = false
+   )
+   private boolean _singlePass = false;
+
    /**
     * classic ctakes default segment id
     */
@@ -110,6 +121,7 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
    static private final Object SECTION_TYPE_LOCK = new Object();
    static private final Map<String, SectionType> _sectionTypes = new HashMap<>();
    static private volatile boolean _sectionsLoaded = false;
+   static private volatile SectionTagFinder _sectionTagFinder;
 
    static protected void addSectionType( final SectionType sectionType ) {
       _sectionTypes.put( sectionType.__name, sectionType );
@@ -130,6 +142,9 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
             loadSections();
             _sectionsLoaded = true;
          }
+         if ( _singlePass && _sectionTagFinder == null ) {
+            _sectionTagFinder = new SectionTagFinder();
+         }
       }
    }
 
@@ -144,17 +159,30 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
          return;
       }
       final String docText = jcas.getDocumentText();
-      final Map<Pair<Integer>, SectionTag> headerTags = findHeaderTags( docText );
+      final Map<Pair<Integer>, SectionTag> headerTags;
+      final Map<Pair<Integer>, SectionTag> footerTags;
+      final Map<Pair<Integer>, SectionTag> dividerLines;
+      if ( _singlePass ) {
+         headerTags = new HashMap<>();
+         footerTags = new HashMap<>();
+         dividerLines = new HashMap<>();
+         _sectionTagFinder.findTags( docText, headerTags, footerTags, dividerLines );
+         if ( !_tagDividers ) {
+            dividerLines.clear();
+         }
+      } else {
+         headerTags = findHeaderTags( docText );
+         footerTags = findFooterTags( docText );
+         dividerLines = new HashMap<>();
+         if ( _tagDividers ) {
+            dividerLines.putAll( findDividerLines( docText ) );
+         }
+      }
       if ( headerTags.isEmpty() ) {
          LOGGER.debug( "No section headers found" );
       }
       final Collection<Pair<Integer>> subsumedTags = getSubsumedBounds( headerTags.keySet() );
       headerTags.keySet().removeAll( subsumedTags );
-      final Map<Pair<Integer>, SectionTag> footerTags = findFooterTags( docText );
-      final Map<Pair<Integer>, SectionTag> dividerLines = new HashMap<>();
-      if ( _tagDividers ) {
-         dividerLines.putAll( findDividerLines( docText ) );
-      }
       createSegments( jcas, headerTags, footerTags, dividerLines );
       LOGGER.info( "Finished processing" );
    }
@@ -303,19 +331,10 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
       try ( TimeoutMatcher finder = new TimeoutMatcher( tagPattern, docText ) ) {
          Matcher tagMatcher = finder.nextMatch();
          while ( tagMatcher != null ) {
-            String name;
             // the start tag of this tag is the start of the current match
             // the end tag of this tag is the end of the current match, exclusive
             final Pair<Integer> tagBounds = new Pair<>( tagMatcher.start(), tagMatcher.end() );
-            try {
-               name = tagMatcher.group( SECTION_NAME_EX );
-               if ( name == null || name.isEmpty() ) {
-                  name = typeName;
-               }
-            } catch ( IllegalArgumentException iaE ) {
-               name = typeName;
-            }
-            sectionTags.put( tagBounds, new SectionTag( name, typeName, tagType ) );
+            sectionTags.put( tagBounds, createSectionTag( tagMatcher, typeName, tagType ) );
             tagMatcher = finder.nextMatch();
          }
       } catch ( IllegalArgumentException iaE ) {
@@ -324,6 +343,90 @@ abstract public class RegexSectionizer extends JCasAnnotator_ImplBase {
       return sectionTags;
    }
 
+   /**
+    * @param tagMatcher matcher at a section tag
+    * @param typeName   section type name
+    * @param tagType    header or footer
+    * @return section tag named by the matched section name group, or by the section type
+    */
+   static private SectionTag createSectionTag( final Matcher tagMatcher, final String typeName,
+                                               final TagType tagType ) {
+      String name;
+      try {
+         name = tagMatcher.group( SECTION_NAME_EX );
+         if ( name == null || name.isEmpty() ) {
+            name = typeName;
+         }
+      } catch ( IllegalArgumentException iaE ) {
+         name = typeName;
+      }
+      return new SectionTag( name, typeName, tagType );
+   }
+
+   /**
+    * Finds all header, footer and divider tags in a single pass over the lines of the text.
+    * Patterns are ordered as the separate per type searches put their tags, so where two section types
+    * tag the same text the later section type is used, exactly as in the separate searches.
+    */
+   static private final class SectionTagFinder {
+      private final MultiPatternFinder __finder;
+      private final String[] __typeNames;
+      private final TagType[] __tagTypes;
+
+      private SectionTagFinder() {
+         final List<Pattern> patterns = new ArrayList<>();
+         final List<String> typeNames = new ArrayList<>();
+         final List<TagType> tagTypes = new ArrayList<>();
+         for ( SectionType sectionType : _sectionTypes.values() ) {
+            if ( sectionType.__headerPattern != null ) {
+               patterns.add( sectionType.__headerPattern );
+               typeNames.add( sectionType.__name );
+               tagTypes.add( TagType.HEADER );
+            }
+         }
+         for ( SectionType sectionType : _sectionTypes.values() ) {
+            if ( sectionType.__footerPattern != null ) {
+               patterns.add( sectionType.__footerPattern );
+               typeNames.add( sectionType.__name );
+               tagTypes.add( TagType.FOOTER );
+            }
+         }
+         patterns.add( DIVIDER_LINE_PATTERN );
+         typeNames.add( DIVIDER_LINE_NAME );
+         tagTypes.add( TagType.DIVIDER );
+         __finder = new MultiPatternFinder( patterns );
+         __typeNames = typeNames.toArray( new String[ typeNames.size() ] );
+         __tagTypes = tagTypes.toArray( new TagType[ tagTypes.size() ] );
+      }
+
+      private void findTags( final String docText,
+                             final Map<Pair<Integer>, SectionTag> headerTags,
+                             final Map<Pair<Integer>, SectionTag> footerTags,
+                             final Map<Pair<Integer>, SectionTag> dividerLines ) {
+         // index of the pattern that tagged each bounds.  Headers and footers have separate maps of tags.
+         final Map<Pair<Integer>, Integer> headerIndices = new HashMap<>();
+         final Map<Pair<Integer>, Integer> footerIndices = new HashMap<>();
+         __finder.findAll( docText, ( index, matcher ) -> {
+            final Pair<Integer> tagBounds = new Pair<>( matcher.start(), matcher.end() );
+            final TagType tagType = __tagTypes[ index ];
+            if ( tagType == TagType.DIVIDER ) {
+               if ( tagBounds.getValue2() > tagBounds.getValue1() ) {
+                  dividerLines.put( tagBounds, LINE_DIVIDER_TAG );
+               }
+               return;
+            }
+            final Map<Pair<Integer>, Integer> tagIndices = tagType == TagType.HEADER ? headerIndices : footerIndices;
+            final Integer previousIndex = tagIndices.get( tagBounds );
+            if ( previousIndex != null && previousIndex > index ) {
+               return;
+            }
+            tagIndices.put( tagBounds, index );
+            final Map<Pair<Integer>, SectionTag> sectionTags = tagType == TagType.HEADER ? headerTags : footerTags;
+            sectionTags.put( tagBounds, createSectionTag( matcher, __typeNames[ index ], tagType ) );
+         } );
+      }
+   }
+
    /**
     * All tags are treated equally as segment bounds, whether header or footer
     *
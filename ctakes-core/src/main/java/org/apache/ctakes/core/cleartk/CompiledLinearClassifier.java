@@ -0,0 +1,399 @@
+package org.apache.ctakes.core.cleartk;
+
+import de.bwaldvogel.liblinear.Model;
+import org.apache.log4j.Logger;
+import org.cleartk.ml.Classifier;
+import org.cleartk.ml.CleartkProcessingException;
+import org.cleartk.ml.Feature;
+import org.cleartk.ml.encoder.CleartkEncoderException;
+import org.cleartk.ml.encoder.features.FeaturesEncoder;
+import org.cleartk.ml.encoder.outcome.OutcomeEncoder;
+import org.cleartk.ml.util.featurevector.FeatureVector;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classifies with a liblinear model over primitive sparse vectors.
+ * <p>
+ * The cleartk liblinear classifier sends every feature name and value through the features encoder,
+ * building name strings and boxed values and looking up each name, for every instance.
+ * This classifier sends each distinct feature through the same encoder only once and keeps the resulting
+ * model indices.  An instance is then a sorted array of indices and values in a reusable per-thread buffer,
+ * scored directly against the model weights with the same arithmetic as liblinear.
+ * As in the cleartk encoders, the last value of a repeated feature index replaces earlier values.
+ * </p>
+ * <p>
+ * The model and encoders are read from the protected fields of the cleartk liblinear classifier.
+ * If any of those fields is missing, for instance with another version of cleartk, the wrapped classifier is used.
+ * The first classifications, and a sample of later ones, are checked against the wrapped classifier.
+ * If any outcome differs, for instance because the encoder normalizes vectors, the wrapped classifier is used
+ * from then on.  As earlier outcomes cannot be checked, annotators only compile their classifier
+ * when {@link #PARAM_COMPILE_CLASSIFIER} is set.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class CompiledLinearClassifier<OUTCOME> implements Classifier<OUTCOME> {
+
+   static private final Logger LOGGER = Logger.getLogger( "CompiledLinearClassifier" );
+
+   /**
+    * Name of the optional annotator parameter that turns on compiled classification.  It is off by default.
+    */
+   static public final String PARAM_COMPILE_CLASSIFIER = "CompileLinearClassifier";
+   static public final String COMPILE_CLASSIFIER_DESCRIPTION
+         = "Classify with a compiled liblinear model instead of the cleartk classifier.  Experimental.";
+
+   // Classifications that are all checked against the wrapped classifier
+   static private final int VERIFY_COUNT = 100;
+   // After the first classifications, one in this many is checked against the wrapped classifier
+   static private final int VERIFY_INTERVAL = 1000;
+   // Distinct features that are kept.  Features past this are encoded for each instance
+   static private final int MAX_CACHED_FEATURES = 1 << 20;
+
+   private final Classifier<OUTCOME> _delegate;
+   private final FeaturesEncoder<?> _featuresEncoder;
+   private final OutcomeEncoder<OUTCOME, Integer> _outcomeEncoder;
+   private final double[] _weights;
+   private final int _maxIndex;
+   private final int _weightCount;
+   private final int[] _labels;
+   // nodes that the encoder adds to every instance, such as the bias
+   private final FeatureCode _constantCode;
+   // feature codes by feature name and then by feature value
+   private final Map<String, Map<Object, FeatureCode>> _featureCodes = new ConcurrentHashMap<>();
+   private final AtomicInteger _cachedFeatures = new AtomicInteger();
+   private final ThreadLocal<Buffer> _buffers = ThreadLocal.withInitial( Buffer::new );
+   private final AtomicLong _classifications = new AtomicLong();
+   private volatile boolean _useDelegate;
+
+   /**
+    * @param classifier a classifier, usually from a model jar
+    * @param <OUTCOME>  outcome type
+    * @return a compiled classifier for a liblinear classification model, otherwise the given classifier
+    */
+   static public <OUTCOME> Classifier<OUTCOME> compile( final Classifier<OUTCOME> classifier ) {
+      if ( classifier == null || classifier instanceof CompiledLinearClassifier ) {
+         return classifier;
+      }
+      final Model model = getField( classifier, "model", Model.class );
+      if ( model == null || model.getLabels() == null ) {
+         LOGGER.debug( "Not a liblinear classification model, cannot compile " + classifier.getClass().getName() );
+         return classifier;
+      }
+      final FeaturesEncoder<?> featuresEncoder = getField( classifier, "featuresEncoder", FeaturesEncoder.class );
+      final OutcomeEncoder<?, ?> outcomeEncoder = getField( classifier, "outcomeEncoder", OutcomeEncoder.class );
+      if ( featuresEncoder == null || outcomeEncoder == null ) {
+         LOGGER.warn( "No readable encoders in " + classifier.getClass().getName() + " , cannot compile" );
+         return classifier;
+      }
+      try {
+         @SuppressWarnings( "unchecked" )
+         final OutcomeEncoder<OUTCOME, Integer> integerEncoder = (OutcomeEncoder<OUTCOME, Integer>)outcomeEncoder;
+         final CompiledLinearClassifier<OUTCOME> compiled
+               = new CompiledLinearClassifier<>( classifier, model, featuresEncoder, integerEncoder );
+         LOGGER.info( "Compiled " + classifier.getClass().getSimpleName() + " with " + compiled._labels.length
+                      + " outcomes and " + compiled._maxIndex + " features" );
+         return compiled;
+      } catch ( CleartkEncoderException | IllegalArgumentException multE ) {
+         LOGGER.warn( "Cannot compile " + classifier.getClass().getName() + " : " + multE.getMessage() );
+         return classifier;
+      }
+   }
+
+   private CompiledLinearClassifier( final Classifier<OUTCOME> delegate,
+                                     final Model model,
+                                     final FeaturesEncoder<?> featuresEncoder,
+                                     final OutcomeEncoder<OUTCOME, Integer> outcomeEncoder )
+         throws CleartkEncoderException {
+      _delegate = delegate;
+      _featuresEncoder = featuresEncoder;
+      _outcomeEncoder = outcomeEncoder;
+      _weights = model.getFeatureWeights();
+      // liblinear ignores indices above the feature count, plus one for the bias
+      _maxIndex = model.getBias() >= 0 ? model.getNrFeature() + 1 : model.getNrFeature();
+      _labels = model.getLabels();
+      if ( _maxIndex <= 0 || _weights.length % _maxIndex != 0 ) {
+         throw new IllegalArgumentException( _weights.length + " weights for " + _maxIndex + " features" );
+      }
+      _weightCount = _weights.length / _maxIndex;
+      if ( _labels.length < 2 || (_weightCount != _labels.length && !(_weightCount == 1 && _labels.length == 2)) ) {
+         throw new IllegalArgumentException( _weightCount + " weight vectors for " + _labels.length + " outcomes" );
+      }
+      _constantCode = toCode( featuresEncoder.encodeAll( Collections.emptyList() ), null );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public OUTCOME classify( final List<Feature> features ) throws CleartkProcessingException {
+      if ( _useDelegate ) {
+         return _delegate.classify( features );
+      }
+      final OUTCOME outcome = _outcomeEncoder.decode( predict( features ) );
+      final long classification = _classifications.getAndIncrement();
+      if ( classification < VERIFY_COUNT || classification % VERIFY_INTERVAL == 0 ) {
+         final OUTCOME expected = _delegate.classify( features );
+         if ( !Objects.equals( expected, outcome ) ) {
+            LOGGER.warn( "Compiled outcome " + outcome + " is not " + expected + " , using "
+                         + _delegate.getClass().getSimpleName() );
+            _useDelegate = true;
+            return expected;
+         }
+      }
+      return outcome;
+   }
+
+   /**
+    * @return true if outcomes differed from those of the wrapped classifier, which is used from then on
+    */
+   boolean isUsingDelegate() {
+      return _useDelegate;
+   }
+
+   /**
+    * Scores are rarely needed at inference, so they come from the wrapped classifier.
+    * {@inheritDoc}
+    */
+   @Override
+   public Map<OUTCOME, Double> score( final List<Feature> features ) throws CleartkProcessingException {
+      return _delegate.score( features );
+   }
+
+   /**
+    * @param features features of an instance
+    * @return the liblinear label for the instance
+    * @throws CleartkEncoderException if a new feature cannot be encoded
+    */
+   private int predict( final List<Feature> features ) throws CleartkEncoderException {
+      final Buffer buffer = _buffers.get();
+      buffer.clear();
+      // The cleartk encoder adds the constant nodes before the features
+      buffer.add( _constantCode );
+      for ( Feature feature : features ) {
+         buffer.add( getCode( feature ) );
+      }
+      buffer.sortAndMerge();
+      final double[] decisions = buffer.getDecisions( _weightCount );
+      // Same order of summation as liblinear : by feature index, then by weight vector
+      for ( int i = 0; i < buffer.__size; i++ ) {
+         final int offset = (buffer.__indices[ i ] - 1) * _weightCount;
+         final double value = buffer.__values[ i ];
+         for ( int j = 0; j < _weightCount; j++ ) {
+            decisions[ j ] += _weights[ offset + j ] * value;
+         }
+      }
+      if ( _weightCount == 1 ) {
+         return decisions[ 0 ] > 0 ? _labels[ 0 ] : _labels[ 1 ];
+      }
+      int best = 0;
+      for ( int j = 1; j < _weightCount; j++ ) {
+         if ( decisions[ j ] > decisions[ best ] ) {
+            best = j;
+         }
+      }
+      return _labels[ best ];
+   }
+
+   /**
+    * Features are kept by name and then by value,
+    * so the encoding of numeric features need not be linear in the value.
+    * Features without a name or value are encoded for each instance.
+    *
+    * @param feature -
+    * @return model indices and values for the feature
+    * @throws CleartkEncoderException if the feature cannot be encoded
+    */
+   private FeatureCode getCode( final Feature feature ) throws CleartkEncoderException {
+      final String name = feature.getName();
+      final Object value = feature.getValue();
+      if ( name == null || value == null ) {
+         return toCode( _featuresEncoder.encodeAll( Collections.singletonList( feature ) ), _constantCode );
+      }
+      final Map<Object, FeatureCode> valueCodes = _featureCodes.get( name );
+      if ( valueCodes != null ) {
+         final FeatureCode code = valueCodes.get( value );
+         if ( code != null ) {
+            return code;
+         }
+      }
+      final FeatureCode code = toCode( _featuresEncoder.encodeAll( Collections.singletonList( feature ) ),
+            _constantCode );
+      if ( _cachedFeatures.get() < MAX_CACHED_FEATURES
+           && _featureCodes.computeIfAbsent( name, n -> new ConcurrentHashMap<>() )
+                           .putIfAbsent( value, code ) == null ) {
+         _cachedFeatures.incrementAndGet();
+      }
+      return code;
+   }
+
+   /**
+    * @param encoded      liblinear nodes or a cleartk feature vector
+    * @param constantCode nodes that are in every encoding and should be removed, or null
+    * @return indices and values in the encoding that liblinear would use
+    */
+   private FeatureCode toCode( final Object encoded, final FeatureCode constantCode ) {
+      final List<Integer> indices = new ArrayList<>();
+      final List<Double> values = new ArrayList<>();
+      if ( encoded instanceof de.bwaldvogel.liblinear.Feature[] ) {
+         for ( de.bwaldvogel.liblinear.Feature node : (de.bwaldvogel.liblinear.Feature[])encoded ) {
+            indices.add( node.getIndex() );
+            values.add( node.getValue() );
+         }
+      } else if ( encoded instanceof FeatureVector ) {
+         for ( FeatureVector.Entry entry : (FeatureVector)encoded ) {
+            indices.add( entry.index );
+            values.add( entry.value );
+         }
+      } else {
+         throw new IllegalArgumentException( "Unsupported encoding "
+                                             + (encoded == null ? "null" : encoded.getClass().getName()) );
+      }
+      final boolean[] removed = new boolean[ constantCode == null ? 0 : constantCode.__indices.length ];
+      final int[] codeIndices = new int[ indices.size() ];
+      final double[] codeValues = new double[ indices.size() ];
+      int size = 0;
+      for ( int i = 0; i < indices.size(); i++ ) {
+         final int index = indices.get( i );
+         final double value = values.get( i );
+         if ( index < 1 || index > _maxIndex || isConstant( constantCode, removed, index, value ) ) {
+            continue;
+         }
+         codeIndices[ size ] = index;
+         codeValues[ size ] = value;
+         size++;
+      }
+      return new FeatureCode( Arrays.copyOf( codeIndices, size ), Arrays.copyOf( codeValues, size ) );
+   }
+
+   static private boolean isConstant( final FeatureCode constantCode, final boolean[] removed,
+                                      final int index, final double value ) {
+      if ( constantCode == null ) {
+         return false;
+      }
+      for ( int i = 0; i < removed.length; i++ ) {
+         if ( !removed[ i ] && constantCode.__indices[ i ] == index && constantCode.__values[ i ] == value ) {
+            removed[ i ] = true;
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @param object object with a field
+    * @param name   name of the field
+    * @param type   type of the field
+    * @param <T>    type of the field
+    * @return the value of the named field in the class hierarchy of the object,
+    * or null if there is no such field of the given type or it cannot be read
+    */
+   static private <T> T getField( final Object object, final String name, final Class<T> type ) {
+      for ( Class<?> clazz = object.getClass(); clazz != null; clazz = clazz.getSuperclass() ) {
+         final Field field;
+         try {
+            field = clazz.getDeclaredField( name );
+         } catch ( NoSuchFieldException nsfE ) {
+            continue;
+         }
+         if ( !type.isAssignableFrom( field.getType() ) ) {
+            LOGGER.debug( "Field " + name + " of " + clazz.getName() + " is not a " + type.getSimpleName() );
+            return null;
+         }
+         try {
+            field.setAccessible( true );
+            return type.cast( field.get( object ) );
+         } catch ( IllegalAccessException | RuntimeException multE ) {
+            LOGGER.debug( "Cannot read " + name + " : " + multE.getMessage() );
+            return null;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Model indices and values for a feature
+    */
+   static private final class FeatureCode {
+      private final int[] __indices;
+      private final double[] __values;
+
+      private FeatureCode( final int[] indices, final double[] values ) {
+         __indices = indices;
+         __values = values;
+      }
+   }
+
+   /**
+    * Sparse vector for one instance, reused by a thread
+    */
+   static private final class Buffer {
+      private int[] __indices = new int[ 128 ];
+      private double[] __values = new double[ 128 ];
+      private long[] __order = new long[ 128 ];
+      private double[] __unsorted = new double[ 128 ];
+      private double[] __decisions = new double[ 0 ];
+      private int __size;
+
+      private void clear() {
+         __size = 0;
+      }
+
+      private void add( final FeatureCode code ) {
+         final int length = code.__indices.length;
+         if ( __size + length > __indices.length ) {
+            final int capacity = Math.max( __indices.length * 2, __size + length );
+            __indices = Arrays.copyOf( __indices, capacity );
+            __values = Arrays.copyOf( __values, capacity );
+            __order = new long[ capacity ];
+            __unsorted = new double[ capacity ];
+         }
+         for ( int i = 0; i < length; i++ ) {
+            __indices[ __size ] = code.__indices[ i ];
+            __values[ __size ] = code.__values[ i ];
+            __size++;
+         }
+      }
+
+      /**
+       * Sort by index, keeping the order of equal indices, and keep the last value of equal indices
+       */
+      private void sortAndMerge() {
+         for ( int i = 0; i < __size; i++ ) {
+            __order[ i ] = ((long)__indices[ i ] << 32) | i;
+         }
+         Arrays.sort( __order, 0, __size );
+         System.arraycopy( __values, 0, __unsorted, 0, __size );
+         int merged = -1;
+         for ( int i = 0; i < __size; i++ ) {
+            final int index = (int)(__order[ i ] >>> 32);
+            final double value = __unsorted[ (int)__order[ i ] ];
+            if ( merged >= 0 && __indices[ merged ] == index ) {
+               __values[ merged ] = value;
+            } else {
+               merged++;
+               __indices[ merged ] = index;
+               __values[ merged ] = value;
+            }
+         }
+         __size = merged + 1;
+      }
+
+      private double[] getDecisions( final int count ) {
+         if ( __decisions.length != count ) {
+            __decisions = new double[ count ];
+         } else {
+            Arrays.fill( __decisions, 0 );
+         }
+         return __decisions;
+      }
+   }
+
+}
@@ -32,7 +32,7 @@ public class ContinuousTextExtractor implements NamedFeatureExtractor1<BaseToken
 		super();
 		try {
 			words =
-					WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
+					WordVectorReader.getEmbeddings(FileLocator.getResource(vecFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new CleartkExtractorException(e);
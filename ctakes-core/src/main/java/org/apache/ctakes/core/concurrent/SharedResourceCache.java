@@ -0,0 +1,95 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.log4j.Logger;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds immutable resources (models, dictionaries) that can be shared by annotator instances on multiple threads.
+ * Each resource is loaded only once per key, regardless of how many annotators request it concurrently.
+ * Resources stored here must be safe for concurrent read access.  Mutable per-call state such as
+ * feature buffers and decoders should be created per annotator instance.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public enum SharedResourceCache {
+   INSTANCE;
+
+   static public SharedResourceCache getInstance() {
+      return INSTANCE;
+   }
+
+   static private final Logger LOGGER = Logger.getLogger( "SharedResourceCache" );
+
+   /**
+    * Loads a resource.  Called at most once per key unless the resource is removed from the cache.
+    *
+    * @param <T> type of resource
+    */
+   @FunctionalInterface
+   public interface ResourceLoader<T> {
+      T load() throws ResourceInitializationException;
+   }
+
+   private final Map<String, Object> _resources = new ConcurrentHashMap<>();
+   private final Map<String, Object> _keyLocks = new ConcurrentHashMap<>();
+
+   /**
+    * @param key    unique key for the resource, for instance a model type and path
+    * @param loader loads the resource if it has not already been loaded
+    * @param <T>    type of resource
+    * @return the resource for the key, loading it if necessary
+    * @throws ResourceInitializationException if the resource could not be loaded
+    */
+   @SuppressWarnings( "unchecked" )
+   public <T> T getResource( final String key, final ResourceLoader<T> loader )
+         throws ResourceInitializationException {
+      final Object resource = _resources.get( key );
+      if ( resource != null ) {
+         return (T)resource;
+      }
+      // Only lock on the requested key so that loading one model does not block loading of another.
+      synchronized ( _keyLocks.computeIfAbsent( key, k -> new Object() ) ) {
+         final Object loaded = _resources.get( key );
+         if ( loaded != null ) {
+            return (T)loaded;
+         }
+         LOGGER.info( "Loading shared resource " + key );
+         final T newResource = loader.load();
+         if ( newResource == null ) {
+            throw new ResourceInitializationException( new NullPointerException( "Null resource for " + key ) );
+         }
+         _resources.put( key, newResource );
+         return newResource;
+      }
+   }
+
+   /**
+    * @param key unique key for the resource
+    * @return true if the resource has been loaded
+    */
+   public boolean hasResource( final String key ) {
+      return _resources.containsKey( key );
+   }
+
+   /**
+    * Remove a resource so that it may be garbage collected.  The next request for the key will reload it.
+    *
+    * @param key unique key for the resource
+    */
+   public void removeResource( final String key ) {
+      _resources.remove( key );
+   }
+
+   /**
+    * Remove all resources.
+    */
+   public void clear() {
+      _resources.clear();
+   }
+
+}
@@ -0,0 +1,117 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one annotator delegate per thread.  Delegates are created lazily and initialized with the first
+ * uima context handed to {@link #initialize(UimaContext)}, the same way that a {@link ThreadSafeWrapper}
+ * initializes its single delegate.
+ * <p>
+ * Delegates should obtain large immutable state from the {@link SharedResourceCache} so that only the
+ * small mutable per-call state is duplicated per thread.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ThreadLocalDelegates<AE extends JCasAnnotator_ImplBase> {
+
+   static private final Logger LOGGER = Logger.getLogger( "ThreadLocalDelegates" );
+
+   private final Supplier<AE> _delegateCreator;
+   private volatile ThreadLocal<AE> _threadDelegate = new ThreadLocal<>();
+   private final Collection<AE> _allDelegates = new ConcurrentLinkedQueue<>();
+   private volatile UimaContext _context;
+
+   /**
+    * @param delegateCreator creates a new uninitialized delegate
+    */
+   public ThreadLocalDelegates( final Supplier<AE> delegateCreator ) {
+      _delegateCreator = delegateCreator;
+   }
+
+   /**
+    * Sets the context used to initialize delegates if and only if it has not already been set,
+    * then creates the delegate for the calling thread so that configuration problems are reported immediately.
+    *
+    * @param context uima context for delegate initialization
+    * @throws ResourceInitializationException if a delegate cannot be initialized
+    */
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      synchronized ( _allDelegates ) {
+         if ( _context == null ) {
+            _context = context;
+         }
+      }
+      getDelegate();
+   }
+
+   /**
+    * @return true if a context has been set for delegate initialization
+    */
+   public boolean isInitialized() {
+      return _context != null;
+   }
+
+   /**
+    * @return the delegate for the calling thread, created and initialized if necessary
+    * @throws ResourceInitializationException if the delegate cannot be initialized
+    */
+   public AE getDelegate() throws ResourceInitializationException {
+      final ThreadLocal<AE> threadDelegate = _threadDelegate;
+      final AE existing = threadDelegate.get();
+      if ( existing != null ) {
+         return existing;
+      }
+      if ( _context == null ) {
+         throw new ResourceInitializationException(
+               new IllegalStateException( "Delegate requested before initialization" ) );
+      }
+      final AE delegate = _delegateCreator.get();
+      delegate.initialize( _context );
+      threadDelegate.set( delegate );
+      _allDelegates.add( delegate );
+      LOGGER.debug( "Created delegate " + _allDelegates.size() + " for thread " + Thread.currentThread().getName() );
+      return delegate;
+   }
+
+   /**
+    * @return the delegate for the calling thread, or if there is none then any existing delegate.  May be null.
+    */
+   public AE getAnyDelegate() {
+      final AE delegate = _threadDelegate.get();
+      if ( delegate != null ) {
+         return delegate;
+      }
+      final Collection<AE> all = getAllDelegates();
+      return all.isEmpty() ? null : all.iterator().next();
+   }
+
+   /**
+    * @return all delegates created on all threads
+    */
+   public Collection<AE> getAllDelegates() {
+      return Collections.unmodifiableCollection( new ArrayList<>( _allDelegates ) );
+   }
+
+   /**
+    * Forget all delegates and the initialization context.  Threads will create new delegates after reinitialization.
+    */
+   public void clear() {
+      synchronized ( _allDelegates ) {
+         _threadDelegate = new ThreadLocal<>();
+         _allDelegates.clear();
+         _context = null;
+      }
+   }
+
+}
@@ -0,0 +1,172 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_component.AnalysisComponent;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.ResultSpecification;
+import org.apache.uima.cas.AbstractCas;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.internal.ExtendedLogger;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceConfigurationException;
+import org.apache.uima.resource.ResourceInitializationException;
+
+/**
+ * Lock-free alternative to {@link ThreadSafeWrapper}.
+ * Instead of serializing every call through a single delegate, each thread gets its own delegate.
+ * Delegates are expected to share large immutable models or dictionaries through the {@link SharedResourceCache}
+ * and keep only small mutable per-call state (decoders, feature buffers) for themselves.
+ * Calls to {@link #process(JCas)} therefore never block on other threads.
+ * <p>
+ * Like {@link ThreadSafeWrapper}, jdk 8+ interface default methods allow enum singletons to implement
+ * AnalysisComponent without boilerplate code for every method.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public interface ThreadLocalWrapper<AE extends JCasAnnotator_ImplBase> extends AnalysisComponent {
+
+   /**
+    * @return the per-thread delegates wrapped by this object
+    */
+   ThreadLocalDelegates<AE> getDelegates();
+
+   /**
+    * @return the annotator for the calling thread
+    * @throws AnalysisEngineProcessException if the annotator for the thread could not be initialized
+    */
+   default AE getThreadDelegate() throws AnalysisEngineProcessException {
+      try {
+         return getDelegates().getDelegate();
+      } catch ( ResourceInitializationException riE ) {
+         throw new AnalysisEngineProcessException( riE );
+      }
+   }
+
+   /**
+    * Stores the context for initialization of delegates if it has not already been stored,
+    * and initializes the delegate for the calling thread.
+    */
+   @Override
+   default void initialize( final UimaContext context ) throws ResourceInitializationException {
+      getDelegates().initialize( context );
+   }
+
+   /**
+    * Calls process on the delegate for the calling thread.  No lock is used.
+    */
+   default void process( final JCas jCas ) throws AnalysisEngineProcessException {
+      getThreadDelegate().process( jCas );
+   }
+
+   /**
+    * from uimafit JCasAnnotator_ImplBase
+    *
+    * @return -
+    */
+   default ExtendedLogger getLogger() {
+      final AE delegate = getDelegates().getAnyDelegate();
+      return delegate == null ? null : delegate.getLogger();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void reconfigure() throws ResourceConfigurationException, ResourceInitializationException {
+      for ( AE delegate : getDelegates().getAllDelegates() ) {
+         delegate.reconfigure();
+      }
+   }
+
+   /**
+    * Calls batchProcessComplete on all delegates on all threads, as each holds the state of its own documents.
+    */
+   @Override
+   default void batchProcessComplete() throws AnalysisEngineProcessException {
+      final ThreadLocalDelegates<AE> delegates = getDelegates();
+      synchronized ( delegates ) {
+         for ( AE delegate : delegates.getAllDelegates() ) {
+            delegate.batchProcessComplete();
+         }
+      }
+   }
+
+   /**
+    * Calls collectionProcessComplete on all delegates on all threads, as each holds the state of its own documents.
+    */
+   @Override
+   default void collectionProcessComplete() throws AnalysisEngineProcessException {
+      final ThreadLocalDelegates<AE> delegates = getDelegates();
+      synchronized ( delegates ) {
+         for ( AE delegate : delegates.getAllDelegates() ) {
+            delegate.collectionProcessComplete();
+         }
+      }
+   }
+
+   /**
+    * Destroys all delegates on all threads.  Later initialization will create new delegates.
+    */
+   @Override
+   default void destroy() {
+      final ThreadLocalDelegates<AE> delegates = getDelegates();
+      synchronized ( delegates ) {
+         delegates.getAllDelegates().forEach( AE::destroy );
+         delegates.clear();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void process( final AbstractCas aCas ) throws AnalysisEngineProcessException {
+      getThreadDelegate().process( aCas );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default boolean hasNext() throws AnalysisEngineProcessException {
+      return getThreadDelegate().hasNext();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default AbstractCas next() throws AnalysisEngineProcessException {
+      return getThreadDelegate().next();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default Class<JCas> getRequiredCasInterface() {
+      return JCas.class;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default int getCasInstancesRequired() {
+      final AE delegate = getDelegates().getAnyDelegate();
+      return delegate == null ? 0 : delegate.getCasInstancesRequired();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   default void setResultSpecification( final ResultSpecification resultSpec ) {
+      for ( AE delegate : getDelegates().getAllDelegates() ) {
+         delegate.setResultSpecification( resultSpec );
+      }
+   }
+
+}
@@ -22,7 +22,11 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
 
 
 /**
@@ -296,20 +300,90 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
    )
    private String _lastNameSoundex;
 
+   // Streaming
+   static public final String PARAM_FETCH_SIZE = "FetchSize";
+   @ConfigurationParameter(
+         name = PARAM_FETCH_SIZE,
+         description = "Number of rows that the JDBC driver should fetch from the database at a time."
+                       + "  Default value is 0; the driver default.",
+         mandatory = false
+   )
+   private int _fetchSize = 0;
+
+   static public final String PARAM_KEY_COLUMN = "KeyColumn";
+   @ConfigurationParameter(
+         name = PARAM_KEY_COLUMN,
+         description = "Name of a unique column by which rows are read in ordered pages so that a run can be resumed.",
+         mandatory = false
+   )
+   private String _keyColumn;
+
+   static public final String PARAM_START_KEY = "StartKey";
+   @ConfigurationParameter(
+         name = PARAM_START_KEY,
+         description = "Only rows with a key column value greater than this are read.  Used to resume a run.",
+         mandatory = false
+   )
+   private String _startKey;
+
+   static public final String PARAM_PAGE_SIZE = "PageSize";
+   @ConfigurationParameter(
+         name = PARAM_PAGE_SIZE,
+         description = "Maximum number of rows read per query when a key column is used.  Default value is 10000.",
+         mandatory = false
+   )
+   private int _pageSize = 10000;
+
+   static public final String PARAM_PREFETCH_SIZE = "PrefetchSize";
+   @ConfigurationParameter(
+         name = PARAM_PREFETCH_SIZE,
+         description = "Number of documents to read and decrypt ahead of the pipeline on background threads."
+                       + "  Default value is 0; documents are read when requested.",
+         mandatory = false
+   )
+   private int _prefetchSize = 0;
+
+   static public final String PARAM_DECRYPT_THREADS = "DecryptThreads";
+   @ConfigurationParameter(
+         name = PARAM_DECRYPT_THREADS,
+         description = "Number of threads that decrypt prefetched documents, each with its own decryptor."
+                       + "  Default value is 1.",
+         mandatory = false
+   )
+   private int _decryptThreads = 1;
+
+
+   static private final String KEYSET_ALIAS = "keyset_page";
+   // Marks the end of the notes in the prefetch queue
+   static private final NoteRow END_OF_NOTES = new NoteRow( null, null, null, null );
 
    private Connection _connection;
 
    private Decryptor _decryptor;
 
    private PreparedStatement _preparedStatement;
+   private PreparedStatement _nextPageStatement;
    private ResultSet _resultSet;
    private int _docColumnType;
    private String _docColumnTypeName;
 
+   // Reading state, used by the prefetch thread when prefetching
+   private Object _lastKey;
+   private int _pageRowCount = 0;
+   private int _readRowCount = 0;
+   private boolean _exhausted = false;
+
+   private BlockingQueue<Future<NoteRow>> _prefetchQueue;
+   private Thread _prefetchThread;
+   private ExecutorService _decryptExecutor;
+   private BlockingQueue<Decryptor> _decryptors;
+   private volatile boolean _closing = false;
+
    private long _startMillis;
    private int _totalRowCount = 0;
    private int _rowIndex = 0;
-   private String _docId;
+   private NoteRow _nextNote;
+   private Object _lastNoteKey;
 
    /**
     * {@inheritDoc}
@@ -321,6 +395,18 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       _connection = createConnection( _dbDriver, _url, _user, _pass, _keepAlive );
       _decryptor = createDecryptor( _dbDecryptor );
       _preparedStatement = createSqlStatement( _connection );
+      if ( isPrefetching() ) {
+         _prefetchQueue = new ArrayBlockingQueue<>( Math.max( _prefetchSize, _decryptThreads ) );
+         if ( isDecrypting() ) {
+            _decryptors = new ArrayBlockingQueue<>( _decryptThreads );
+            _decryptors.add( _decryptor );
+            for ( int i = 1; i < _decryptThreads; i++ ) {
+               _decryptors.add( createDecryptor( _dbDecryptor ) );
+            }
+            _decryptExecutor = Executors.newFixedThreadPool( _decryptThreads,
+                  r -> createDaemonThread( r, "JdbcNotesDecryptor" ) );
+         }
+      }
       _startMillis = System.currentTimeMillis();
    }
 
@@ -329,31 +415,19 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
     */
    @Override
    public boolean hasNext() throws IOException, CollectionException {
-      if ( _resultSet == null ) {
-         try {
-            fillResultSet();
-            setupDocColumnType();
-         } catch ( SQLException sqlE ) {
-            // thrown by createResultSet() and setupDocColumnType(), rethrow as declared CollectionException
-            throw new CollectionException( sqlE );
-         }
-      }
-      boolean hasAnotherRow;
-      try {
-         hasAnotherRow = _resultSet.next();
-         if ( hasAnotherRow ) {
-            _docId = createDocId();
+      if ( _nextNote == null ) {
+         if ( isPrefetching() ) {
+            _nextNote = takeNote();
          } else {
-            // it's important to close ResultSets as they can accumulate
-            // in the JVM heap. Too many open result sets can inadvertently
-            // cause the DB conn to be closed by the server.
-            _resultSet.close();
+            try {
+               _nextNote = nextRow() ? readNote() : END_OF_NOTES;
+            } catch ( SQLException sqlE ) {
+               // thrown by nextRow() and readNote() , rethrow as declared CollectionException
+               throw new CollectionException( sqlE );
+            }
          }
-      } catch ( SQLException sqlE ) {
-         // thrown by ResultSet.next() and ResultSet.close()
-         throw new CollectionException( sqlE );
       }
-      return hasAnotherRow;
+      return _nextNote != END_OF_NOTES;
    }
 
 
@@ -362,16 +436,21 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
     */
    @Override
    public void getNext( final JCas jCas ) throws IOException, CollectionException {
+      if ( !hasNext() ) {
+         throw new CollectionException( new IllegalStateException( "No more documents in "
+                                                                   + getClass().getName() ) );
+      }
+      final NoteRow note = _nextNote;
+      _nextNote = null;
       _rowIndex++;
       if ( jCas == null ) {
          throw new CollectionException( new NullPointerException( "Null CAS " + _rowIndex
                                                                   + " in " + getClass().getName() +
                                                                   ".getNext( JCAS )" ) );
       }
-      // pull doc text from resultset - may throw IOException
-      final String clobDocument = getClobDocument();
-      // get the plain text version of the clob document
-      final String document = getTextDocument( clobDocument );
+      // get the plain text version of the clob document, unless it was decrypted ahead of time
+      final String document = note._decrypted ? note._document
+                                              : getTextDocument( _decryptor, note._clobDocument );
       try {
          jCas.setDocumentText( document );
       } catch ( CASRuntimeException casRTE ) {
@@ -380,16 +459,17 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       }
       // Put doc Id in the cas
       final DocumentID docIdAnnot = new DocumentID( jCas );
-      docIdAnnot.setDocumentID( _docId );
+      docIdAnnot.setDocumentID( note._docId );
       docIdAnnot.addToIndexes();
-      LOGGER.info( "Reading document number " + _rowIndex + " with ID " + _docId );
-      // Set the rest of the patient and doc info
-      try {
-         setMetadata( jCas );
-      } catch ( SQLException sqlE ) {
-         // thrown by setMetaData(..) inner calls to ResultSet.get*(..) , rethrow as declared IOException
-         throw new IOException( sqlE );
+      LOGGER.info( "Reading document number " + _rowIndex + " with ID " + note._docId );
+      if ( isKeyset() ) {
+         _lastNoteKey = note._key;
+         if ( _rowIndex % _pageSize == 0 ) {
+            LOGGER.info( "Read through " + _keyColumn + " " + _lastNoteKey );
+         }
       }
+      // Set the rest of the patient and doc info
+      setMetadata( jCas, note );
    }
 
    /**
@@ -416,14 +496,22 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       final long seconds = totalSeconds % 60;
       LOGGER.info( getClass().getName() + " read " + _totalRowCount + " documents in "
                    + days + " days, " + hours + " hours, " + minutes + " minutes and " + seconds + " seconds" );
+      if ( _lastNoteKey != null ) {
+         LOGGER.info( "Last " + _keyColumn + " read was " + _lastNoteKey
+                      + " , use it as " + PARAM_START_KEY + " to resume reading after it." );
+      }
+      stopPrefetching();
       try {
-         if ( !_resultSet.isClosed() ) {
+         if ( _resultSet != null && !_resultSet.isClosed() ) {
             // Some jdbc drivers may not close the ResultSet when the PreparedStatement is closed
             _resultSet.close();
          }
          if ( !_preparedStatement.isClosed() ) {
             _preparedStatement.close();
          }
+         if ( _nextPageStatement != null && !_nextPageStatement.isClosed() ) {
+            _nextPageStatement.close();
+         }
       } catch ( SQLException sqlE ) {
          // thrown by ResultSet.close() and Statement.close()
          // rethrow as IOException to fit the declared exception type
@@ -431,6 +519,27 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       }
    }
 
+   /**
+    * @return true if documents are read and decrypted ahead of the pipeline on background threads
+    */
+   private boolean isPrefetching() {
+      return _prefetchSize > 0 || _decryptThreads > 1;
+   }
+
+   /**
+    * @return true if rows are read in pages ordered by the key column
+    */
+   private boolean isKeyset() {
+      return _keyColumn != null && !_keyColumn.trim().isEmpty();
+   }
+
+   /**
+    * @return true if documents must be decrypted
+    */
+   private boolean isDecrypting() {
+      return _decryptPass != null && !_decryptPass.trim().isEmpty();
+   }
+
    /**
     * @param connection -
     * @return a prepared statement
@@ -438,8 +547,15 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
     */
    private PreparedStatement createSqlStatement( final Connection connection ) throws ResourceInitializationException {
       try {
-         _preparedStatement = connection.prepareStatement( _sqlStatement );
-         _totalRowCount = getTotalRowCount( connection, _sqlStatement );
+         if ( isKeyset() ) {
+            _preparedStatement = createQueryStatement( connection, createKeysetSql( "SELECT * ", false ) );
+            _nextPageStatement = createQueryStatement( connection, createKeysetSql( "SELECT * ", true ) );
+            _lastKey = createStartKey( _nextPageStatement );
+            _totalRowCount = getKeysetRowCount( connection );
+         } else {
+            _preparedStatement = createQueryStatement( connection, _sqlStatement );
+            _totalRowCount = getTotalRowCount( connection, _sqlStatement );
+         }
       } catch ( SQLException sqlE ) {
          // thrown by Connection.prepareStatement(..) and getTotalRowCount(..)
          LOGGER.error( "Could not interact with Database" );
@@ -448,6 +564,112 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       return _preparedStatement;
    }
 
+   /**
+    * @param connection -
+    * @param sql        -
+    * @return a prepared statement with the fetch size and page size set
+    * @throws SQLException -
+    */
+   private PreparedStatement createQueryStatement( final Connection connection,
+                                                   final String sql ) throws SQLException {
+      final PreparedStatement statement = connection.prepareStatement( sql );
+      if ( _fetchSize > 0 ) {
+         statement.setFetchSize( _fetchSize );
+      }
+      if ( isKeyset() ) {
+         statement.setMaxRows( _pageSize );
+      }
+      return statement;
+   }
+
+   /**
+    * Wraps the user's query to select one page of rows in key order.
+    * The limit on page size is set with {@link Statement#setMaxRows(int)} as row limit syntax is not portable.
+    *
+    * @param select   select clause for the page, for instance "SELECT * "
+    * @param afterKey true to only select rows with a key greater than a statement parameter
+    * @return sql for a page of rows
+    */
+   private String createKeysetSql( final String select, final boolean afterKey ) {
+      String querySql = _sqlStatement.trim();
+      while ( querySql.endsWith( ";" ) ) {
+         querySql = querySql.substring( 0, querySql.length() - 1 ).trim();
+      }
+      final String keyColumn = KEYSET_ALIAS + '.' + _keyColumn.trim();
+      final StringBuilder sb = new StringBuilder();
+      sb.append( select )
+        .append( "FROM ( " ).append( querySql ).append( " ) " ).append( KEYSET_ALIAS );
+      if ( afterKey ) {
+         sb.append( " WHERE " ).append( keyColumn ).append( " > ?" );
+      }
+      if ( select.startsWith( "SELECT * " ) ) {
+         sb.append( " ORDER BY " ).append( keyColumn );
+      }
+      return sb.toString();
+   }
+
+   /**
+    * The user specifies the start key as text.  When the driver can describe the query the text is converted to
+    * the type of the key column, as some databases will not compare numbers to text.
+    *
+    * @param pageStatement statement for a page of rows after a key
+    * @return start key, or null if reading should start at the first row
+    * @throws SQLException if the key column is numeric but the start key is not
+    */
+   private Object createStartKey( final PreparedStatement pageStatement ) throws SQLException {
+      if ( _startKey == null || _startKey.trim().isEmpty() ) {
+         return null;
+      }
+      final String startKey = _startKey.trim();
+      int keyType = Types.VARCHAR;
+      try {
+         final ResultSetMetaData metaData = pageStatement.getMetaData();
+         if ( metaData != null ) {
+            for ( int i = 1; i <= metaData.getColumnCount(); i++ ) {
+               if ( metaData.getColumnLabel( i ).equalsIgnoreCase( _keyColumn.trim() ) ) {
+                  keyType = metaData.getColumnType( i );
+                  break;
+               }
+            }
+         }
+      } catch ( SQLException sqlE ) {
+         // thrown by drivers that cannot describe a query before it is executed, use the text
+         LOGGER.warn( "Could not determine the type of " + _keyColumn + " , using " + startKey + " as text" );
+      }
+      try {
+         switch ( keyType ) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+               return Long.valueOf( startKey );
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+               return new BigDecimal( startKey );
+            default:
+               return startKey;
+         }
+      } catch ( NumberFormatException nfE ) {
+         throw new SQLException( PARAM_START_KEY + " " + startKey + " is not a number for " + _keyColumn, nfE );
+      }
+   }
+
+   /**
+    * @param connection -
+    * @return number of rows with a key greater than the start key
+    * @throws SQLException -
+    */
+   private int getKeysetRowCount( final Connection connection ) throws SQLException {
+      final PreparedStatement countStatement
+            = connection.prepareStatement( createKeysetSql( "SELECT COUNT(*) ", _lastKey != null ) );
+      if ( _lastKey != null ) {
+         countStatement.setObject( 1, _lastKey );
+      }
+      final int totalRowCount = getTotalRowCount( countStatement );
+      LOGGER.info( "Processing row count:" + totalRowCount );
+      return totalRowCount;
+   }
+
    /**
     * Slice up the query SQL and rebuild a SQL statement that gets a row count;
     *
@@ -500,13 +722,53 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
    }
 
    /**
-    * Fetches all of the data from the db
+    * Fetches all of the data from the db, or the next page of data if a key column is used
     *
     * @throws SQLException -
     */
    private void fillResultSet() throws SQLException {
-      LOGGER.info( "SQL: " + _preparedStatement.toString() );
-      _resultSet = _preparedStatement.executeQuery();
+      PreparedStatement statement = _preparedStatement;
+      if ( _lastKey != null ) {
+         statement = _nextPageStatement;
+         statement.setObject( 1, _lastKey );
+      }
+      LOGGER.info( "SQL: " + statement.toString() );
+      _resultSet = statement.executeQuery();
+      _pageRowCount = 0;
+      if ( _docColumnTypeName == null ) {
+         setupDocColumnType();
+      }
+   }
+
+   /**
+    * Moves to the next row, querying for the next page of rows when a full page has been read.
+    *
+    * @return true if there is another row
+    * @throws SQLException -
+    */
+   private boolean nextRow() throws SQLException {
+      while ( !_exhausted ) {
+         if ( _resultSet == null ) {
+            fillResultSet();
+         }
+         if ( _resultSet.next() ) {
+            _pageRowCount++;
+            if ( isKeyset() ) {
+               _lastKey = _resultSet.getObject( _keyColumn.trim() );
+            }
+            return true;
+         }
+         // it's important to close ResultSets as they can accumulate
+         // in the JVM heap. Too many open result sets can inadvertently
+         // cause the DB conn to be closed by the server.
+         _resultSet.close();
+         if ( isKeyset() && _pageRowCount == _pageSize ) {
+            _resultSet = null;
+         } else {
+            _exhausted = true;
+         }
+      }
+      return false;
    }
 
    /**
@@ -521,17 +783,160 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       _docColumnTypeName = rsMetaData.getColumnTypeName( colIdx );
    }
 
+   /**
+    * Copies the document text and metadata out of the current row so that the result set can move on.
+    *
+    * @return the note in the current row
+    * @throws SQLException -
+    */
+   private NoteRow readNote() throws SQLException {
+      final String docId = createDocId( _readRowCount );
+      _readRowCount++;
+      final Map<String, Object> values = new HashMap<>();
+      for ( String column : new String[] { _patientIdentifier, _noteTypeCode, _noteSubtypeCode, _authorSpecialty,
+                                           _documentStandard, _sourceInstanceId, _sourceInstitution,
+                                           _sourceEncounterId, _gender, _firstName, _middleName, _lastName,
+                                           _firstNameSoundex, _lastNameSoundex } ) {
+         if ( isColumn( column ) ) {
+            values.put( column, _resultSet.getString( column ) );
+         }
+      }
+      if ( isColumn( _patientId ) ) {
+         values.put( _patientId, _resultSet.getLong( _patientId ) );
+      }
+      if ( isColumn( _sourceRevisionNumber ) ) {
+         values.put( _sourceRevisionNumber, _resultSet.getInt( _sourceRevisionNumber ) );
+      }
+      for ( String column : new String[] { _sourceRevisionDate, _sourceOriginalDate, _birthDate, _deathDate } ) {
+         if ( isColumn( column ) ) {
+            values.put( column, _resultSet.getDate( column ) );
+         }
+      }
+      // pull doc text from resultset
+      final String clobDocument = getClobDocument();
+      return new NoteRow( docId, isKeyset() ? _lastKey : null, clobDocument, values );
+   }
+
+   /**
+    * Starts the thread that reads notes into the prefetch queue
+    */
+   private void startPrefetching() {
+      _prefetchThread = createDaemonThread( this::prefetchNotes, "JdbcNotesPrefetch" );
+      _prefetchThread.start();
+   }
+
+   /**
+    * Reads notes into the prefetch queue, in order, until there are no more or the reader is closed.
+    * Decryption is done by the decryption threads, and the queue holds the future of each decrypted note.
+    */
+   private void prefetchNotes() {
+      try {
+         while ( !_closing && nextRow() ) {
+            final NoteRow note = readNote();
+            if ( _decryptExecutor == null ) {
+               // Assume that the clob document is not encrypted
+               note.setDocument( note._clobDocument );
+               _prefetchQueue.put( CompletableFuture.completedFuture( note ) );
+            } else {
+               _prefetchQueue.put( _decryptExecutor.submit( () -> decryptNote( note ) ) );
+            }
+         }
+         _prefetchQueue.put( CompletableFuture.completedFuture( END_OF_NOTES ) );
+      } catch ( InterruptedException intE ) {
+         // thrown by BlockingQueue.put(..) when the reader is closed
+      } catch ( Throwable t ) {
+         // thrown by nextRow() and readNote() , pass to the pipeline thread to be rethrown.
+         // Errors are passed as well, otherwise the pipeline thread would wait forever for the next note
+         final CompletableFuture<NoteRow> failure = new CompletableFuture<>();
+         failure.completeExceptionally( t );
+         try {
+            _prefetchQueue.put( failure );
+         } catch ( InterruptedException intE ) {
+            // closing
+         }
+         if ( t instanceof Error ) {
+            throw (Error)t;
+         }
+      }
+   }
+
+   /**
+    * @param note note with encrypted text
+    * @return the note with decrypted text
+    * @throws IOException          -
+    * @throws InterruptedException -
+    */
+   private NoteRow decryptNote( final NoteRow note ) throws IOException, InterruptedException {
+      // there is a decryptor for each thread, decryptors need not be thread safe
+      final Decryptor decryptor = _decryptors.take();
+      try {
+         note.setDocument( getTextDocument( decryptor, note._clobDocument ) );
+      } finally {
+         _decryptors.put( decryptor );
+      }
+      return note;
+   }
+
+   /**
+    * @return the next prefetched note, or END_OF_NOTES
+    * @throws CollectionException if the note could not be read or decrypted
+    */
+   private NoteRow takeNote() throws CollectionException {
+      if ( _prefetchThread == null ) {
+         startPrefetching();
+      }
+      try {
+         return _prefetchQueue.take().get();
+      } catch ( InterruptedException intE ) {
+         Thread.currentThread().interrupt();
+         throw new CollectionException( intE );
+      } catch ( ExecutionException execE ) {
+         // thrown by the prefetch or decryption threads , rethrow as declared CollectionException
+         throw new CollectionException( execE.getCause() );
+      }
+   }
+
+   /**
+    * Stops the prefetch and decryption threads
+    */
+   private void stopPrefetching() {
+      _closing = true;
+      if ( _prefetchThread != null ) {
+         _prefetchThread.interrupt();
+         try {
+            _prefetchThread.join();
+         } catch ( InterruptedException intE ) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      if ( _decryptExecutor != null ) {
+         _decryptExecutor.shutdownNow();
+      }
+   }
+
+   /**
+    * @param runnable -
+    * @param name     -
+    * @return a thread that does not keep the jvm alive
+    */
+   static private Thread createDaemonThread( final Runnable runnable, final String name ) {
+      final Thread thread = new Thread( runnable, name );
+      thread.setDaemon( true );
+      return thread;
+   }
+
 
    /**
     * Builds a document ID from one or more pieces of query data.
     * If the query data is not specified OR if an SQLException is caught, the next row # is used.
     * This method should not throw an exception that stops the entire run when a row index can be used as an identifier
     *
+    * @param rowIndex number of rows read before this one
     * @return document ID
     */
-   private String createDocId() {
+   private String createDocId( final int rowIndex ) {
       if ( _docIdColumns == null ) {
-         return String.valueOf( _rowIndex + 1 );
+         return String.valueOf( rowIndex + 1 );
       }
       final StringBuilder sb = new StringBuilder();
       // use flag to determine the first iteration in the loop, used for delimiter
@@ -549,7 +954,7 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
       } catch ( SQLException sqlE ) {
          // thrown by ResultSet.getObject(..) and should be handled in this method createDocumentID(..)
          // do not throw an exception here if there is default behavior, which is to use row number
-         return String.valueOf( _rowIndex );
+         return String.valueOf( rowIndex );
       }
       return sb.toString();
 
@@ -557,9 +962,9 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
 
    /**
     * @return raw document text
-    * @throws IOException -
+    * @throws SQLException -
     */
-   private String getClobDocument() throws IOException {
+   private String getClobDocument() throws SQLException {
       // pull doc text from resultset
       String document;
       try {
@@ -573,28 +978,28 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
             }
             document = _resultSet.getString( _docTextColumn );
          }
-      } catch ( SQLException sqlE ) {
-         // thrown by ResultSet.getString(..) and ResultSet.getClob(..) and convertToString(..)
-         // rethrow as declared IOException
-         throw new IOException( sqlE );
-         // IOException thrown by convertToString(..) , ignoring as it will be passed through as declared
+      } catch ( IOException ioE ) {
+         // thrown by convertToString(..) , rethrow as declared SQLException
+         throw new SQLException( ioE );
+         // SQLException thrown by ResultSet.getString(..) and ResultSet.getClob(..) , passed through as declared
       }
       return document;
    }
 
    /**
+    * @param decryptor    -
     * @param clobDocument raw document text
     * @return decrypted document text
     * @throws IOException -
     */
-   private String getTextDocument( final String clobDocument ) throws IOException {
-      if ( _decryptPass == null || _decryptPass.trim().isEmpty() ) {
+   private String getTextDocument( final Decryptor decryptor, final String clobDocument ) throws IOException {
+      if ( !isDecrypting() ) {
          // Assume that the clob document is not encrypted
          return clobDocument;
       }
       //Decrypt the encrypted doc
       try {
-         return _decryptor.decrypt( _decryptPass, clobDocument );
+         return decryptor.decrypt( _decryptPass, clobDocument );
       } catch ( Exception e ) {
          // raw Exception thrown by decrypt(..) , rethrow as declared IOException
          throw new IOException( e );
@@ -627,20 +1032,20 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
     * Fill the document metadata information
     *
     * @param jCas ye olde ...
-    * @throws SQLException -
+    * @param note -
     */
-   private void setMetadata( final JCas jCas ) throws SQLException {
+   private void setMetadata( final JCas jCas, final NoteRow note ) {
       final Metadata metadata = new Metadata( jCas );
-      metadata.setPatientIdentifier( getResult( _patientIdentifier ) );
-      final Long patientId = getResultLong( _patientId );
+      metadata.setPatientIdentifier( getResult( note, _patientIdentifier ) );
+      final Long patientId = (Long)note.getValue( _patientId );
       if ( patientId != null ) {
          metadata.setPatientID( patientId );
       }
 
-      final SourceData sourcedata = createSourceData( jCas );
+      final SourceData sourcedata = createSourceData( jCas, note );
       metadata.setSourceData( sourcedata );
 
-      final Demographics demographics = createDemographics( jCas );
+      final Demographics demographics = createDemographics( jCas, note );
       metadata.setDemographics( demographics );
 
       jCas.addFsToIndexes( metadata );
@@ -648,103 +1053,75 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
 
    /**
     * @param jCas ye olde ...
+    * @param note -
     * @return data about note source
-    * @throws SQLException -
     */
-   private SourceData createSourceData( final JCas jCas ) throws SQLException {
+   private SourceData createSourceData( final JCas jCas, final NoteRow note ) {
       final SourceData sourcedata = new SourceData( jCas );
-      sourcedata.setNoteTypeCode( getResult( _noteTypeCode ) );
-      sourcedata.setNoteSubTypeCode( getResult( _noteSubtypeCode ) );
-      sourcedata.setAuthorSpecialty( getResult( _authorSpecialty ) );
-      sourcedata.setDocumentStandard( getResult( _documentStandard ) );
-      sourcedata.setSourceInstanceId( getResult( _sourceInstanceId ) );
-      final Integer revision = getResultInt( _sourceRevisionNumber );
+      sourcedata.setNoteTypeCode( getResult( note, _noteTypeCode ) );
+      sourcedata.setNoteSubTypeCode( getResult( note, _noteSubtypeCode ) );
+      sourcedata.setAuthorSpecialty( getResult( note, _authorSpecialty ) );
+      sourcedata.setDocumentStandard( getResult( note, _documentStandard ) );
+      sourcedata.setSourceInstanceId( getResult( note, _sourceInstanceId ) );
+      final Integer revision = (Integer)note.getValue( _sourceRevisionNumber );
       if ( revision != null ) {
          sourcedata.setSourceRevisionNbr( revision );
       }
-      final Date revisionDate = getResultDate( _sourceRevisionDate );
+      final Date revisionDate = (Date)note.getValue( _sourceRevisionDate );
       if ( revisionDate != null ) {
          sourcedata.setSourceRevisionDate( revisionDate.toString() );
       }
-      final Date originalDate = getResultDate( _sourceOriginalDate );
+      final Date originalDate = (Date)note.getValue( _sourceOriginalDate );
       if ( originalDate != null ) {
          sourcedata.setSourceOriginalDate( originalDate.toString() );
       }
-      sourcedata.setSourceInstitution( getResult( _sourceInstitution ) );
-      sourcedata.setSourceEncounterId( getResult( _sourceEncounterId ) );
+      sourcedata.setSourceInstitution( getResult( note, _sourceInstitution ) );
+      sourcedata.setSourceEncounterId( getResult( note, _sourceEncounterId ) );
       return sourcedata;
    }
 
    /**
     * @param jCas ye olde ...
+    * @param note -
     * @return data about note patient
-    * @throws SQLException -
     */
-   private Demographics createDemographics( final JCas jCas ) throws SQLException {
+   private Demographics createDemographics( final JCas jCas, final NoteRow note ) {
       final Demographics demographics = new Demographics( jCas );
-      final Date birthDate = getResultDate( _birthDate );
+      final Date birthDate = (Date)note.getValue( _birthDate );
       if ( birthDate != null ) {
          demographics.setBirthDate( birthDate.toString() );
       }
-      final Date deathDate = getResultDate( _deathDate );
+      final Date deathDate = (Date)note.getValue( _deathDate );
       if ( deathDate != null ) {
          demographics.setDeathDate( deathDate.toString() );
       }
-      demographics.setGender( getResult( _gender ) );
-      demographics.setFirstName( getResult( _firstName ) );
-      demographics.setMiddleName( getResult( _middleName ) );
-      demographics.setLastName( getResult( _lastName ) );
-      demographics.setFirstNameSoundex( getResult( _firstNameSoundex ) );
-      demographics.setLastNameSoundex( getResult( _lastNameSoundex ) );
+      demographics.setGender( getResult( note, _gender ) );
+      demographics.setFirstName( getResult( note, _firstName ) );
+      demographics.setMiddleName( getResult( note, _middleName ) );
+      demographics.setLastName( getResult( note, _lastName ) );
+      demographics.setFirstNameSoundex( getResult( note, _firstNameSoundex ) );
+      demographics.setLastNameSoundex( getResult( note, _lastNameSoundex ) );
       return demographics;
    }
 
    /**
     * @param column column name
-    * @return text in column or empty if column name is actually not specified
-    * @throws SQLException -
+    * @return true if the column name is actually specified
     */
-   private String getResult( final String column ) throws SQLException {
-      if ( column == null || column.isEmpty() ) {
-         return "";
-      }
-      return _resultSet.getString( column );
+   static private boolean isColumn( final String column ) {
+      return column != null && !column.isEmpty();
    }
 
    /**
+    * @param note   -
     * @param column column name
-    * @return int in column or null if column name is actually not specified
-    * @throws SQLException -
-    */
-   private Integer getResultInt( final String column ) throws SQLException {
-      if ( column == null || column.isEmpty() ) {
-         return null;
-      }
-      return _resultSet.getInt( column );
-   }
-
-   /**
-    * @param column column name
-    * @return long in column or null if column name is actually not specified
-    * @throws SQLException -
-    */
-   private Long getResultLong( final String column ) throws SQLException {
-      if ( column == null || column.isEmpty() ) {
-         return null;
-      }
-      return _resultSet.getLong( column );
-   }
-
-   /**
-    * @param column column name
-    * @return date in column or null if column name is actually not specified
-    * @throws SQLException -
+    * @return text in column or empty if column name is actually not specified
     */
-   private Date getResultDate( final String column ) throws SQLException {
-      if ( column == null || column.isEmpty() ) {
-         return null;
+   static private String getResult( final NoteRow note, final String column ) {
+      if ( !isColumn( column ) ) {
+         return "";
       }
-      return _resultSet.getDate( column );
+      return (String)note.getValue( column );
    }
 
    /**
@@ -845,5 +1222,34 @@ final public class JdbcNotesReader extends JCasCollectionReader_ImplBase {
             emptyObjectArray );
    }
 
+   /**
+    * The text and metadata of one row, copied out of the result set so that the note can be read ahead of the pipeline.
+    */
+   static private final class NoteRow {
+      private final String _docId;
+      private final Object _key;
+      private final String _clobDocument;
+      private final Map<String, Object> _values;
+      private String _document;
+      private boolean _decrypted = false;
+
+      private NoteRow( final String docId, final Object key, final String clobDocument,
+                       final Map<String, Object> values ) {
+         _docId = docId;
+         _key = key;
+         _clobDocument = clobDocument;
+         _values = values;
+      }
+
+      private void setDocument( final String document ) {
+         _document = document;
+         _decrypted = true;
+      }
+
+      private Object getValue( final String column ) {
+         return _values.get( column );
+      }
+   }
+
 
 }
@@ -32,6 +32,10 @@ import org.apache.uima.jcas.tcas.Annotation;
 public class TextTokenAdapter extends BaseTokenAdapter implements TextToken
 {
 	private Annotation iv_annot;
+	// the covered text is cut from the document for every call otherwise,
+	// and a token is checked by many conditions
+	private String iv_text;
+	private String iv_lowerCaseText;
 	
 	public TextTokenAdapter(Annotation annot)
 	{	
@@ -42,6 +46,19 @@ public class TextTokenAdapter extends BaseTokenAdapter implements TextToken
 	
 	public String getText()
 	{
-		return iv_annot.getCoveredText();
+		if (iv_text == null)
+		{
+			iv_text = iv_annot.getCoveredText();
+		}
+		return iv_text;
+	}
+
+	public String getLowerCaseText()
+	{
+		if (iv_lowerCaseText == null)
+		{
+			iv_lowerCaseText = getText().toLowerCase();
+		}
+		return iv_lowerCaseText;
 	}
 }
@@ -44,10 +44,7 @@ public class TextSetCondition extends Condition {
 	public boolean satisfiedBy(Object conditional) {
 		if (conditional instanceof TextToken) {
 			TextToken t = (TextToken) conditional;
-			String text = t.getText();
-			if (!iv_isCaseSensitive) {
-				text = text.toLowerCase();
-			}
+			String text = iv_isCaseSensitive ? t.getText() : t.getLowerCaseText();
 
 			if (iv_textSet.contains(text)) {
 				return true;
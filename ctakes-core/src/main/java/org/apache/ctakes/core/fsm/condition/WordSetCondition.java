@@ -44,10 +44,7 @@ public class WordSetCondition extends Condition {
 	public boolean satisfiedBy(Object conditional) {
 		if (conditional instanceof WordToken) {
 			WordToken t = (WordToken) conditional;
-			String text = t.getText();
-			if (!iv_isCaseSensitive) {
-				text = text.toLowerCase();
-			}
+			String text = iv_isCaseSensitive ? t.getText() : t.getLowerCaseText();
 			if (iv_wordSet.contains(text)) {
 				return true;
 			}
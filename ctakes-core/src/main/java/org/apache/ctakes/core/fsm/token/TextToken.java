@@ -24,4 +24,12 @@ package org.apache.ctakes.core.fsm.token;
  */
 public interface TextToken extends BaseToken {
 	public String getText();
+
+	/**
+	 * @return the text in lower case, which implementations may keep rather
+	 *         than convert for every condition that checks it
+	 */
+	default String getLowerCaseText() {
+		return getText().toLowerCase();
+	}
 }
@@ -0,0 +1,163 @@
+package org.apache.ctakes.core.util.collection;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * A map of primitive int keys to objects, for instance semantic type ids to the terms of that type.
+ * <p>
+ * Keys and values are kept in open addressing arrays, so keys are never boxed and no entry objects are allocated.
+ * Use {@link #sortedKeys()} for a stable iteration order.
+ * Keys cannot be removed, as maps of this kind are filled once per document and then discarded.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class IntObjectMap<V> {
+
+   private int[] _keys;
+   private Object[] _values;
+   private boolean[] _used;
+   private int _size;
+
+   public IntObjectMap() {
+      this( 8 );
+   }
+
+   /**
+    * @param capacity initial number of keys
+    */
+   public IntObjectMap( final int capacity ) {
+      int length = 8;
+      while ( length < capacity * 2 ) {
+         length <<= 1;
+      }
+      _keys = new int[ length ];
+      _values = new Object[ length ];
+      _used = new boolean[ length ];
+   }
+
+   private int findSlot( final int key ) {
+      final int mask = _keys.length - 1;
+      int slot = hash( key ) & mask;
+      while ( _used[ slot ] && _keys[ slot ] != key ) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   /**
+    * @param key -
+    * @return the value for the key or null
+    */
+   @SuppressWarnings( "unchecked" )
+   public V get( final int key ) {
+      final int slot = findSlot( key );
+      return _used[ slot ] ? (V)_values[ slot ] : null;
+   }
+
+   /**
+    * @param key -
+    * @return true if the map has the key
+    */
+   public boolean containsKey( final int key ) {
+      return _used[ findSlot( key ) ];
+   }
+
+   /**
+    * @param key   -
+    * @param value -
+    * @return the previous value for the key or null
+    */
+   @SuppressWarnings( "unchecked" )
+   public V put( final int key, final V value ) {
+      final int slot = findSlot( key );
+      if ( _used[ slot ] ) {
+         final V oldValue = (V)_values[ slot ];
+         _values[ slot ] = value;
+         return oldValue;
+      }
+      insert( slot, key, value );
+      return null;
+   }
+
+   /**
+    * @param key     -
+    * @param creator creates a value for a key that is not in the map
+    * @return the existing or created value for the key
+    */
+   @SuppressWarnings( "unchecked" )
+   public V computeIfAbsent( final int key, final IntFunction<V> creator ) {
+      final int slot = findSlot( key );
+      if ( _used[ slot ] ) {
+         return (V)_values[ slot ];
+      }
+      final V value = creator.apply( key );
+      insert( slot, key, value );
+      return value;
+   }
+
+   private void insert( final int slot, final int key, final V value ) {
+      _used[ slot ] = true;
+      _keys[ slot ] = key;
+      _values[ slot ] = value;
+      _size++;
+      if ( _size * 2 > _keys.length ) {
+         grow();
+      }
+   }
+
+   private void grow() {
+      final int[] oldKeys = _keys;
+      final Object[] oldValues = _values;
+      final boolean[] oldUsed = _used;
+      _keys = new int[ oldKeys.length * 2 ];
+      _values = new Object[ oldKeys.length * 2 ];
+      _used = new boolean[ oldKeys.length * 2 ];
+      for ( int i = 0; i < oldKeys.length; i++ ) {
+         if ( oldUsed[ i ] ) {
+            final int slot = findSlot( oldKeys[ i ] );
+            _used[ slot ] = true;
+            _keys[ slot ] = oldKeys[ i ];
+            _values[ slot ] = oldValues[ i ];
+         }
+      }
+   }
+
+   public int size() {
+      return _size;
+   }
+
+   public boolean isEmpty() {
+      return _size == 0;
+   }
+
+   /**
+    * @return all keys in ascending order
+    */
+   public int[] sortedKeys() {
+      final int[] keys = new int[ _size ];
+      int k = 0;
+      for ( int i = 0; i < _keys.length; i++ ) {
+         if ( _used[ i ] ) {
+            keys[ k++ ] = _keys[ i ];
+         }
+      }
+      Arrays.sort( keys );
+      return keys;
+   }
+
+   public void clear() {
+      Arrays.fill( _used, false );
+      Arrays.fill( _values, null );
+      _size = 0;
+   }
+
+   static private int hash( final int key ) {
+      final int hash = key * 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+   }
+
+}
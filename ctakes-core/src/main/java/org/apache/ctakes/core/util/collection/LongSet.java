@@ -0,0 +1,242 @@
+package org.apache.ctakes.core.util.collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of primitive longs that iterates in insertion order.
+ * <p>
+ * Values are kept in a plain array.  Small sets, which are the norm for the cuis of a text span, are searched
+ * linearly.  Larger sets add an open addressing index into the array.  Nothing is allocated per value,
+ * and values are only boxed when the set is used as a {@code Collection<Long>}.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LongSet extends AbstractSet<Long> {
+
+   static private final int LINEAR_MAX = 8;
+
+   private long[] _values;
+   private int _size;
+   // slot holds index + 1 of a value, 0 for an empty slot.  Null until the set is larger than LINEAR_MAX
+   private int[] _index;
+
+   public LongSet() {
+      this( 2 );
+   }
+
+   /**
+    * @param capacity initial capacity
+    */
+   public LongSet( final int capacity ) {
+      _values = new long[ Math.max( 1, capacity ) ];
+   }
+
+   /**
+    * @param value -
+    * @return true if the set contains the value
+    */
+   public boolean containsLong( final long value ) {
+      return indexOf( value ) >= 0;
+   }
+
+   /**
+    * @param value -
+    * @return true if the value was added, false if it was already in the set
+    */
+   public boolean addLong( final long value ) {
+      if ( indexOf( value ) >= 0 ) {
+         return false;
+      }
+      if ( _size == _values.length ) {
+         _values = Arrays.copyOf( _values, _size * 2 );
+      }
+      _values[ _size ] = value;
+      _size++;
+      if ( _index != null ) {
+         if ( _size * 2 > _index.length ) {
+            rebuildIndex();
+         } else {
+            indexValue( _size - 1 );
+         }
+      } else if ( _size > LINEAR_MAX ) {
+         rebuildIndex();
+      }
+      return true;
+   }
+
+   /**
+    * @param value -
+    * @return true if the value was removed
+    */
+   public boolean removeLong( final long value ) {
+      final int i = indexOf( value );
+      if ( i < 0 ) {
+         return false;
+      }
+      System.arraycopy( _values, i + 1, _values, i, _size - i - 1 );
+      _size--;
+      if ( _index != null ) {
+         rebuildIndex();
+      }
+      return true;
+   }
+
+   /**
+    * @param index position in insertion order
+    * @return the value at the position
+    */
+   public long getLong( final int index ) {
+      if ( index >= _size ) {
+         throw new IndexOutOfBoundsException( index + " >= " + _size );
+      }
+      return _values[ index ];
+   }
+
+   /**
+    * @param consumer receives each value in insertion order, without boxing
+    */
+   public void forEachLong( final LongConsumer consumer ) {
+      for ( int i = 0; i < _size; i++ ) {
+         consumer.accept( _values[ i ] );
+      }
+   }
+
+   /**
+    * @return a copy of the values in insertion order
+    */
+   public long[] toLongArray() {
+      return Arrays.copyOf( _values, _size );
+   }
+
+   private int indexOf( final long value ) {
+      if ( _index == null ) {
+         for ( int i = 0; i < _size; i++ ) {
+            if ( _values[ i ] == value ) {
+               return i;
+            }
+         }
+         return -1;
+      }
+      final int mask = _index.length - 1;
+      int slot = hash( value ) & mask;
+      while ( _index[ slot ] != 0 ) {
+         final int i = _index[ slot ] - 1;
+         if ( _values[ i ] == value ) {
+            return i;
+         }
+         slot = (slot + 1) & mask;
+      }
+      return -1;
+   }
+
+   private void rebuildIndex() {
+      if ( _size <= LINEAR_MAX ) {
+         _index = null;
+         return;
+      }
+      int length = 16;
+      while ( length < _size * 4 ) {
+         length <<= 1;
+      }
+      _index = new int[ length ];
+      for ( int i = 0; i < _size; i++ ) {
+         indexValue( i );
+      }
+   }
+
+   private void indexValue( final int i ) {
+      final int mask = _index.length - 1;
+      int slot = hash( _values[ i ] ) & mask;
+      while ( _index[ slot ] != 0 ) {
+         slot = (slot + 1) & mask;
+      }
+      _index[ slot ] = i + 1;
+   }
+
+   static private int hash( final long value ) {
+      final int hash = (int)(value ^ (value >>> 32)) * 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+   }
+
+   // Collection<Long> methods, which box
+
+   @Override
+   public int size() {
+      return _size;
+   }
+
+   @Override
+   public boolean contains( final Object value ) {
+      return value instanceof Long && containsLong( (Long)value );
+   }
+
+   @Override
+   public boolean add( final Long value ) {
+      return addLong( value );
+   }
+
+   @Override
+   public boolean remove( final Object value ) {
+      return value instanceof Long && removeLong( (Long)value );
+   }
+
+   @Override
+   public boolean addAll( final Collection<? extends Long> values ) {
+      if ( values instanceof LongSet ) {
+         final LongSet longSet = (LongSet)values;
+         boolean added = false;
+         for ( int i = 0; i < longSet._size; i++ ) {
+            added |= addLong( longSet._values[ i ] );
+         }
+         return added;
+      }
+      return super.addAll( values );
+   }
+
+   @Override
+   public void clear() {
+      _size = 0;
+      _index = null;
+   }
+
+   @Override
+   public Iterator<Long> iterator() {
+      return new Iterator<Long>() {
+         private int __next;
+         private boolean __canRemove;
+
+         @Override
+         public boolean hasNext() {
+            return __next < _size;
+         }
+
+         @Override
+         public Long next() {
+            if ( __next >= _size ) {
+               throw new NoSuchElementException();
+            }
+            __canRemove = true;
+            return _values[ __next++ ];
+         }
+
+         @Override
+         public void remove() {
+            if ( !__canRemove ) {
+               throw new IllegalStateException();
+            }
+            __canRemove = false;
+            __next--;
+            removeLong( _values[ __next ] );
+         }
+      };
+   }
+
+}
@@ -0,0 +1,423 @@
+package org.apache.ctakes.core.util.collection;
+
+import java.util.*;
+
+/**
+ * A CollectionMap of keys to sets of primitive longs, for instance text spans to cui codes.
+ * <p>
+ * Keys and value sets are kept in plain arrays in insertion order, and found through an open addressing index
+ * of array positions.  No entry objects are allocated and values are not boxed, unlike a {@link HashSetMap}.
+ * Iteration is in insertion order, so maps filled in the same order always iterate the same way,
+ * and a map filled by merging partial maps in order iterates as one filled directly.
+ * Use {@link #placeLong(Object, long)} to avoid boxing the value.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LongSetMap<K> extends AbstractMap<K, LongSet> implements CollectionMap<K, Long, LongSet> {
+
+   private Object[] _keys;
+   private LongSet[] _sets;
+   // number of used positions in the arrays, including those of removed keys
+   private int _used;
+   private int _size;
+   // slot holds position + 1 of a key, 0 for an empty slot
+   private int[] _index;
+   private LongSet _emptySet;
+
+   public LongSetMap() {
+      this( 16 );
+   }
+
+   /**
+    * @param capacity initial number of keys
+    */
+   public LongSetMap( final int capacity ) {
+      final int keyCapacity = Math.max( 4, capacity );
+      _keys = new Object[ keyCapacity ];
+      _sets = new LongSet[ keyCapacity ];
+      _index = new int[ indexLength( keyCapacity ) ];
+   }
+
+   /**
+    * @param key   -
+    * @param value -
+    * @return true if the value was added to the key's set
+    */
+   public boolean placeLong( final K key, final long value ) {
+      return getOrCreateCollection( key ).addLong( value );
+   }
+
+   /**
+    * @param key   -
+    * @param value -
+    * @return true if the key's set contains the value
+    */
+   public boolean containsLong( final K key, final long value ) {
+      final int position = findPosition( key );
+      return position >= 0 && _sets[ position ].containsLong( value );
+   }
+
+   private int findPosition( final Object key ) {
+      if ( key == null ) {
+         return -1;
+      }
+      final int mask = _index.length - 1;
+      int slot = hash( key ) & mask;
+      while ( _index[ slot ] != 0 ) {
+         final int position = _index[ slot ] - 1;
+         if ( key.equals( _keys[ position ] ) ) {
+            return position;
+         }
+         slot = (slot + 1) & mask;
+      }
+      return -1;
+   }
+
+   private int findSlot( final int position ) {
+      final int mask = _index.length - 1;
+      int slot = hash( _keys[ position ] ) & mask;
+      while ( _index[ slot ] != position + 1 ) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   private int addKey( final K key, final LongSet set ) {
+      if ( key == null ) {
+         throw new NullPointerException( "Null keys are not supported" );
+      }
+      if ( _used == _keys.length ) {
+         if ( _size * 2 < _used ) {
+            compact();
+         } else {
+            _keys = Arrays.copyOf( _keys, _used * 2 );
+            _sets = Arrays.copyOf( _sets, _used * 2 );
+         }
+      }
+      final int position = _used;
+      _keys[ position ] = key;
+      _sets[ position ] = set;
+      _used++;
+      _size++;
+      if ( _size * 2 > _index.length ) {
+         rebuildIndex();
+      } else {
+         indexPosition( position );
+      }
+      return position;
+   }
+
+   private void removePosition( final int position ) {
+      // Backward shift deletion keeps probe sequences intact without tombstones
+      final int mask = _index.length - 1;
+      int hole = findSlot( position );
+      int slot = hole;
+      while ( true ) {
+         slot = (slot + 1) & mask;
+         if ( _index[ slot ] == 0 ) {
+            break;
+         }
+         final int home = hash( _keys[ _index[ slot ] - 1 ] ) & mask;
+         final boolean stays = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+         if ( !stays ) {
+            _index[ hole ] = _index[ slot ];
+            hole = slot;
+         }
+      }
+      _index[ hole ] = 0;
+      _keys[ position ] = null;
+      _sets[ position ] = null;
+      _size--;
+   }
+
+   /**
+    * Remove the gaps left by removed keys, keeping insertion order
+    */
+   private void compact() {
+      int to = 0;
+      for ( int from = 0; from < _used; from++ ) {
+         if ( _keys[ from ] != null ) {
+            _keys[ to ] = _keys[ from ];
+            _sets[ to ] = _sets[ from ];
+            to++;
+         }
+      }
+      Arrays.fill( _keys, to, _used, null );
+      Arrays.fill( _sets, to, _used, null );
+      _used = to;
+      rebuildIndex();
+   }
+
+   private void rebuildIndex() {
+      _index = new int[ indexLength( _size ) ];
+      for ( int position = 0; position < _used; position++ ) {
+         if ( _keys[ position ] != null ) {
+            indexPosition( position );
+         }
+      }
+   }
+
+   private void indexPosition( final int position ) {
+      final int mask = _index.length - 1;
+      int slot = hash( _keys[ position ] ) & mask;
+      while ( _index[ slot ] != 0 ) {
+         slot = (slot + 1) & mask;
+      }
+      _index[ slot ] = position + 1;
+   }
+
+   static private int indexLength( final int keyCount ) {
+      int length = 16;
+      while ( length < keyCount * 4 ) {
+         length <<= 1;
+      }
+      return length;
+   }
+
+   static private int hash( final Object key ) {
+      final int hash = key.hashCode() * 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+   }
+
+   @SuppressWarnings( "unchecked" )
+   private K getKey( final int position ) {
+      return (K)_keys[ position ];
+   }
+
+   // CollectionMap
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Iterator<Map.Entry<K, LongSet>> iterator() {
+      return entrySet().iterator();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<LongSet> getAllCollections() {
+      final Collection<LongSet> sets = new ArrayList<>( _size );
+      for ( int position = 0; position < _used; position++ ) {
+         if ( _keys[ position ] != null ) {
+            sets.add( _sets[ position ] );
+         }
+      }
+      return sets;
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * @return the set for the key or an empty set that must not be modified
+    */
+   @Override
+   public LongSet getCollection( final K key ) {
+      final int position = findPosition( key );
+      if ( position >= 0 ) {
+         return _sets[ position ];
+      }
+      if ( _emptySet == null ) {
+         _emptySet = new LongSet( 1 );
+      }
+      return _emptySet;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public LongSet getOrCreateCollection( final K key ) {
+      final int position = findPosition( key );
+      if ( position >= 0 ) {
+         return _sets[ position ];
+      }
+      final LongSet set = new LongSet();
+      addKey( key, set );
+      return set;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public boolean containsValue( final K key, final Long value ) {
+      return containsLong( key, value );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public boolean placeValue( final K key, final Long value ) {
+      return placeLong( key, value );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public boolean placeMap( final Map<K, Long> map ) {
+      boolean placedAny = false;
+      for ( Map.Entry<K, Long> entry : map.entrySet() ) {
+         placedAny |= placeLong( entry.getKey(), entry.getValue() );
+      }
+      return placedAny;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void removeValue( final K key, final Long value ) {
+      final int position = findPosition( key );
+      if ( position >= 0 ) {
+         _sets[ position ].removeLong( value );
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public <C extends Collection<Long>> int addAllValues( final K key, final C values ) {
+      if ( values == null || values.isEmpty() ) {
+         return 0;
+      }
+      final LongSet set = getOrCreateCollection( key );
+      final int oldSize = set.size();
+      set.addAll( values );
+      return set.size() - oldSize;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void clearCollection( final K key ) {
+      final int position = findPosition( key );
+      if ( position >= 0 ) {
+         _sets[ position ].clear();
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Map<K, LongSet> toSimpleMap() {
+      return this;
+   }
+
+   // Map
+
+   @Override
+   public int size() {
+      return _size;
+   }
+
+   @Override
+   public boolean containsKey( final Object key ) {
+      return findPosition( key ) >= 0;
+   }
+
+   @Override
+   public LongSet get( final Object key ) {
+      final int position = findPosition( key );
+      return position >= 0 ? _sets[ position ] : null;
+   }
+
+   @Override
+   public LongSet put( final K key, final LongSet set ) {
+      final int position = findPosition( key );
+      if ( position >= 0 ) {
+         final LongSet oldSet = _sets[ position ];
+         _sets[ position ] = set;
+         return oldSet;
+      }
+      addKey( key, set );
+      return null;
+   }
+
+   @Override
+   public LongSet remove( final Object key ) {
+      final int position = findPosition( key );
+      if ( position < 0 ) {
+         return null;
+      }
+      final LongSet oldSet = _sets[ position ];
+      removePosition( position );
+      return oldSet;
+   }
+
+   @Override
+   public void clear() {
+      Arrays.fill( _keys, 0, _used, null );
+      Arrays.fill( _sets, 0, _used, null );
+      Arrays.fill( _index, 0 );
+      _used = 0;
+      _size = 0;
+   }
+
+   @Override
+   public Set<Map.Entry<K, LongSet>> entrySet() {
+      return new AbstractSet<Map.Entry<K, LongSet>>() {
+         @Override
+         public int size() {
+            return _size;
+         }
+
+         @Override
+         public Iterator<Map.Entry<K, LongSet>> iterator() {
+            return new Iterator<Map.Entry<K, LongSet>>() {
+               private int __next = nextPosition( 0 );
+               private int __current = -1;
+
+               private int nextPosition( int position ) {
+                  while ( position < _used && _keys[ position ] == null ) {
+                     position++;
+                  }
+                  return position;
+               }
+
+               @Override
+               public boolean hasNext() {
+                  return __next < _used;
+               }
+
+               @Override
+               public Map.Entry<K, LongSet> next() {
+                  if ( __next >= _used ) {
+                     throw new NoSuchElementException();
+                  }
+                  __current = __next;
+                  __next = nextPosition( __next + 1 );
+                  final int position = __current;
+                  return new SimpleEntry<K, LongSet>( getKey( position ), _sets[ position ] ) {
+                     @Override
+                     public LongSet setValue( final LongSet set ) {
+                        _sets[ position ] = set;
+                        return super.setValue( set );
+                     }
+                  };
+               }
+
+               @Override
+               public void remove() {
+                  if ( __current < 0 || _keys[ __current ] == null ) {
+                     throw new IllegalStateException();
+                  }
+                  // positions do not move on removal, so iteration can continue
+                  removePosition( __current );
+               }
+            };
+         }
+      };
+   }
+
+}
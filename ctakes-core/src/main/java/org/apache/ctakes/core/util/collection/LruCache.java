@@ -0,0 +1,177 @@
+package org.apache.ctakes.core.util.collection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded least-recently-used cache that can be shared by multiple threads.
+ * Entries are split among segments, each with its own lock, so that threads rarely contend.
+ * Hit, miss and eviction counts are kept for monitoring.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class LruCache<K, V> {
+
+   static private final int SEGMENT_COUNT = 16;
+
+   private final String _name;
+   private final Segment<K, V>[] _segments;
+   private final AtomicLong _hits = new AtomicLong();
+   private final AtomicLong _misses = new AtomicLong();
+   private final AtomicLong _evictions = new AtomicLong();
+
+   /**
+    * @param name       name of the cache, used for statistics
+    * @param maxEntries maximum number of entries kept in the cache
+    */
+   @SuppressWarnings( { "unchecked", "rawtypes" } )
+   public LruCache( final String name, final int maxEntries ) {
+      _name = name;
+      final int segmentMax = Math.max( 1, maxEntries / SEGMENT_COUNT );
+      _segments = new Segment[ SEGMENT_COUNT ];
+      for ( int i = 0; i < SEGMENT_COUNT; i++ ) {
+         _segments[ i ] = new Segment<>( segmentMax, _evictions );
+      }
+   }
+
+   /**
+    * @param key -
+    * @return the cached value or null if the key is not cached
+    */
+   public V get( final K key ) {
+      final Segment<K, V> segment = getSegment( key );
+      final V value;
+      synchronized ( segment ) {
+         value = segment.get( key );
+      }
+      if ( value == null ) {
+         _misses.incrementAndGet();
+      } else {
+         _hits.incrementAndGet();
+      }
+      return value;
+   }
+
+   /**
+    * Checks for a key without counting a hit or miss and without changing the eviction order.
+    *
+    * @param key -
+    * @return true if the key is cached
+    */
+   public boolean containsKey( final K key ) {
+      final Segment<K, V> segment = getSegment( key );
+      synchronized ( segment ) {
+         return segment.containsKey( key );
+      }
+   }
+
+   /**
+    * @param key   -
+    * @param value -
+    */
+   public void put( final K key, final V value ) {
+      final Segment<K, V> segment = getSegment( key );
+      synchronized ( segment ) {
+         segment.put( key, value );
+      }
+   }
+
+   /**
+    * @return number of entries currently in the cache
+    */
+   public int size() {
+      int size = 0;
+      for ( Segment<K, V> segment : _segments ) {
+         synchronized ( segment ) {
+            size += segment.size();
+         }
+      }
+      return size;
+   }
+
+   /**
+    * Passes every entry to the consumer, one segment at a time, without changing the eviction order.
+    *
+    * @param consumer -
+    */
+   public void forEach( final BiConsumer<? super K, ? super V> consumer ) {
+      for ( Segment<K, V> segment : _segments ) {
+         synchronized ( segment ) {
+            segment.forEach( consumer );
+         }
+      }
+   }
+
+   /**
+    * Remove all entries.  Statistics are not reset.
+    */
+   public void clear() {
+      for ( Segment<K, V> segment : _segments ) {
+         synchronized ( segment ) {
+            segment.clear();
+         }
+      }
+   }
+
+   public long getHitCount() {
+      return _hits.get();
+   }
+
+   public long getMissCount() {
+      return _misses.get();
+   }
+
+   public long getEvictionCount() {
+      return _evictions.get();
+   }
+
+   /**
+    * @return fraction of requests that were cache hits, 0 if there have been no requests
+    */
+   public double getHitRate() {
+      final long hits = _hits.get();
+      final long total = hits + _misses.get();
+      return total == 0 ? 0 : (double)hits / total;
+   }
+
+   /**
+    * @return a single line with the cache name, size and statistics
+    */
+   public String getStatistics() {
+      return String.format( "%s cache : %d entries , %d hits , %d misses , %.1f%% hit rate , %d evictions",
+            _name, size(), getHitCount(), getMissCount(), getHitRate() * 100, getEvictionCount() );
+   }
+
+   private Segment<K, V> getSegment( final K key ) {
+      final int hash = key.hashCode();
+      return _segments[ (hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1) ];
+   }
+
+   /**
+    * Access ordered map that removes the eldest entry when full.
+    */
+   static private final class Segment<K, V> extends LinkedHashMap<K, V> {
+      private final int __maxEntries;
+      private final AtomicLong __evictions;
+
+      private Segment( final int maxEntries, final AtomicLong evictions ) {
+         super( 16, 0.75f, true );
+         __maxEntries = maxEntries;
+         __evictions = evictions;
+      }
+
+      @Override
+      protected boolean removeEldestEntry( final Map.Entry<K, V> eldest ) {
+         if ( size() > __maxEntries ) {
+            __evictions.incrementAndGet();
+            return true;
+         }
+         return false;
+      }
+   }
+
+}
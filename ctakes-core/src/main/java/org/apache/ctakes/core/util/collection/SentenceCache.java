@@ -0,0 +1,330 @@
+package org.apache.ctakes.core.util.collection;
+
+import org.apache.ctakes.core.concurrent.SharedResourceCache;
+import org.apache.log4j.Logger;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the results of a sentence level model, keyed by the token content of the sentence.
+ * <p>
+ * Clinical notes are full of templated sentences, such as "No known drug allergies." and signature blocks,
+ * that are tagged and parsed again in every note.  An annotator can instead look up the results for a sentence
+ * by a key made of its tokens and any other inputs of the model, and replay them on the tokens of the sentence.
+ * Results must therefore be stored relative to the tokens of the sentence and not to document offsets.
+ * </p>
+ * <p>
+ * The cache is bounded by a least recently used policy and may be shared by annotators on many threads.
+ * It can be saved to a file at the end of a run and loaded by the next run.
+ * The file is only loaded if it was written for the same model.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class SentenceCache<V> {
+
+   static private final Logger LOGGER = Logger.getLogger( "SentenceCache" );
+
+   /**
+    * Annotators that use a sentence cache declare parameters with these names.
+    */
+   static public final String PARAM_CACHE_SIZE = "SentenceCacheSize";
+   static public final String CACHE_SIZE_DESC = "Maximum number of sentences for which results are remembered."
+                                                + "  Default value is 0; no sentence cache is used.";
+   static public final String PARAM_CACHE_FILE = "SentenceCacheFile";
+   static public final String CACHE_FILE_DESC = "File in which remembered sentence results are kept between runs.";
+
+   /**
+    * Long sentences rarely repeat and would make large keys, so they are not cached.
+    */
+   static public final int MAX_KEY_TOKENS = 100;
+
+   static private final String FILE_HEADER = "ctakes sentence cache 1";
+   static private final char TOKEN_SEPARATOR = '\u001F';
+   static private final char FEATURE_SEPARATOR = '\u001E';
+   static private final char NULL_VALUE = '\u0000';
+
+   /**
+    * Writes and reads cached values for a cache file.
+    *
+    * @param <V> value type
+    */
+   public interface Codec<V> {
+      void write( DataOutput output, V value ) throws IOException;
+
+      V read( DataInput input ) throws IOException;
+   }
+
+   /**
+    * Codec for arrays of tags or labels.  Read text is interned as tag sets are small.
+    */
+   static public final Codec<String[]> STRING_ARRAY_CODEC = new Codec<String[]>() {
+      @Override
+      public void write( final DataOutput output, final String[] value ) throws IOException {
+         output.writeInt( value.length );
+         for ( String text : value ) {
+            writeText( output, text );
+         }
+      }
+
+      @Override
+      public String[] read( final DataInput input ) throws IOException {
+         final String[] value = new String[ input.readInt() ];
+         for ( int i = 0; i < value.length; i++ ) {
+            final String text = readText( input );
+            value[ i ] = text == null ? null : text.intern();
+         }
+         return value;
+      }
+   };
+
+   private final String _name;
+   private final String _model;
+   private final File _cacheFile;
+   private final Codec<V> _codec;
+   private final LruCache<String, V> _cache;
+   private final AtomicLong _computeNanos = new AtomicLong();
+   private final AtomicLong _computeCount = new AtomicLong();
+
+   /**
+    * @param name       name of the cache, used for statistics
+    * @param model      the model that produces cached values, for instance a model file path
+    * @param maxEntries maximum number of sentences in the cache
+    * @param cacheFile  file from which the cache is loaded and to which it is saved, may be null
+    * @param codec      writes and reads values for the cache file, may be null if there is no cache file
+    */
+   public SentenceCache( final String name, final String model, final int maxEntries,
+                         final File cacheFile, final Codec<V> codec ) {
+      _name = name;
+      _model = model;
+      _cacheFile = cacheFile;
+      _codec = codec;
+      _cache = new LruCache<>( name, maxEntries );
+      if ( _cacheFile != null && _cacheFile.isFile() ) {
+         load();
+      }
+   }
+
+   /**
+    * Annotator instances for the same model share one cache, which is created by the first instance.
+    *
+    * @param name       name of the cache, used for statistics
+    * @param model      the model that produces cached values, for instance a model file path
+    * @param maxEntries maximum number of sentences in the cache.  If 0 or less then null is returned.
+    * @param cachePath  path to the file from which the cache is loaded and to which it is saved, may be null
+    * @param codec      writes and reads values for the cache file
+    * @param <V>        value type
+    * @return a sentence cache shared by all annotators with the same name and model, or null if size is 0
+    * @throws ResourceInitializationException -
+    */
+   static public <V> SentenceCache<V> getSharedCache( final String name, final String model, final int maxEntries,
+                                                      final String cachePath, final Codec<V> codec )
+         throws ResourceInitializationException {
+      if ( maxEntries <= 0 ) {
+         return null;
+      }
+      final File cacheFile = cachePath == null || cachePath.trim().isEmpty() ? null : new File( cachePath.trim() );
+      return SharedResourceCache.getInstance().getResource( SentenceCache.class.getName() + ":" + name + ":" + model,
+            () -> new SentenceCache<>( name, model, maxEntries, cacheFile, codec ) );
+   }
+
+   /**
+    * @param words    text of the tokens in the sentence
+    * @param features any other per-token model inputs, for instance part of speech tags
+    * @return a key for the sentence, or null if the sentence is empty or too long to cache
+    */
+   static public String createKey( final String[] words, final String[]... features ) {
+      if ( words.length == 0 || words.length > MAX_KEY_TOKENS ) {
+         return null;
+      }
+      final StringBuilder sb = new StringBuilder();
+      appendValues( sb, words );
+      for ( String[] feature : features ) {
+         sb.append( FEATURE_SEPARATOR );
+         appendValues( sb, feature );
+      }
+      return sb.toString();
+   }
+
+   static private void appendValues( final StringBuilder sb, final String[] values ) {
+      for ( int i = 0; i < values.length; i++ ) {
+         if ( i > 0 ) {
+            sb.append( TOKEN_SEPARATOR );
+         }
+         if ( values[ i ] == null ) {
+            sb.append( NULL_VALUE );
+         } else {
+            sb.append( values[ i ] );
+         }
+      }
+   }
+
+   /**
+    * @param key sentence key from {@link #createKey(String[], String[]...)}, may be null
+    * @return cached results for the sentence, or null if there are none
+    */
+   public V get( final String key ) {
+      if ( key == null ) {
+         return null;
+      }
+      return _cache.get( key );
+   }
+
+   /**
+    * @param key          sentence key from {@link #createKey(String[], String[]...)}, may be null
+    * @param value        results for the sentence
+    * @param computeNanos time taken to compute the results, used to estimate the time saved by the cache
+    */
+   public void put( final String key, final V value, final long computeNanos ) {
+      if ( key == null || value == null ) {
+         return;
+      }
+      _cache.put( key, value );
+      _computeNanos.addAndGet( computeNanos );
+      _computeCount.incrementAndGet();
+   }
+
+   public double getHitRate() {
+      return _cache.getHitRate();
+   }
+
+   /**
+    * @return estimated milliseconds saved by cache hits, based upon the average time to compute results
+    */
+   public long getMillisSaved() {
+      final long count = _computeCount.get();
+      if ( count == 0 ) {
+         return 0;
+      }
+      return _cache.getHitCount() * (_computeNanos.get() / count) / 1000000;
+   }
+
+   /**
+    * @return a single line with the cache size, hit rate and estimated time saved
+    */
+   public String getStatistics() {
+      return _cache.getStatistics() + " , about " + getMillisSaved() + " ms saved";
+   }
+
+   /**
+    * Logs statistics and saves the cache to the cache file if there is one.
+    * Safe to call from more than one annotator sharing the cache.
+    */
+   public void complete() {
+      LOGGER.info( getStatistics() );
+      if ( _cacheFile != null ) {
+         save();
+      }
+   }
+
+   /**
+    * Writes the cache to a temporary file that then replaces the cache file.
+    */
+   synchronized private void save() {
+      final File parent = _cacheFile.getAbsoluteFile().getParentFile();
+      try {
+         if ( parent != null ) {
+            Files.createDirectories( parent.toPath() );
+         }
+         final File tempFile = File.createTempFile( _cacheFile.getName(), ".tmp", parent );
+         final int[] count = { 0 };
+         try ( DataOutputStream output
+                     = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tempFile ) ) ) ) {
+            output.writeUTF( FILE_HEADER );
+            writeText( output, _model );
+            final IOException[] writeError = { null };
+            _cache.forEach( ( key, value ) -> {
+               if ( writeError[ 0 ] != null ) {
+                  return;
+               }
+               try {
+                  output.writeBoolean( true );
+                  writeText( output, key );
+                  _codec.write( output, value );
+                  count[ 0 ]++;
+               } catch ( IOException ioE ) {
+                  writeError[ 0 ] = ioE;
+               }
+            } );
+            if ( writeError[ 0 ] != null ) {
+               throw writeError[ 0 ];
+            }
+            output.writeBoolean( false );
+         }
+         Files.move( tempFile.toPath(), _cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+         LOGGER.info( "Saved " + count[ 0 ] + " sentences to " + _cacheFile.getPath() );
+      } catch ( IOException ioE ) {
+         // A cache that cannot be saved should not stop the pipeline
+         LOGGER.error( "Could not save " + _name + " sentence cache to " + _cacheFile.getPath()
+                       + " : " + ioE.getMessage() );
+      }
+   }
+
+   /**
+    * Loads the cache file if it was written for the same model
+    */
+   private void load() {
+      int count = 0;
+      try ( DataInputStream input
+                  = new DataInputStream( new BufferedInputStream( new FileInputStream( _cacheFile ) ) ) ) {
+         if ( !FILE_HEADER.equals( input.readUTF() ) ) {
+            LOGGER.warn( _cacheFile.getPath() + " is not a sentence cache file, it will be replaced." );
+            return;
+         }
+         final String model = readText( input );
+         if ( !_model.equals( model ) ) {
+            LOGGER.warn( _cacheFile.getPath() + " was written for " + model + " , not " + _model
+                         + " , it will be replaced." );
+            return;
+         }
+         while ( input.readBoolean() ) {
+            _cache.put( readText( input ), _codec.read( input ) );
+            count++;
+         }
+      } catch ( IOException ioE ) {
+         // A damaged cache file only costs time
+         LOGGER.warn( "Could not read all of " + _cacheFile.getPath() + " : " + ioE.getMessage() );
+      }
+      LOGGER.info( "Loaded " + count + " sentences from " + _cacheFile.getPath() );
+   }
+
+   /**
+    * Writes text that may be longer than {@link DataOutput#writeUTF(String)} allows, or null.
+    *
+    * @param output -
+    * @param text   -
+    * @throws IOException -
+    */
+   static public void writeText( final DataOutput output, final String text ) throws IOException {
+      if ( text == null ) {
+         output.writeInt( -1 );
+         return;
+      }
+      final byte[] bytes = text.getBytes( StandardCharsets.UTF_8 );
+      output.writeInt( bytes.length );
+      output.write( bytes );
+   }
+
+   /**
+    * @param input -
+    * @return text written by {@link #writeText(DataOutput, String)}
+    * @throws IOException -
+    */
+   static public String readText( final DataInput input ) throws IOException {
+      final int length = input.readInt();
+      if ( length < 0 ) {
+         return null;
+      }
+      final byte[] bytes = new byte[ length ];
+      input.readFully( bytes );
+      return new String( bytes, StandardCharsets.UTF_8 );
+   }
+
+}
@@ -0,0 +1,296 @@
+package org.apache.ctakes.core.util.regex;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the matches of many regular expressions with one pass over the lines of a text.
+ * <p>
+ * Most section header and footer expressions are anchored to the start of a line with "^" in multiline mode.
+ * Such an expression can only match at a line start, and usually only at a line that starts with a few characters.
+ * When the finder is created, each expression is probed with every ascii character to learn which characters
+ * can begin a match.  The text is then walked line by line, and only the expressions that can begin with the first
+ * character of a line are tried there.  Expressions that are not anchored to line starts are run over the whole text.
+ * </p>
+ * <p>
+ * Matches are exactly those of {@link Matcher#find()} run repeatedly for each expression on its own, including the
+ * skipping of matches that overlap the previous match of the same expression.
+ * As with {@link TimeoutMatcher}, an expression that takes longer than the timeout at one place is abandoned
+ * for the rest of the text, keeping the matches found before it.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MultiPatternFinder {
+
+   static private final Logger LOGGER = Logger.getLogger( "MultiPatternFinder" );
+
+   static private final int DEFAULT_TIMEOUT_MILLIS = 1000;
+   static private final int ASCII = 128;
+
+   /**
+    * Receives each match
+    */
+   @FunctionalInterface
+   public interface MatchConsumer {
+      /**
+       * @param patternIndex index of the matching pattern in the list given to the finder
+       * @param matcher      matcher for the match.  It is only valid during the call
+       */
+      void accept( int patternIndex, Matcher matcher );
+   }
+
+   private final List<Pattern> _patterns;
+   private final int _timeoutMillis;
+   // indices of line anchored patterns that can match lines starting with each ascii character, then any other
+   private final int[][] _lineCandidates;
+   private final int[] _unanchored;
+
+   /**
+    * Uses the default timeout of 1000 milliseconds
+    *
+    * @param patterns patterns to find
+    */
+   public MultiPatternFinder( final List<Pattern> patterns ) {
+      this( patterns, DEFAULT_TIMEOUT_MILLIS );
+   }
+
+   /**
+    * @param patterns      patterns to find
+    * @param timeoutMillis milliseconds at which a match attempt of a pattern should abort
+    */
+   public MultiPatternFinder( final List<Pattern> patterns, final int timeoutMillis ) {
+      _patterns = Collections.unmodifiableList( new ArrayList<>( patterns ) );
+      _timeoutMillis = timeoutMillis;
+      final List<List<Integer>> candidates = new ArrayList<>( ASCII + 1 );
+      for ( int c = 0; c <= ASCII; c++ ) {
+         candidates.add( new ArrayList<>() );
+      }
+      final List<Integer> unanchored = new ArrayList<>();
+      for ( int i = 0; i < _patterns.size(); i++ ) {
+         final Pattern pattern = _patterns.get( i );
+         if ( !isLineAnchored( pattern ) ) {
+            unanchored.add( i );
+            continue;
+         }
+         // lookbehind can read text before the line start, which a probe does not have
+         final boolean canProbe = !pattern.pattern().contains( "(?<=" ) && !pattern.pattern().contains( "(?<!" );
+         for ( int c = 0; c < ASCII; c++ ) {
+            if ( !canProbe || canBeginWith( pattern, (char)c ) ) {
+               candidates.get( c ).add( i );
+            }
+         }
+         candidates.get( ASCII ).add( i );
+      }
+      _lineCandidates = new int[ ASCII + 1 ][];
+      for ( int c = 0; c <= ASCII; c++ ) {
+         _lineCandidates[ c ] = toArray( candidates.get( c ) );
+      }
+      _unanchored = toArray( unanchored );
+      LOGGER.debug( (_patterns.size() - _unanchored.length) + " of " + _patterns.size()
+                    + " patterns are matched line by line" );
+   }
+
+   /**
+    * @return the patterns of this finder
+    */
+   public List<Pattern> getPatterns() {
+      return _patterns;
+   }
+
+   /**
+    * @param text     text in which to find matches
+    * @param consumer receives each match, in order of text position for each pattern
+    */
+   public void findAll( final String text, final MatchConsumer consumer ) {
+      if ( text == null || text.isEmpty() ) {
+         return;
+      }
+      final ThreadString threadText = new ThreadString( text );
+      final Matcher[] matchers = new Matcher[ _patterns.size() ];
+      final int[] nextStarts = new int[ _patterns.size() ];
+      final int length = text.length();
+      int lineStart = 0;
+      while ( lineStart < length ) {
+         final char c = text.charAt( lineStart );
+         final int[] candidates = _lineCandidates[ c < ASCII ? c : ASCII ];
+         for ( int index : candidates ) {
+            if ( lineStart < nextStarts[ index ] ) {
+               // abandoned, or inside the previous match of the pattern
+               continue;
+            }
+            Matcher matcher = matchers[ index ];
+            if ( matcher == null ) {
+               matcher = _patterns.get( index ).matcher( threadText );
+               matcher.useTransparentBounds( true );
+               matcher.useAnchoringBounds( false );
+               matchers[ index ] = matcher;
+            }
+            matcher.region( lineStart, length );
+            threadText.startBudget( _timeoutMillis );
+            try {
+               if ( matcher.lookingAt() ) {
+                  nextStarts[ index ] = matcher.end() > matcher.start() ? matcher.end() : matcher.end() + 1;
+                  threadText.stopBudget();
+                  consumer.accept( index, matcher );
+               }
+            } catch ( ThreadString.MatchAbortedException maE ) {
+               LOGGER.error( maE.getMessage() + " while detecting " + matcher.pattern() );
+               nextStarts[ index ] = Integer.MAX_VALUE;
+            }
+            threadText.stopBudget();
+         }
+         lineStart = nextLineStart( text, lineStart );
+      }
+      for ( int index : _unanchored ) {
+         findUnanchored( threadText, index, consumer );
+      }
+   }
+
+   private void findUnanchored( final ThreadString threadText, final int index, final MatchConsumer consumer ) {
+      final Matcher matcher = _patterns.get( index ).matcher( threadText );
+      try {
+         threadText.startBudget( _timeoutMillis );
+         while ( matcher.find() ) {
+            threadText.stopBudget();
+            consumer.accept( index, matcher );
+            threadText.startBudget( _timeoutMillis );
+         }
+      } catch ( ThreadString.MatchAbortedException maE ) {
+         LOGGER.error( maE.getMessage() + " while detecting " + matcher.pattern() );
+      } finally {
+         threadText.stopBudget();
+      }
+   }
+
+   /**
+    * Line starts are where "^" matches in multiline mode : after a line feed, carriage return, both,
+    * next line or a unicode line or paragraph separator,
+    * but not at the end of the text.
+    *
+    * @param text      -
+    * @param lineStart start of the current line
+    * @return start of the next line, or the text length if there is none
+    */
+   static private int nextLineStart( final String text, final int lineStart ) {
+      final int length = text.length();
+      for ( int i = lineStart; i < length; i++ ) {
+         final char c = text.charAt( i );
+         if ( c == '\n' || c == '\u0085' || (c | 1) == '\u2029' ) {
+            return i + 1;
+         }
+         if ( c == '\r' ) {
+            return i + 1 < length && text.charAt( i + 1 ) == '\n' ? i + 2 : i + 1;
+         }
+      }
+      return length;
+   }
+
+   /**
+    * @param pattern -
+    * @param c       character at the start of a line
+    * @return false if the pattern cannot match text that begins with the character
+    */
+   static private boolean canBeginWith( final Pattern pattern, final char c ) {
+      final Matcher matcher = pattern.matcher( String.valueOf( c ) );
+      // If the engine failed without reading past the character then no longer text starting with it can match
+      return matcher.lookingAt() || matcher.hitEnd();
+   }
+
+   /**
+    * @param pattern -
+    * @return true if the pattern is in multiline mode and every match must begin with "^"
+    */
+   static boolean isLineAnchored( final Pattern pattern ) {
+      final int flags = pattern.flags();
+      if ( (flags & Pattern.MULTILINE) == 0
+           || (flags & (Pattern.UNIX_LINES | Pattern.COMMENTS | Pattern.LITERAL)) != 0 ) {
+         return false;
+      }
+      final String regex = pattern.pattern();
+      int i = 0;
+      // leading inline flags such as (?i) , as long as they don't change line handling
+      while ( regex.startsWith( "(?", i ) ) {
+         final int close = regex.indexOf( ')', i );
+         if ( close < 0 ) {
+            return false;
+         }
+         final String inlineFlags = regex.substring( i + 2, close );
+         if ( !inlineFlags.matches( "[a-zA-Z]+" ) || inlineFlags.indexOf( 'd' ) >= 0
+              || inlineFlags.indexOf( 'x' ) >= 0 ) {
+            return false;
+         }
+         i = close + 1;
+      }
+      if ( i >= regex.length() || regex.charAt( i ) != '^' ) {
+         return false;
+      }
+      i++;
+      if ( i < regex.length() && "?*{".indexOf( regex.charAt( i ) ) >= 0 ) {
+         // optional anchor
+         return false;
+      }
+      return !regex.contains( "\\G" ) && !hasTopLevelAlternation( regex, i );
+   }
+
+   /**
+    * @param regex -
+    * @param start index at which to start the scan
+    * @return true if the regex has a | outside of all groups and character classes
+    */
+   static private boolean hasTopLevelAlternation( final String regex, final int start ) {
+      int groupDepth = 0;
+      int classDepth = 0;
+      for ( int i = start; i < regex.length(); i++ ) {
+         final char c = regex.charAt( i );
+         if ( c == '\\' ) {
+            if ( regex.startsWith( "\\Q", i ) ) {
+               final int quoteEnd = regex.indexOf( "\\E", i + 2 );
+               if ( quoteEnd < 0 ) {
+                  return false;
+               }
+               i = quoteEnd + 1;
+            } else {
+               i++;
+            }
+         } else if ( classDepth > 0 ) {
+            if ( c == '[' ) {
+               classDepth++;
+            } else if ( c == ']' ) {
+               classDepth--;
+            }
+         } else if ( c == '[' ) {
+            classDepth++;
+            // a ] immediately after [ or [^ is a literal
+            if ( regex.startsWith( "^]", i + 1 ) ) {
+               i += 2;
+            } else if ( regex.startsWith( "]", i + 1 ) ) {
+               i++;
+            }
+         } else if ( c == '(' ) {
+            groupDepth++;
+         } else if ( c == ')' ) {
+            groupDepth--;
+         } else if ( c == '|' && groupDepth == 0 ) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   static private int[] toArray( final List<Integer> list ) {
+      final int[] array = new int[ list.size() ];
+      for ( int i = 0; i < array.length; i++ ) {
+         array[ i ] = list.get( i );
+      }
+      return array;
+   }
+
+}
@@ -8,14 +8,14 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * Class that can / should be used to find text spans using regular expressions.
- * It runs Matcher find {@link Matcher#find()} in a separate thread so that it may be interrupted at a set timeout.
+ * It runs Matcher find {@link Matcher#find()} with a time budget so that it is aborted at a set timeout.
+ * The budget is checked as the matcher reads text, so no thread is needed and the find runs in the calling thread.
  * This prevents infinite loop problems that can be caused by poorly-built expressions or unexpected text contents.
  * The timeout can be specified in milliseconds between 100 and 10,000.  Large timeouts are unadvised.  If a large
  * amount of text needs to be parsed then it is better to split up the text logically and use smaller timeouts.
@@ -42,9 +42,9 @@ final public class RegexSpanFinder implements Closeable {
    static private final int MIN_TIMEOUT_MILLIS = 100;
    static private final int MAX_TIMEOUT_MILLIS = 10000;
 
-   private final ExecutorService _executor;
    private final Pattern _pattern;
    private final int _timeoutMillis;
+   private boolean _timedOut;
 
    /**
     * Uses the default timeout of 1000 milliseconds
@@ -104,7 +104,6 @@ final public class RegexSpanFinder implements Closeable {
       }
       _pattern = pattern;
       _timeoutMillis = timeoutMillis;
-      _executor = Executors.newSingleThreadExecutor();
    }
 
 
@@ -113,68 +112,43 @@ final public class RegexSpanFinder implements Closeable {
     * @return List of Integer Pairs representing text span begin and end offsets
     */
    public List<Pair<Integer>> findSpans( final String text ) {
+      _timedOut = false;
       if ( text == null || text.isEmpty() ) {
          return Collections.emptyList();
       }
       final ThreadString threadText = new ThreadString( text );
-      final Callable<List<Pair<Integer>>> callable = new RegexCallable( threadText, _pattern );
-      final Future<List<Pair<Integer>>> future = _executor.submit( callable );
+      final List<Pair<Integer>> listBounds = new ArrayList<>();
+      final Matcher matcher = _pattern.matcher( threadText );
+      threadText.startBudget( _timeoutMillis );
       try {
-         return future.get( _timeoutMillis, TimeUnit.MILLISECONDS );
-      } catch ( InterruptedException | ExecutionException | TimeoutException multE ) {
-         LOGGER.debug( "Timeout for " + _pattern );
-         if ( !future.cancel( true ) ) {
-            LOGGER.error( "Timed out but could not be cancelled while detecting " + _pattern );
+         while ( matcher.find() ) {
+            final Pair<Integer> bounds = new Pair<>( matcher.start(), matcher.end() );
+            if ( bounds.getValue1() >= 0 && bounds.getValue2() > bounds.getValue1() &&
+                 bounds.getValue2() <= threadText.length() ) {
+               listBounds.add( bounds );
+            }
          }
+      } catch ( ThreadString.MatchAbortedException maE ) {
+         LOGGER.error( maE.getMessage() + " while detecting " + _pattern );
+         _timedOut = true;
+         return Collections.emptyList();
       }
-      if ( future.isCancelled() ) {
-         LOGGER.error( "Cancelled while detecting " + _pattern );
-      } else if ( !future.isDone() ) {
-         LOGGER.error( "Not cancelled but didn't complete while detecting " + _pattern );
-      }
-      return Collections.emptyList();
+      return listBounds;
    }
 
    /**
-    * shut down the executor
-    * {@inheritDoc}
+    * @return true if the last call to {@link #findSpans(String)} was aborted at the timeout or by an interrupt
     */
-   @Override
-   public void close() {
-      _executor.shutdownNow();
+   public boolean isTimedOut() {
+      return _timedOut;
    }
 
-
    /**
-    * Simple Callable that runs a {@link Matcher} on text to find text span begin and end offsets
+    * Nothing to close as no thread is used.  Kept so that existing try-with-resources usage compiles.
+    * {@inheritDoc}
     */
-   static private final class RegexCallable implements Callable<List<Pair<Integer>>> {
-      final private CharSequence __text;
-      final private Pattern __pattern;
-
-      private RegexCallable( final CharSequence text, final Pattern pattern ) {
-         __text = text;
-         __pattern = pattern;
-      }
-
-      /**
-       * {@inheritDoc}
-       *
-       * @return text span begin and end offsets
-       */
-      @Override
-      public List<Pair<Integer>> call() {
-         final List<Pair<Integer>> listBounds = new ArrayList<>();
-         final Matcher matcher = __pattern.matcher( __text );
-         while ( matcher.find() && !Thread.currentThread().isInterrupted() ) {
-            final Pair<Integer> bounds = new Pair<>( matcher.start(), matcher.end() );
-            if ( bounds.getValue1() >= 0 && bounds.getValue2() > bounds.getValue1() &&
-                 bounds.getValue2() <= __text.length() ) {
-               listBounds.add( bounds );
-            }
-         }
-         return listBounds;
-      }
+   @Override
+   public void close() {
    }
 
 }
@@ -1,20 +1,48 @@
 package org.apache.ctakes.core.util.regex;
 
 /**
- * A representation of text that can check its container thread for interruptions.
+ * A representation of text that can check its container thread for interruptions and a time budget.
  * This allows a break within tight charAt(..) calling loops, which can otherwise become infinite in a corrupt find.
+ * Checks are made every few thousand character reads, so the matcher runs in the calling thread at nearly full speed.
  */
 final class ThreadString implements CharSequence {
+
+   // Character reads between checks of the clock.  A read takes a few nanoseconds, so this is well under a millisecond
+   static private final int READS_PER_CHECK = 4096;
+
    private final CharSequence _delegate;
+   private final Budget _budget;
 
    ThreadString( final CharSequence delegate ) {
+      this( delegate, new Budget() );
+   }
+
+   private ThreadString( final CharSequence delegate, final Budget budget ) {
       _delegate = delegate;
+      _budget = budget;
+   }
+
+   /**
+    * Start a new time budget for reads of this text, and of all subsequences of it
+    *
+    * @param timeoutMillis milliseconds after which reads abort
+    */
+   void startBudget( final int timeoutMillis ) {
+      _budget.__deadline = System.nanoTime() + timeoutMillis * 1000000L;
+      _budget.__reads = READS_PER_CHECK;
+   }
+
+   /**
+    * Remove the time budget.  Interruptions are still checked.
+    */
+   void stopBudget() {
+      _budget.__deadline = 0;
    }
 
    @Override
    public char charAt( final int index ) {
-      if ( Thread.currentThread().isInterrupted() ) {
-         throw new RuntimeException( new InterruptedException() );
+      if ( --_budget.__reads <= 0 ) {
+         checkBudget();
       }
       return _delegate.charAt( index );
    }
@@ -26,14 +54,41 @@ final class ThreadString implements CharSequence {
 
    @Override
    public CharSequence subSequence( final int start, final int end ) {
-      if ( Thread.currentThread().isInterrupted() ) {
-         throw new RuntimeException( new InterruptedException() );
-      }
-      return new ThreadString( _delegate.subSequence( start, end ) );
+      checkBudget();
+      return new ThreadString( _delegate.subSequence( start, end ), _budget );
    }
 
    @Override
    public String toString() {
       return _delegate.toString();
    }
+
+   private void checkBudget() {
+      _budget.__reads = READS_PER_CHECK;
+      if ( Thread.currentThread().isInterrupted() ) {
+         throw new MatchAbortedException( "Interrupted" );
+      }
+      if ( _budget.__deadline != 0 && System.nanoTime() - _budget.__deadline > 0 ) {
+         throw new MatchAbortedException( "Timed out" );
+      }
+   }
+
+   /**
+    * Deadline shared by a text and its subsequences.  0 is no deadline.
+    * It is only used by the thread running the match, so it need not be volatile.
+    */
+   static private final class Budget {
+      private long __deadline;
+      private int __reads = READS_PER_CHECK;
+   }
+
+   /**
+    * Thrown out of {@link java.util.regex.Matcher#find()} when the thread is interrupted or the time budget is spent
+    */
+   static final class MatchAbortedException extends RuntimeException {
+      private MatchAbortedException( final String message ) {
+         super( message, null, false, false );
+      }
+   }
+
 }
@@ -3,14 +3,14 @@ package org.apache.ctakes.core.util.regex;
 import org.apache.log4j.Logger;
 
 import java.io.Closeable;
-import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * Class that can / should be used to find text spans using regular expressions.
- * It runs Matcher find {@link Matcher#find()} in a separate thread so that it may be interrupted at a set timeout.
+ * It runs Matcher find {@link Matcher#find()} with a time budget so that it is aborted at a set timeout.
+ * The budget is checked as the matcher reads text, so no thread is needed and the find runs in the calling thread.
  * This prevents infinite loop problems that can be caused by poorly-built expressions or unexpected text contents.
  * The timeout can be specified in milliseconds between 100 and 10,000.  Large timeouts are unadvised.  If a large
  * amount of text needs to be parsed then it is better to split up the text logically and use smaller timeouts.
@@ -42,9 +42,10 @@ public class TimeoutMatcher implements Closeable {
    static private final int MIN_TIMEOUT_MILLIS = 100;
    static private final int MAX_TIMEOUT_MILLIS = 10000;
 
-   private final ExecutorService _executor;
    private final int _timeoutMillis;
+   private final ThreadString _text;
    private final Matcher _matcher;
+   private boolean _timedOut;
 
 
    /**
@@ -90,6 +91,17 @@ public class TimeoutMatcher implements Closeable {
     */
    public TimeoutMatcher( final Pattern pattern, final String text, final int timeoutMillis )
          throws IllegalArgumentException {
+      this( pattern, (CharSequence)text, timeoutMillis );
+   }
+
+   /**
+    * @param pattern       Pattern compiled from a regular expression
+    * @param text          text to parse
+    * @param timeoutMillis milliseconds at which the regex match should abort, between 100 and 10000
+    * @throws IllegalArgumentException if the pattern is null or malformed
+    */
+   TimeoutMatcher( final Pattern pattern, final CharSequence text, final int timeoutMillis )
+         throws IllegalArgumentException {
       if ( pattern == null ) {
          throw new PatternSyntaxException( "Pattern cannot be null", "", -1 );
       }
@@ -97,65 +109,48 @@ public class TimeoutMatcher implements Closeable {
          throw new IllegalArgumentException( "Timeout must be between "
                                              + MIN_TIMEOUT_MILLIS + " and " + MAX_TIMEOUT_MILLIS );
       }
-      _matcher = pattern.matcher( new ThreadString( text ) );
+      _text = new ThreadString( text );
+      _matcher = pattern.matcher( _text );
       _timeoutMillis = timeoutMillis;
-      _executor = Executors.newSingleThreadExecutor();
    }
 
 
    /**
-    * @return a matcher representing the next call to {@link Matcher#find()}
+    * @return a matcher representing the next call to {@link Matcher#find()},
+    * or null if there is no next match or the find timed out
     */
    public Matcher nextMatch() {
-      final Callable<Matcher> callable = new RegexCallable();
-      final Future<Matcher> future = _executor.submit( callable );
+      _timedOut = false;
+      _text.startBudget( _timeoutMillis );
       try {
-         return future.get( _timeoutMillis, TimeUnit.MILLISECONDS );
-      } catch ( InterruptedException | ExecutionException | TimeoutException multE ) {
-         LOGGER.debug( "Timeout for " + _matcher.pattern() );
-         if ( !future.cancel( true ) ) {
-            LOGGER.error( "Timed out but could not be cancelled while detecting " + _matcher.pattern() );
+         if ( _matcher.find() ) {
+            return _matcher;
          }
-      }
-      if ( future.isCancelled() ) {
-         LOGGER.error( "Cancelled while detecting " + _matcher.pattern() );
-      } else if ( !future.isDone() ) {
-         LOGGER.error( "Not cancelled but didn't complete while detecting " + _matcher.pattern() );
+      } catch ( ThreadString.MatchAbortedException maE ) {
+         LOGGER.error( maE.getMessage() + " while detecting " + _matcher.pattern() );
+         _timedOut = true;
+      } finally {
+         // groups are read after the find, and should not time out
+         _text.stopBudget();
       }
       return null;
    }
 
 
    /**
-    * shut down the executor
-    * {@inheritDoc}
+    * @return true if the last call to {@link #nextMatch()} was aborted at the timeout or by an interrupt
     */
-   @Override
-   public void close() {
-      _executor.shutdownNow();
+   public boolean isTimedOut() {
+      return _timedOut;
    }
 
 
    /**
-    * Simple Callable that runs a {@link Matcher} on text
+    * Nothing to close as no thread is used.  Kept so that existing try-with-resources usage compiles.
+    * {@inheritDoc}
     */
-   private final class RegexCallable implements Callable<Matcher> {
-
-      private RegexCallable() {
-      }
-
-      /**
-       * {@inheritDoc}
-       *
-       * @return matcher if there is another find, else null
-       */
-      @Override
-      public Matcher call() {
-         if ( _matcher.find() ) {
-            return _matcher;
-         }
-         return null;
-      }
+   @Override
+   public void close() {
    }
 
 }
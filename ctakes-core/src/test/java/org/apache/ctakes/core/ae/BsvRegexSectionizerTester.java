@@ -0,0 +1,151 @@
+package org.apache.ctakes.core.ae;
+
+import org.apache.ctakes.typesystem.type.textspan.Segment;
+import org.apache.log4j.Logger;
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Throughput benchmark for the {@link BsvRegexSectionizer} with a section definition file of 80 section types,
+ * which is the size of typical site specific section files.
+ * Also checks that single pass sectionizing creates exactly the same sections as a pass per expression.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class BsvRegexSectionizerTester {
+
+   static private final Logger LOGGER = Logger.getLogger( "BsvRegexSectionizerTester" );
+
+   static private final int SECTION_TYPE_COUNT = 80;
+   static private final int NOTE_COUNT = 200;
+
+   static private final String[] SENTENCES = { "Patient presents with chest pain radiating to the left arm.",
+                                               "No known drug allergies.", "Blood pressure 120/80.",
+                                               "Recommend aspirin and follow up in two weeks.",
+                                               "Denies fever, chills or night sweats.",
+                                               "Lungs are clear to auscultation bilaterally." };
+
+   static private String _bsvPath;
+   static private List<String> _notes;
+
+   @BeforeClass
+   static public void createSectionsAndNotes() throws IOException {
+      final File bsvFile = File.createTempFile( "BsvRegexSectionizerTester", ".bsv" );
+      bsvFile.deleteOnExit();
+      try ( PrintWriter writer = new PrintWriter( bsvFile ) ) {
+         writer.println( "// NAME||HEADER_REGEX||FOOTER_REGEX||SHOULD_PARSE" );
+         for ( int i = 0; i < SECTION_TYPE_COUNT; i++ ) {
+            final String footer = i % 10 == 0 ? "||^[\\t ]*End of Part " + i + "[\\t ]*$" : "";
+            writer.println( "Section_" + i + "||^[\\t ]*(?:Part " + i + "|Heading " + i + " [A-Z][a-z]+)[\\t ]*:"
+                            + footer );
+         }
+         // two types for the same header, and a header that is not anchored to a line start
+         writer.println( "Signature_A||^[\\t ]*Electronically Signed By[\\t ]*:" );
+         writer.println( "Signature_B||^[\\t ]*Electronically Signed By[\\t ]*:" );
+         writer.println( "Addendum||\\bAddendum[\\t ]*:" );
+      }
+      _bsvPath = bsvFile.getPath();
+      final Random random = new Random( 23 );
+      _notes = new ArrayList<>( NOTE_COUNT );
+      for ( int n = 0; n < NOTE_COUNT; n++ ) {
+         final String newline = n % 5 == 0 ? "\r\n" : "\n";
+         final StringBuilder sb = new StringBuilder();
+         for ( int s = 0; s < 12; s++ ) {
+            final int type = random.nextInt( SECTION_TYPE_COUNT );
+            sb.append( random.nextBoolean() ? "Part " + type : "Heading " + type + " Notes" ).append( ':' )
+              .append( newline );
+            for ( int l = 0; l < 8; l++ ) {
+               sb.append( SENTENCES[ random.nextInt( SENTENCES.length ) ] ).append( ' ' );
+            }
+            sb.append( newline );
+            if ( type % 10 == 0 ) {
+               sb.append( "End of Part " ).append( type ).append( newline );
+            }
+            if ( s % 4 == 3 ) {
+               sb.append( "----------" ).append( newline );
+            }
+            if ( s % 6 == 5 ) {
+               sb.append( "See Addendum: none" ).append( newline );
+            }
+         }
+         sb.append( "  Electronically Signed By:  Dr. Smith" ).append( newline );
+         _notes.add( sb.toString() );
+      }
+   }
+
+   @Test
+   public void testSinglePassSameSections() throws UIMAException {
+      final AnalysisEngine perPattern = createEngine( false );
+      final AnalysisEngine singlePass = createEngine( true );
+      final JCas jcas = JCasFactory.createJCas();
+      for ( String note : _notes ) {
+         final List<String> expected = processNote( perPattern, jcas, note );
+         assertEquals( expected, processNote( singlePass, jcas, note ) );
+      }
+      perPattern.destroy();
+      singlePass.destroy();
+   }
+
+   @Test
+   public void benchmarkThroughput() throws UIMAException {
+      final JCas jcas = JCasFactory.createJCas();
+      for ( boolean isSinglePass : new boolean[] { false, true } ) {
+         final AnalysisEngine engine = createEngine( isSinglePass );
+         // warm up
+         final int segmentCount = processNotes( engine, jcas );
+         assertTrue( "Too few sections found", segmentCount > NOTE_COUNT * 12 );
+         final long start = System.nanoTime();
+         assertEquals( segmentCount, processNotes( engine, jcas ) );
+         final long millis = Math.max( 1, (System.nanoTime() - start) / 1000000 );
+         LOGGER.info( String.format( "%s : %d notes in %d ms : %d notes per second",
+               isSinglePass ? "Single pass" : "Pass per pattern", NOTE_COUNT, millis, NOTE_COUNT * 1000L / millis ) );
+         engine.destroy();
+      }
+   }
+
+   static private AnalysisEngine createEngine( final boolean singlePass ) throws UIMAException {
+      return AnalysisEngineFactory.createEngine( BsvRegexSectionizer.class,
+            BsvRegexSectionizer.SECTION_TYPES_PATH, _bsvPath,
+            RegexSectionizer.PARAM_SINGLE_PASS, singlePass );
+   }
+
+   static private List<String> processNote( final AnalysisEngine engine, final JCas jcas, final String note )
+         throws UIMAException {
+      jcas.reset();
+      jcas.setDocumentText( note );
+      engine.process( jcas );
+      final List<String> segments = new ArrayList<>();
+      for ( Segment segment : JCasUtil.select( jcas, Segment.class ) ) {
+         segments.add( segment.getBegin() + "," + segment.getEnd() + " " + segment.getId() + " "
+                       + segment.getPreferredText() + " " + segment.getTagText() );
+      }
+      return segments;
+   }
+
+   static private int processNotes( final AnalysisEngine engine, final JCas jcas ) throws UIMAException {
+      int segmentCount = 0;
+      for ( String note : _notes ) {
+         segmentCount += processNote( engine, jcas, note ).size();
+      }
+      return segmentCount;
+   }
+
+}
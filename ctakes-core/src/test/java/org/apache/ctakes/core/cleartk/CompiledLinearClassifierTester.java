@@ -0,0 +1,231 @@
+package org.apache.ctakes.core.cleartk;
+
+import de.bwaldvogel.liblinear.*;
+import org.cleartk.ml.Classifier;
+import org.cleartk.ml.CleartkProcessingException;
+import org.cleartk.ml.Feature;
+import org.cleartk.ml.encoder.CleartkEncoderException;
+import org.cleartk.ml.encoder.features.FeaturesEncoder;
+import org.cleartk.ml.encoder.outcome.StringToIntegerOutcomeEncoder;
+import org.cleartk.ml.liblinear.LibLinearStringOutcomeClassifier;
+import org.cleartk.ml.liblinear.encoder.FeatureNodeArrayEncoder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a compiled liblinear classifier gives exactly the outcomes of the cleartk liblinear classifier.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class CompiledLinearClassifierTester {
+
+   static private final String[] OUTCOMES = { "BEFORE", "AFTER", "OVERLAP", "NONE" };
+   static private final String[] TEMPLATES = { "Token_Preceding_1", "Token_Preceding_2", "Token_Following_1",
+                                               "Token_Following_2", "Covered", "Pos", "ClosestCue_Word" };
+   static private final int VOCABULARY = 400;
+
+   @BeforeClass
+   static public void quietLiblinear() {
+      Linear.disableDebugOutput();
+   }
+
+   @Test
+   public void testSameOutcomes() throws IOException, CleartkProcessingException {
+      for ( int outcomeCount : new int[] { 2, 4 } ) {
+         for ( SolverType solver : new SolverType[] { SolverType.L2R_LR, SolverType.L2R_L2LOSS_SVC,
+                                                      SolverType.MCSVM_CS } ) {
+            final Random random = new Random( outcomeCount * 31 + solver.ordinal() );
+            final Classifier<String> classifier
+                  = trainClassifier( random, outcomeCount, solver, new FeatureNodeArrayEncoder() ).__classifier;
+            final Classifier<String> compiled = CompiledLinearClassifier.compile( classifier );
+            assertTrue( compiled instanceof CompiledLinearClassifier );
+            for ( int i = 0; i < 5000; i++ ) {
+               final List<Feature> features = createSample( random, outcomeCount ).__features;
+               assertEquals( classifier.classify( features ), compiled.classify( features ) );
+            }
+            assertFalse( ((CompiledLinearClassifier<String>)compiled).isUsingDelegate() );
+         }
+      }
+   }
+
+   @Test
+   public void testRepeatedFeatures() throws IOException, CleartkProcessingException {
+      final Random random = new Random( 3 );
+      final Classifier<String> classifier = trainClassifier( random, OUTCOMES.length, SolverType.L2R_LR,
+            new FeatureNodeArrayEncoder() ).__classifier;
+      final Classifier<String> compiled = CompiledLinearClassifier.compile( classifier );
+      assertTrue( compiled instanceof CompiledLinearClassifier );
+      for ( int i = 0; i < 5000; i++ ) {
+         final List<Feature> features = createSample( random, OUTCOMES.length ).__features;
+         // The encoder keeps the last value of a repeated name, a sum would usually be a different outcome
+         final int distance = random.nextInt( 40 ) - 20;
+         features.add( 0, new Feature( "Distance", distance * 3 ) );
+         features.add( new Feature( "Distance", distance ) );
+         features.add( new Feature( "Covered", "w" + random.nextInt( VOCABULARY ) ) );
+         assertEquals( classifier.classify( features ), compiled.classify( features ) );
+      }
+      assertFalse( "Compiled outcomes differed", ((CompiledLinearClassifier<String>)compiled).isUsingDelegate() );
+   }
+
+   @Test
+   public void testNonLinearNumericEncoding() throws IOException, CleartkProcessingException {
+      final Random random = new Random( 11 );
+      final Classifier<String> classifier = trainClassifier( random, OUTCOMES.length, SolverType.L2R_LR,
+            new SquaringEncoder() ).__classifier;
+      final Classifier<String> compiled = CompiledLinearClassifier.compile( classifier );
+      assertTrue( compiled instanceof CompiledLinearClassifier );
+      for ( int i = 0; i < 5000; i++ ) {
+         final List<Feature> features = createSample( random, OUTCOMES.length ).__features;
+         assertEquals( classifier.classify( features ), compiled.classify( features ) );
+      }
+      assertFalse( "Compiled outcomes differed", ((CompiledLinearClassifier<String>)compiled).isUsingDelegate() );
+   }
+
+   @Test
+   public void testUnknownFields() throws IOException, CleartkProcessingException {
+      final Trained trained = trainClassifier( new Random( 5 ), 2, SolverType.L2R_LR, new FeatureNodeArrayEncoder() );
+      // Same model and encoders, but not in the fields of the cleartk liblinear classifier
+      final Classifier<String> classifier = new Classifier<String>() {
+         private final Model _model = trained.__model;
+         private final FeaturesEncoder<FeatureNode[]> _featuresEncoder = trained.__featuresEncoder;
+         private final StringToIntegerOutcomeEncoder _outcomeEncoder = trained.__outcomeEncoder;
+
+         @Override
+         public String classify( final List<Feature> features ) throws CleartkProcessingException {
+            return _outcomeEncoder.decode( (int)Linear.predict( _model, _featuresEncoder.encodeAll( features ) ) );
+         }
+
+         @Override
+         public Map<String, Double> score( final List<Feature> features ) {
+            return Collections.emptyMap();
+         }
+      };
+      assertSame( classifier, CompiledLinearClassifier.compile( classifier ) );
+   }
+
+   @Test
+   public void testNotCompiled() {
+      final Classifier<String> classifier = new Classifier<String>() {
+         @Override
+         public String classify( final List<Feature> features ) {
+            return OUTCOMES[ 0 ];
+         }
+
+         @Override
+         public Map<String, Double> score( final List<Feature> features ) {
+            return Collections.emptyMap();
+         }
+      };
+      assertSame( classifier, CompiledLinearClassifier.compile( classifier ) );
+   }
+
+   /**
+    * @return instance features, with an outcome that depends on a few of the features
+    */
+   static private Sample createSample( final Random random, final int outcomeCount ) {
+      final List<Feature> features = new ArrayList<>();
+      int signal = 0;
+      for ( String template : TEMPLATES ) {
+         final int word = random.nextInt( VOCABULARY );
+         signal += word % 7 == 0 ? word : 0;
+         features.add( new Feature( template, "w" + word ) );
+      }
+      // repeated features, as bags produce
+      features.add( new Feature( "Bag", "w" + random.nextInt( 20 ) ) );
+      features.add( new Feature( "Bag", "w" + random.nextInt( 20 ) ) );
+      final int length = random.nextInt( 12 );
+      features.add( new Feature( "Length", length ) );
+      features.add( new Feature( "Distance", random.nextInt( 40 ) - 20 ) );
+      features.add( new Feature( "IsCapital", random.nextBoolean() ) );
+      return new Sample( OUTCOMES[ (signal + length) % outcomeCount ], features );
+   }
+
+   /**
+    * Trains a model the way the cleartk liblinear data writer does, with the bias as the first encoded feature
+    *
+    * @param featuresEncoder new features encoder
+    */
+   static private Trained trainClassifier( final Random random, final int outcomeCount, final SolverType solver,
+                                           final FeaturesEncoder<FeatureNode[]> featuresEncoder )
+         throws IOException, CleartkEncoderException {
+      final StringToIntegerOutcomeEncoder outcomeEncoder = new StringToIntegerOutcomeEncoder();
+      final int count = 3000;
+      final Problem problem = new Problem();
+      problem.l = count;
+      problem.x = new FeatureNode[ count ][];
+      problem.y = new double[ count ];
+      problem.bias = -1;
+      for ( int i = 0; i < count; i++ ) {
+         final Sample sample = createSample( random, outcomeCount );
+         problem.x[ i ] = featuresEncoder.encodeAll( sample.__features );
+         problem.y[ i ] = outcomeEncoder.encode( sample.__outcome );
+         for ( de.bwaldvogel.liblinear.Feature node : problem.x[ i ] ) {
+            problem.n = Math.max( problem.n, node.getIndex() );
+         }
+      }
+      featuresEncoder.finalizeFeatureSet( null );
+      final Model model = Linear.train( problem, new Parameter( solver, 1, 0.01 ) );
+      return new Trained( model, featuresEncoder, outcomeEncoder );
+   }
+
+   static private final class Sample {
+      private final String __outcome;
+      private final List<Feature> __features;
+
+      private Sample( final String outcome, final List<Feature> features ) {
+         __outcome = outcome;
+         __features = features;
+      }
+   }
+
+   static private final class Trained {
+      private final Model __model;
+      private final FeaturesEncoder<FeatureNode[]> __featuresEncoder;
+      private final StringToIntegerOutcomeEncoder __outcomeEncoder;
+      private final Classifier<String> __classifier;
+
+      private Trained( final Model model, final FeaturesEncoder<FeatureNode[]> featuresEncoder,
+                       final StringToIntegerOutcomeEncoder outcomeEncoder ) {
+         __model = model;
+         __featuresEncoder = featuresEncoder;
+         __outcomeEncoder = outcomeEncoder;
+         __classifier = new LibLinearStringOutcomeClassifier( featuresEncoder, outcomeEncoder, model );
+      }
+   }
+
+   /**
+    * Encodes numeric features by the square of their value, so that encoded values are not linear in feature values
+    */
+   static private final class SquaringEncoder implements FeaturesEncoder<FeatureNode[]> {
+      private final FeatureNodeArrayEncoder _delegate = new FeatureNodeArrayEncoder();
+
+      @Override
+      public FeatureNode[] encodeAll( final Iterable<Feature> features ) throws CleartkEncoderException {
+         final List<Feature> squared = new ArrayList<>();
+         for ( Feature feature : features ) {
+            final Object value = feature.getValue();
+            if ( value instanceof Number ) {
+               final double number = ((Number)value).doubleValue();
+               squared.add( new Feature( feature.getName(), number * number ) );
+            } else {
+               squared.add( feature );
+            }
+         }
+         return _delegate.encodeAll( squared );
+      }
+
+      @Override
+      public void finalizeFeatureSet( final File outputDirectory ) throws IOException {
+         _delegate.finalizeFeatureSet( outputDirectory );
+      }
+   }
+
+}
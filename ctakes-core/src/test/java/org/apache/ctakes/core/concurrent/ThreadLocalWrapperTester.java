@@ -0,0 +1,208 @@
+package org.apache.ctakes.core.concurrent;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.factory.UimaContextFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a {@link ThreadLocalWrapper} gives each thread its own delegate, also while a cpu-bound annotator
+ * runs on several threads at once, and that the delegates share one model.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class ThreadLocalWrapperTester {
+
+   static private final int DOCS_PER_THREAD = 40;
+   static private final String TEXT = "Patient presents with chest pain radiating to the left arm.  "
+         + "No known drug allergies.  Blood pressure 120/80.  Recommend aspirin and follow up in two weeks.";
+
+   static private final AtomicLong SHARED_MODEL_LOADS = new AtomicLong();
+
+   /**
+    * Cpu bound annotator with a shared immutable "model" and per-instance mutable scratch space.
+    */
+   static public final class BusyAnnotator extends JCasAnnotator_ImplBase {
+      private int[] _scratch;
+      private int[] _model;
+      private final AtomicInteger _batchCompletes = new AtomicInteger();
+      private final AtomicInteger _collectionCompletes = new AtomicInteger();
+      private final Set<Thread> _processThreads = ConcurrentHashMap.newKeySet();
+      private final AtomicInteger _processCount = new AtomicInteger();
+
+      @Override
+      public void initialize( final UimaContext context ) throws ResourceInitializationException {
+         super.initialize( context );
+         _model = SharedResourceCache.getInstance().getResource( "ThreadLocalWrapperTester:model", () -> {
+            SHARED_MODEL_LOADS.incrementAndGet();
+            final int[] model = new int[ 256 ];
+            for ( int i = 0; i < model.length; i++ ) {
+               model[ i ] = i * 31 + 7;
+            }
+            return model;
+         } );
+         _scratch = new int[ 256 ];
+      }
+
+      @Override
+      public void process( final JCas jCas ) throws AnalysisEngineProcessException {
+         final String text = jCas.getDocumentText();
+         int hash = 0;
+         for ( int round = 0; round < 2000; round++ ) {
+            for ( int i = 0; i < text.length(); i++ ) {
+               final int c = text.charAt( i ) & 0xff;
+               _scratch[ c ] += _model[ c ];
+               hash = 31 * hash + _scratch[ c ];
+            }
+         }
+         jCas.setDocumentLanguage( Integer.toString( hash & 0xf ) );
+         _processThreads.add( Thread.currentThread() );
+         _processCount.incrementAndGet();
+      }
+
+      @Override
+      public void batchProcessComplete() throws AnalysisEngineProcessException {
+         super.batchProcessComplete();
+         _batchCompletes.incrementAndGet();
+      }
+
+      @Override
+      public void collectionProcessComplete() throws AnalysisEngineProcessException {
+         super.collectionProcessComplete();
+         _collectionCompletes.incrementAndGet();
+      }
+   }
+
+   private enum LocalSingleton implements ThreadLocalWrapper<BusyAnnotator> {
+      INSTANCE;
+      private final ThreadLocalDelegates<BusyAnnotator> _delegates = new ThreadLocalDelegates<>( BusyAnnotator::new );
+
+      @Override
+      public ThreadLocalDelegates<BusyAnnotator> getDelegates() {
+         return _delegates;
+      }
+   }
+
+   @Test
+   public void testThreadLocalDelegates() throws Exception {
+      final UimaContext context = UimaContextFactory.createUimaContext();
+      LocalSingleton.INSTANCE.initialize( context );
+      final Collection<BusyAnnotator> threadDelegates = new ArrayList<>();
+      for ( BusyAnnotator delegate : getThreadDelegates( 3 ) ) {
+         assertTrue( "Delegate shared between threads", threadDelegates.stream().noneMatch( d -> d == delegate ) );
+         threadDelegates.add( delegate );
+      }
+      assertEquals( "Shared model loaded more than once", 1, SHARED_MODEL_LOADS.get() );
+      LocalSingleton.INSTANCE.destroy();
+      assertTrue( LocalSingleton.INSTANCE.getDelegates().getAllDelegates().isEmpty() );
+   }
+
+   @Test
+   public void testCompleteAllDelegates() throws Exception {
+      LocalSingleton.INSTANCE.initialize( UimaContextFactory.createUimaContext() );
+      final Collection<BusyAnnotator> threadDelegates = getThreadDelegates( 3 );
+      // Completion is called on a thread that did not make the other delegates
+      LocalSingleton.INSTANCE.batchProcessComplete();
+      LocalSingleton.INSTANCE.collectionProcessComplete();
+      final Collection<BusyAnnotator> allDelegates = LocalSingleton.INSTANCE.getDelegates().getAllDelegates();
+      assertTrue( allDelegates.containsAll( threadDelegates ) );
+      for ( BusyAnnotator delegate : allDelegates ) {
+         assertEquals( 1, delegate._batchCompletes.get() );
+         assertEquals( 1, delegate._collectionCompletes.get() );
+      }
+      LocalSingleton.INSTANCE.destroy();
+   }
+
+   @Test
+   public void testDelegatesUnderLoad() throws Exception {
+      LocalSingleton.INSTANCE.initialize( UimaContextFactory.createUimaContext() );
+      final BusyAnnotator initializedDelegate = LocalSingleton.INSTANCE.getThreadDelegate();
+      final int threadCount = 4;
+      runDocuments( threadCount );
+      final Collection<BusyAnnotator> allDelegates = LocalSingleton.INSTANCE.getDelegates().getAllDelegates();
+      assertEquals( "Delegates should be one per thread", threadCount + 1, allDelegates.size() );
+      final Set<Thread> processThreads = new HashSet<>();
+      for ( BusyAnnotator delegate : allDelegates ) {
+         if ( delegate == initializedDelegate ) {
+            assertEquals( 0, delegate._processCount.get() );
+            continue;
+         }
+         assertEquals( "Delegate shared between threads", 1, delegate._processThreads.size() );
+         assertEquals( DOCS_PER_THREAD, delegate._processCount.get() );
+         processThreads.addAll( delegate._processThreads );
+      }
+      assertEquals( threadCount, processThreads.size() );
+      assertEquals( "Shared model loaded more than once", 1, SHARED_MODEL_LOADS.get() );
+      LocalSingleton.INSTANCE.destroy();
+   }
+
+   /**
+    * @param threadCount number of concurrent threads
+    * @return the delegate of each thread
+    */
+   static private List<BusyAnnotator> getThreadDelegates( final int threadCount )
+         throws InterruptedException, ExecutionException {
+      final ExecutorService executor = Executors.newFixedThreadPool( threadCount );
+      final CyclicBarrier barrier = new CyclicBarrier( threadCount );
+      final Collection<Future<BusyAnnotator>> futures = new ArrayList<>();
+      for ( int i = 0; i < threadCount; i++ ) {
+         futures.add( executor.submit( () -> {
+            barrier.await();
+            return LocalSingleton.INSTANCE.getThreadDelegate();
+         } ) );
+      }
+      final List<BusyAnnotator> threadDelegates = new ArrayList<>( threadCount );
+      for ( Future<BusyAnnotator> future : futures ) {
+         threadDelegates.add( future.get() );
+      }
+      executor.shutdown();
+      return threadDelegates;
+   }
+
+   /**
+    * Runs documents on all threads at once
+    *
+    * @param threadCount number of concurrent threads
+    */
+   static private void runDocuments( final int threadCount )
+         throws UIMAException, InterruptedException, ExecutionException {
+      final List<JCas> jCases = new ArrayList<>( threadCount );
+      for ( int i = 0; i < threadCount; i++ ) {
+         final JCas jCas = JCasFactory.createJCas();
+         jCas.setDocumentText( TEXT );
+         jCases.add( jCas );
+      }
+      final ExecutorService executor = Executors.newFixedThreadPool( threadCount );
+      final CyclicBarrier barrier = new CyclicBarrier( threadCount );
+      final Collection<Future<?>> futures = new ArrayList<>();
+      for ( JCas jCas : jCases ) {
+         futures.add( executor.submit( () -> {
+            barrier.await();
+            for ( int i = 0; i < DOCS_PER_THREAD; i++ ) {
+               LocalSingleton.INSTANCE.process( jCas );
+            }
+            return null;
+         } ) );
+      }
+      for ( Future<?> future : futures ) {
+         future.get();
+      }
+      executor.shutdown();
+   }
+
+}
@@ -0,0 +1,177 @@
+package org.apache.ctakes.core.cr.jdbc;
+
+import org.apache.ctakes.typesystem.type.structured.DocumentID;
+import org.apache.uima.UIMAException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Reads a small in-memory HSQLDB note table in each reader mode.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class JdbcNotesReaderTester {
+
+   static private final String DRIVER = "org.hsqldb.jdbc.JDBCDriver";
+   static private final String URL = "jdbc:hsqldb:mem:JdbcNotesReaderTester";
+   static private final String USER = "SA";
+   static private final String SQL = "SELECT NOTE_ID, NOTE_TEXT FROM NOTES";
+   static private final int NOTE_COUNT = 250;
+
+   // keeps the in-memory database open for all tests
+   static private Connection _connection;
+
+   /**
+    * "Decrypts" by reversing the note text
+    */
+   static public final class ReverseDecryptor implements Decryptor {
+      @Override
+      public String decrypt( final String key, final String note ) {
+         return new StringBuilder( note ).reverse().toString();
+      }
+   }
+
+   @BeforeClass
+   static public void createNotes() throws ClassNotFoundException, SQLException {
+      Class.forName( DRIVER );
+      _connection = DriverManager.getConnection( URL, USER, "" );
+      try ( Statement statement = _connection.createStatement() ) {
+         statement.execute( "CREATE TABLE NOTES ( NOTE_ID INTEGER PRIMARY KEY, NOTE_TEXT VARCHAR(100) )" );
+      }
+      // insert out of key order
+      try ( PreparedStatement insert = _connection.prepareStatement( "INSERT INTO NOTES VALUES ( ?, ? )" ) ) {
+         for ( int i = 0; i < NOTE_COUNT; i++ ) {
+            final int id = (i * 37) % NOTE_COUNT + 1;
+            insert.setInt( 1, id );
+            insert.setString( 2, "Note number " + id + "." );
+            insert.executeUpdate();
+         }
+      }
+   }
+
+   @AfterClass
+   static public void dropNotes() throws SQLException {
+      try ( Statement statement = _connection.createStatement() ) {
+         statement.execute( "SHUTDOWN" );
+      }
+      _connection.close();
+   }
+
+   @Test
+   public void testReadAll() throws UIMAException, IOException {
+      final List<String> ids = new ArrayList<>();
+      final List<String> texts = new ArrayList<>();
+      readNotes( ids, texts );
+      assertEquals( "Reader should read every note", NOTE_COUNT, ids.size() );
+      Collections.sort( ids, ( id1, id2 ) -> Integer.parseInt( id1 ) - Integer.parseInt( id2 ) );
+      assertEquals( "Reader should read every note", getIds( 1 ), ids );
+      for ( String text : texts ) {
+         assertEquals( "Text should be read as is", 0, text.indexOf( "Note number " ) );
+      }
+   }
+
+   @Test
+   public void testReadPages() throws UIMAException, IOException {
+      final List<String> ids = new ArrayList<>();
+      final CollectionReader reader = readNotes( ids, new ArrayList<>(),
+            JdbcNotesReader.PARAM_KEY_COLUMN, "NOTE_ID",
+            JdbcNotesReader.PARAM_PAGE_SIZE, 40,
+            JdbcNotesReader.PARAM_FETCH_SIZE, 10 );
+      assertEquals( "Pages should be read in key order", getIds( 1 ), ids );
+      assertEquals( "Row count should cover all pages", NOTE_COUNT, reader.getProgress()[ 0 ].getTotal() );
+   }
+
+   @Test
+   public void testResume() throws UIMAException, IOException {
+      final List<String> ids = new ArrayList<>();
+      final CollectionReader reader = readNotes( ids, new ArrayList<>(),
+            JdbcNotesReader.PARAM_KEY_COLUMN, "NOTE_ID",
+            JdbcNotesReader.PARAM_PAGE_SIZE, 25,
+            JdbcNotesReader.PARAM_START_KEY, "200" );
+      assertEquals( "Reading should resume after the start key", getIds( 201 ), ids );
+      assertEquals( "Row count should only cover rows after the start key",
+            NOTE_COUNT - 200, reader.getProgress()[ 0 ].getTotal() );
+   }
+
+   @Test
+   public void testPrefetchDecrypt() throws UIMAException, IOException {
+      final List<String> ids = new ArrayList<>();
+      final List<String> texts = new ArrayList<>();
+      readNotes( ids, texts,
+            JdbcNotesReader.PARAM_KEY_COLUMN, "NOTE_ID",
+            JdbcNotesReader.PARAM_PAGE_SIZE, 40,
+            JdbcNotesReader.PARAM_PREFETCH_SIZE, 8,
+            JdbcNotesReader.PARAM_DECRYPT_THREADS, 3,
+            JdbcNotesReader.PARAM_DB_DECRYPTOR, ReverseDecryptor.class.getName(),
+            JdbcNotesReader.PARAM_DECRYPT_PASS, "key" );
+      assertEquals( "Prefetched notes should keep key order", getIds( 1 ), ids );
+      for ( int i = 0; i < ids.size(); i++ ) {
+         assertEquals( "Prefetched notes should be decrypted",
+               new StringBuilder( "Note number " + ids.get( i ) + "." ).reverse().toString(), texts.get( i ) );
+      }
+   }
+
+   /**
+    * @param firstId -
+    * @return ids from firstId through the last note id
+    */
+   static private List<String> getIds( final int firstId ) {
+      final List<String> ids = new ArrayList<>();
+      for ( int id = firstId; id <= NOTE_COUNT; id++ ) {
+         ids.add( String.valueOf( id ) );
+      }
+      return ids;
+   }
+
+   /**
+    * @param ids        filled with document ids in read order
+    * @param texts      filled with document texts in read order
+    * @param parameters parameters in addition to the database and query parameters
+    * @return the closed reader
+    */
+   static private CollectionReader readNotes( final List<String> ids, final List<String> texts,
+                                              final Object... parameters ) throws UIMAException, IOException {
+      final List<Object> allParameters = new ArrayList<>( Arrays.asList(
+            JdbcNotesReader.PARAM_DB_DRIVER, DRIVER,
+            JdbcNotesReader.PARAM_DB_URL, URL,
+            JdbcNotesReader.PARAM_DB_USER, USER,
+            JdbcNotesReader.PARAM_DB_PASS, "",
+            JdbcNotesReader.PARAM_SQL, SQL,
+            JdbcNotesReader.PARAM_DOCTEXT_COL, "NOTE_TEXT",
+            JdbcNotesReader.PARAM_DOCID_COLS, new String[] { "NOTE_ID" } ) );
+      allParameters.addAll( Arrays.asList( parameters ) );
+      final CollectionReader reader
+            = CollectionReaderFactory.createReader( JdbcNotesReader.class, allParameters.toArray() );
+      final JCas jCas = JCasFactory.createJCas();
+      while ( reader.hasNext() ) {
+         jCas.reset();
+         reader.getNext( jCas.getCas() );
+         ids.add( JCasUtil.selectSingle( jCas, DocumentID.class ).getDocumentID() );
+         texts.add( jCas.getDocumentText() );
+      }
+      reader.close();
+      return reader;
+   }
+
+}
@@ -0,0 +1,194 @@
+package org.apache.ctakes.core.util.collection;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the primitive collection maps against their boxed equivalents,
+ * and logs the time and memory allocated filling each kind of map for synthetic documents.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class LongSetMapTester {
+
+   static private final Logger LOGGER = Logger.getLogger( "LongSetMapTester" );
+
+   @Test
+   public void testSameAsHashSetMap() {
+      final Random random = new Random( 3 );
+      for ( int run = 0; run < 50; run++ ) {
+         final LongSetMap<String> longSetMap = new LongSetMap<>( random.nextInt( 5 ) );
+         final Map<String, Set<Long>> ordered = new LinkedHashMap<>();
+         final int keyCount = 1 + random.nextInt( 200 );
+         for ( int i = 0; i < 2000; i++ ) {
+            final String key = "key" + random.nextInt( keyCount );
+            final long value = random.nextInt( 40 ) - 20;
+            final int op = random.nextInt( 10 );
+            if ( op < 6 ) {
+               assertEquals( ordered.computeIfAbsent( key, k -> new LinkedHashSet<>() ).add( value ),
+                     longSetMap.placeLong( key, value ) );
+            } else if ( op < 7 ) {
+               assertEquals( ordered.remove( key ), longSetMap.remove( key ) );
+            } else if ( op < 8 ) {
+               longSetMap.removeValue( key, value );
+               if ( ordered.containsKey( key ) ) {
+                  ordered.get( key ).remove( value );
+               }
+            } else {
+               assertEquals( ordered.containsKey( key ) && ordered.get( key ).contains( value ),
+                     longSetMap.containsLong( key, value ) );
+            }
+            assertEquals( ordered.size(), longSetMap.size() );
+         }
+         assertEquals( new ArrayList<>( ordered.keySet() ), new ArrayList<>( longSetMap.keySet() ) );
+         for ( Map.Entry<String, LongSet> entry : longSetMap ) {
+            assertEquals( new ArrayList<>( ordered.get( entry.getKey() ) ), new ArrayList<>( entry.getValue() ) );
+         }
+         final HashSetMap<String, Long> hashSetMap = new HashSetMap<>();
+         ordered.forEach( ( key, values ) -> hashSetMap.getOrCreateCollection( key ).addAll( values ) );
+         assertEquals( new HashMap<>( hashSetMap ), new HashMap<>( longSetMap ) );
+      }
+   }
+
+   @Test
+   public void testIteratorRemove() {
+      final LongSetMap<Integer> longSetMap = new LongSetMap<>();
+      for ( int i = 0; i < 100; i++ ) {
+         longSetMap.placeLong( i, i * 10L );
+      }
+      final Iterator<Map.Entry<Integer, LongSet>> iterator = longSetMap.entrySet().iterator();
+      while ( iterator.hasNext() ) {
+         if ( iterator.next().getKey() % 2 == 0 ) {
+            iterator.remove();
+         }
+      }
+      assertEquals( 50, longSetMap.size() );
+      int expected = 1;
+      for ( Integer key : longSetMap.keySet() ) {
+         assertEquals( expected, key.intValue() );
+         assertTrue( longSetMap.containsLong( key, key * 10L ) );
+         expected += 2;
+      }
+      assertTrue( longSetMap.getCollection( 2 ).isEmpty() );
+   }
+
+   @Test
+   public void testMergeOrder() {
+      final Random random = new Random( 5 );
+      final List<int[]> hits = new ArrayList<>();
+      for ( int i = 0; i < 1000; i++ ) {
+         hits.add( new int[] { random.nextInt( 300 ), random.nextInt( 20 ) } );
+      }
+      final LongSetMap<Integer> direct = new LongSetMap<>();
+      hits.forEach( hit -> direct.placeLong( hit[ 0 ], hit[ 1 ] ) );
+      final LongSetMap<Integer> left = new LongSetMap<>();
+      final LongSetMap<Integer> right = new LongSetMap<>();
+      for ( int i = 0; i < hits.size(); i++ ) {
+         ( i < 500 ? left : right ).placeLong( hits.get( i )[ 0 ], hits.get( i )[ 1 ] );
+      }
+      for ( Map.Entry<Integer, LongSet> entry : right ) {
+         left.addAllValues( entry.getKey(), entry.getValue() );
+      }
+      assertEquals( new ArrayList<>( direct.keySet() ), new ArrayList<>( left.keySet() ) );
+      for ( Integer key : direct.keySet() ) {
+         assertArrayEquals( direct.get( key ).toLongArray(), left.get( key ).toLongArray() );
+      }
+   }
+
+   @Test
+   public void testIntObjectMap() {
+      final Random random = new Random( 7 );
+      final IntObjectMap<String> intObjectMap = new IntObjectMap<>();
+      final Map<Integer, String> sorted = new TreeMap<>();
+      for ( int i = 0; i < 5000; i++ ) {
+         final int key = random.nextInt( 2000 ) - 1000;
+         assertEquals( sorted.put( key, "" + i ), intObjectMap.put( key, "" + i ) );
+      }
+      assertEquals( sorted.size(), intObjectMap.size() );
+      for ( int key = -1100; key < 1100; key++ ) {
+         assertEquals( sorted.get( key ), intObjectMap.get( key ) );
+      }
+      final int[] keys = intObjectMap.sortedKeys();
+      int i = 0;
+      for ( Integer key : sorted.keySet() ) {
+         assertEquals( key.intValue(), keys[ i++ ] );
+      }
+      assertEquals( "new", intObjectMap.computeIfAbsent( 5000, k -> "new" ) );
+      assertEquals( "new", intObjectMap.computeIfAbsent( 5000, k -> "other" ) );
+   }
+
+   /**
+    * Fills maps as dictionary lookup does for a document : a few cuis for each of many text spans.
+    * Time and allocated bytes per document are logged for boxed and primitive maps.
+    */
+   @Test
+   public void benchmarkDocument() {
+      final Random random = new Random( 11 );
+      final int spanCount = 5000;
+      final Integer[] spans = new Integer[ spanCount ];
+      final long[][] spanCuis = new long[ spanCount ][];
+      for ( int i = 0; i < spanCount; i++ ) {
+         spans[ i ] = i;
+         spanCuis[ i ] = new long[ 1 + random.nextInt( 4 ) ];
+         for ( int j = 0; j < spanCuis[ i ].length; j++ ) {
+            spanCuis[ i ][ j ] = 1000000L + random.nextInt( 5000000 );
+         }
+      }
+      final int documents = 200;
+      long checksum = 0;
+      for ( int pass = 0; pass < 2; pass++ ) {
+         long allocated = allocatedBytes();
+         long start = System.nanoTime();
+         for ( int d = 0; d < documents; d++ ) {
+            final CollectionMap<Integer, Long, ? extends Collection<Long>> map = new HashSetMap<>();
+            for ( int i = 0; i < spanCount; i++ ) {
+               for ( long cui : spanCuis[ i ] ) {
+                  map.placeValue( spans[ i ], cui );
+               }
+            }
+            checksum += map.size();
+         }
+         final long hashTime = System.nanoTime() - start;
+         final long hashBytes = allocatedBytes() - allocated;
+         allocated = allocatedBytes();
+         start = System.nanoTime();
+         for ( int d = 0; d < documents; d++ ) {
+            final LongSetMap<Integer> map = new LongSetMap<>();
+            for ( int i = 0; i < spanCount; i++ ) {
+               for ( long cui : spanCuis[ i ] ) {
+                  map.placeLong( spans[ i ], cui );
+               }
+            }
+            checksum -= map.size();
+         }
+         final long longTime = System.nanoTime() - start;
+         final long longBytes = allocatedBytes() - allocated;
+         if ( pass > 0 ) {
+            LOGGER.info( String.format( "HashSetMap : %d us, %d KB per document",
+                  hashTime / documents / 1000, hashBytes / documents / 1024 ) );
+            LOGGER.info( String.format( "LongSetMap : %d us, %d KB per document",
+                  longTime / documents / 1000, longBytes / documents / 1024 ) );
+         }
+      }
+      assertEquals( 0, checksum );
+   }
+
+   /**
+    * @return bytes allocated by this thread, or 0 if the jvm cannot tell
+    */
+   static private long allocatedBytes() {
+      final java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+      if ( threadBean instanceof com.sun.management.ThreadMXBean ) {
+         return ((com.sun.management.ThreadMXBean)threadBean).getThreadAllocatedBytes( Thread.currentThread().getId() );
+      }
+      return 0;
+   }
+
+}
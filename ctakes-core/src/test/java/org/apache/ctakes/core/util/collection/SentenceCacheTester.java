@@ -0,0 +1,75 @@
+package org.apache.ctakes.core.util.collection;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class SentenceCacheTester {
+
+   static private final String[] WORDS = { "No", "known", "drug", "allergies", "." };
+   static private final String[] TAGS = { "DT", "JJ", "NN", "NNS", "." };
+
+   @Test
+   public void testCreateKey() {
+      assertNull( "Empty sentences should not be cached", SentenceCache.createKey( new String[ 0 ] ) );
+      assertNull( "Long sentences should not be cached",
+            SentenceCache.createKey( new String[ SentenceCache.MAX_KEY_TOKENS + 1 ] ) );
+      assertEquals( "Same tokens should have the same key",
+            SentenceCache.createKey( WORDS, TAGS ), SentenceCache.createKey( WORDS.clone(), TAGS.clone() ) );
+      assertNotEquals( "Token boundaries should be part of the key",
+            SentenceCache.createKey( new String[] { "a", "b" } ), SentenceCache.createKey( new String[] { "ab" } ) );
+      assertNotEquals( "Features should be part of the key",
+            SentenceCache.createKey( WORDS, TAGS ), SentenceCache.createKey( WORDS, WORDS ) );
+      assertNotEquals( "Null features should differ from empty features",
+            SentenceCache.createKey( WORDS, new String[ WORDS.length ] ),
+            SentenceCache.createKey( WORDS, new String[] { "", "", "", "", "" } ) );
+   }
+
+   @Test
+   public void testHits() {
+      final SentenceCache<String[]> cache = new SentenceCache<>( "test", "model", 100, null, null );
+      final String key = SentenceCache.createKey( WORDS );
+      assertNull( "Cache should start empty", cache.get( key ) );
+      assertNull( "Null keys should never be cached", cache.get( null ) );
+      cache.put( key, TAGS, 5000000 );
+      assertArrayEquals( "Cached tags should be returned", TAGS, cache.get( key ) );
+      assertArrayEquals( "Cached tags should be returned", TAGS, cache.get( key ) );
+      assertEquals( "Two of three lookups should be hits", 2.0 / 3, cache.getHitRate(), 0.0001 );
+      assertEquals( "Two hits should save two computations", 10, cache.getMillisSaved() );
+   }
+
+   @Test
+   public void testSaveLoad() throws IOException {
+      final File directory = Files.createTempDirectory( "SentenceCacheTester" ).toFile();
+      final File cacheFile = new File( directory, "pos.cache" );
+      try {
+         final String key = SentenceCache.createKey( WORDS );
+         final SentenceCache<String[]> cache
+               = new SentenceCache<>( "test", "model", 100, cacheFile, SentenceCache.STRING_ARRAY_CODEC );
+         cache.put( key, new String[] { "DT", null, "NN" }, 1 );
+         cache.complete();
+         assertTrue( "Cache file should be written", cacheFile.isFile() );
+
+         final SentenceCache<String[]> loaded
+               = new SentenceCache<>( "test", "model", 100, cacheFile, SentenceCache.STRING_ARRAY_CODEC );
+         assertArrayEquals( "Saved tags should be loaded", new String[] { "DT", null, "NN" }, loaded.get( key ) );
+
+         final SentenceCache<String[]> otherModel
+               = new SentenceCache<>( "test", "other model", 100, cacheFile, SentenceCache.STRING_ARRAY_CODEC );
+         assertNull( "Tags saved for another model should not be loaded", otherModel.get( key ) );
+      } finally {
+         cacheFile.delete();
+         directory.delete();
+      }
+   }
+
+}
@@ -0,0 +1,93 @@
+package org.apache.ctakes.core.util.regex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the single pass finder finds exactly the matches of a find loop per pattern.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class MultiPatternFinderTester {
+
+   static private final int FLAGS = Pattern.MULTILINE | Pattern.CASE_INSENSITIVE;
+
+   static private final String[] REGEXES = { "^[\\t ]*(?:History|HPI)[\\t ]*:", "^[\\t ]*(?<name>Med[a-z]*)[\\t ]*:",
+                                             "^\\s*Plan\\b", "^(?i)allergies:?\\s*", "^$", "^[\\t ]*$", "^x*",
+                                             "^a|b", "(?<=\\n)Plan", "Plan:", "^(?:Assess|Plan)[^\\n]*\\n^Note",
+                                             "^[^a-z]", "^\\d+\\.", "^[_\\-=]{4,}[\\t ]*$", "^(?<=x)y", "^[\\]|]+",
+                                             "^\\Q|a\\E", "^.{0,3}" };
+
+   static private final String[] TEXT_PIECES = { "History", ":", "HPI", " ", "\t", "\n", "\r", "\r\n", "\u2028",
+                                                 "\u0085", "Medications", "plan", "Plan:", "allergies", "x", "y", "a",
+                                                 "b", "1.", "----", "|", "]", "Assess", "Note", "\u00e9", "\n\n" };
+
+   @Test
+   public void testSameAsFind() {
+      final List<Pattern> patterns = new ArrayList<>();
+      for ( String regex : REGEXES ) {
+         patterns.add( Pattern.compile( regex, FLAGS ) );
+      }
+      final MultiPatternFinder finder = new MultiPatternFinder( patterns );
+      final Random random = new Random( 1 );
+      for ( int t = 0; t < 2000; t++ ) {
+         final StringBuilder sb = new StringBuilder();
+         final int pieceCount = random.nextInt( 60 );
+         for ( int i = 0; i < pieceCount; i++ ) {
+            sb.append( TEXT_PIECES[ random.nextInt( TEXT_PIECES.length ) ] );
+         }
+         final String text = sb.toString();
+         final List<String> expected = new ArrayList<>();
+         for ( int i = 0; i < patterns.size(); i++ ) {
+            final Matcher matcher = patterns.get( i ).matcher( text );
+            while ( matcher.find() ) {
+               expected.add( i + " " + matcher.start() + " " + matcher.end() + " " + matcher.group() );
+            }
+         }
+         final List<String> found = new ArrayList<>();
+         finder.findAll( text,
+               ( i, matcher ) -> found.add( i + " " + matcher.start() + " " + matcher.end() + " " + matcher.group() ) );
+         Collections.sort( expected );
+         Collections.sort( found );
+         assertEquals( text, expected, found );
+      }
+   }
+
+   @Test
+   public void testLineAnchored() {
+      assertTrue( MultiPatternFinder.isLineAnchored( Pattern.compile( "^[\\t ]*(?:History|HPI)[\\t ]*:", FLAGS ) ) );
+      assertTrue( MultiPatternFinder.isLineAnchored( Pattern.compile( "(?i)^x", FLAGS ) ) );
+      assertTrue( MultiPatternFinder.isLineAnchored( Pattern.compile( "^[\\]|]+", FLAGS ) ) );
+      assertFalse( MultiPatternFinder.isLineAnchored( Pattern.compile( "^a|b", FLAGS ) ) );
+      assertFalse( MultiPatternFinder.isLineAnchored( Pattern.compile( "^?x", FLAGS ) ) );
+      assertFalse( MultiPatternFinder.isLineAnchored( Pattern.compile( "Plan:", FLAGS ) ) );
+      assertFalse( MultiPatternFinder.isLineAnchored( Pattern.compile( "^x" ) ) );
+   }
+
+   @Test
+   public void testTimeout() {
+      final List<Pattern> patterns = new ArrayList<>();
+      patterns.add( Pattern.compile( "^((a+)+)+b", FLAGS ) );
+      patterns.add( Pattern.compile( "^a", FLAGS ) );
+      final String text = "a\n" + new String( new char[ 64 ] ).replace( '\0', 'a' ) + "\nab\n";
+      final List<String> found = new ArrayList<>();
+      final long start = System.currentTimeMillis();
+      new MultiPatternFinder( patterns, 200 ).findAll( text, ( i, matcher ) -> found.add( i + " " + matcher.start() ) );
+      assertTrue( System.currentTimeMillis() - start < 1000 );
+      // the runaway pattern is abandoned at the long line, the other pattern keeps matching
+      assertEquals( "[1 0, 1 2, 1 67]", found.toString() );
+   }
+
+}
@@ -0,0 +1,141 @@
+package org.apache.ctakes.core.util.regex;
+
+import org.apache.ctakes.core.util.Pair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that time budgeted matching finds the same spans as a plain matcher,
+ * aborts runaway expressions at the timeout, and reads the text only in the calling thread.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class TimeoutMatcherTester {
+
+   static private final String TEXT = "History of Present Illness:\nChest pain for 2 days.\n"
+                                      + "Medications:\naspirin 81 mg\n----------\nAllergies:  none\n";
+
+   // Exponential backtracking on a long run of a with no b
+   static private final Pattern RUNAWAY_PATTERN = Pattern.compile( "((a+)+)+b" );
+   static private final String RUNAWAY_TEXT = new String( new char[ 64 ] ).replace( '\0', 'a' );
+
+   @Test
+   public void testSameMatches() {
+      final Pattern pattern = Pattern.compile( "^([A-Za-z ]+):", Pattern.MULTILINE );
+      final List<String> expected = new ArrayList<>();
+      final Matcher plain = pattern.matcher( TEXT );
+      while ( plain.find() ) {
+         expected.add( plain.start() + " " + plain.end() + " " + plain.group( 1 ) );
+      }
+      final List<String> found = new ArrayList<>();
+      try ( TimeoutMatcher finder = new TimeoutMatcher( pattern, TEXT ) ) {
+         Matcher matcher = finder.nextMatch();
+         while ( matcher != null ) {
+            found.add( matcher.start() + " " + matcher.end() + " " + matcher.group( 1 ) );
+            matcher = finder.nextMatch();
+         }
+         assertFalse( finder.isTimedOut() );
+      }
+      assertEquals( expected, found );
+      try ( RegexSpanFinder finder = new RegexSpanFinder( pattern ) ) {
+         final List<Pair<Integer>> spans = finder.findSpans( TEXT );
+         assertFalse( finder.isTimedOut() );
+         assertEquals( expected.size(), spans.size() );
+         for ( int i = 0; i < spans.size(); i++ ) {
+            assertTrue( expected.get( i ).startsWith( spans.get( i ).getValue1() + " " + spans.get( i ).getValue2() ) );
+         }
+      }
+   }
+
+   @Test
+   public void testTimeout() {
+      try ( TimeoutMatcher finder = new TimeoutMatcher( RUNAWAY_PATTERN, RUNAWAY_TEXT, 200 ) ) {
+         assertNull( finder.nextMatch() );
+         assertTrue( "TimeoutMatcher find was not aborted", finder.isTimedOut() );
+      }
+      try ( RegexSpanFinder finder = new RegexSpanFinder( RUNAWAY_PATTERN, 200 ) ) {
+         assertTrue( finder.findSpans( RUNAWAY_TEXT ).isEmpty() );
+         assertTrue( "RegexSpanFinder find was not aborted", finder.isTimedOut() );
+         // the flag is per find
+         assertTrue( finder.findSpans( "ab" ).size() == 1 );
+         assertFalse( finder.isTimedOut() );
+      }
+   }
+
+   @Test
+   public void testInterrupt() {
+      Thread.currentThread().interrupt();
+      try ( TimeoutMatcher finder = new TimeoutMatcher( RUNAWAY_PATTERN, RUNAWAY_TEXT, 10000 ) ) {
+         final long start = System.nanoTime();
+         assertNull( finder.nextMatch() );
+         assertTrue( finder.isTimedOut() );
+         // Only an interrupt can abort the find before its 10 second budget is spent
+         assertTrue( "Find was not interrupted", System.nanoTime() - start < 10000000000L );
+      } finally {
+         assertTrue( Thread.interrupted() );
+      }
+   }
+
+   @Test
+   public void testNoThreads() {
+      final Pattern pattern = Pattern.compile( "^[A-Za-z ]+:", Pattern.MULTILINE );
+      final ReaderRecordingText text = new ReaderRecordingText( TEXT );
+      int count = 0;
+      for ( int i = 0; i < 1000; i++ ) {
+         try ( TimeoutMatcher finder = new TimeoutMatcher( pattern, text, 1000 ) ) {
+            while ( finder.nextMatch() != null ) {
+               count++;
+            }
+         }
+      }
+      assertEquals( 3000, count );
+      assertEquals( "Text was read by another thread",
+            Collections.singleton( Thread.currentThread() ), text._readers );
+   }
+
+   /**
+    * Text that records the threads that read it
+    */
+   static private final class ReaderRecordingText implements CharSequence {
+      private final String _text;
+      private final Set<Thread> _readers = Collections.synchronizedSet( new HashSet<>() );
+
+      private ReaderRecordingText( final String text ) {
+         _text = text;
+      }
+
+      @Override
+      public char charAt( final int index ) {
+         _readers.add( Thread.currentThread() );
+         return _text.charAt( index );
+      }
+
+      @Override
+      public int length() {
+         return _text.length();
+      }
+
+      @Override
+      public CharSequence subSequence( final int start, final int end ) {
+         _readers.add( Thread.currentThread() );
+         return _text.subSequence( start, end );
+      }
+
+      @Override
+      public String toString() {
+         return _text;
+      }
+   }
+
+}
@@ -1,5 +1,6 @@
 package org.apache.ctakes.coreference.ae;
 
+import org.apache.ctakes.core.cleartk.CompiledLinearClassifier;
 import org.apache.ctakes.core.ae.NamedEngine;
 import org.apache.ctakes.core.patient.PatientViewUtil;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
@@ -8,6 +9,8 @@ import org.apache.ctakes.core.util.ListFactory;
 import org.apache.ctakes.coreference.ae.features.cluster.*;
 import org.apache.ctakes.coreference.ae.pairing.cluster.*;
 import org.apache.ctakes.coreference.util.ClusterMentionFetcher;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableUtilities;
 import org.apache.ctakes.coreference.util.ThymeCasOrderer;
@@ -83,6 +86,13 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
           defaultValue = "true" )
   private boolean singleDocument;
 
+  @ConfigurationParameter(
+          name = CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER,
+          mandatory = false,
+          description = CompiledLinearClassifier.COMPILE_CLASSIFIER_DESCRIPTION,
+          defaultValue = "false" )
+  private boolean compileClassifier;
+
   protected Random coin = new Random(0);
 
   boolean greedyFirst = true;
@@ -234,6 +244,8 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
       this.dataWriter = classDataWriter;
     } else if ( this.isTraining() ) {
       classDataWriter = this.dataWriter;
+    } else if ( this.compileClassifier ) {
+      this.classifier = CompiledLinearClassifier.compile( this.classifier );
     }
     LOGGER.info( "Finished." );
   }
@@ -299,6 +311,13 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
         ((MarkableCacheRelationExtractor)featEx).setCache(depHeadMap);
       }
     }
+    // summaries of the cluster members, kept up to date as mentions join clusters
+    ClusterSummaryCache summaryCache = new ClusterSummaryCache( jCas );
+    for(RelationFeaturesExtractor featEx : this.relationExtractors){
+      if(featEx instanceof ClusterSummaryRelationExtractor){
+        ((ClusterSummaryRelationExtractor)featEx).setSummaryCache(summaryCache);
+      }
+    }
     this.resetPairers( jCas, depHeadMap );
 
     final Map<Segment, Collection<Markable>> segmentMarkables = JCasUtil.indexCovered( jCas, Segment.class, Markable.class );
@@ -311,9 +330,15 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
         CollectionTextRelation maxCluster = null;
         String mentionView = mention.getView().getViewName();
 
+        // mention features do not depend on the cluster
+        List<Feature> mentionFeatures = new ArrayList<>();
+        for ( FeatureExtractor1<Markable> extractor : this.mentionExtractors ) {
+          mentionFeatures.addAll( extractor.extract( jCas, mention ) );
+        }
+
         for ( CollectionTextRelationIdentifiedAnnotationPair pair : this.getCandidateRelationArgumentPairs( jCas, mention, prevCas ) ) {
           CollectionTextRelation cluster = pair.getCluster();
-          Markable firstElement = JCasUtil.select(cluster.getMembers(), Markable.class).iterator().next();
+          Markable firstElement = (Markable)((NonEmptyFSList)cluster.getMembers()).getHead();
           String clusterHeadView = firstElement.getView().getViewName();
 //          System.out.println( "   MCCA Pair Cluster: " + pair.getCluster().getCategory() );
 //          System.out.println("MCCA Cluster head: " + firstElement.getCoveredText() + " :" + firstElement.getBegin() + "," + firstElement.getEnd());
@@ -329,9 +354,7 @@ public class MentionClusterCoreferenceAnnotator extends CleartkAnnotator<String>
             }
           }
 
-          for ( FeatureExtractor1<Markable> extractor : this.mentionExtractors ) {
-            features.addAll( extractor.extract( jCas, mention ) );
-          }
+          features.addAll( mentionFeatures );
 
           // here is where feature conjunctions can go (dupFeatures)
           List<Feature> dupFeatures = new ArrayList<>();
@@ -6,10 +6,14 @@ import static org.apache.ctakes.coreference.ae.features.TokenFeatureExtractor.is
 import static org.apache.ctakes.coreference.ae.features.TokenFeatureExtractor.numberSingular;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ctakes.core.util.ListIterable;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
@@ -22,9 +26,12 @@ import org.cleartk.ml.Feature;
 import org.cleartk.ml.feature.extractor.CleartkExtractorException;
 import org.cleartk.ml.feature.extractor.FeatureExtractor1;
 
-public class MentionClusterAgreementFeaturesExtractor implements RelationFeaturesExtractor<CollectionTextRelation,IdentifiedAnnotation>, FeatureExtractor1<Markable>, MarkableCacheRelationExtractor {
+public class MentionClusterAgreementFeaturesExtractor implements RelationFeaturesExtractor<CollectionTextRelation,IdentifiedAnnotation>, FeatureExtractor1<Markable>, MarkableCacheRelationExtractor,
+        ClusterSummaryRelationExtractor {
 
   private Map<Markable, ConllDependencyNode> cache = null;
+  private ClusterSummaryCache summaryCache = null;
+  private final AgreementSummarizer summarizer = new AgreementSummarizer();
 
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
       IdentifiedAnnotation mention) throws AnalysisEngineProcessException {
@@ -44,27 +51,35 @@ public class MentionClusterAgreementFeaturesExtractor implements RelationFeature
     boolean matchGender = false;
     boolean matchNumber = false;
     
-    for(IdentifiedAnnotation member : new ListIterable<IdentifiedAnnotation>(cluster.getMembers())){
-      if(member == null){
-        System.err.println("Found an empty cluster member in agreement features extractor.");
-        continue;
-      }else if(mention.getBegin() < member.getEnd()){
-        // during training this might happen -- see a member of a cluster that
-        // is actually subsequent to the candidate mention
-        continue;
-      }
-      String m = member.getCoveredText().toLowerCase();
-      if(!matchDem && isDemonstrative(m) == isDem){
-        matchDem = true;
-      }
-      if(!matchDef && isDefinite(m) == isDef){
-        matchDef = true;
-      }
-      if(!matchGender && getGender(m).equals(gender)){
-        matchGender = true;
-      }
-      if(!matchNumber && numberSingular(jCas, member, m, cache.get(member)) == singular){
-        matchNumber = true;
+    if(summaryCache != null && summaryCache.precedes(cluster, mention)){
+      AgreementSummary summary = summaryCache.getSummary(summarizer, cluster);
+      matchDem = isDem ? summary.demonstrative : summary.notDemonstrative;
+      matchDef = isDef ? summary.definite : summary.notDefinite;
+      matchGender = summary.genders.contains(gender);
+      matchNumber = singular ? summary.singular : summary.plural;
+    }else{
+      for(IdentifiedAnnotation member : new ListIterable<IdentifiedAnnotation>(cluster.getMembers())){
+        if(member == null){
+          System.err.println("Found an empty cluster member in agreement features extractor.");
+          continue;
+        }else if(mention.getBegin() < member.getEnd()){
+          // during training this might happen -- see a member of a cluster that
+          // is actually subsequent to the candidate mention
+          continue;
+        }
+        String m = member.getCoveredText().toLowerCase();
+        if(!matchDem && isDemonstrative(m) == isDem){
+          matchDem = true;
+        }
+        if(!matchDef && isDefinite(m) == isDef){
+          matchDef = true;
+        }
+        if(!matchGender && getGender(m).equals(gender)){
+          matchGender = true;
+        }
+        if(!matchNumber && numberSingular(jCas, member, m, cache.get(member)) == singular){
+          matchNumber = true;
+        }
       }
     }
     
@@ -104,5 +119,51 @@ public class MentionClusterAgreementFeaturesExtractor implements RelationFeature
     this.cache = cache;
   }
 
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Which values of each agreement attribute any cluster member has
+   */
+  private static class AgreementSummary {
+    private boolean demonstrative;
+    private boolean notDemonstrative;
+    private boolean definite;
+    private boolean notDefinite;
+    private boolean singular;
+    private boolean plural;
+    private final Set<String> genders = new HashSet<>();
+  }
+
+  private class AgreementSummarizer implements ClusterSummaryCache.Summarizer<AgreementSummary> {
+    @Override
+    public AgreementSummary newSummary() {
+      return new AgreementSummary();
+    }
+
+    @Override
+    public void addMember(JCas jCas, AgreementSummary summary, Markable member) {
+      String m = member.getCoveredText().toLowerCase();
+      if(isDemonstrative(m)){
+        summary.demonstrative = true;
+      }else{
+        summary.notDemonstrative = true;
+      }
+      if(isDefinite(m)){
+        summary.definite = true;
+      }else{
+        summary.notDefinite = true;
+      }
+      summary.genders.add(getGender(m));
+      if(numberSingular(jCas, member, m, cache.get(member))){
+        summary.singular = true;
+      }else{
+        summary.plural = true;
+      }
+    }
+  }
+
 
 }
@@ -9,6 +9,8 @@ import static org.apache.ctakes.coreference.ae.features.TokenFeatureExtractor.is
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
 import org.apache.ctakes.typesystem.type.relation.LocationOfTextRelation;
@@ -27,7 +29,11 @@ import org.cleartk.ml.feature.extractor.CleartkExtractorException;
 import org.cleartk.ml.feature.extractor.FeatureExtractor1;
 
 public class MentionClusterAttributeFeaturesExtractor implements
-    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable> {
+    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable>,
+    ClusterSummaryRelationExtractor {
+
+  private ClusterSummaryCache summaryCache = null;
+  private final AttributeSummarizer summarizer = new AttributeSummarizer();
 
   @Override
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
@@ -49,27 +55,34 @@ public class MentionClusterAttributeFeaturesExtractor implements
 //    boolean matchSubj = true;
 //    boolean matchHist = true;
     
-    for(Markable member : JCasUtil.select(cluster.getMembers(), Markable.class)){
-      if(member.getBegin() > mention.getEnd()){
-        break;
-      }
-      if(mentionNegated != isNegated(member)){
-        matchNeg = false;
-      }
-      if(mentionUnc != isUncertain(member)){
-        matchUnc = false;
-      }
-//      if(mentionGen != isGeneric(member)){
-//        matchGen = false;
-//      }
-//      if(mentionSubj != isPatient(member)){
-//        matchSubj = false;
-//      }
-//      if(mentionHist != isHistory(member)){
-//        matchHist = false;
-//      }
-      if(isTimex(member)){
-        clusterTimex = true;
+    if(summaryCache != null && summaryCache.precedes(cluster, mention)){
+      AttributeSummary summary = summaryCache.getSummary(summarizer, cluster);
+      matchNeg = mentionNegated ? !summary.notNegated : !summary.negated;
+      matchUnc = mentionUnc ? !summary.notUncertain : !summary.uncertain;
+      clusterTimex = summary.timex;
+    }else{
+      for(Markable member : JCasUtil.select(cluster.getMembers(), Markable.class)){
+        if(member.getBegin() > mention.getEnd()){
+          break;
+        }
+        if(mentionNegated != isNegated(member)){
+          matchNeg = false;
+        }
+        if(mentionUnc != isUncertain(member)){
+          matchUnc = false;
+        }
+  //      if(mentionGen != isGeneric(member)){
+  //        matchGen = false;
+  //      }
+  //      if(mentionSubj != isPatient(member)){
+  //        matchSubj = false;
+  //      }
+  //      if(mentionHist != isHistory(member)){
+  //        matchHist = false;
+  //      }
+        if(isTimex(member)){
+          clusterTimex = true;
+        }
       }
     }
     
@@ -153,6 +166,46 @@ public class MentionClusterAttributeFeaturesExtractor implements
     return features;
   }
   
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Which values of each attribute any cluster member has
+   */
+  private static class AttributeSummary {
+    private boolean negated;
+    private boolean notNegated;
+    private boolean uncertain;
+    private boolean notUncertain;
+    private boolean timex;
+  }
+
+  private static class AttributeSummarizer implements ClusterSummaryCache.Summarizer<AttributeSummary> {
+    @Override
+    public AttributeSummary newSummary() {
+      return new AttributeSummary();
+    }
+
+    @Override
+    public void addMember(JCas jCas, AttributeSummary summary, Markable member) {
+      if(isNegated(member)){
+        summary.negated = true;
+      }else{
+        summary.notNegated = true;
+      }
+      if(isUncertain(member)){
+        summary.uncertain = true;
+      }else{
+        summary.notUncertain = true;
+      }
+      if(isTimex(member)){
+        summary.timex = true;
+      }
+    }
+  }
+
   private static boolean isTimex(Annotation a){
     return JCasUtil.selectCovered(TimeMention.class, a).size() > 0;
   }
@@ -4,6 +4,8 @@ import java.util.*;
 
 import org.apache.ctakes.core.util.ListIterable;
 import org.apache.ctakes.coreference.ae.features.StringMatchingFeatureExtractor;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
@@ -18,9 +20,11 @@ import org.cleartk.ml.feature.extractor.FeatureExtractor1;
 
 public class MentionClusterDepHeadExtractor implements
     RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable>,
-        MarkableCacheRelationExtractor{
+        MarkableCacheRelationExtractor, ClusterSummaryRelationExtractor{
 
   Map<Markable,ConllDependencyNode> cache = null;
+  private ClusterSummaryCache summaryCache = null;
+  private final HeadSummarizer summarizer = new HeadSummarizer();
 
   @Override
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
@@ -35,15 +39,19 @@ public class MentionClusterDepHeadExtractor implements
     Set<String> memberHeads = new HashSet<>();
     Set<String> memberPaths = new HashSet<>();
     
-    for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
-      if(member.getBegin() > mention.getEnd()) break;
-      ConllDependencyNode memberHead = cache.get(member);
-      if(memberHead != null){
-        String headWord = memberHead.getCoveredText().toLowerCase();
-        memberHeads.add(headWord);
-        memberPaths.add(memberHead.getDeprel());
+    if(summaryCache != null && summaryCache.precedes(cluster, mention)){
+      memberHeads = summaryCache.getSummary(summarizer, cluster);
+    }else{
+      for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
+        if(member.getBegin() > mention.getEnd()) break;
+        ConllDependencyNode memberHead = cache.get(member);
+        if(memberHead != null){
+          String headWord = memberHead.getCoveredText().toLowerCase();
+          memberHeads.add(headWord);
+          memberPaths.add(memberHead.getDeprel());
+        }
+  //      DependencyPath path = DependencyUtility.getPathToTop(jCas, memberHead);
       }
-//      DependencyPath path = DependencyUtility.getPathToTop(jCas, memberHead);
     }
 //    for(String headWord : memberHeads){
 //      feats.add(new Feature("MemberHead", headWord));
@@ -84,4 +92,28 @@ public class MentionClusterDepHeadExtractor implements
   public void setCache(Map<Markable, ConllDependencyNode> cache) {
     this.cache = cache;
   }
+
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Keeps the lowercase head words of the members
+   */
+  private class HeadSummarizer implements ClusterSummaryCache.Summarizer<Set<String>> {
+    @Override
+    public Set<String> newSummary() {
+      return new HashSet<>();
+    }
+
+    @Override
+    public void addMember(JCas jCas, Set<String> summary, Markable member) {
+      ConllDependencyNode memberHead = cache.get(member);
+      if(memberHead != null){
+        summary.add(memberHead.getCoveredText().toLowerCase());
+      }
+    }
+  }
+
 }
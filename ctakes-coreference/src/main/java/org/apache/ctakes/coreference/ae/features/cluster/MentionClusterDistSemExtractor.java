@@ -3,11 +3,15 @@ package org.apache.ctakes.coreference.ae.features.cluster;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.core.util.ListIterable;
 import org.apache.ctakes.coreference.ae.features.StringMatchingFeatureExtractor;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.dependency.parser.util.DependencyUtility;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
@@ -25,18 +29,20 @@ import org.apache.uima.jcas.tcas.Annotation;
 import org.cleartk.ml.Feature;
 
 public class MentionClusterDistSemExtractor implements
-    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation> {
+    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, ClusterSummaryRelationExtractor {
 
   public static final double DEFAULT_SIM = 0.5;  
   
   private WordEmbeddings words = null;
+  private ClusterSummaryCache summaryCache = null;
+  private final HeadSummarizer summarizer = new HeadSummarizer();
   
   public MentionClusterDistSemExtractor() throws FileNotFoundException, IOException{
     this("org/apache/ctakes/coreference/distsem/mimic_vectors.txt");
   }
   
   public MentionClusterDistSemExtractor(String embeddingsPath) throws FileNotFoundException, IOException{
-    words = WordVectorReader.getEmbeddings(FileLocator.getAsStream(embeddingsPath));
+    words = WordVectorReader.getEmbeddings(FileLocator.getResource(embeddingsPath));
   }
 
   @Override
@@ -50,12 +56,25 @@ public class MentionClusterDistSemExtractor implements
     
     ConllDependencyNode mentionNode = DependencyUtility.getNominalHeadNode(jCas, mention);
     
-    double[] mentionVec = getPhraseVec(mention);
     boolean exactMatch = false;
     
     // first, do not bother with pronouns:
     String mentionHead = mentionNode != null ? mentionNode.getCoveredText().toLowerCase() : null;
-    if(mentionHead != null){
+    if(mentionHead != null && summaryCache != null && summaryCache.precedes(cluster, mention)){
+      // only the head similarity is a feature, so compare the distinct member heads and skip the phrase vectors
+      for(String memberHead : summaryCache.getSummary(summarizer, cluster)){
+        if(mentionHead.equals(memberHead)){
+          exactMatch = true;
+        }
+        if(words.containsKey(memberHead) && words.containsKey(mentionHead)){
+          double sim = words.getSimilarity(mentionHead, memberHead);
+          if(sim > maxSim){
+            maxSim = sim;
+          }
+        }
+      }
+    }else if(mentionHead != null){
+      double[] mentionVec = getPhraseVec(mention);
       for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
         if(mention.getBegin() < member.getEnd()){
           // during training this might happen -- see a member of a cluster that
@@ -96,6 +115,29 @@ public class MentionClusterDistSemExtractor implements
     return feats;
   }
 
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Collects the distinct lowercase head words of the members
+   */
+  private static class HeadSummarizer implements ClusterSummaryCache.Summarizer<Set<String>> {
+    @Override
+    public Set<String> newSummary() {
+      return new HashSet<>();
+    }
+
+    @Override
+    public void addMember(JCas jCas, Set<String> summary, Markable member) {
+      ConllDependencyNode memberNode = DependencyUtility.getNominalHeadNode(jCas, member);
+      if(memberNode != null){
+        summary.add(memberNode.getCoveredText().toLowerCase());
+      }
+    }
+  }
+
   private double[] getPhraseVec(Annotation annotation){
     double[] phraseVec = new double[words.getDimensionality()];
     double vecLength = 0.0;
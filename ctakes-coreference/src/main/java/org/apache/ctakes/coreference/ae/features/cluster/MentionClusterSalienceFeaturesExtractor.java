@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.ctakes.core.util.ListIterable;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
@@ -15,7 +17,11 @@ import org.cleartk.ml.feature.extractor.CleartkExtractorException;
 import org.cleartk.ml.feature.extractor.FeatureExtractor1;
 
 public class MentionClusterSalienceFeaturesExtractor implements
-    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable> {
+    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable>,
+    ClusterSummaryRelationExtractor {
+
+  private ClusterSummaryCache summaryCache = null;
+  private final SalienceSummarizer summarizer = new SalienceSummarizer();
 
   @Override
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
@@ -23,14 +29,18 @@ public class MentionClusterSalienceFeaturesExtractor implements
     List<Feature> feats = new ArrayList<>();
     
     double maxSalience = 0.0;
-    for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
-      if(mention.getBegin() < member.getEnd()){
-        // during training this might happen -- see a member of a cluster that
-        // is actually subsequent to the candidate mention
-        break;
-      }
-      if(member.getConfidence() > maxSalience){
-        maxSalience = member.getConfidence();
+    if(summaryCache != null && summaryCache.precedes(cluster, mention)){
+      maxSalience = summaryCache.getSummary(summarizer, cluster)[0];
+    }else{
+      for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
+        if(mention.getBegin() < member.getEnd()){
+          // during training this might happen -- see a member of a cluster that
+          // is actually subsequent to the candidate mention
+          break;
+        }
+        if(member.getConfidence() > maxSalience){
+          maxSalience = member.getConfidence();
+        }
       }
     }
     
@@ -47,4 +57,26 @@ public class MentionClusterSalienceFeaturesExtractor implements
     return feats;
   }
 
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Keeps the greatest member salience in a one element array
+   */
+  private static class SalienceSummarizer implements ClusterSummaryCache.Summarizer<double[]> {
+    @Override
+    public double[] newSummary() {
+      return new double[]{ 0.0 };
+    }
+
+    @Override
+    public void addMember(JCas jCas, double[] summary, Markable member) {
+      if(member.getConfidence() > summary[0]){
+        summary[0] = member.getConfidence();
+      }
+    }
+  }
+
 }
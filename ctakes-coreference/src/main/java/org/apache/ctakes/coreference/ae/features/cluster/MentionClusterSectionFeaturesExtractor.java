@@ -1,11 +1,14 @@
 package org.apache.ctakes.coreference.ae.features.cluster;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.apache.ctakes.core.util.ListIterable;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
@@ -20,13 +23,38 @@ import org.cleartk.ml.feature.extractor.CleartkExtractorException;
 import org.cleartk.ml.feature.extractor.FeatureExtractor1;
 
 public class MentionClusterSectionFeaturesExtractor implements
-    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable> {
+    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable>,
+    ClusterSummaryRelationExtractor {
+
+  private ClusterSummaryCache summaryCache = null;
+  private final HeaderSummarizer summarizer = new HeaderSummarizer();
+  // paragraphs of the summarized document, and which of them are headers
+  private List<Paragraph> docPars = null;
+  private int[] parBegins = null;
+  private List<Integer> headerPars = null;
+  // paragraph positions of the last mention seen
+  private IdentifiedAnnotation lastMention = null;
+  private int lastBreak = -1;
+  private int lastAnaPar = -1;
 
   @Override
   public List<Feature> extract(JCas jcas, CollectionTextRelation cluster,
       IdentifiedAnnotation mention) throws AnalysisEngineProcessException {
     List<Feature> feats = new ArrayList<>();
     
+    if(summaryCache != null){
+      // every member is checked against the paragraphs before the mention, so the summary is good for any mention
+      BitSet headersWithMember = summaryCache.getSummary(summarizer, cluster);
+      setParagraphs(mention);
+      int firstHeader = headersWithMember.nextSetBit(0);
+      boolean anteInHeaderSum = firstHeader >= 0 && firstHeader < lastBreak;
+      feats.add(new Feature("AnteInHeader", anteInHeaderSum));
+      if(anteInHeaderSum && lastAnaPar > 0 && headersWithMember.get(lastAnaPar-1)){
+        feats.add(new Feature("AnteHeaderHeadsAna", true));
+      }
+      return feats;
+    }
+
     Set<Integer> parsWithAnteHeader = new HashSet<>();
     
     boolean anteInHeader = false;
@@ -68,6 +96,78 @@ public class MentionClusterSectionFeaturesExtractor implements
     return feats;
   }
 
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+    docPars = null;
+    lastMention = null;
+  }
+
+  private void initParagraphs(){
+    if(docPars != null) return;
+    docPars = new ArrayList<>(JCasUtil.select(summaryCache.getJCas(), Paragraph.class));
+    parBegins = new int[docPars.size()];
+    headerPars = new ArrayList<>();
+    for(int i = 0; i < docPars.size(); i++){
+      Paragraph par = docPars.get(i);
+      parBegins[i] = par.getBegin();
+      List<Sentence> coveredSents = JCasUtil.selectCovered(Sentence.class, par);
+      if(coveredSents != null && coveredSents.size() == 1){
+        headerPars.add(i);
+      }
+    }
+  }
+
+  /**
+   * Finds the first paragraph after the mention and the last paragraph containing it, as the member loop does
+   */
+  private void setParagraphs(IdentifiedAnnotation mention){
+    if(mention == lastMention) return;
+    initParagraphs();
+    // paragraphs are in order of their begin offsets
+    int low = 0;
+    int high = parBegins.length;
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      if(parBegins[mid] > mention.getEnd()){
+        high = mid;
+      }else{
+        low = mid + 1;
+      }
+    }
+    lastBreak = low;
+    lastAnaPar = -1;
+    for(int i = lastBreak - 1; i >= 0; i--){
+      Paragraph par = docPars.get(i);
+      if(mention.getBegin() >= par.getBegin() && mention.getEnd() <= par.getEnd()){
+        lastAnaPar = i;
+        break;
+      }
+    }
+    lastMention = mention;
+  }
+
+  /**
+   * Marks the header paragraphs, those with a single sentence, that contain a member
+   */
+  private class HeaderSummarizer implements ClusterSummaryCache.Summarizer<BitSet> {
+    @Override
+    public BitSet newSummary() {
+      return new BitSet();
+    }
+
+    @Override
+    public void addMember(JCas jCas, BitSet summary, Markable member) {
+      initParagraphs();
+      for(int i : headerPars){
+        Paragraph par = docPars.get(i);
+        if(member.getBegin() >= par.getBegin() && member.getEnd() <= par.getEnd()){
+          summary.set(i);
+        }
+      }
+    }
+  }
+
   @Override
   public List<Feature> extract(JCas jcas, Markable mention) throws CleartkExtractorException {
     List<Feature> feats = new ArrayList<>();
@@ -3,11 +3,15 @@ package org.apache.ctakes.coreference.ae.features.cluster;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.dependency.parser.util.DependencyUtility;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
@@ -19,9 +23,12 @@ import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.cleartk.ml.Feature;
 
-public class MentionClusterSemTypeDepPrefsFeatureExtractor implements RelationFeaturesExtractor<CollectionTextRelation,IdentifiedAnnotation> {
+public class MentionClusterSemTypeDepPrefsFeatureExtractor implements RelationFeaturesExtractor<CollectionTextRelation,IdentifiedAnnotation>,
+    ClusterSummaryRelationExtractor {
 
   private HashMap<String,HashMap<String,Double>> probs = new HashMap<>();
+  private ClusterSummaryCache summaryCache = null;
+  private final SemTypeSummarizer summarizer = new SemTypeSummarizer();
   
   public MentionClusterSemTypeDepPrefsFeatureExtractor() throws FileNotFoundException {
     try(Scanner scanner = new Scanner(FileLocator.getAsStream("org/apache/ctakes/coreference/pref_probs.txt"))){
@@ -50,24 +57,54 @@ public class MentionClusterSemTypeDepPrefsFeatureExtractor implements RelationFe
       Map<String,Double> semProbs = probs.get(key);
       if(semProbs == null) return feats;
 
-      for(Markable m : JCasUtil.select(cluster.getMembers(), Markable.class)){
-        if(mention.getBegin() < m.getEnd()){
-          // during training this might happen -- see a member of a cluster that
-          // is actually subsequent to the candidate mention
-          continue;
-        }
-        List<IdentifiedAnnotation> ents = JCasUtil.selectCovering(jcas, IdentifiedAnnotation.class, m);
-        for(IdentifiedAnnotation ent : ents){
-          String semKey = ent.getClass().getSimpleName();
+      if(summaryCache != null && summaryCache.precedes(cluster, mention)){
+        for(String semKey : summaryCache.getSummary(summarizer, cluster)){
           if(semProbs.containsKey(semKey)){
             double prob = semProbs.get(semKey);
             if(prob > maxProb) maxProb = prob;
           }
         }
+      }else{
+        for(Markable m : JCasUtil.select(cluster.getMembers(), Markable.class)){
+          if(mention.getBegin() < m.getEnd()){
+            // during training this might happen -- see a member of a cluster that
+            // is actually subsequent to the candidate mention
+            continue;
+          }
+          List<IdentifiedAnnotation> ents = JCasUtil.selectCovering(jcas, IdentifiedAnnotation.class, m);
+          for(IdentifiedAnnotation ent : ents){
+            String semKey = ent.getClass().getSimpleName();
+            if(semProbs.containsKey(semKey)){
+              double prob = semProbs.get(semKey);
+              if(prob > maxProb) maxProb = prob;
+            }
+          }
+        }
       }
       feats.add(new Feature("InferredSemTypeMaxProb", maxProb));
     }
     return feats;
   }
 
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Collects the semantic types of the annotations that cover the members
+   */
+  private static class SemTypeSummarizer implements ClusterSummaryCache.Summarizer<Set<String>> {
+    @Override
+    public Set<String> newSummary() {
+      return new HashSet<>();
+    }
+
+    @Override
+    public void addMember(JCas jCas, Set<String> summary, Markable member) {
+      for(IdentifiedAnnotation ent : JCasUtil.selectCovering(jCas, IdentifiedAnnotation.class, member)){
+        summary.add(ent.getClass().getSimpleName());
+      }
+    }
+  }
 }
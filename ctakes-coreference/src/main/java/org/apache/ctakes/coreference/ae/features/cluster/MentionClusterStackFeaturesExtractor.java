@@ -1,8 +1,11 @@
 package org.apache.ctakes.coreference.ae.features.cluster;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.coreference.util.ClusterUtils;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
@@ -15,7 +18,14 @@ import org.apache.uima.jcas.tcas.Annotation;
 import org.cleartk.ml.Feature;
 
 public class MentionClusterStackFeaturesExtractor implements
-    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation> {
+    RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, ClusterSummaryRelationExtractor {
+
+  private ClusterSummaryCache summaryCache = null;
+  // sorted ends of the most recent members of all clusters, and of clusters with more than one member,
+  // for the last mention seen.  Clusters only change between mentions.
+  private IdentifiedAnnotation stackMention = null;
+  private int[] recentEnds = null;
+  private int[] nonSingletonRecentEnds = null;
 
   @Override
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
@@ -26,6 +36,20 @@ public class MentionClusterStackFeaturesExtractor implements
 //    feats.add(new Feature("ClusterSize_" + size, true));
 //    feats.add(new Feature("ClusterSize", size));
     
+    if(summaryCache != null){
+      Annotation mostRecent = getMostRecent(cluster, mention);
+      if(mostRecent == null){
+        return feats;
+      }
+      setStack(jCas, mention);
+      // the cluster itself is never more recent than itself
+      int numIntervening = countAfter(recentEnds, mostRecent.getEnd());
+      int numNonSingletonIntervening = countAfter(nonSingletonRecentEnds, mostRecent.getEnd());
+      feats.add(new Feature("ClusterStackPositionInclSingleton", 1 + Math.log10(numIntervening+1)));
+      feats.add(new Feature("ClusterStackPosition", 1 + Math.log10(numNonSingletonIntervening+1)));
+      return feats;
+    }
+
     NonEmptyFSList members = ((NonEmptyFSList)cluster.getMembers());
     Annotation mostRecent = ClusterUtils.getMostRecent(members, mention);
     if(mostRecent == null){
@@ -58,4 +82,64 @@ public class MentionClusterStackFeaturesExtractor implements
     return feats;
   }
 
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+    stackMention = null;
+  }
+
+  /**
+   * @return the same member as {@link ClusterUtils#getMostRecent(NonEmptyFSList, Annotation)}, without walking
+   * the members when they all end before the mention
+   */
+  private Annotation getMostRecent(CollectionTextRelation cluster, IdentifiedAnnotation mention){
+    if(summaryCache.getMaxEnd(cluster) < mention.getEnd()){
+      return summaryCache.getLastMember(cluster);
+    }
+    return ClusterUtils.getMostRecent((NonEmptyFSList)cluster.getMembers(), mention);
+  }
+
+  private void setStack(JCas jCas, IdentifiedAnnotation mention){
+    if(mention == stackMention) return;
+    List<Integer> ends = new ArrayList<>();
+    List<Integer> nonSingletonEnds = new ArrayList<>();
+    for(CollectionTextRelation otherCluster : JCasUtil.select(jCas, CollectionTextRelation.class)){
+      Annotation mostRecent = getMostRecent(otherCluster, mention);
+      if(mostRecent != null){
+        ends.add(mostRecent.getEnd());
+        if(summaryCache.getSize(otherCluster) > 1){
+          nonSingletonEnds.add(mostRecent.getEnd());
+        }
+      }
+    }
+    recentEnds = toSortedArray(ends);
+    nonSingletonRecentEnds = toSortedArray(nonSingletonEnds);
+    stackMention = mention;
+  }
+
+  private static int[] toSortedArray(List<Integer> values){
+    int[] array = new int[values.size()];
+    for(int i = 0; i < array.length; i++){
+      array[i] = values.get(i);
+    }
+    Arrays.sort(array);
+    return array;
+  }
+
+  /**
+   * @return the number of sorted values greater than the given end
+   */
+  private static int countAfter(int[] sortedEnds, int end){
+    int low = 0;
+    int high = sortedEnds.length;
+    while(low < high){
+      int mid = (low + high) >>> 1;
+      if(sortedEnds[mid] > end){
+        high = mid;
+      }else{
+        low = mid + 1;
+      }
+    }
+    return sortedEnds.length - low;
+  }
 }
@@ -8,6 +8,8 @@ import static org.apache.ctakes.coreference.ae.features.StringMatchingFeatureExt
 import static org.apache.ctakes.coreference.ae.features.StringMatchingFeatureExtractor.wordSubstring;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +17,8 @@ import java.util.Set;
 
 import org.apache.ctakes.core.util.ListIterable;
 import org.apache.ctakes.coreference.ae.features.StringMatchingFeatureExtractor;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
@@ -28,9 +32,11 @@ import org.cleartk.ml.Feature;
 
 public class MentionClusterStringFeaturesExtractor implements
     RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>,
-        MarkableCacheRelationExtractor{
+        MarkableCacheRelationExtractor, ClusterSummaryRelationExtractor{
 
   private Map<Markable, ConllDependencyNode> cache = null;
+  private ClusterSummaryCache summaryCache = null;
+  private final MemberStringSummarizer summarizer = new MemberStringSummarizer();
 
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
       IdentifiedAnnotation mention) throws AnalysisEngineProcessException {
@@ -54,39 +60,59 @@ public class MentionClusterStringFeaturesExtractor implements
 
       int maxNonoverlap = 0;
 
-      for(IdentifiedAnnotation member : new ListIterable<IdentifiedAnnotation>(cluster.getMembers())){
-        if(member == null){
-          System.err.println("Something that shouldn't happen has happened");
-          continue;
-        }else if(mention.getBegin() < member.getEnd()){
-          // during training this might happen -- see a member of a cluster that
-          // is actually subsequent to the candidate mention
-          continue;
-        }else if(StringMatchingFeatureExtractor.isPronoun(member)){
-          continue;
+      if(summaryCache != null && summaryCache.precedes(cluster, mention)){
+        // only members with the same head as the mention add features
+        List<MemberStrings> sameHead = summaryCache.getSummary(summarizer, cluster)
+            .getOrDefault(mentionHeadString, Collections.emptyList());
+        for(MemberStrings member : sameHead){
+          String s = member.text;
+          if(m.equalsIgnoreCase(s)) featCounts.add("MC_STRING_EXACT");
+          if(startMatch(m,s)) featCounts.add("MC_STRING_START");
+          if(endMatch(m,s)) featCounts.add("MC_STRING_END");
+          if(soonMatch(m,s)) featCounts.add("MC_STRING_SOON");
+          if(wordOverlap(mentionWords, member.words)) featCounts.add("MC_OVERLAP");
+          if(wordSubstring(mentionWords, member.words)) featCounts.add("MC_SUB");
+
+          int nonHeadOverlap = wordNonOverlapCount(member.nonHeadWords, nonHeadMentionWords);
+          if(nonHeadOverlap > maxNonoverlap){
+            maxNonoverlap = nonHeadOverlap;
+          }
         }
+      }else{
+        for(IdentifiedAnnotation member : new ListIterable<IdentifiedAnnotation>(cluster.getMembers())){
+          if(member == null){
+            System.err.println("Something that shouldn't happen has happened");
+            continue;
+          }else if(mention.getBegin() < member.getEnd()){
+            // during training this might happen -- see a member of a cluster that
+            // is actually subsequent to the candidate mention
+            continue;
+          }else if(StringMatchingFeatureExtractor.isPronoun(member)){
+            continue;
+          }
+
+          String s = member.getCoveredText();
+          Set<String> memberWords = contentWords(member);
+          Set<String> nonHeadMemberWords = new HashSet<>(memberWords);
+          ConllDependencyNode memberHead = cache.get(member);
+          String memberHeadString = null;
+          if(memberHead != null){
+            memberHeadString = memberHead.getCoveredText().toLowerCase();
+            nonHeadMemberWords.remove(memberHeadString);
+
+            if(mentionHeadString.equals(memberHeadString)){
 
-        String s = member.getCoveredText();
-        Set<String> memberWords = contentWords(member);
-        Set<String> nonHeadMemberWords = new HashSet<>(memberWords);
-        ConllDependencyNode memberHead = cache.get(member);
-        String memberHeadString = null;
-        if(memberHead != null){
-          memberHeadString = memberHead.getCoveredText().toLowerCase();
-          nonHeadMemberWords.remove(memberHeadString);
-
-          if(mentionHeadString.equals(memberHeadString)){
-
-            if(m.equalsIgnoreCase(s)) featCounts.add("MC_STRING_EXACT");
-            if(startMatch(m,s)) featCounts.add("MC_STRING_START");
-            if(endMatch(m,s)) featCounts.add("MC_STRING_END");
-            if(soonMatch(m,s)) featCounts.add("MC_STRING_SOON");
-            if(wordOverlap(mentionWords, memberWords)) featCounts.add("MC_OVERLAP");
-            if(wordSubstring(mentionWords, memberWords)) featCounts.add("MC_SUB");
-
-            int nonHeadOverlap = wordNonOverlapCount(nonHeadMemberWords, nonHeadMentionWords);
-            if(nonHeadOverlap > maxNonoverlap){
-              maxNonoverlap = nonHeadOverlap;
+              if(m.equalsIgnoreCase(s)) featCounts.add("MC_STRING_EXACT");
+              if(startMatch(m,s)) featCounts.add("MC_STRING_START");
+              if(endMatch(m,s)) featCounts.add("MC_STRING_END");
+              if(soonMatch(m,s)) featCounts.add("MC_STRING_SOON");
+              if(wordOverlap(mentionWords, memberWords)) featCounts.add("MC_OVERLAP");
+              if(wordSubstring(mentionWords, memberWords)) featCounts.add("MC_SUB");
+
+              int nonHeadOverlap = wordNonOverlapCount(nonHeadMemberWords, nonHeadMentionWords);
+              if(nonHeadOverlap > maxNonoverlap){
+                maxNonoverlap = nonHeadOverlap;
+              }
             }
           }
         }
@@ -121,4 +147,47 @@ public class MentionClusterStringFeaturesExtractor implements
   public void setCache(Map<Markable, ConllDependencyNode> cache) {
     this.cache = cache;
   }
+
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * The text and content words of a cluster member that is not a pronoun
+   */
+  private static class MemberStrings {
+    private final String text;
+    private final Set<String> words;
+    private final Set<String> nonHeadWords;
+
+    private MemberStrings(String text, Set<String> words, Set<String> nonHeadWords){
+      this.text = text;
+      this.words = words;
+      this.nonHeadWords = nonHeadWords;
+    }
+  }
+
+  /**
+   * Groups the strings of members by their lowercase head word
+   */
+  private class MemberStringSummarizer implements ClusterSummaryCache.Summarizer<Map<String,List<MemberStrings>>> {
+    @Override
+    public Map<String, List<MemberStrings>> newSummary() {
+      return new HashMap<>();
+    }
+
+    @Override
+    public void addMember(JCas jCas, Map<String, List<MemberStrings>> summary, Markable member) {
+      if(StringMatchingFeatureExtractor.isPronoun(member)) return;
+      ConllDependencyNode memberHead = cache.get(member);
+      if(memberHead == null) return;
+      String memberHeadString = memberHead.getCoveredText().toLowerCase();
+      Set<String> memberWords = contentWords(member);
+      Set<String> nonHeadMemberWords = new HashSet<>(memberWords);
+      nonHeadMemberWords.remove(memberHeadString);
+      summary.computeIfAbsent(memberHeadString, k -> new ArrayList<>())
+          .add(new MemberStrings(member.getCoveredText(), memberWords, nonHeadMemberWords));
+    }
+  }
 }
@@ -11,6 +11,8 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.ctakes.core.util.ListIterable;
+import org.apache.ctakes.coreference.util.ClusterSummaryCache;
+import org.apache.ctakes.coreference.util.ClusterSummaryRelationExtractor;
 import org.apache.ctakes.coreference.util.MarkableCacheRelationExtractor;
 import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
 import org.apache.ctakes.typesystem.type.refsem.UmlsConcept;
@@ -30,11 +32,13 @@ import org.cleartk.ml.feature.extractor.FeatureExtractor1;
 
 public class MentionClusterUMLSFeatureExtractor implements
     RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>, FeatureExtractor1<Markable>,
-        MarkableCacheRelationExtractor{
+        MarkableCacheRelationExtractor, ClusterSummaryRelationExtractor{
 
   String docId = null;
   Map<ConllDependencyNode,Collection<IdentifiedAnnotation>> coveringMap = null;
   Map<Markable, ConllDependencyNode> cache = null;
+  private ClusterSummaryCache summaryCache = null;
+  private final EntitySummarizer summarizer = new EntitySummarizer();
 
   @Override
   public List<Feature> extract(JCas jCas, CollectionTextRelation cluster,
@@ -68,21 +72,26 @@ public class MentionClusterUMLSFeatureExtractor implements
       }
       
       Set<IdentifiedAnnotation> clusterEnts = new HashSet<>();
-      for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
-        ConllDependencyNode memberHead = cache.get(member);
-        rmList.clear();
-        // get the named entities covering this cluster member:
-        List<IdentifiedAnnotation> ents2 = new ArrayList<>(coveringMap.get(memberHead)); //JCasUtil.selectCovering(jCas, IdentifiedAnnotation.class, head2.getBegin(), head2.getEnd());
-        for(IdentifiedAnnotation ann : ents2){
-          if(!(ann instanceof EntityMention || ann instanceof EventMention) || ann.getClass() == EventMention.class){
-            rmList.add(ann);
+      if(summaryCache != null){
+        // every member counts here, so the summary is good for any mention
+        clusterEnts = summaryCache.getSummary(summarizer, cluster);
+      }else{
+        for(Markable member : new ListIterable<Markable>(cluster.getMembers())){
+          ConllDependencyNode memberHead = cache.get(member);
+          rmList.clear();
+          // get the named entities covering this cluster member:
+          List<IdentifiedAnnotation> ents2 = new ArrayList<>(coveringMap.get(memberHead)); //JCasUtil.selectCovering(jCas, IdentifiedAnnotation.class, head2.getBegin(), head2.getEnd());
+          for(IdentifiedAnnotation ann : ents2){
+            if(!(ann instanceof EntityMention || ann instanceof EventMention) || ann.getClass() == EventMention.class){
+              rmList.add(ann);
+            }
+          }
+          for(IdentifiedAnnotation toRm : rmList){
+            ents2.remove(toRm);
           }
-        }
-        for(IdentifiedAnnotation toRm : rmList){
-          ents2.remove(toRm);
-        }
         
-        clusterEnts.addAll(ents2);
+          clusterEnts.addAll(ents2);
+        }
       }
       
       if(clusterEnts.size() == 0 && mentionEnts.size() > 0){
@@ -225,4 +234,30 @@ public class MentionClusterUMLSFeatureExtractor implements
   public void setCache(Map<Markable, ConllDependencyNode> cache) {
     this.cache = cache;
   }
+
+  @Override
+  public void setSummaryCache(ClusterSummaryCache summaryCache) {
+    this.summaryCache = summaryCache;
+  }
+
+  /**
+   * Collects the entities and events that cover the heads of the members
+   */
+  private class EntitySummarizer implements ClusterSummaryCache.Summarizer<Set<IdentifiedAnnotation>> {
+    @Override
+    public Set<IdentifiedAnnotation> newSummary() {
+      return new HashSet<>();
+    }
+
+    @Override
+    public void addMember(JCas jCas, Set<IdentifiedAnnotation> summary, Markable member) {
+      ConllDependencyNode memberHead = cache.get(member);
+      if(memberHead == null || coveringMap.get(memberHead) == null) return;
+      for(IdentifiedAnnotation ann : coveringMap.get(memberHead)){
+        if((ann instanceof EntityMention || ann instanceof EventMention) && ann.getClass() != EventMention.class){
+          summary.add(ann);
+        }
+      }
+    }
+  }
 }
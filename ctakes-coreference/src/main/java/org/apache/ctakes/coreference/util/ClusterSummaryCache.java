@@ -0,0 +1,165 @@
+package org.apache.ctakes.coreference.util;
+
+import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
+import org.apache.ctakes.typesystem.type.textsem.Markable;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.FSList;
+import org.apache.uima.jcas.cas.NonEmptyFSList;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Summaries of the members of coreference clusters in one document, kept up to date as mentions join clusters.
+ * <p>
+ * A cluster feature extractor that would otherwise walk every member of a cluster for every mention-cluster pair
+ * instead folds each member into a summary once, with a {@link Summarizer}, and reads the summary for each pair.
+ * Members are appended to the end of the cluster member list, so a summary catches up by reading only the members
+ * after the last one that it has seen.
+ * </p>
+ * <p>
+ * Extractors skip cluster members that do not precede the mention.  A summary covers all members, so it gives the
+ * same features only when {@link #precedes(CollectionTextRelation, Annotation)} is true, which it always is when
+ * mentions are clustered in document order.  Otherwise extractors walk the members as before.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ClusterSummaryCache {
+
+   /**
+    * Folds cluster members into a summary of the kind kept by one feature extractor
+    *
+    * @param <S> summary type
+    */
+   public interface Summarizer<S> {
+      S newSummary();
+
+      void addMember( JCas jCas, S summary, Markable member );
+   }
+
+   private final JCas _jCas;
+   private final Map<CollectionTextRelation, ClusterState> _clusterStates = new HashMap<>();
+
+   /**
+    * @param jCas the document that mentions are clustered in
+    */
+   public ClusterSummaryCache( final JCas jCas ) {
+      _jCas = jCas;
+   }
+
+   public JCas getJCas() {
+      return _jCas;
+   }
+
+   /**
+    * @param summarizer -
+    * @param cluster    -
+    * @param <S>        summary type
+    * @return a summary of all members of the cluster
+    */
+   public <S> S getSummary( final Summarizer<S> summarizer, final CollectionTextRelation cluster ) {
+      return getState( cluster ).getSummary( summarizer );
+   }
+
+   /**
+    * @param cluster -
+    * @param mention -
+    * @return true if every member of the cluster ends at or before the beginning of the mention
+    */
+   public boolean precedes( final CollectionTextRelation cluster, final Annotation mention ) {
+      return getState( cluster )._maxEnd <= mention.getBegin();
+   }
+
+   /**
+    * @param cluster -
+    * @return the number of members, as {@link ClusterUtils#getSize(NonEmptyFSList)}
+    */
+   public int getSize( final CollectionTextRelation cluster ) {
+      return getState( cluster )._size;
+   }
+
+   /**
+    * @param cluster -
+    * @return the greatest end offset of any member
+    */
+   public int getMaxEnd( final CollectionTextRelation cluster ) {
+      return getState( cluster )._maxEnd;
+   }
+
+   /**
+    * @param cluster -
+    * @return the last member in the member list
+    */
+   public Markable getLastMember( final CollectionTextRelation cluster ) {
+      return getState( cluster )._lastMember;
+   }
+
+   private ClusterState getState( final CollectionTextRelation cluster ) {
+      final ClusterState state = _clusterStates.computeIfAbsent( cluster, ClusterState::new );
+      state.catchUp();
+      return state;
+   }
+
+   @SuppressWarnings( "unchecked" )
+   static private <S> void addMember( final Summarizer<S> summarizer, final JCas jCas, final Object summary,
+                                      final Markable member ) {
+      summarizer.addMember( jCas, (S)summary, member );
+   }
+
+   private final class ClusterState {
+      private final FSList _members;
+      private final Map<Summarizer<?>, Object> _summaries = new IdentityHashMap<>();
+      private NonEmptyFSList _lastNode;
+      private Markable _lastMember;
+      private int _size;
+      private int _maxEnd = Integer.MIN_VALUE;
+
+      private ClusterState( final CollectionTextRelation cluster ) {
+         _members = cluster.getMembers();
+      }
+
+      /**
+       * Folds in members appended since the last call
+       */
+      private void catchUp() {
+         FSList next = _lastNode == null ? _members : _lastNode.getTail();
+         while ( next instanceof NonEmptyFSList ) {
+            _lastNode = (NonEmptyFSList)next;
+            final Markable member = (Markable)_lastNode.getHead();
+            _size++;
+            if ( member != null ) {
+               _lastMember = member;
+               _maxEnd = Math.max( _maxEnd, member.getEnd() );
+               for ( Map.Entry<Summarizer<?>, Object> summary : _summaries.entrySet() ) {
+                  addMember( summary.getKey(), _jCas, summary.getValue(), member );
+               }
+            }
+            next = _lastNode.getTail();
+         }
+      }
+
+      private <S> S getSummary( final Summarizer<S> summarizer ) {
+         @SuppressWarnings( "unchecked" )
+         S summary = (S)_summaries.get( summarizer );
+         if ( summary == null ) {
+            summary = summarizer.newSummary();
+            FSList next = _members;
+            while ( next instanceof NonEmptyFSList ) {
+               final Markable member = (Markable)((NonEmptyFSList)next).getHead();
+               if ( member != null ) {
+                  summarizer.addMember( _jCas, summary, member );
+               }
+               next = ((NonEmptyFSList)next).getTail();
+            }
+            _summaries.put( summarizer, summary );
+         }
+         return summary;
+      }
+   }
+
+}
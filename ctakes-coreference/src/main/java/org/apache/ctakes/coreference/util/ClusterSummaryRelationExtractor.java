@@ -0,0 +1,15 @@
+package org.apache.ctakes.coreference.util;
+
+/**
+ * A cluster feature extractor that reads cluster summaries instead of walking cluster members when it can.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public interface ClusterSummaryRelationExtractor {
+   /**
+    * @param summaryCache summaries for the document being processed, or null to always walk cluster members
+    */
+   void setSummaryCache( ClusterSummaryCache summaryCache );
+}
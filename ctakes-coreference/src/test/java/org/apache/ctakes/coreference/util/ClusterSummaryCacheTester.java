@@ -0,0 +1,339 @@
+package org.apache.ctakes.coreference.util;
+
+import org.apache.ctakes.core.util.ListFactory;
+import org.apache.ctakes.coreference.ae.features.cluster.*;
+import org.apache.ctakes.dependency.parser.util.DependencyUtility;
+import org.apache.ctakes.relationextractor.ae.features.RelationFeaturesExtractor;
+import org.apache.ctakes.typesystem.type.constants.CONST;
+import org.apache.ctakes.typesystem.type.refsem.UmlsConcept;
+import org.apache.ctakes.typesystem.type.relation.CollectionTextRelation;
+import org.apache.ctakes.typesystem.type.structured.DocumentID;
+import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
+import org.apache.ctakes.typesystem.type.syntax.PunctuationToken;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.ctakes.typesystem.type.textsem.*;
+import org.apache.ctakes.typesystem.type.textspan.Paragraph;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.EmptyFSList;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.NonEmptyFSList;
+import org.cleartk.ml.Feature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that every cluster feature extractor gives the same features with a {@link ClusterSummaryCache}
+ * as it does when it walks the cluster members.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class ClusterSummaryCacheTester {
+
+   // paragraphs of sentences of word/pos tokens.  Single sentence paragraphs are section headers.
+   static private final String[][] PARAGRAPHS = {
+         { "Chest/NN pain/NN :/:" },
+         { "The/DT patient/NN reported/VBD chest/NN pain/NN yesterday/NN ./.",
+           "It/PRP was/VBD severe/JJ ./.",
+           "She/PRP denied/VBD fevers/NNS ./." },
+         { "Assessment/NN :/:" },
+         { "The/DT pain/NN resolved/VBD ./.",
+           "Her/PRP$ fever/NN is/VBZ absent/JJ ./.",
+           "This/DT is/VBZ stable/JJ ./.",
+           "The/DT patient/NN is/VBZ well/JJ ./." } };
+
+   // sentence, first token, end token, cluster, negated
+   static private final Object[][] MENTIONS = {
+         { 0, 0, 2, "pain", false },
+         { 1, 0, 2, "patient", false },
+         { 1, 3, 5, "pain", false },
+         { 1, 5, 6, "time", false },
+         { 2, 0, 1, "pain", false },
+         { 3, 0, 1, "patient", false },
+         { 3, 2, 3, "fever", true },
+         { 5, 0, 2, "pain", false },
+         { 6, 0, 1, "patient", false },
+         { 6, 1, 2, "fever", true },
+         { 7, 0, 1, "pain", false },
+         { 8, 0, 2, "patient", false } };
+
+   // word, entity type, cui
+   static private final String[][] ENTITIES = {
+         { "pain", "S", "C0030193" }, { "fever", "D", "C0015967" }, { "fevers", "D", "C0015967" } };
+
+   static private final String[] EMBEDDING_WORDS = { "pain", "fever", "fevers", "patient", "she", "her", "it", "this" };
+
+   private File _embeddings;
+   private JCas _jCas;
+   private final List<List<WordToken>> _sentenceTokens = new ArrayList<>();
+   private final List<Markable> _mentions = new ArrayList<>();
+   private final Map<Markable, ConllDependencyNode> _depHeadMap = new HashMap<>();
+
+   @Before
+   public void setUp() throws Exception {
+      _embeddings = File.createTempFile( "vectors", ".txt" );
+      final Random random = new Random( 3 );
+      try ( PrintWriter writer = new PrintWriter( _embeddings, "UTF-8" ) ) {
+         writer.println( EMBEDDING_WORDS.length + " 5" );
+         for ( String word : EMBEDDING_WORDS ) {
+            final StringBuilder line = new StringBuilder( word );
+            for ( int i = 0; i < 5; i++ ) {
+               line.append( ' ' ).append( random.nextDouble() - 0.5 );
+            }
+            writer.println( line );
+         }
+      }
+      _jCas = createJCas();
+   }
+
+   @After
+   public void tearDown() {
+      _embeddings.delete();
+   }
+
+   /**
+    * Clusters the mentions in document order, as the annotator does, comparing features for every cluster and
+    * mention pair on the way.  Then compares all pairs again, including clusters with members after the mention.
+    */
+   @Test
+   public void testSameFeatures() throws Exception {
+      final List<RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>> cached = createExtractors();
+      final List<RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>> walked = createExtractors();
+      final ClusterSummaryCache summaryCache = new ClusterSummaryCache( _jCas );
+      setCaches( cached, summaryCache );
+      setCaches( walked, null );
+      final Set<String> allFeatures = new HashSet<>();
+      final Map<String, CollectionTextRelation> clusters = new LinkedHashMap<>();
+      for ( int i = 0; i < _mentions.size(); i++ ) {
+         final Markable mention = _mentions.get( i );
+         for ( CollectionTextRelation cluster : clusters.values() ) {
+            allFeatures.addAll( assertSameFeatures( cached, walked, cluster, mention ) );
+         }
+         final String clusterId = (String)MENTIONS[ i ][ 3 ];
+         final CollectionTextRelation cluster = clusters.get( clusterId );
+         if ( cluster == null ) {
+            clusters.put( clusterId, createCluster( mention ) );
+         } else {
+            ListFactory.append( _jCas, cluster.getMembers(), mention );
+         }
+      }
+      for ( Markable mention : _mentions ) {
+         for ( CollectionTextRelation cluster : clusters.values() ) {
+            allFeatures.addAll( assertSameFeatures( cached, walked, cluster, mention ) );
+         }
+      }
+      // Make sure that the fixture exercises the features and not only their defaults
+      for ( String feature : new String[] { "ClusterHeadMatchesMentionHead=true", "UMLS_ALIAS=true",
+                                            "AnteInHeader=true", "MC_STRING_EXACT=true", "MC_AGREE_NEG=false",
+                                            "MC_AGREE_GEN=true", "ClusterMentionBothCui=true" } ) {
+         assertTrue( "No " + feature, allFeatures.contains( feature ) );
+      }
+   }
+
+   /**
+    * @return features as sorted name=value strings
+    */
+   private List<String> assertSameFeatures(
+         final List<RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>> cached,
+         final List<RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>> walked,
+         final CollectionTextRelation cluster, final Markable mention ) throws Exception {
+      final List<String> allFeatures = new ArrayList<>();
+      for ( int i = 0; i < cached.size(); i++ ) {
+         final List<String> expected = toStrings( walked.get( i ).extract( _jCas, cluster, mention ) );
+         final List<String> actual = toStrings( cached.get( i ).extract( _jCas, cluster, mention ) );
+         assertEquals( cached.get( i ).getClass().getSimpleName() + " " + mention.getCoveredText() + " "
+                       + mention.getBegin(), expected, actual );
+         allFeatures.addAll( actual );
+      }
+      return allFeatures;
+   }
+
+   static private List<String> toStrings( final List<Feature> features ) {
+      final List<String> strings = new ArrayList<>( features.size() );
+      for ( Feature feature : features ) {
+         strings.add( feature.getName() + "=" + feature.getValue() );
+      }
+      Collections.sort( strings );
+      return strings;
+   }
+
+   private List<RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>> createExtractors()
+         throws IOException {
+      return Arrays.asList( new MentionClusterAgreementFeaturesExtractor(),
+            new MentionClusterAttributeFeaturesExtractor(),
+            new MentionClusterDepHeadExtractor(),
+            new MentionClusterDistSemExtractor( _embeddings.getPath() ),
+            new MentionClusterSalienceFeaturesExtractor(),
+            new MentionClusterSectionFeaturesExtractor(),
+            new MentionClusterSemTypeDepPrefsFeatureExtractor(),
+            new MentionClusterStackFeaturesExtractor(),
+            new MentionClusterStringFeaturesExtractor(),
+            new MentionClusterUMLSFeatureExtractor() );
+   }
+
+   private void setCaches( final List<RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation>> extractors,
+                           final ClusterSummaryCache summaryCache ) {
+      for ( RelationFeaturesExtractor<CollectionTextRelation, IdentifiedAnnotation> extractor : extractors ) {
+         if ( extractor instanceof MarkableCacheRelationExtractor ) {
+            ((MarkableCacheRelationExtractor)extractor).setCache( _depHeadMap );
+         }
+         ((ClusterSummaryRelationExtractor)extractor).setSummaryCache( summaryCache );
+      }
+   }
+
+   private CollectionTextRelation createCluster( final Markable mention ) {
+      final CollectionTextRelation cluster = new CollectionTextRelation( _jCas );
+      cluster.setCategory( "Identity" );
+      final NonEmptyFSList list = new NonEmptyFSList( _jCas );
+      list.setHead( mention );
+      list.setTail( new EmptyFSList( _jCas ) );
+      cluster.setMembers( list );
+      cluster.addToIndexes();
+      list.addToIndexes();
+      list.getTail().addToIndexes();
+      return cluster;
+   }
+
+   /**
+    * @return a jcas with tokens, sentences, paragraphs, dependency nodes, entities and mentions
+    */
+   private JCas createJCas() throws Exception {
+      final JCas jCas = JCasFactory.createJCas();
+      final StringBuilder text = new StringBuilder();
+      for ( String[] paragraph : PARAGRAPHS ) {
+         for ( String sentence : paragraph ) {
+            for ( String wordPos : sentence.split( " " ) ) {
+               text.append( wordPos, 0, wordPos.lastIndexOf( '/' ) ).append( ' ' );
+            }
+         }
+         text.append( '\n' );
+      }
+      jCas.setDocumentText( text.toString() );
+      int offset = 0;
+      for ( String[] paragraph : PARAGRAPHS ) {
+         final int paragraphBegin = offset;
+         for ( String sentence : paragraph ) {
+            final int sentenceBegin = offset;
+            final List<WordToken> tokens = new ArrayList<>();
+            for ( String wordPos : sentence.split( " " ) ) {
+               final int slash = wordPos.lastIndexOf( '/' );
+               if ( Character.isLetter( wordPos.charAt( 0 ) ) ) {
+                  final WordToken token = new WordToken( jCas, offset, offset + slash );
+                  token.setPartOfSpeech( wordPos.substring( slash + 1 ) );
+                  token.addToIndexes();
+                  tokens.add( token );
+               } else {
+                  final PunctuationToken token = new PunctuationToken( jCas, offset, offset + slash );
+                  token.setPartOfSpeech( wordPos.substring( slash + 1 ) );
+                  token.addToIndexes();
+               }
+               offset += slash + 1;
+            }
+            new Sentence( jCas, sentenceBegin, offset - 1 ).addToIndexes();
+            _sentenceTokens.add( tokens );
+         }
+         new Paragraph( jCas, paragraphBegin, offset - 1 ).addToIndexes();
+         offset++;
+      }
+      final DocumentID documentId = new DocumentID( jCas );
+      documentId.setDocumentID( "ClusterSummaryCacheTester" );
+      documentId.addToIndexes();
+
+      final Set<WordToken> mentionHeads = new HashSet<>();
+      for ( Object[] mention : MENTIONS ) {
+         final List<WordToken> tokens = _sentenceTokens.get( (Integer)mention[ 0 ] );
+         mentionHeads.add( tokens.get( (Integer)mention[ 2 ] - 1 ) );
+      }
+      addDependencies( jCas, mentionHeads );
+
+      for ( WordToken token : JCasUtil.select( jCas, WordToken.class ) ) {
+         for ( String[] entity : ENTITIES ) {
+            if ( token.getCoveredText().toLowerCase().equals( entity[ 0 ] ) ) {
+               final IdentifiedAnnotation annotation = entity[ 1 ].equals( "S" )
+                                                       ? new SignSymptomMention( jCas, token.getBegin(), token.getEnd() )
+                                                       : new DiseaseDisorderMention( jCas, token.getBegin(), token.getEnd() );
+               final UmlsConcept concept = new UmlsConcept( jCas );
+               concept.setCui( entity[ 2 ] );
+               concept.setTui( "T184" );
+               final FSArray concepts = new FSArray( jCas, 1 );
+               concepts.set( 0, concept );
+               annotation.setOntologyConceptArr( concepts );
+               annotation.addToIndexes();
+            }
+         }
+      }
+      for ( int i = 0; i < MENTIONS.length; i++ ) {
+         final Object[] spec = MENTIONS[ i ];
+         final List<WordToken> tokens = _sentenceTokens.get( (Integer)spec[ 0 ] );
+         final int begin = tokens.get( (Integer)spec[ 1 ] ).getBegin();
+         final int end = tokens.get( (Integer)spec[ 2 ] - 1 ).getEnd();
+         final Markable markable = new Markable( jCas, begin, end );
+         markable.setConfidence( (i % 4) * 0.25f );
+         if ( (Boolean)spec[ 4 ] ) {
+            markable.setPolarity( CONST.NE_POLARITY_NEGATION_PRESENT );
+         }
+         markable.addToIndexes();
+         if ( spec[ 3 ].equals( "time" ) ) {
+            new TimeMention( jCas, begin, end ).addToIndexes();
+         }
+         _mentions.add( markable );
+      }
+      for ( Markable markable : _mentions ) {
+         _depHeadMap.put( markable, DependencyUtility.getNominalHeadNode( jCas, markable ) );
+      }
+      return jCas;
+   }
+
+   /**
+    * Mention heads and other words hang off the sentence root, earlier mention words off the mention head.
+    * Pronouns and determiners at the start of a sentence are the subject of the next word.
+    */
+   private void addDependencies( final JCas jCas, final Set<WordToken> mentionHeads ) {
+      for ( List<WordToken> tokens : _sentenceTokens ) {
+         final ConllDependencyNode root = new ConllDependencyNode( jCas, tokens.get( 0 ).getBegin(),
+               tokens.get( tokens.size() - 1 ).getEnd() );
+         root.setId( 0 );
+         root.addToIndexes();
+         final List<ConllDependencyNode> nodes = new ArrayList<>();
+         for ( int i = 0; i < tokens.size(); i++ ) {
+            final ConllDependencyNode node = new ConllDependencyNode( jCas, tokens.get( i ).getBegin(),
+                  tokens.get( i ).getEnd() );
+            node.setId( i + 1 );
+            node.setForm( tokens.get( i ).getCoveredText() );
+            node.setPostag( tokens.get( i ).getPartOfSpeech() );
+            node.addToIndexes();
+            nodes.add( node );
+         }
+         for ( int i = 0; i < nodes.size(); i++ ) {
+            final ConllDependencyNode node = nodes.get( i );
+            final String pos = node.getPostag();
+            if ( i == 0 && tokens.size() > 1 && (pos.startsWith( "PRP" ) || pos.equals( "DT" ))
+                 && mentionHeads.contains( tokens.get( i ) ) ) {
+               node.setHead( nodes.get( 1 ) );
+               node.setDeprel( "nsubj" );
+            } else if ( mentionHeads.contains( tokens.get( i ) ) || i + 1 == nodes.size() ) {
+               node.setHead( root );
+               node.setDeprel( "root" );
+            } else {
+               // modifiers attach to the next word, which ends up at a mention head or the root
+               node.setHead( nodes.get( i + 1 ) );
+               node.setDeprel( "dep" );
+            }
+         }
+      }
+   }
+
+}
@@ -25,10 +25,12 @@ import com.googlecode.clearnlp.dependency.DEPTree;
 import com.googlecode.clearnlp.morphology.AbstractMPAnalyzer;
 import com.googlecode.clearnlp.reader.AbstractReader;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.core.util.collection.SentenceCache;
 import org.apache.ctakes.dependency.parser.ae.shared.DependencySharedModel;
 import org.apache.ctakes.dependency.parser.ae.shared.LemmatizerSharedModel;
 import org.apache.ctakes.dependency.parser.util.ClearDependencyUtility;
 import org.apache.ctakes.dependency.parser.util.DependencyUtility;
+import org.apache.ctakes.dependency.parser.util.SentenceDependencies;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
 import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
 import org.apache.ctakes.typesystem.type.syntax.NewlineToken;
@@ -127,6 +129,18 @@ public class ClearNLPDependencyParserAE extends JCasAnnotator_ImplBase {
          description = "If true, use the default ClearNLP lemmatizer, otherwise use lemmas from the BaseToken normalizedToken field" )
    private boolean useLemmatizer;
 
+   @ConfigurationParameter(
+         name = SentenceCache.PARAM_CACHE_SIZE,
+         mandatory = false,
+         description = SentenceCache.CACHE_SIZE_DESC )
+   private int sentenceCacheSize = 0;
+
+   @ConfigurationParameter(
+         name = SentenceCache.PARAM_CACHE_FILE,
+         mandatory = false,
+         description = SentenceCache.CACHE_FILE_DESC )
+   private String sentenceCachePath;
+
    public static final String DEP_MODEL_KEY = "DepModel";
    @ExternalResource( key = DEP_MODEL_KEY, mandatory = false )
    private DependencySharedModel parserModel = null;
@@ -138,6 +152,9 @@ public class ClearNLPDependencyParserAE extends JCasAnnotator_ImplBase {
    protected AbstractComponent parser = null;
    protected AbstractMPAnalyzer lemmatizer = null;
 
+   // parses of repeated sentences, shared by all parsers using the same model
+   private SentenceCache<SentenceDependencies> sentenceCache;
+
    @Override
    public void initialize( UimaContext context ) throws ResourceInitializationException {
       super.initialize( context );
@@ -159,13 +176,19 @@ public class ClearNLPDependencyParserAE extends JCasAnnotator_ImplBase {
             this.lemmatizer = lemmatizerModel.getLemmatizerModel();
          }
       }
+      String modelPath = parserModelPath;
       if ( this.parserModel == null ) {
 //      this.parser = DependencySharedModel.getDefaultModel();
          logDeprecation( PARAM_PARSER_MODEL_FILE_NAME, DEP_MODEL_KEY );
          this.parser = DependencySharedModel.getModel( parserModelPath, DependencySharedModel.DEFAULT_LANGUAGE );
       } else {
          this.parser = parserModel.getParser();
+         modelPath = parserModel.getModelPath();
       }
+      // lemmas are part of the cached parse, so they must come from the same source
+      sentenceCache = SentenceCache.getSharedCache( "Dependency Parser",
+            modelPath + (useLemmatizer ? " lemmatized" : " normalized"), sentenceCacheSize,
+            sentenceCachePath, SentenceDependencies.CODEC );
    }
 
    @Override
@@ -182,6 +205,16 @@ public class ClearNLPDependencyParserAE extends JCasAnnotator_ImplBase {
             // If there are no printable tokens then #convert fails
             continue;
          }
+         final String key = sentenceCache == null ? null : createSentenceKey( printableTokens );
+         final SentenceDependencies cached = key == null ? null : sentenceCache.get( key );
+         if ( cached != null ) {
+            // Same tokens, tags and lemmas as an earlier sentence, so the parse is the same.
+            // process is synchronized, so a hit saves the parse but not the wait for other threads
+            DependencyUtility.addToIndexes( jCas,
+                  ClearDependencyUtility.convert( jCas, cached, sentence, printableTokens ) );
+            continue;
+         }
+         final long start = System.nanoTime();
          DEPTree tree = new DEPTree();
 
          // Convert CAS data into structures usable by ClearNLP
@@ -198,10 +231,43 @@ public class ClearNLPDependencyParserAE extends JCasAnnotator_ImplBase {
            ArrayList<ConllDependencyNode> nodes = ClearDependencyUtility.convert( jCas, tree, sentence, printableTokens );
            DependencyUtility.addToIndexes( jCas, nodes );
          }
+         if ( key != null ) {
+            sentenceCache.put( key, new SentenceDependencies( tree ), System.nanoTime() - start );
+         }
       }
       LOGGER.info( "Dependency parser ending with thread:" + Thread.currentThread().getName() );
    }
 
+   /**
+    * Lemmas from the lemmatizer depend only upon token text and part of speech.
+    * Otherwise the lemmas are the normalized forms of the tokens.
+    *
+    * @param printableTokens -
+    * @return sentence cache key for the parser inputs
+    */
+   private String createSentenceKey( final List<BaseToken> printableTokens ) {
+      final String[] words = new String[ printableTokens.size() ];
+      final String[] tags = new String[ words.length ];
+      final String[] forms = useLemmatizer ? new String[ 0 ] : new String[ words.length ];
+      for ( int i = 0; i < words.length; i++ ) {
+         final BaseToken token = printableTokens.get( i );
+         words[ i ] = token.getCoveredText();
+         tags[ i ] = token.getPartOfSpeech();
+         if ( !useLemmatizer ) {
+            forms[ i ] = token.getNormalizedForm();
+         }
+      }
+      return SentenceCache.createKey( words, tags, forms );
+   }
+
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      super.collectionProcessComplete();
+      if ( sentenceCache != null ) {
+         sentenceCache.complete();
+      }
+   }
+
    static private void logDeprecation( final String parameterName, final String resourceName ) {
       LOGGER.warn( "Use of configuration parameter " + parameterName
             + " may be deprecated in the future in favor of external resource " + resourceName );
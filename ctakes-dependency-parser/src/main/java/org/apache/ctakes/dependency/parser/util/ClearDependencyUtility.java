@@ -109,7 +109,38 @@ public class ClearDependencyUtility extends DependencyUtility {
         
         return uimaNodes;//uimaNodes.get(0); //return the root node
     }
-    	
+
+	/**
+	 * Creates the same nodes as {@link #convert(JCas, DEPTree, Sentence, List)} from remembered parser output.
+	 *
+	 * @param jcas         -
+	 * @param dependencies parser output for a sentence with the same tokens
+	 * @param sentence     -
+	 * @param tokens       printable tokens in the sentence
+	 * @return root node followed by a node for each token
+	 */
+	public static ArrayList<ConllDependencyNode> convert(JCas jcas, SentenceDependencies dependencies, Sentence sentence, List<BaseToken> tokens)  {
+        ArrayList<ConllDependencyNode> uimaNodes = new ArrayList<ConllDependencyNode>(tokens.size()+1);
+        uimaNodes.add( new ConllDependencyNode(jcas, tokens.get(0).getBegin(), tokens.get(tokens.size()-1).getEnd()));
+        for (BaseToken token : tokens) {
+            uimaNodes.add(new ConllDependencyNode(jcas, token.getBegin(), token.getEnd()));
+        }
+        for (int i=0; i<dependencies.size(); i++) {
+            ConllDependencyNode uimaNode = uimaNodes.get(i+1);
+            uimaNode.setId(i+1);
+            uimaNode.setForm(tokens.get(i).getCoveredText());
+            uimaNode.setLemma(dependencies.getLemma(i));
+            uimaNode.setCpostag(dependencies.getPosTag(i));
+            uimaNode.setPostag(dependencies.getPosTag(i));
+            uimaNode.setFeats("_");
+            uimaNode.setHead(uimaNodes.get(dependencies.getHeadId(i)));
+            uimaNode.setDeprel(dependencies.getLabel(i));
+            uimaNode.setPhead(null);
+            uimaNode.setPdeprel("_");
+        }
+        return uimaNodes;
+    }
+
 	
 	/** Equality expressions to aid in converting between DepNodes and CAS objects */
 	public static boolean equalCoverage(Annotation annot1,Annotation annot2) {
@@ -0,0 +1,108 @@
+package org.apache.ctakes.dependency.parser.util;
+
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import org.apache.ctakes.core.util.collection.SentenceCache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Dependency parser output for one sentence, kept by token index so that it can be replayed on any sentence
+ * with the same tokens.  Index 0 is the first token, and a head of 0 is the root.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class SentenceDependencies {
+
+   /**
+    * Writes and reads sentence dependencies in a sentence cache file
+    */
+   static public final SentenceCache.Codec<SentenceDependencies> CODEC
+         = new SentenceCache.Codec<SentenceDependencies>() {
+      @Override
+      public void write( final DataOutput output, final SentenceDependencies value ) throws IOException {
+         SentenceCache.STRING_ARRAY_CODEC.write( output, value._lemmas );
+         SentenceCache.STRING_ARRAY_CODEC.write( output, value._posTags );
+         SentenceCache.STRING_ARRAY_CODEC.write( output, value._labels );
+         output.writeInt( value._heads.length );
+         for ( int head : value._heads ) {
+            output.writeInt( head );
+         }
+      }
+
+      @Override
+      public SentenceDependencies read( final DataInput input ) throws IOException {
+         final String[] lemmas = SentenceCache.STRING_ARRAY_CODEC.read( input );
+         final String[] posTags = SentenceCache.STRING_ARRAY_CODEC.read( input );
+         final String[] labels = SentenceCache.STRING_ARRAY_CODEC.read( input );
+         final int[] heads = new int[ input.readInt() ];
+         for ( int i = 0; i < heads.length; i++ ) {
+            heads[ i ] = input.readInt();
+         }
+         return new SentenceDependencies( lemmas, posTags, heads, labels );
+      }
+   };
+
+   private final String[] _lemmas;
+   private final String[] _posTags;
+   private final int[] _heads;
+   private final String[] _labels;
+
+   private SentenceDependencies( final String[] lemmas, final String[] posTags, final int[] heads,
+                                 final String[] labels ) {
+      _lemmas = lemmas;
+      _posTags = posTags;
+      _heads = heads;
+      _labels = labels;
+   }
+
+   /**
+    * @param tree a parsed ClearNLP tree
+    */
+   public SentenceDependencies( final DEPTree tree ) {
+      final int size = tree.size() - 1;
+      _lemmas = new String[ size ];
+      _posTags = new String[ size ];
+      _heads = new int[ size ];
+      _labels = new String[ size ];
+      for ( int i = 0; i < size; i++ ) {
+         final DEPNode node = tree.get( i + 1 );
+         _lemmas[ i ] = node.lemma;
+         _posTags[ i ] = node.pos;
+         _heads[ i ] = node.getHead().id;
+         _labels[ i ] = node.getLabel();
+      }
+   }
+
+   /**
+    * @return number of tokens in the sentence
+    */
+   public int size() {
+      return _heads.length;
+   }
+
+   public String getLemma( final int index ) {
+      return _lemmas[ index ];
+   }
+
+   public String getPosTag( final int index ) {
+      return _posTags[ index ];
+   }
+
+   /**
+    * @param index token index
+    * @return id of the head node, where 0 is the root and i + 1 is the token at index i
+    */
+   public int getHeadId( final int index ) {
+      return _heads[ index ];
+   }
+
+   public String getLabel( final int index ) {
+      return _labels[ index ];
+   }
+
+}
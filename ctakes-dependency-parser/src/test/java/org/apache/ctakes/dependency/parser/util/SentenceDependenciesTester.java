@@ -0,0 +1,141 @@
+package org.apache.ctakes.dependency.parser.util;
+
+import com.googlecode.clearnlp.component.AbstractComponent;
+import com.googlecode.clearnlp.dependency.DEPFeat;
+import com.googlecode.clearnlp.dependency.DEPNode;
+import com.googlecode.clearnlp.dependency.DEPTree;
+import org.apache.ctakes.dependency.parser.ae.shared.DependencySharedModel;
+import org.apache.ctakes.typesystem.type.syntax.BaseToken;
+import org.apache.ctakes.typesystem.type.syntax.ConllDependencyNode;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that dependency nodes converted from cached {@link SentenceDependencies} are the same as the nodes
+ * converted from a fresh parse of the sentence.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class SentenceDependenciesTester {
+
+   // the same sentence twice, as in templated notes, and another sentence between them
+   static private final String[][] WORDS = {
+         { "The", "patient", "denies", "chest", "pain", "and", "shortness", "of", "breath", "." },
+         { "She", "was", "started", "on", "metoprolol", "for", "hypertension", "." },
+         { "The", "patient", "denies", "chest", "pain", "and", "shortness", "of", "breath", "." } };
+   static private final String[][] TAGS = {
+         { "DT", "NN", "VBZ", "NN", "NN", "CC", "NN", "IN", "NN", "." },
+         { "PRP", "VBD", "VBN", "IN", "NN", "IN", "NN", "." },
+         { "DT", "NN", "VBZ", "NN", "NN", "CC", "NN", "IN", "NN", "." } };
+
+   static private AbstractComponent _parser;
+
+   @BeforeClass
+   static public void loadParser() throws Exception {
+      _parser = DependencySharedModel.getDefaultModel();
+   }
+
+   @Test
+   public void testCachedDependencies() throws Exception {
+      final JCas jCas = JCasFactory.createJCas();
+      final StringBuilder text = new StringBuilder();
+      for ( String[] words : WORDS ) {
+         text.append( String.join( " ", words ) ).append( '\n' );
+      }
+      jCas.setDocumentText( text.toString() );
+      final List<Sentence> sentences = new ArrayList<>();
+      final List<List<BaseToken>> sentenceTokens = new ArrayList<>();
+      int offset = 0;
+      for ( int s = 0; s < WORDS.length; s++ ) {
+         final List<BaseToken> tokens = new ArrayList<>();
+         for ( int i = 0; i < WORDS[ s ].length; i++ ) {
+            final WordToken token = new WordToken( jCas, offset, offset + WORDS[ s ][ i ].length() );
+            token.setPartOfSpeech( TAGS[ s ][ i ] );
+            token.setNormalizedForm( WORDS[ s ][ i ].toLowerCase() );
+            token.addToIndexes();
+            tokens.add( token );
+            offset = token.getEnd() + 1;
+         }
+         final Sentence sentence = new Sentence( jCas, tokens.get( 0 ).getBegin(),
+               tokens.get( tokens.size() - 1 ).getEnd() );
+         sentence.addToIndexes();
+         sentences.add( sentence );
+         sentenceTokens.add( tokens );
+      }
+      final SentenceDependencies cached = roundTrip( new SentenceDependencies( parse( sentenceTokens.get( 0 ) ) ) );
+      assertEquals( WORDS[ 0 ].length, cached.size() );
+      // the repeated sentence is parsed fresh and compared to the nodes replayed from the first sentence
+      final List<String> expected = describe(
+            ClearDependencyUtility.convert( jCas, parse( sentenceTokens.get( 2 ) ), sentences.get( 2 ),
+                  sentenceTokens.get( 2 ) ) );
+      final List<String> replayed = describe(
+            ClearDependencyUtility.convert( jCas, cached, sentences.get( 2 ), sentenceTokens.get( 2 ) ) );
+      assertEquals( expected, replayed );
+      // and a sentence replays its own parse
+      final SentenceDependencies other = new SentenceDependencies( parse( sentenceTokens.get( 1 ) ) );
+      assertEquals( describe( ClearDependencyUtility.convert( jCas, parse( sentenceTokens.get( 1 ) ),
+                  sentences.get( 1 ), sentenceTokens.get( 1 ) ) ),
+            describe( ClearDependencyUtility.convert( jCas, other, sentences.get( 1 ), sentenceTokens.get( 1 ) ) ) );
+      // Make sure that the parse is a tree and not only the root
+      assertTrue( replayed.stream().filter( n -> n.contains( " head=0 " ) ).count() < WORDS[ 2 ].length );
+   }
+
+   /**
+    * Parses the tokens as the dependency parser annotator does with the lemmatizer off
+    *
+    * @param tokens -
+    * @return parsed tree
+    */
+   static private DEPTree parse( final List<BaseToken> tokens ) {
+      final DEPTree tree = new DEPTree();
+      for ( int i = 0; i < tokens.size(); i++ ) {
+         final BaseToken token = tokens.get( i );
+         tree.add( new DEPNode( i + 1, token.getCoveredText(), token.getNormalizedForm(), token.getPartOfSpeech(),
+               new DEPFeat() ) );
+      }
+      _parser.process( tree );
+      return tree;
+   }
+
+   /**
+    * @param nodes root node followed by a node for each token
+    * @return every node with its span , values and the index of its head
+    */
+   static private List<String> describe( final List<ConllDependencyNode> nodes ) {
+      final List<String> descriptions = new ArrayList<>();
+      for ( ConllDependencyNode node : nodes ) {
+         descriptions.add( node.getBegin() + "," + node.getEnd() + " id=" + node.getId()
+                           + " head=" + nodes.indexOf( node.getHead() ) + " " + node.getForm()
+                           + " " + node.getLemma() + " " + node.getCpostag() + " " + node.getPostag()
+                           + " " + node.getFeats() + " " + node.getDeprel() + " " + node.getPhead()
+                           + " " + node.getPdeprel() );
+      }
+      return descriptions;
+   }
+
+   /**
+    * @param dependencies -
+    * @return the dependencies written to and read from a sentence cache file
+    */
+   static private SentenceDependencies roundTrip( final SentenceDependencies dependencies ) throws IOException {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try ( DataOutputStream output = new DataOutputStream( bytes ) ) {
+         SentenceDependencies.CODEC.write( output, dependencies );
+      }
+      return SentenceDependencies.CODEC.read( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+   }
+
+}
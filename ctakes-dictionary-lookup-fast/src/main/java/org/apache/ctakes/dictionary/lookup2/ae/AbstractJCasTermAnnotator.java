@@ -18,18 +18,23 @@
  */
 package org.apache.ctakes.dictionary.lookup2.ae;
 
+import org.apache.ctakes.core.concurrent.SharedResourceCache;
 import org.apache.ctakes.core.config.ConfigParameterConstants;
 import org.apache.ctakes.core.fsm.token.NumberToken;
 import org.apache.ctakes.core.resource.FileLocator;
 import org.apache.ctakes.core.util.collection.CollectionMap;
 import org.apache.ctakes.core.util.collection.HashSetMap;
+import org.apache.ctakes.core.util.collection.LongSetMap;
 import org.apache.ctakes.dictionary.lookup2.concept.Concept;
 import org.apache.ctakes.dictionary.lookup2.concept.ConceptFactory;
 import org.apache.ctakes.dictionary.lookup2.dictionary.DictionaryDescriptorParser;
 import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordDictionary;
 import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
+import org.apache.ctakes.dictionary.lookup2.util.CachingLookup;
 import org.apache.ctakes.dictionary.lookup2.util.DictionarySpec;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionPool;
 import org.apache.ctakes.typesystem.type.syntax.*;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -43,7 +48,12 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Performs the basic initialization with uima context, including the parse of the dictionary specifications file.
@@ -91,6 +101,13 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
          description = "Minimum number of characters for a term" )
    protected int _minimumLookupSpan = DEFAULT_MINIMUM_SPAN;
 
+   // number of threads for lookup within a document, 1 for lookup on the annotator thread
+   @ConfigurationParameter( name = JCasTermAnnotator.PARAM_LOOKUP_THREADS_KEY, mandatory = false,
+         description = "Number of threads used to look up terms in the windows of a single document" )
+   private int _lookupThreads = 1;
+
+   private ForkJoinPool _lookupPool;
+
    /**
     * {@inheritDoc}
     */
@@ -134,8 +151,82 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
          descriptorFilePath = _lookupXml;
       }
       LOGGER.info( "Using Dictionary Descriptor: " + descriptorFilePath );
+      // Dictionaries and concept factories are read-only after creation, so share them between annotator instances.
+      final String specPath = descriptorFilePath;
+      _dictionarySpec = SharedResourceCache.getInstance()
+            .getResource( getDictionarySpecKey( specPath, uimaContext ),
+                  () -> parseDictionarySpec( specPath, uimaContext ) );
+      if ( _lookupThreads > 1 ) {
+         LOGGER.info( "Using " + _lookupThreads + " threads for lookup within documents" );
+         // Workers only run lookup tasks, which are short, so annotators with the same thread count share a pool.
+         _lookupPool = SharedResourceCache.getInstance()
+               .getResource( ForkJoinPool.class.getName() + ":" + AbstractJCasTermAnnotator.class.getName()
+                             + ":" + _lookupThreads, () -> new ForkJoinPool( _lookupThreads ) );
+      }
+   }
+
+   /**
+    * Dictionaries, concept factories and consumers can read any context parameter, such as a jdbc url or umls
+    * credentials, so a specification is only shared by annotators with the same descriptor and parameters.
+    * Parameter values are digested so that credentials are not written to the log with the key.
+    *
+    * @param descriptorFilePath path to the dictionary specification xml
+    * @param uimaContext        -
+    * @return key for the shared dictionary specification
+    * @throws ResourceInitializationException if the parameters could not be digested
+    */
+   static String getDictionarySpecKey( final String descriptorFilePath, final UimaContext uimaContext )
+         throws ResourceInitializationException {
+      final StringBuilder sb = new StringBuilder();
+      appendParameters( sb, null, uimaContext.getConfigParameterNames(), uimaContext );
+      final String[] groupNames = uimaContext.getConfigurationGroupNames();
+      if ( groupNames != null ) {
+         for ( String groupName : groupNames ) {
+            appendParameters( sb, groupName, uimaContext.getConfigParameterNames( groupName ), uimaContext );
+         }
+      }
+      try {
+         final byte[] digest = MessageDigest.getInstance( "SHA-256" )
+               .digest( sb.toString().getBytes( StandardCharsets.UTF_8 ) );
+         return DictionarySpec.class.getName() + ":" + descriptorFilePath + ":"
+                + new BigInteger( 1, digest ).toString( 16 );
+      } catch ( NoSuchAlgorithmException nsaE ) {
+         throw new ResourceInitializationException( nsaE );
+      }
+   }
+
+   /**
+    * @param sb             builder to which name=value lines are appended in name order
+    * @param groupName      configuration group name, or null for parameters not in a group
+    * @param parameterNames names of the parameters, may be null
+    * @param uimaContext    -
+    */
+   static private void appendParameters( final StringBuilder sb, final String groupName,
+                                         final String[] parameterNames, final UimaContext uimaContext ) {
+      if ( parameterNames == null ) {
+         return;
+      }
+      final String[] sortedNames = parameterNames.clone();
+      Arrays.sort( sortedNames );
+      for ( String name : sortedNames ) {
+         final Object value = groupName == null ? uimaContext.getConfigParameterValue( name )
+                                                : uimaContext.getConfigParameterValue( groupName, name );
+         sb.append( groupName ).append( ':' ).append( name ).append( '=' )
+           .append( value instanceof Object[] ? Arrays.deepToString( (Object[])value ) : value ).append( '\n' );
+      }
+   }
+
+   /**
+    * @param descriptorFilePath path to the dictionary specification xml
+    * @param uimaContext        -
+    * @return dictionary specification parsed from the xml
+    * @throws ResourceInitializationException if the xml could not be read or parsed
+    */
+   static private DictionarySpec parseDictionarySpec( final String descriptorFilePath,
+                                                      final UimaContext uimaContext )
+         throws ResourceInitializationException {
       try ( InputStream descriptorStream = FileLocator.getAsStream( descriptorFilePath ) ) {
-         _dictionarySpec = DictionaryDescriptorParser.parseDescriptor( descriptorStream, uimaContext );
+         return DictionaryDescriptorParser.parseDescriptor( descriptorStream, uimaContext );
       } catch ( IOException | AnnotatorContextException multE ) {
          throw new ResourceInitializationException( multE );
       }
@@ -154,22 +245,49 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
 //         return;
 //      }
       final Map<Annotation, Collection<BaseToken>> windowTokens = org.apache.uima.fit.util.JCasUtil.indexCovered( jcas, _lookupClass, BaseToken.class );
-      final Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> dictionaryTermsMap
+      final List<List<FastLookupToken>> windowsAllTokens = new ArrayList<>( windowTokens.size() );
+      final List<List<Integer>> windowsLookupIndices = new ArrayList<>( windowTokens.size() );
+      final Collection<String> lookupTexts = new HashSet<>();
+      try {
+         for ( Collection<BaseToken> baseTokens : windowTokens.values() ) {
+            final List<FastLookupToken> allTokens = new ArrayList<>();
+            final List<Integer> lookupTokenIndices = new ArrayList<>();
+            getAnnotationsInWindow( jcas, baseTokens, allTokens, lookupTokenIndices );
+            for ( Integer lookupTokenIndex : lookupTokenIndices ) {
+               final FastLookupToken lookupToken = allTokens.get( lookupTokenIndex );
+               lookupTexts.add( lookupToken.getText() );
+               if ( lookupToken.getVariant() != null ) {
+                  lookupTexts.add( lookupToken.getVariant() );
+               }
+            }
+            windowsAllTokens.add( allTokens );
+            windowsLookupIndices.add( lookupTokenIndices );
+         }
+      } catch ( ArrayIndexOutOfBoundsException iobE ) {
+         // JCasHashMap will throw this every once in a while.  Assume the windows are done and look up what we have
+         LOGGER.warn( iobE.getMessage() );
+      }
+      // Give dictionaries a chance to fetch all hits for the document at once
+      if ( usesRareWordHits() ) {
+         for ( RareWordDictionary dictionary : getDictionaries() ) {
+            dictionary.prefetchRareWordHits( lookupTexts );
+         }
+      }
+      Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> dictionaryTermsMap
             = new HashMap<>( getDictionaries().size() );
       for ( RareWordDictionary dictionary : getDictionaries() ) {
-         final CollectionMap<TextSpan, Long, ? extends Collection<Long>> textSpanCuis = new HashSetMap<>();
+         final CollectionMap<TextSpan, Long, ? extends Collection<Long>> textSpanCuis = new LongSetMap<>();
          dictionaryTermsMap.put( dictionary, textSpanCuis );
       }
       try {
-//         for ( Object window : lookupWindows ) {
-//            if ( isWindowOk( (Annotation)window ) ) {
-//               processWindow( jcas, (Annotation)window, dictionaryTermsMap );
-//            }
-//         }
-         for ( Map.Entry<Annotation, Collection<BaseToken>> entry : windowTokens.entrySet() ) {
-//            if ( isWindowOk( entry.getKey() ) ) {
-            processWindow( jcas, entry.getValue(), dictionaryTermsMap );
-//            }
+         if ( _lookupPool != null && windowsAllTokens.size() > WindowLookupTask.WINDOWS_PER_TASK ) {
+            dictionaryTermsMap = WindowLookupTask.findTerms( _lookupPool, this, getDictionaries(),
+                  windowsAllTokens, windowsLookupIndices );
+         } else {
+            for ( int i = 0; i < windowsAllTokens.size(); i++ ) {
+               findTerms( getDictionaries(), windowsAllTokens.get( i ), windowsLookupIndices.get( i ),
+                     dictionaryTermsMap );
+            }
          }
       } catch ( ArrayIndexOutOfBoundsException iobE ) {
          // JCasHashMap will throw this every once in a while.  Assume the windows are done and move on
@@ -198,6 +316,35 @@ abstract public class AbstractJCasTermAnnotator extends JCasAnnotator_ImplBase
       LOGGER.info( "Finished processing" );
    }
 
+   /**
+    * @return true if {@link #findTerms} gets rare word hits from the dictionaries, so hits should be prefetched
+    */
+   protected boolean usesRareWordHits() {
+      return true;
+   }
+
+   /**
+    * Logs statistics for dictionaries and concept factories that cache lookups, and for database connection pools.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      super.collectionProcessComplete();
+      for ( RareWordDictionary dictionary : getDictionaries() ) {
+         if ( dictionary instanceof CachingLookup ) {
+            LOGGER.info( ((CachingLookup)dictionary).getCacheStatistics() );
+         }
+      }
+      for ( ConceptFactory conceptFactory : _dictionarySpec.getConceptFactories() ) {
+         if ( conceptFactory instanceof CachingLookup ) {
+            LOGGER.info( ((CachingLookup)conceptFactory).getCacheStatistics() );
+         }
+      }
+      for ( JdbcConnectionPool connectionPool : JdbcConnectionFactory.getInstance().getConnectionPools() ) {
+         LOGGER.info( connectionPool.getStatistics() );
+      }
+   }
+
 
    /**
     * {@inheritDoc}
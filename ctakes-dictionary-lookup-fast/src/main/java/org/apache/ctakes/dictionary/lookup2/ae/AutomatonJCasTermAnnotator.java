@@ -0,0 +1,239 @@
+package org.apache.ctakes.dictionary.lookup2.ae;
+
+import org.apache.ctakes.core.concurrent.SharedResourceCache;
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.core.util.collection.CollectionMap;
+import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordDictionary;
+import org.apache.ctakes.dictionary.lookup2.dictionary.TermAutomaton;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.textspan.DefaultTextSpan;
+import org.apache.ctakes.dictionary.lookup2.textspan.MultiTextSpan;
+import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
+import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Finds terms with a single pass over each window using a {@link TermAutomaton} compiled from each dictionary,
+ * instead of looking up the terms for every rare word in the window.
+ * <p>
+ * By default terms must match contiguous tokens, giving the same terms as {@link DefaultJCasTermAnnotator}.
+ * If consecutive and total skips are set then tokens can be skipped within terms, as with
+ * {@link OverlapJCasTermAnnotator}.
+ * </p>
+ * Every dictionary must be able to list its terms.  Automata are shared by all annotators using the same dictionary.
+ * If an automaton directory is given then compiled automata are written to it and read from it on later runs,
+ * which is much faster than compiling a large dictionary.  Delete the automaton file when the dictionary changes.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "Dictionary Lookup (Automaton)",
+      description = "Annotates clinically-relevant terms using a compiled term automaton.",
+      dependencies = { PipeBitInfo.TypeProduct.SENTENCE, PipeBitInfo.TypeProduct.BASE_TOKEN },
+      products = PipeBitInfo.TypeProduct.IDENTIFIED_ANNOTATION
+)
+final public class AutomatonJCasTermAnnotator extends AbstractJCasTermAnnotator {
+
+   static private final Logger LOGGER = Logger.getLogger( "AutomatonJCasTermAnnotator" );
+
+   static public final String PARAM_AUTOMATON_DIR = "automatonDirectory";
+   static public final String PARAM_CONS_SKIPS = "consecutiveSkips";
+   static public final String PARAM_TOTAL_SKIPS = "totalTokenSkips";
+
+   static private final String AUTOMATON_EXTENSION = ".automaton";
+
+   @ConfigurationParameter( name = PARAM_AUTOMATON_DIR, mandatory = false,
+         description = "Directory for compiled term automata" )
+   private String _automatonDirectory;
+
+   @ConfigurationParameter( name = PARAM_CONS_SKIPS, mandatory = false,
+         description = "Number of consecutive non-comma tokens that can be skipped, 0 for contiguous terms" )
+   private int _consecutiveSkipMax = 0;
+
+   @ConfigurationParameter( name = PARAM_TOTAL_SKIPS, mandatory = false,
+         description = "Number of total tokens that can be skipped, 0 for contiguous terms" )
+   private int _totalSkipMax = 0;
+
+   private final Map<RareWordDictionary, TermAutomaton> _automata = new HashMap<>();
+
+   /**
+    * Compiles or reads an automaton for each dictionary.
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext uimaContext ) throws ResourceInitializationException {
+      super.initialize( uimaContext );
+      if ( isSkipping() ) {
+         LOGGER.info( "Maximum consecutive tokens that can be skipped: " + _consecutiveSkipMax );
+         LOGGER.info( "Maximum tokens that can be skipped: " + _totalSkipMax );
+      }
+      for ( RareWordDictionary dictionary : getDictionaries() ) {
+         final TermAutomaton automaton = SharedResourceCache.getInstance()
+               .getResource( TermAutomaton.class.getName() + ":" + dictionary.getName()
+                             + "@" + System.identityHashCode( dictionary ),
+                     () -> loadAutomaton( dictionary, _automatonDirectory ) );
+         _automata.put( dictionary, automaton );
+      }
+   }
+
+   /**
+    * @param dictionary         -
+    * @param automatonDirectory directory for automaton files, may be null
+    * @return an automaton read from the directory or compiled from the dictionary
+    * @throws ResourceInitializationException if the dictionary cannot list its terms
+    */
+   static private TermAutomaton loadAutomaton( final RareWordDictionary dictionary,
+                                               final String automatonDirectory )
+         throws ResourceInitializationException {
+      File file = null;
+      if ( automatonDirectory != null && !automatonDirectory.isEmpty() ) {
+         file = new File( automatonDirectory, dictionary.getName() + AUTOMATON_EXTENSION );
+         if ( file.canRead() ) {
+            try {
+               final TermAutomaton automaton = TermAutomaton.readAutomaton( file );
+               LOGGER.info( "Read term automaton for " + dictionary.getName() + " from " + file.getPath() );
+               return automaton;
+            } catch ( IOException ioE ) {
+               LOGGER.warn( "Could not read " + file.getPath() + " , compiling " + dictionary.getName() );
+            }
+         }
+      }
+      final Collection<RareWordTerm> terms = dictionary.getAllTerms();
+      if ( terms == null ) {
+         throw new ResourceInitializationException( new UnsupportedOperationException(
+               "Dictionary " + dictionary.getName() + " cannot list its terms for an automaton" ) );
+      }
+      final TermAutomaton automaton = TermAutomaton.compile( terms );
+      if ( file != null ) {
+         try {
+            file.getParentFile().mkdirs();
+            automaton.writeAutomaton( file );
+            LOGGER.info( "Wrote term automaton for " + dictionary.getName() + " to " + file.getPath() );
+         } catch ( IOException ioE ) {
+            LOGGER.warn( "Could not write " + file.getPath() + " " + ioE.getMessage() );
+         }
+      }
+      return automaton;
+   }
+
+   private boolean isSkipping() {
+      return _consecutiveSkipMax > 0 && _totalSkipMax > 0;
+   }
+
+   /**
+    * Hits are found by the automaton, not by rare word lookup.
+    * {@inheritDoc}
+    */
+   @Override
+   protected boolean usesRareWordHits() {
+      return false;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void findTerms( final RareWordDictionary dictionary,
+                          final List<FastLookupToken> allTokens,
+                          final List<Integer> lookupTokenIndices,
+                          final CollectionMap<TextSpan, Long, ? extends Collection<Long>> termsFromDictionary ) {
+      final TermAutomaton automaton = _automata.get( dictionary );
+      if ( automaton == null || lookupTokenIndices.isEmpty() ) {
+         return;
+      }
+      final TokenIdTable tokenIdTable = automaton.getTokenIdTable();
+      final int tokenCount = allTokens.size();
+      final int[] textIds = new int[ tokenCount ];
+      final int[] variantIds = new int[ tokenCount ];
+      final boolean[] isComma = new boolean[ tokenCount ];
+      for ( int i = 0; i < tokenCount; i++ ) {
+         final FastLookupToken token = allTokens.get( i );
+         textIds[ i ] = token.getTextId( tokenIdTable );
+         variantIds[ i ] = token.getVariantId( tokenIdTable );
+         isComma[ i ] = token.getText().equals( "," );
+      }
+      final boolean[] isLookupToken = new boolean[ tokenCount ];
+      for ( Integer lookupTokenIndex : lookupTokenIndices ) {
+         isLookupToken[ lookupTokenIndex ] = true;
+      }
+      final TermAutomaton.MatchListener listener = ( termIndex, tokenIndices, matchCount ) -> {
+         if ( automaton.getTextLength( termIndex ) < _minimumLookupSpan
+              || !isLookupToken[ tokenIndices[ automaton.getRareWordIndex( termIndex ) ] ] ) {
+            return;
+         }
+         termsFromDictionary.placeValue( createTextSpan( allTokens, tokenIndices, matchCount ),
+               automaton.getCuiCode( termIndex ) );
+      };
+      if ( isSkipping() ) {
+         automaton.findSkipMatches( textIds, variantIds, isComma, tokenCount, _consecutiveSkipMax, _totalSkipMax,
+               listener );
+      } else {
+         automaton.findMatches( textIds, variantIds, tokenCount, listener );
+      }
+   }
+
+   /**
+    * @param allTokens    all tokens in a window
+    * @param tokenIndices indices of the window tokens matching term tokens
+    * @param matchCount   number of term tokens
+    * @return span of the term, with any skipped tokens as missing spans
+    */
+   static private TextSpan createTextSpan( final List<FastLookupToken> allTokens, final int[] tokenIndices,
+                                           final int matchCount ) {
+      final int first = tokenIndices[ 0 ];
+      final int last = tokenIndices[ matchCount - 1 ];
+      if ( first == last ) {
+         return allTokens.get( first ).getTextSpan();
+      }
+      if ( last - first + 1 == matchCount ) {
+         return new DefaultTextSpan( allTokens.get( first ).getStart(), allTokens.get( last ).getEnd() );
+      }
+      final List<TextSpan> missingSpans = new ArrayList<>( last - first + 1 - matchCount );
+      int match = 1;
+      for ( int i = first + 1; i < last; i++ ) {
+         if ( tokenIndices[ match ] == i ) {
+            match++;
+         } else {
+            missingSpans.add( allTokens.get( i ).getTextSpan() );
+         }
+      }
+      return new MultiTextSpan( allTokens.get( first ).getStart(), allTokens.get( last ).getEnd(), missingSpans );
+   }
+
+
+   static public AnalysisEngineDescription createAnnotatorDescription() throws ResourceInitializationException {
+      return AnalysisEngineFactory.createEngineDescription( AutomatonJCasTermAnnotator.class );
+   }
+
+   static public AnalysisEngineDescription createAnnotatorDescription( final String descriptorPath )
+         throws ResourceInitializationException {
+      return AnalysisEngineFactory.createEngineDescription( AutomatonJCasTermAnnotator.class,
+            ConfigParameterConstants.PARAM_LOOKUP_XML, descriptorPath );
+   }
+
+   static public AnalysisEngineDescription createAnnotatorDescription( final String descriptorPath,
+                                                                       final String automatonDirectory,
+                                                                       final int consecutiveSkipMax,
+                                                                       final int totalSkipMax )
+         throws ResourceInitializationException {
+      return AnalysisEngineFactory.createEngineDescription( AutomatonJCasTermAnnotator.class,
+            ConfigParameterConstants.PARAM_LOOKUP_XML, descriptorPath,
+            PARAM_AUTOMATON_DIR, automatonDirectory,
+            PARAM_CONS_SKIPS, consecutiveSkipMax,
+            PARAM_TOTAL_SKIPS, totalSkipMax );
+   }
+
+}
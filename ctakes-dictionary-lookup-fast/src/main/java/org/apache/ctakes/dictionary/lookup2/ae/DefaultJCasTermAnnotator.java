@@ -26,6 +26,7 @@ import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
 import org.apache.ctakes.dictionary.lookup2.textspan.DefaultTextSpan;
 import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -55,6 +56,7 @@ public class DefaultJCasTermAnnotator extends AbstractJCasTermAnnotator {
                           final List<FastLookupToken> allTokens,
                           final List<Integer> lookupTokenIndices,
                           final CollectionMap<TextSpan, Long, ? extends Collection<Long>> termsFromDictionary ) {
+      final TokenIdTable tokenIdTable = dictionary.getTokenIdTable();
       Collection<RareWordTerm> rareWordHits;
       for ( Integer lookupTokenIndex : lookupTokenIndices ) {
          final FastLookupToken lookupToken = allTokens.get( lookupTokenIndex );
@@ -77,7 +79,7 @@ public class DefaultJCasTermAnnotator extends AbstractJCasTermAnnotator {
                continue;
             }
             final int termEndIndex = termStartIndex + rareWordHit.getTokenCount() - 1;
-            if ( isTermMatch( rareWordHit, allTokens, termStartIndex, termEndIndex ) ) {
+            if ( isTermMatch( rareWordHit, allTokens, termStartIndex, termEndIndex, tokenIdTable ) ) {
                final int spanStart = allTokens.get( termStartIndex ).getStart();
                final int spanEnd = allTokens.get( termEndIndex ).getEnd();
                termsFromDictionary.placeValue( new DefaultTextSpan( spanStart, spanEnd ), rareWordHit.getCuiCode() );
@@ -87,21 +89,25 @@ public class DefaultJCasTermAnnotator extends AbstractJCasTermAnnotator {
    }
 
    /**
-    * Hopefully the jit will inline this method
+    * Hopefully the jit will inline this method.
+    * Compares pre-computed token ids, so nothing is allocated.
     *
     * @param rareWordHit    rare word term to check for match
     * @param allTokens      all tokens in a window
     * @param termStartIndex index of first token in allTokens to check
     * @param termEndIndex   index of last token in allTokens to check
+    * @param tokenIdTable   token id table of the dictionary holding the rare word term
     * @return true if the rare word term exists in allTokens within the given indices
     */
    public static boolean isTermMatch( final RareWordTerm rareWordHit, final List<FastLookupToken> allTokens,
-                                      final int termStartIndex, final int termEndIndex ) {
-      final String[] hitTokens = rareWordHit.getTokens();
+                                      final int termStartIndex, final int termEndIndex,
+                                      final TokenIdTable tokenIdTable ) {
+      final int[] hitTokenIds = rareWordHit.getTokenIds( tokenIdTable );
       int hit = 0;
       for ( int i = termStartIndex; i < termEndIndex + 1; i++ ) {
-         if ( hitTokens[ hit ].equals( allTokens.get( i ).getText() )
-              || hitTokens[ hit ].equals( allTokens.get( i ).getVariant() ) ) {
+         final FastLookupToken token = allTokens.get( i );
+         if ( hitTokenIds[ hit ] == token.getTextId( tokenIdTable )
+              || hitTokenIds[ hit ] == token.getVariantId( tokenIdTable ) ) {
             // the normal token or variant matched, move to the next token
             hit++;
             continue;
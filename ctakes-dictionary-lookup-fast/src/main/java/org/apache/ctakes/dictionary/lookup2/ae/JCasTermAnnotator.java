@@ -55,6 +55,10 @@ public interface JCasTermAnnotator extends AnalysisComponent {
     * optional minimum span for tokens that should not be used for lookup
     */
    String PARAM_MIN_SPAN_KEY = "minimumSpan";
+   /**
+    * optional number of threads used to look up terms in the windows of a single document
+    */
+   String PARAM_LOOKUP_THREADS_KEY = "lookupThreads";
 
 
    String DEFAULT_LOOKUP_WINDOW = "org.apache.ctakes.typesystem.type.textspan.Sentence";
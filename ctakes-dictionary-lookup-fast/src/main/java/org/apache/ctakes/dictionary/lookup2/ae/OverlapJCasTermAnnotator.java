@@ -27,6 +27,7 @@ import org.apache.ctakes.dictionary.lookup2.textspan.DefaultTextSpan;
 import org.apache.ctakes.dictionary.lookup2.textspan.MultiTextSpan;
 import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
@@ -95,6 +96,7 @@ final public class OverlapJCasTermAnnotator extends AbstractJCasTermAnnotator {
                           final List<FastLookupToken> allTokens,
                           final List<Integer> lookupTokenIndices,
                           final CollectionMap<TextSpan, Long, ? extends Collection<Long>> termsFromDictionary ) {
+      final TokenIdTable tokenIdTable = dictionary.getTokenIdTable();
       Collection<RareWordTerm> rareWordHits;
       for ( Integer lookupTokenIndex : lookupTokenIndices ) {
          final FastLookupToken lookupToken = allTokens.get( lookupTokenIndex );
@@ -117,7 +119,7 @@ final public class OverlapJCasTermAnnotator extends AbstractJCasTermAnnotator {
                continue;
             }
             final TextSpan overlapSpan = getOverlapTerm( allTokens, lookupTokenIndex, rareWordHit,
-                  _consecutiveSkipMax, _totalSkipMax );
+                  _consecutiveSkipMax, _totalSkipMax, tokenIdTable );
             if ( overlapSpan != null ) {
                termsFromDictionary.placeValue( overlapSpan, rareWordHit.getCuiCode() );
             }
@@ -132,12 +134,14 @@ final public class OverlapJCasTermAnnotator extends AbstractJCasTermAnnotator {
     * @param allTokens        all tokens in a window
     * @param lookupTokenIndex index of rare word in the window of all tokens
     * @param rareWordHit      some possible term
+    * @param tokenIdTable     token id table of the dictionary holding the term
     * @return a spanned term that is in the window in some overlapping manner, or null
     */
    static private TextSpan getOverlapTerm( final List<FastLookupToken> allTokens, final int lookupTokenIndex,
                                            final RareWordTerm rareWordHit,
-                                           final int consecutiveSkipMax, final int totalSkipMax ) {
-      final String[] hitTokens = rareWordHit.getTokens();
+                                           final int consecutiveSkipMax, final int totalSkipMax,
+                                           final TokenIdTable tokenIdTable ) {
+      final int[] hitTokenIds = rareWordHit.getTokenIds( tokenIdTable );
       final List<TextSpan> missingSpanKeys = new ArrayList<>();
       int consecutiveSkips = 0;
       int totalSkips = 0;
@@ -147,8 +151,9 @@ final public class OverlapJCasTermAnnotator extends AbstractJCasTermAnnotator {
       } else {
          int nextRareWordIndex = rareWordHit.getRareWordIndex() - 1;
          for ( int allTokensIndex = lookupTokenIndex - 1; allTokensIndex >= 0; allTokensIndex-- ) {
-            if ( hitTokens[ nextRareWordIndex ].equals( allTokens.get( allTokensIndex ).getText() )
-                 || hitTokens[ nextRareWordIndex ].equals( allTokens.get( allTokensIndex ).getVariant() ) ) {
+            final FastLookupToken token = allTokens.get( allTokensIndex );
+            if ( hitTokenIds[ nextRareWordIndex ] == token.getTextId( tokenIdTable )
+                 || hitTokenIds[ nextRareWordIndex ] == token.getVariantId( tokenIdTable ) ) {
                nextRareWordIndex--;
                if ( nextRareWordIndex < 0 ) {
                   firstWordIndex = allTokensIndex;
@@ -181,8 +186,9 @@ final public class OverlapJCasTermAnnotator extends AbstractJCasTermAnnotator {
          consecutiveSkips = 0;
          int nextRareWordIndex = rareWordHit.getRareWordIndex() + 1;
          for ( int allTokensIndex = lookupTokenIndex + 1; allTokensIndex < allTokens.size(); allTokensIndex++ ) {
-            if ( hitTokens[ nextRareWordIndex ].equals( allTokens.get( allTokensIndex ).getText() )
-                 || hitTokens[ nextRareWordIndex ].equals( allTokens.get( allTokensIndex ).getVariant() ) ) {
+            final FastLookupToken token = allTokens.get( allTokensIndex );
+            if ( hitTokenIds[ nextRareWordIndex ] == token.getTextId( tokenIdTable )
+                 || hitTokenIds[ nextRareWordIndex ] == token.getVariantId( tokenIdTable ) ) {
                nextRareWordIndex++;
                if ( nextRareWordIndex >= rareWordHit.getTokenCount() ) {
                   lastWordIndex = allTokensIndex;
@@ -0,0 +1,116 @@
+package org.apache.ctakes.dictionary.lookup2.ae;
+
+import org.apache.ctakes.core.util.collection.CollectionMap;
+import org.apache.ctakes.core.util.collection.LongSetMap;
+import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordDictionary;
+import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
+import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds terms in a range of lookup windows, splitting the range among fork join workers.
+ * <p>
+ * Each task fills its own terms maps, so workers never share a map.  Results are merged left to right.
+ * The maps are {@link LongSetMap}s, which iterate in insertion order, so each partial map iterates in window order
+ * and merging adds the right terms after the left terms, exactly as single threaded lookup does.
+ * Output, including key order, is therefore the same regardless of the number of threads.
+ * With a hash ordered map only the contents would be the same; key order could depend on the number of threads.
+ * Only dictionary lookup is done in the tasks.  The jcas is not touched, as it is not thread safe.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final class WindowLookupTask
+      extends RecursiveTask<Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>>> {
+
+   /**
+    * Windows are typically sentences.  Fewer windows than this aren't worth a task of their own.
+    */
+   static final int WINDOWS_PER_TASK = 16;
+
+   private final JCasTermAnnotator _termAnnotator;
+   private final Collection<RareWordDictionary> _dictionaries;
+   private final List<List<FastLookupToken>> _windowsAllTokens;
+   private final List<List<Integer>> _windowsLookupIndices;
+   private final int _start;
+   private final int _end;
+
+   private WindowLookupTask( final JCasTermAnnotator termAnnotator,
+                             final Collection<RareWordDictionary> dictionaries,
+                             final List<List<FastLookupToken>> windowsAllTokens,
+                             final List<List<Integer>> windowsLookupIndices,
+                             final int start, final int end ) {
+      _termAnnotator = termAnnotator;
+      _dictionaries = dictionaries;
+      _windowsAllTokens = windowsAllTokens;
+      _windowsLookupIndices = windowsLookupIndices;
+      _start = start;
+      _end = end;
+   }
+
+   /**
+    * @param pool                 pool in which to run the lookup
+    * @param termAnnotator        finds terms in a window
+    * @param dictionaries         dictionaries to search
+    * @param windowsAllTokens     all tokens of each window
+    * @param windowsLookupIndices indices of lookup tokens of each window
+    * @return terms found in all windows by dictionary
+    */
+   static Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> findTerms(
+         final ForkJoinPool pool,
+         final JCasTermAnnotator termAnnotator,
+         final Collection<RareWordDictionary> dictionaries,
+         final List<List<FastLookupToken>> windowsAllTokens,
+         final List<List<Integer>> windowsLookupIndices ) {
+      return pool.invoke( new WindowLookupTask( termAnnotator, dictionaries, windowsAllTokens, windowsLookupIndices,
+            0, windowsAllTokens.size() ) );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   protected Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> compute() {
+      if ( _end - _start <= WINDOWS_PER_TASK ) {
+         return findTerms();
+      }
+      final int middle = (_start + _end) >>> 1;
+      final WindowLookupTask rightTask = new WindowLookupTask( _termAnnotator, _dictionaries,
+            _windowsAllTokens, _windowsLookupIndices, middle, _end );
+      rightTask.fork();
+      final Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> leftTerms
+            = new WindowLookupTask( _termAnnotator, _dictionaries, _windowsAllTokens, _windowsLookupIndices,
+            _start, middle ).compute();
+      final Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> rightTerms
+            = rightTask.join();
+      for ( RareWordDictionary dictionary : _dictionaries ) {
+         final CollectionMap<TextSpan, Long, ? extends Collection<Long>> leftMap = leftTerms.get( dictionary );
+         for ( Map.Entry<TextSpan, ? extends Collection<Long>> entry : rightTerms.get( dictionary ).entrySet() ) {
+            leftMap.addAllValues( entry.getKey(), entry.getValue() );
+         }
+      }
+      return leftTerms;
+   }
+
+   private Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> findTerms() {
+      final Map<RareWordDictionary, CollectionMap<TextSpan, Long, ? extends Collection<Long>>> dictionaryTerms
+            = new HashMap<>( _dictionaries.size() );
+      for ( RareWordDictionary dictionary : _dictionaries ) {
+         final CollectionMap<TextSpan, Long, ? extends Collection<Long>> terms = new LongSetMap<>();
+         for ( int i = _start; i < _end; i++ ) {
+            _termAnnotator.findTerms( dictionary, _windowsAllTokens.get( i ), _windowsLookupIndices.get( i ), terms );
+         }
+         dictionaryTerms.put( dictionary, terms );
+      }
+      return dictionaryTerms;
+   }
+
+}
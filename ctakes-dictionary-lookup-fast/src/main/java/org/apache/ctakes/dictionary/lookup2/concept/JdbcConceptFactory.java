@@ -2,8 +2,12 @@ package org.apache.ctakes.dictionary.lookup2.concept;
 
 import org.apache.ctakes.core.util.collection.CollectionMap;
 import org.apache.ctakes.core.util.collection.HashSetMap;
+import org.apache.ctakes.core.util.collection.LruCache;
+import org.apache.ctakes.dictionary.lookup2.util.CachingLookup;
 import org.apache.ctakes.dictionary.lookup2.util.CuiCodeUtil;
 import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionPool;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionPool.PooledConnection;
 import org.apache.ctakes.dictionary.lookup2.util.TuiCodeUtil;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -14,11 +18,17 @@ import java.util.*;
 import static org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory.*;
 
 /**
+ * Concepts are kept in a bounded lru cache that is shared by all threads using the factory.
+ * {@link #createConcepts(Collection)} fetches all uncached cuis from each concept table with a few
+ * {@code WHERE CUI IN (...)} queries instead of one query per cui per table.
+ * Optional properties: "cacheSize" is the maximum number of cached concepts, "batchSize" is the number of cuis per query.
+ * Queries use connections from a {@link JdbcConnectionPool}, so the factory can be used by many threads at once.
+ * <p/>
  * Author: SPF
  * Affiliation: CHIP-NLP
  * Date: 11/20/13
  */
-public class JdbcConceptFactory extends AbstractConceptFactory {
+public class JdbcConceptFactory extends AbstractConceptFactory implements CachingLookup {
 
    // LOG4J logger based on class name
    static final private Logger LOGGER = Logger.getLogger( "JdbcConceptFactory" );
@@ -30,22 +40,33 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
    static private final String TUI_CLASS = Concept.TUI;
    static private final String PREFTERM_CLASS = Concept.PREFTERM;
 
+   static public final String CACHE_SIZE = "cacheSize";
+   static public final String BATCH_SIZE = "batchSize";
 
+   static private final int DEFAULT_CACHE_SIZE = 50000;
+   static private final int DEFAULT_BATCH_SIZE = 100;
+
+
+   private final JdbcConnectionPool _connectionPool;
    private final Collection<ConceptTableInfo> _conceptTableInfos;
+   private final int _batchSize;
+   private final LruCache<Long, Concept> _conceptCache;
 
 
    static private class ConceptTableInfo {
       //      private final String __tableName;
       private final String __conceptName;
       private final String __classType;
-      private final PreparedStatement __preparedStatement;
+      private final String __selectSql;
+      private final String __batchSql;
 
       private ConceptTableInfo( final String tableName, final String conceptName, final String classType,
-                                final PreparedStatement preparedStatement ) {
+                                final String selectSql, final String batchSql ) {
 //         __tableName = tableName;
          __conceptName = conceptName;
          __classType = classType;
-         __preparedStatement = preparedStatement;
+         __selectSql = selectSql;
+         __batchSql = batchSql;
       }
    }
 
@@ -110,9 +131,10 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
    public JdbcConceptFactory( final String name, final UimaContext uimaContext, final Properties properties )
          throws SQLException {
       this( name,
-            properties.getProperty( JDBC_DRIVER ), properties.getProperty( JDBC_URL ),
-            properties.getProperty( JDBC_USER ), properties.getProperty( JDBC_PASS ),
-            getConceptTables( properties ) );
+            JdbcConnectionFactory.getInstance().getConnectionPool( properties ),
+            getConceptTables( properties ),
+            (int)parseLong( properties.getProperty( CACHE_SIZE ), DEFAULT_CACHE_SIZE ),
+            (int)parseLong( properties.getProperty( BATCH_SIZE ), DEFAULT_BATCH_SIZE ) );
    }
 
    public JdbcConceptFactory( final String name,
@@ -120,21 +142,30 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
                               final String jdbcUser, final String jdbcPass,
                               final Map<String, String> conceptTables )
          throws SQLException {
+      this( name,
+            JdbcConnectionFactory.getInstance().getConnectionPool( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass,
+                  DEFAULT_POOL_SIZE, DEFAULT_POOL_WAIT ),
+            conceptTables, DEFAULT_CACHE_SIZE, DEFAULT_BATCH_SIZE );
+   }
+
+   /**
+    * @param connectionPool pool of connections to the database, possibly shared with dictionaries
+    * @param cacheSize      maximum number of cached concepts
+    * @param batchSize      number of cuis fetched by each batched query
+    */
+   public JdbcConceptFactory( final String name,
+                              final JdbcConnectionPool connectionPool,
+                              final Map<String, String> conceptTables,
+                              final int cacheSize, final int batchSize )
+         throws SQLException {
       super( name );
-      boolean connected = false;
-      try {
-         // DO NOT use try with resources here.
-         // Try with resources uses a closable and closes it when exiting the try block
-         final Connection connection
-               = JdbcConnectionFactory.getInstance().getConnection( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass );
-         connected = connection != null;
-         _conceptTableInfos = createTableInfos( connection, conceptTables );
+      _connectionPool = connectionPool;
+      _batchSize = Math.max( 1, batchSize );
+      _conceptCache = new LruCache<>( name + " concept", cacheSize );
+      try ( PooledConnection connection = _connectionPool.borrowConnection() ) {
+         _conceptTableInfos = createTableInfos( connection, conceptTables, _batchSize );
       } catch ( SQLException sqlE ) {
-         if ( !connected ) {
-            LOGGER.error( "Could not Connect to Concept Factory " + name );
-         } else {
-            LOGGER.error( "Could not create Concept Data Selection Call", sqlE );
-         }
+         LOGGER.error( "Could not create Concept Data Selection Call", sqlE );
          throw sqlE;
       }
    }
@@ -144,35 +175,176 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     */
    @Override
    public Concept createConcept( final Long cuiCode ) {
-      final CollectionMap<String, String, ? extends Collection<String>> codes = new HashSetMap<>();
-      String prefTerm = null;
-      for ( ConceptTableInfo conceptTableInfo : _conceptTableInfos ) {
-         switch ( conceptTableInfo.__classType ) {
-            case TUI_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getTuiCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
-            }
-            case PREFTERM_CLASS: {
-               prefTerm = getPreferredTerm( conceptTableInfo.__preparedStatement, cuiCode );
-               break;
+      final Concept cachedConcept = _conceptCache.get( cuiCode );
+      if ( cachedConcept != null ) {
+         return cachedConcept;
+      }
+      final Concept concept = fetchConcept( cuiCode );
+      if ( concept == null ) {
+         // Do not cache incomplete concepts
+         return new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( cuiCode ) );
+      }
+      _conceptCache.put( cuiCode, concept );
+      return concept;
+   }
+
+   /**
+    * Only creates non-empty concepts; Cuis for which additional info does not exist don't create concepts.
+    * Uncached cuis are fetched with batched queries.
+    * {@inheritDoc}
+    */
+   @Override
+   public Map<Long, Concept> createConcepts( final Collection<Long> cuiCodes ) {
+      final Map<Long, Concept> conceptMap = new HashMap<>( cuiCodes.size() );
+      final List<Long> uncachedCuis = new ArrayList<>();
+      for ( Long cuiCode : cuiCodes ) {
+         final Concept concept = _conceptCache.get( cuiCode );
+         if ( concept == null ) {
+            uncachedCuis.add( cuiCode );
+         } else if ( !concept.isEmpty() ) {
+            conceptMap.put( cuiCode, concept );
+         }
+      }
+      for ( int i = 0; i < uncachedCuis.size(); i += _batchSize ) {
+         final Map<Long, Concept> batchConcepts
+               = fetchConcepts( uncachedCuis.subList( i, Math.min( i + _batchSize, uncachedCuis.size() ) ) );
+         for ( Map.Entry<Long, Concept> entry : batchConcepts.entrySet() ) {
+            _conceptCache.put( entry.getKey(), entry.getValue() );
+            if ( !entry.getValue().isEmpty() ) {
+               conceptMap.put( entry.getKey(), entry.getValue() );
             }
-            case INT_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getIntegerCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
+         }
+      }
+      return conceptMap;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public String getCacheStatistics() {
+      return _conceptCache.getStatistics();
+   }
+
+   /**
+    * @param cuiCodes up to batchSize cuis
+    * @return map of cuis to concepts fetched from all concept tables with one query per table
+    */
+   private Map<Long, Concept> fetchConcepts( final List<Long> cuiCodes ) {
+      final Map<Long, CollectionMap<String, String, ? extends Collection<String>>> codesMap
+            = new HashMap<>( cuiCodes.size() );
+      final Map<Long, String> prefTerms = new HashMap<>();
+      boolean hasPrefTermTable = false;
+      for ( Long cuiCode : cuiCodes ) {
+         codesMap.put( cuiCode, new HashSetMap<>() );
+      }
+      for ( ConceptTableInfo conceptTableInfo : _conceptTableInfos ) {
+         hasPrefTermTable |= conceptTableInfo.__classType.equals( PREFTERM_CLASS );
+      }
+      // Each thread borrows its own connection, so statements are never shared
+      try ( PooledConnection connection = _connectionPool.borrowConnection() ) {
+         for ( ConceptTableInfo conceptTableInfo : _conceptTableInfos ) {
+            final boolean isPrefTerm = conceptTableInfo.__classType.equals( PREFTERM_CLASS );
+            final PreparedStatement batchCall = connection.getStatement( conceptTableInfo.__batchSql );
+            batchCall.clearParameters();
+            // Fill unused parameters by repeating the last cui so that a single statement serves every batch
+            for ( int i = 0; i < _batchSize; i++ ) {
+               batchCall.setLong( i + 1, cuiCodes.get( Math.min( i, cuiCodes.size() - 1 ) ) );
             }
-            case LONG_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getLongCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
+            final ResultSet resultSet = batchCall.executeQuery();
+            while ( resultSet.next() ) {
+               final Long cuiCode = resultSet.getLong( 1 );
+               final CollectionMap<String, String, ? extends Collection<String>> codes = codesMap.get( cuiCode );
+               if ( codes == null ) {
+                  continue;
+               }
+               if ( isPrefTerm ) {
+                  prefTerms.putIfAbsent( cuiCode, resultSet.getString( 2 ) );
+               } else {
+                  codes.placeValue( conceptTableInfo.__conceptName,
+                        getCode( conceptTableInfo.__classType, resultSet ) );
+               }
             }
-            case TEXT_CLASS: {
-               codes.addAllValues( conceptTableInfo.__conceptName,
-                     getStringCodes( conceptTableInfo.__preparedStatement, cuiCode ) );
-               break;
+            // Though the ResultSet interface documentation states that there are automatic closures,
+            // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+            resultSet.close();
+         }
+      } catch ( SQLException e ) {
+         // Do not cache incomplete concepts
+         LOGGER.error( e.getMessage() );
+         return Collections.emptyMap();
+      }
+      final Map<Long, Concept> concepts = new HashMap<>( cuiCodes.size() );
+      for ( Map.Entry<Long, CollectionMap<String, String, ? extends Collection<String>>> entry : codesMap.entrySet() ) {
+         String prefTerm = prefTerms.get( entry.getKey() );
+         if ( prefTerm == null && hasPrefTermTable ) {
+            prefTerm = "";
+         }
+         concepts.put( entry.getKey(),
+               new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( entry.getKey() ), prefTerm, entry.getValue() ) );
+      }
+      return concepts;
+   }
+
+   /**
+    * @param classType  class type of the concept table
+    * @param resultSet  result set positioned at a row
+    * @return the code in the row's value column as a string
+    * @throws SQLException if the value could not be read
+    */
+   static private String getCode( final String classType, final ResultSet resultSet ) throws SQLException {
+      switch ( classType ) {
+         case TUI_CLASS:
+            return TuiCodeUtil.getAsTui( resultSet.getInt( 2 ) );
+         case INT_CLASS:
+            return Integer.toString( resultSet.getInt( 2 ) );
+         case LONG_CLASS:
+            return Long.toString( resultSet.getLong( 2 ) );
+         default:
+            return resultSet.getString( 2 );
+      }
+   }
+
+   /**
+    * @param cuiCode cui of interest
+    * @return concept with information from every concept table, or null if the information could not be fetched
+    */
+   private Concept fetchConcept( final Long cuiCode ) {
+      final CollectionMap<String, String, ? extends Collection<String>> codes = new HashSetMap<>();
+      String prefTerm = null;
+      try ( PooledConnection connection = _connectionPool.borrowConnection() ) {
+         for ( ConceptTableInfo conceptTableInfo : _conceptTableInfos ) {
+            final PreparedStatement selectCall = connection.getStatement( conceptTableInfo.__selectSql );
+            switch ( conceptTableInfo.__classType ) {
+               case TUI_CLASS: {
+                  codes.addAllValues( conceptTableInfo.__conceptName,
+                        getTuiCodes( selectCall, cuiCode ) );
+                  break;
+               }
+               case PREFTERM_CLASS: {
+                  prefTerm = getPreferredTerm( selectCall, cuiCode );
+                  break;
+               }
+               case INT_CLASS: {
+                  codes.addAllValues( conceptTableInfo.__conceptName,
+                        getIntegerCodes( selectCall, cuiCode ) );
+                  break;
+               }
+               case LONG_CLASS: {
+                  codes.addAllValues( conceptTableInfo.__conceptName,
+                        getLongCodes( selectCall, cuiCode ) );
+                  break;
+               }
+               case TEXT_CLASS: {
+                  codes.addAllValues( conceptTableInfo.__conceptName,
+                        getStringCodes( selectCall, cuiCode ) );
+                  break;
+               }
             }
          }
+      } catch ( SQLException e ) {
+         LOGGER.error( e.getMessage() );
+         return null;
       }
       return new DefaultConcept( CuiCodeUtil.getInstance().getAsCui( cuiCode ), prefTerm, codes );
    }
@@ -181,21 +353,19 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     * @param selectCall jdbc selection call
     * @param cuiCode    cui of interest
     * @return collection of tuis that are related to cui as obtained with the selectCall
+    * @throws SQLException if the query fails
     */
-   static private Collection<String> getTuiCodes( PreparedStatement selectCall, final Long cuiCode ) {
+   static private Collection<String> getTuiCodes( PreparedStatement selectCall, final Long cuiCode )
+         throws SQLException {
       final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( TuiCodeUtil.getAsTui( resultSet.getInt( 2 ) ) );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+      fillSelectCall( selectCall, cuiCode );
+      final ResultSet resultSet = selectCall.executeQuery();
+      while ( resultSet.next() ) {
+         codes.add( TuiCodeUtil.getAsTui( resultSet.getInt( 2 ) ) );
       }
+      // Though the ResultSet interface documentation states that there are automatic closures,
+      // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+      resultSet.close();
       return codes;
    }
 
@@ -203,21 +373,19 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     * @param selectCall jdbc selection call
     * @param cuiCode    cui of interest
     * @return preferred term for the cui as obtained with the selectCall
+    * @throws SQLException if the query fails
     */
-   static private String getPreferredTerm( PreparedStatement selectCall, final Long cuiCode ) {
+   static private String getPreferredTerm( PreparedStatement selectCall, final Long cuiCode )
+         throws SQLException {
       String preferredName = "";
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         if ( resultSet.next() ) {
-            preferredName = resultSet.getString( 2 );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+      fillSelectCall( selectCall, cuiCode );
+      final ResultSet resultSet = selectCall.executeQuery();
+      if ( resultSet.next() ) {
+         preferredName = resultSet.getString( 2 );
       }
+      // Though the ResultSet interface documentation states that there are automatic closures,
+      // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+      resultSet.close();
       return preferredName;
    }
 
@@ -225,21 +393,19 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     * @param selectCall jdbc selection call
     * @param cuiCode    cui of interest
     * @return collection of ints (as strings) that are related to cui as obtained with the selectCall
+    * @throws SQLException if the query fails
     */
-   static private Collection<String> getIntegerCodes( PreparedStatement selectCall, final Long cuiCode ) {
+   static private Collection<String> getIntegerCodes( PreparedStatement selectCall, final Long cuiCode )
+         throws SQLException {
       final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( Integer.toString( resultSet.getInt( 2 ) ) );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+      fillSelectCall( selectCall, cuiCode );
+      final ResultSet resultSet = selectCall.executeQuery();
+      while ( resultSet.next() ) {
+         codes.add( Integer.toString( resultSet.getInt( 2 ) ) );
       }
+      // Though the ResultSet interface documentation states that there are automatic closures,
+      // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+      resultSet.close();
       return codes;
    }
 
@@ -247,21 +413,19 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     * @param selectCall jdbc selection call
     * @param cuiCode    cui of interest
     * @return collection of longs (as strings) that are related to cui as obtained with the selectCall
+    * @throws SQLException if the query fails
     */
-   static private Collection<String> getLongCodes( PreparedStatement selectCall, final Long cuiCode ) {
+   static private Collection<String> getLongCodes( PreparedStatement selectCall, final Long cuiCode )
+         throws SQLException {
       final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( Long.toString( resultSet.getLong( 2 ) ) );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+      fillSelectCall( selectCall, cuiCode );
+      final ResultSet resultSet = selectCall.executeQuery();
+      while ( resultSet.next() ) {
+         codes.add( Long.toString( resultSet.getLong( 2 ) ) );
       }
+      // Though the ResultSet interface documentation states that there are automatic closures,
+      // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+      resultSet.close();
       return codes;
    }
 
@@ -269,38 +433,38 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
     * @param selectCall jdbc selection call
     * @param cuiCode    cui of interest
     * @return collection of strings that are related to cui as obtained with the selectCall
+    * @throws SQLException if the query fails
     */
-   static private Collection<String> getStringCodes( PreparedStatement selectCall, final Long cuiCode ) {
+   static private Collection<String> getStringCodes( PreparedStatement selectCall, final Long cuiCode )
+         throws SQLException {
       final Collection<String> codes = new HashSet<>();
-      try {
-         fillSelectCall( selectCall, cuiCode );
-         final ResultSet resultSet = selectCall.executeQuery();
-         while ( resultSet.next() ) {
-            codes.add( resultSet.getString( 2 ) );
-         }
-         // Though the ResultSet interface documentation states that there are automatic closures,
-         // it is up to the driver to implement this behavior ...  historically some drivers have not done so
-         resultSet.close();
-      } catch ( SQLException e ) {
-         LOGGER.error( e.getMessage() );
+      fillSelectCall( selectCall, cuiCode );
+      final ResultSet resultSet = selectCall.executeQuery();
+      while ( resultSet.next() ) {
+         codes.add( resultSet.getString( 2 ) );
       }
+      // Though the ResultSet interface documentation states that there are automatic closures,
+      // it is up to the driver to implement this behavior ...  historically some drivers have not done so
+      resultSet.close();
       return codes;
    }
 
    /**
-    * Creates table information objects with table name, concept name, jdbc prepared statement call
+    * Creates table information objects with table name, concept name, jdbc sql calls
     * @param connection -
     * @param conceptTables map of table names to table value types
-    * @return table information objects with table name, concept name, jdbc prepared statement call
+    * @param batchSize number of cuis in batched queries
+    * @return table information objects with table name, concept name, jdbc sql calls
     * @throws SQLException
     */
-   static private Collection<ConceptTableInfo> createTableInfos( final Connection connection,
-                                                                 final Map<String,String> conceptTables )
+   static private Collection<ConceptTableInfo> createTableInfos( final PooledConnection connection,
+                                                                 final Map<String,String> conceptTables,
+                                                                 final int batchSize )
          throws SQLException {
       if ( conceptTables == null || conceptTables.isEmpty() ) {
          return Collections.emptyList();
       }
-      final Collection<String> dbTablesNames = getDbTableNames( connection );
+      final Collection<String> dbTablesNames = getDbTableNames( connection.getConnection() );
       final Collection<ConceptTableInfo> tableInfos = new ArrayList<>();
       for ( Map.Entry<String, String> conceptTable : conceptTables.entrySet() ) {
          String tableName = conceptTable.getKey().trim().toUpperCase();
@@ -327,8 +491,15 @@ public class JdbcConceptFactory extends AbstractConceptFactory {
          String conceptName = conceptTable.getKey().trim();
          conceptName = conceptName.substring( 0, conceptName.length() - 5 );
          final String lookupSql = "SELECT * FROM " + tableName + " WHERE CUI = ?";
-         final PreparedStatement statement = connection.prepareStatement( lookupSql );
-         tableInfos.add( new ConceptTableInfo( tableName, conceptName, tableClass, statement ) );
+         // Prepare the statement now so that a bad table is reported at initialization
+         connection.getStatement( lookupSql );
+         final StringBuilder batchSql = new StringBuilder( "SELECT * FROM " ).append( tableName )
+               .append( " WHERE CUI IN (?" );
+         for ( int i = 1; i < batchSize; i++ ) {
+            batchSql.append( ",?" );
+         }
+         batchSql.append( ')' );
+         tableInfos.add( new ConceptTableInfo( tableName, conceptName, tableClass, lookupSql, batchSql.toString() ) );
          LOGGER.info( "Connected to concept table " + tableName + " with class " + tableClass );
       }
       return tableInfos;
@@ -1,5 +1,6 @@
 package org.apache.ctakes.dictionary.lookup2.concept;
 
+import org.apache.ctakes.dictionary.lookup2.util.CachingLookup;
 import org.apache.ctakes.dictionary.lookup2.util.UmlsUserApprover;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -14,11 +15,11 @@ import java.util.Properties;
  * @version %I%
  * @since 9/23/2014
  */
-final public class UmlsJdbcConceptFactory implements ConceptFactory {
+final public class UmlsJdbcConceptFactory implements ConceptFactory, CachingLookup {
 
    static private final Logger LOGGER = Logger.getLogger( "UmlsJdbcConceptFactory" );
 
-   final private ConceptFactory _delegateConceptFactory;
+   final private JdbcConceptFactory _delegateConceptFactory;
 
 
    public UmlsJdbcConceptFactory( final String name, final UimaContext uimaContext, final Properties properties )
@@ -55,4 +56,12 @@ final public class UmlsJdbcConceptFactory implements ConceptFactory {
       return _delegateConceptFactory.createConcepts( cuiCodes );
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public String getCacheStatistics() {
+      return _delegateConceptFactory.getCacheStatistics();
+   }
+
 }
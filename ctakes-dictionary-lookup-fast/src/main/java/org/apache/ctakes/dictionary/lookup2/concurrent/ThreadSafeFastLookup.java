@@ -1,6 +1,7 @@
 package org.apache.ctakes.dictionary.lookup2.concurrent;
 
-import org.apache.ctakes.core.concurrent.ThreadSafeWrapper;
+import org.apache.ctakes.core.concurrent.ThreadLocalDelegates;
+import org.apache.ctakes.core.concurrent.ThreadLocalWrapper;
 import org.apache.ctakes.core.config.ConfigParameterConstants;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.dictionary.lookup2.ae.DefaultJCasTermAnnotator;
@@ -14,7 +15,8 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for dictionary memory.
+ * The singleton keeps one delegate per thread, so processing is not blocked by other threads.
+ * Delegates share dictionaries through the {@link org.apache.ctakes.core.concurrent.SharedResourceCache}.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -65,40 +67,22 @@ final public class ThreadSafeFastLookup extends DefaultJCasTermAnnotator {
             ConfigParameterConstants.PARAM_LOOKUP_XML, descriptorPath );
    }
 
-   private enum DlSingleton implements ThreadSafeWrapper<DefaultJCasTermAnnotator> {
+   private enum DlSingleton implements ThreadLocalWrapper<DefaultJCasTermAnnotator> {
       INSTANCE;
 
       static public DlSingleton getInstance() {
          return INSTANCE;
       }
 
-      private final DefaultJCasTermAnnotator _delegate;
-      private boolean _initialized;
+      private final ThreadLocalDelegates<DefaultJCasTermAnnotator> _delegates;
 
       DlSingleton() {
-         _delegate = new DefaultJCasTermAnnotator();
-      }
-
-      final private Object LOCK = new Object();
-
-      @Override
-      public Object getLock() {
-         return LOCK;
-      }
-
-      @Override
-      public DefaultJCasTermAnnotator getDelegate() {
-         return _delegate;
-      }
-
-      @Override
-      public boolean isInitialized() {
-         return _initialized;
+         _delegates = new ThreadLocalDelegates<>( DefaultJCasTermAnnotator::new );
       }
 
       @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public ThreadLocalDelegates<DefaultJCasTermAnnotator> getDelegates() {
+         return _delegates;
       }
    }
 
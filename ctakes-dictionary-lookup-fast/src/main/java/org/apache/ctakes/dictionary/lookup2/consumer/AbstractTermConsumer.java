@@ -19,7 +19,8 @@
 package org.apache.ctakes.dictionary.lookup2.consumer;
 
 import org.apache.ctakes.core.util.collection.CollectionMap;
-import org.apache.ctakes.core.util.collection.HashSetMap;
+import org.apache.ctakes.core.util.collection.IntObjectMap;
+import org.apache.ctakes.core.util.collection.LongSetMap;
 import org.apache.ctakes.dictionary.lookup2.concept.Concept;
 import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordDictionary;
 import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
@@ -60,18 +61,24 @@ abstract public class AbstractTermConsumer implements TermConsumer {
          throws AnalysisEngineProcessException {
       final String codingScheme = getCodingScheme();
       final Collection<Integer> usedcTakesSemantics = getUsedcTakesSemantics( cuiConcepts );
-      // The dictionary may have more than one type, create a map of types to terms and use them all
-      final CollectionMap<TextSpan, Long, ? extends Collection<Long>> semanticCuis = new HashSetMap<>();
-      for ( Integer cTakesSemantic : usedcTakesSemantics ) {
-         semanticCuis.clear();
-         for ( Map.Entry<TextSpan, ? extends Collection<Long>> spanCuis : textSpanCuis ) {
-            for ( Long cuiCode : spanCuis.getValue() ) {
-               final Collection<Concept> concepts = cuiConcepts.getCollection( cuiCode );
-               if ( hascTakesSemantic( cTakesSemantic, concepts ) ) {
-                  semanticCuis.placeValue( spanCuis.getKey(), cuiCode );
+      // The dictionary may have more than one type, create a map of types to terms and use them all.
+      // Terms are grouped by type in a single pass over the text spans.
+      final IntObjectMap<LongSetMap<TextSpan>> semanticCuisMap = new IntObjectMap<>( usedcTakesSemantics.size() );
+      for ( Map.Entry<TextSpan, ? extends Collection<Long>> spanCuis : textSpanCuis ) {
+         for ( Long cuiCode : spanCuis.getValue() ) {
+            for ( Concept concept : cuiConcepts.getCollection( cuiCode ) ) {
+               for ( Integer cTakesSemantic : concept.getCtakesSemantics() ) {
+                  semanticCuisMap.computeIfAbsent( cTakesSemantic, s -> new LongSetMap<>() )
+                        .placeLong( spanCuis.getKey(), cuiCode );
                }
             }
          }
+      }
+      for ( Integer cTakesSemantic : usedcTakesSemantics ) {
+         LongSetMap<TextSpan> semanticCuis = semanticCuisMap.get( cTakesSemantic );
+         if ( semanticCuis == null ) {
+            semanticCuis = new LongSetMap<>( 1 );
+         }
          consumeTypeIdHits( jcas, codingScheme, cTakesSemantic, semanticCuis, cuiConcepts );
       }
    }
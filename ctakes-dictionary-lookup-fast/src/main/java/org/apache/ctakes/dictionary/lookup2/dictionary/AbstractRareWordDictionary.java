@@ -21,6 +21,7 @@ package org.apache.ctakes.dictionary.lookup2.dictionary;
 
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +34,7 @@ import java.util.Collection;
 abstract public class AbstractRareWordDictionary implements RareWordDictionary {
 
    final private String _name;
+   final private TokenIdTable _tokenIdTable = new TokenIdTable();
 
 
    /**
@@ -50,6 +52,14 @@ abstract public class AbstractRareWordDictionary implements RareWordDictionary {
       return _name;
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public TokenIdTable getTokenIdTable() {
+      return _tokenIdTable;
+   }
+
    /**
     * {@inheritDoc}
     */
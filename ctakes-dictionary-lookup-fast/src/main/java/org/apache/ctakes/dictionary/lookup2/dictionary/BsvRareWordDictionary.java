@@ -23,6 +23,7 @@ import org.apache.ctakes.core.util.StringUtil;
 import org.apache.ctakes.core.util.collection.CollectionMap;
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 
@@ -89,6 +90,22 @@ final public class BsvRareWordDictionary implements RareWordDictionary {
       return _delegateDictionary.getRareWordHits( rareWordText );
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public TokenIdTable getTokenIdTable() {
+      return _delegateDictionary.getTokenIdTable();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getAllTerms() {
+      return _delegateDictionary.getAllTerms();
+   }
+
 
    /**
     * Create a collection of {@link org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm} Objects
@@ -110,7 +127,7 @@ final public class BsvRareWordDictionary implements RareWordDictionary {
     * @param bsvFilePath path to file containing term rows and bsv columns
     * @return collection of all valid terms read from the bsv file
     */
-   static private Collection<CuiTerm> parseBsvFile( final String bsvFilePath ) {
+   static Collection<CuiTerm> parseBsvFile( final String bsvFilePath ) {
       final Collection<CuiTerm> cuiTerms = new ArrayList<>();
       try ( final BufferedReader reader
                   = new BufferedReader( new InputStreamReader( FileLocator.getAsStream( bsvFilePath ) ) ) ) {
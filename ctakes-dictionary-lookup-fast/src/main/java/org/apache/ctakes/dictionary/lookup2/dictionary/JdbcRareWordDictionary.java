@@ -18,19 +18,20 @@
  */
 package org.apache.ctakes.dictionary.lookup2.dictionary;
 
+import org.apache.ctakes.core.util.collection.LruCache;
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.CachingLookup;
 import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionPool;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionPool.PooledConnection;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Properties;
+import java.sql.Statement;
+import java.util.*;
 
 import static org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory.*;
 
@@ -38,11 +39,19 @@ import static org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory.*;
  * Preferred dictionary to use for large collections of terms.
  * Column indices within the database are constant and not configurable: CUI TUI RINDEX TCOUNT TEXT RWORD
  * If a configurable implementation is desired then create an extension.
+ * <p>
+ * Hits for each rare word are kept in a bounded lru cache that is shared by all threads using the dictionary.
+ * Words that have no hits are cached as well, as they are the majority of lookups.
+ * {@link #prefetchRareWordHits(Collection)} resolves all uncached words in a document with a few
+ * {@code WHERE RWORD IN (...)} queries instead of one query per word.
+ * Optional properties: "cacheSize" is the maximum number of cached words, "batchSize" is the number of words per query.
+ * Queries use connections from a {@link JdbcConnectionPool}, so the dictionary can be used by many threads at once.
+ * </p>
  * Author: SPF
  * Affiliation: CHIP-NLP
  * Date: 3/26/13
  */
-final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
+final public class JdbcRareWordDictionary extends AbstractRareWordDictionary implements CachingLookup {
 
    /**
     * Column (field) indices in the database.  Notice that these are constant and not configurable.
@@ -62,17 +71,28 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
 
 
    static public final String RARE_WORD_TABLE = "rareWordTable";
+   static public final String CACHE_SIZE = "cacheSize";
+   static public final String BATCH_SIZE = "batchSize";
 
+   static private final int DEFAULT_CACHE_SIZE = 100000;
+   static private final int DEFAULT_BATCH_SIZE = 100;
 
-   private PreparedStatement _selectTermCall;
+
+   private final JdbcConnectionPool _connectionPool;
+   private final String _selectSql;
+   private final String _batchSelectSql;
+   private final String _allSelectSql;
+   private final int _batchSize;
+   private final LruCache<String, Collection<RareWordTerm>> _hitCache;
 
 
    public JdbcRareWordDictionary( final String name, final UimaContext uimaContext, final Properties properties )
          throws SQLException {
       this( name,
-            properties.getProperty( JDBC_DRIVER ), properties.getProperty( JDBC_URL ),
-            properties.getProperty( JDBC_USER ), properties.getProperty( JDBC_PASS ),
-            properties.getProperty( RARE_WORD_TABLE ) );
+            JdbcConnectionFactory.getInstance().getConnectionPool( properties ),
+            properties.getProperty( RARE_WORD_TABLE ),
+            (int)parseLong( properties.getProperty( CACHE_SIZE ), DEFAULT_CACHE_SIZE ),
+            (int)parseLong( properties.getProperty( BATCH_SIZE ), DEFAULT_BATCH_SIZE ) );
    }
 
 
@@ -83,20 +103,36 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
                                   final String jdbcPass,
                                   final String tableName )
          throws SQLException {
+      this( name,
+            JdbcConnectionFactory.getInstance().getConnectionPool( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass,
+                  DEFAULT_POOL_SIZE, DEFAULT_POOL_WAIT ),
+            tableName, DEFAULT_CACHE_SIZE, DEFAULT_BATCH_SIZE );
+   }
+
+   /**
+    * @param connectionPool pool of connections to the database, possibly shared with other dictionaries
+    * @param cacheSize      maximum number of rare words for which hits are cached
+    * @param batchSize      number of rare words fetched by each batched query
+    */
+   public JdbcRareWordDictionary( final String name,
+                                  final JdbcConnectionPool connectionPool,
+                                  final String tableName,
+                                  final int cacheSize,
+                                  final int batchSize )
+         throws SQLException {
       super( name );
-      boolean connected = false;
-      try {
-         // DO NOT use try with resources here.  Try with resources uses a closable and closes it when exiting the try
-         final Connection connection = JdbcConnectionFactory.getInstance()
-               .getConnection( jdbcDriver, jdbcUrl, jdbcUser, jdbcPass );
-         connected = connection != null;
-         _selectTermCall = createSelectCall( connection, tableName );
+      _connectionPool = connectionPool;
+      _batchSize = Math.max( 1, batchSize );
+      _hitCache = new LruCache<>( name + " rare word", cacheSize );
+      _selectSql = createSelectSql( tableName );
+      _batchSelectSql = createBatchSelectSql( tableName, _batchSize );
+      _allSelectSql = "SELECT * FROM " + tableName;
+      // Prepare the statements now so that a bad table is reported at initialization
+      try ( PooledConnection connection = _connectionPool.borrowConnection() ) {
+         connection.getStatement( _selectSql );
+         connection.getStatement( _batchSelectSql );
       } catch ( SQLException sqlE ) {
-         if ( !connected ) {
-            LOGGER.error( "Could not Connect to Dictionary " + name );
-         } else {
-            LOGGER.error( "Could not create Term Data Selection Call", sqlE );
-         }
+         LOGGER.error( "Could not create Term Data Selection Call", sqlE );
          throw sqlE;
       }
       LOGGER.info( "Connected to cui and term table " + tableName.toUpperCase() );
@@ -108,46 +144,147 @@ final public class JdbcRareWordDictionary extends AbstractRareWordDictionary {
     */
    @Override
    public Collection<RareWordTerm> getRareWordHits( final String rareWordText ) {
+      final Collection<RareWordTerm> cachedTerms = _hitCache.get( rareWordText );
+      if ( cachedTerms != null ) {
+         return cachedTerms;
+      }
       final List<RareWordTerm> rareWordTerms = new ArrayList<>();
-      try {
-         fillSelectCall( rareWordText );
-         final ResultSet resultSet = _selectTermCall.executeQuery();
+      // The dictionary may be shared by annotators on several threads.  Each borrows its own connection.
+      try ( PooledConnection connection = _connectionPool.borrowConnection() ) {
+         final PreparedStatement selectCall = connection.getStatement( _selectSql );
+         selectCall.clearParameters();
+         selectCall.setString( 1, rareWordText );
+         final ResultSet resultSet = selectCall.executeQuery();
          while ( resultSet.next() ) {
-            final RareWordTerm rareWordTerm = new RareWordTerm( resultSet.getString( FIELD_INDEX.TEXT.__index ),
-                  resultSet.getLong( FIELD_INDEX.CUI.__index ),
-                  resultSet.getString( FIELD_INDEX.RWORD.__index ),
-                  resultSet.getInt( FIELD_INDEX.RINDEX.__index ),
-                  resultSet.getInt( FIELD_INDEX.TCOUNT.__index ) );
-            rareWordTerms.add( rareWordTerm );
+            rareWordTerms.add( createRareWordTerm( resultSet ) );
          }
          // Though the ResultSet interface documentation states that there are automatic closures,
          // it is up to the driver to implement this behavior ...  historically some drivers have not done so
          resultSet.close();
       } catch ( SQLException e ) {
          LOGGER.error( e.getMessage() );
+         return rareWordTerms;
+      }
+      return cacheHits( rareWordText, rareWordTerms );
+   }
+
+   /**
+    * Fetches hits for all uncached rare words with batched queries and caches them.
+    * {@inheritDoc}
+    */
+   @Override
+   public void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+      final List<String> uncachedTexts = new ArrayList<>();
+      for ( String rareWordText : new HashSet<>( rareWordTexts ) ) {
+         if ( rareWordText != null && !_hitCache.containsKey( rareWordText ) ) {
+            uncachedTexts.add( rareWordText );
+         }
+      }
+      for ( int i = 0; i < uncachedTexts.size(); i += _batchSize ) {
+         fetchBatch( uncachedTexts.subList( i, Math.min( i + _batchSize, uncachedTexts.size() ) ) );
+      }
+   }
+
+   /**
+    * Reads every row of the table.  The terms are not cached.
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getAllTerms() {
+      final List<RareWordTerm> rareWordTerms = new ArrayList<>();
+      try ( PooledConnection connection = _connectionPool.borrowConnection();
+            Statement allCall = connection.getConnection().createStatement() ) {
+         final ResultSet resultSet = allCall.executeQuery( _allSelectSql );
+         while ( resultSet.next() ) {
+            rareWordTerms.add( createRareWordTerm( resultSet ) );
+         }
+         resultSet.close();
+      } catch ( SQLException e ) {
+         LOGGER.error( e.getMessage() );
+         return null;
       }
       return rareWordTerms;
    }
 
    /**
-    * @return an sql call to use for term lookup
-    * @throws SQLException if the {@code PreparedStatement} could not be created or changed
+    * {@inheritDoc}
     */
-   static private PreparedStatement createSelectCall( final Connection connection, final String tableName )
-         throws SQLException {
-      final String lookupSql = "SELECT * FROM " + tableName + " WHERE RWORD = ?";
-      return connection.prepareStatement( lookupSql );
+   @Override
+   public String getCacheStatistics() {
+      return _hitCache.getStatistics();
    }
 
    /**
-    * @param rareWordText text of the rare word to use for term lookup
-    * @return an sql call to use for term lookup
-    * @throws SQLException if the {@code PreparedStatement} could not be created or changed
+    * Fetches and caches hits for up to batchSize rare words with a single query
+    *
+    * @param rareWordTexts rare words that are not in the cache
     */
-   private PreparedStatement fillSelectCall( final String rareWordText ) throws SQLException {
-      _selectTermCall.clearParameters();
-      _selectTermCall.setString( 1, rareWordText );
-      return _selectTermCall;
+   private void fetchBatch( final List<String> rareWordTexts ) {
+      final Map<String, List<RareWordTerm>> rareWordTermsMap = new HashMap<>( rareWordTexts.size() );
+      try ( PooledConnection connection = _connectionPool.borrowConnection() ) {
+         final PreparedStatement batchCall = connection.getStatement( _batchSelectSql );
+         batchCall.clearParameters();
+         // Fill unused parameters by repeating the last word so that a single statement serves every batch
+         for ( int i = 0; i < _batchSize; i++ ) {
+            batchCall.setString( i + 1, rareWordTexts.get( Math.min( i, rareWordTexts.size() - 1 ) ) );
+         }
+         final ResultSet resultSet = batchCall.executeQuery();
+         while ( resultSet.next() ) {
+            final RareWordTerm rareWordTerm = createRareWordTerm( resultSet );
+            rareWordTermsMap.computeIfAbsent( rareWordTerm.getRareWord(), w -> new ArrayList<>() )
+                  .add( rareWordTerm );
+         }
+         resultSet.close();
+      } catch ( SQLException e ) {
+         LOGGER.error( e.getMessage() );
+         return;
+      }
+      for ( String rareWordText : rareWordTexts ) {
+         cacheHits( rareWordText, rareWordTermsMap.get( rareWordText ) );
+      }
+   }
+
+   /**
+    * @param rareWordText  text of the rare word
+    * @param rareWordTerms all terms containing the rare word, may be null or empty
+    * @return an unmodifiable collection of the terms, as placed in the cache
+    */
+   private Collection<RareWordTerm> cacheHits( final String rareWordText, final List<RareWordTerm> rareWordTerms ) {
+      final Collection<RareWordTerm> cachedTerms = rareWordTerms == null || rareWordTerms.isEmpty()
+                                                   ? Collections.emptyList()
+                                                   : Collections.unmodifiableList( rareWordTerms );
+      _hitCache.put( rareWordText, cachedTerms );
+      return cachedTerms;
+   }
+
+   static private RareWordTerm createRareWordTerm( final ResultSet resultSet ) throws SQLException {
+      return new RareWordTerm( resultSet.getString( FIELD_INDEX.TEXT.__index ),
+            resultSet.getLong( FIELD_INDEX.CUI.__index ),
+            resultSet.getString( FIELD_INDEX.RWORD.__index ),
+            resultSet.getInt( FIELD_INDEX.RINDEX.__index ),
+            resultSet.getInt( FIELD_INDEX.TCOUNT.__index ) );
+   }
+
+   /**
+    * @param tableName name of the rare word table
+    * @return sql to use for term lookup
+    */
+   static private String createSelectSql( final String tableName ) {
+      return "SELECT * FROM " + tableName + " WHERE RWORD = ?";
+   }
+
+   /**
+    * @param tableName name of the rare word table
+    * @param batchSize number of parameters in the {@code IN} clause
+    * @return sql to use for batched term lookup
+    */
+   static private String createBatchSelectSql( final String tableName, final int batchSize ) {
+      final StringBuilder sb = new StringBuilder( "SELECT * FROM " ).append( tableName ).append( " WHERE RWORD IN (?" );
+      for ( int i = 1; i < batchSize; i++ ) {
+         sb.append( ",?" );
+      }
+      sb.append( ')' );
+      return sb.toString();
    }
 
 
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.apache.ctakes.dictionary.lookup2.dictionary.MappedRareWordDictionaryWriter.*;
+
+/**
+ * Rare word dictionary backed by a memory-mapped binary file written by {@link MappedRareWordDictionaryWriter}.
+ * <p>
+ * Terms are stored as interned int token ids and packed cui longs, indexed by a sorted token table.
+ * Nothing is parsed or held on the heap at startup; the operating system pages the file in as needed,
+ * and several JVMs on one host share the same pages.
+ * {@link RareWordTerm} objects are only created for hits, with the stored token ids.
+ * The token table of the file is also the {@link TokenIdTable} of the dictionary.
+ * </p>
+ * Properties: "mappedPath" is the binary file.  If the binary file does not exist and "bsvPath" is given
+ * then the binary file is created from the bsv file.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MappedRareWordDictionary extends AbstractRareWordDictionary {
+
+   static private final Logger LOGGER = Logger.getLogger( "MappedRareWordDictionary" );
+
+   static public final String MAPPED_FILE_PATH = "mappedPath";
+   static private final String BSV_FILE_PATH = "bsvPath";
+
+   private final int _tokenCount;
+   private final IntBuffer _tokenByteOffsets;
+   private final IntBuffer _rareWordTermStarts;
+   private final IntBuffer _termTokenOffsets;
+   private final IntBuffer _termRareWordIndices;
+   private final LongBuffer _termCuis;
+   private final IntBuffer _termTokenIds;
+   private final ByteBuffer _tokenBytes;
+   private final TokenIdTable _tokenIdTable = new MappedTokenIdTable();
+
+
+   public MappedRareWordDictionary( final String name, final UimaContext uimaContext, final Properties properties )
+         throws IOException {
+      this( name, getMappedFile( properties.getProperty( MAPPED_FILE_PATH ), properties.getProperty( BSV_FILE_PATH ) ) );
+   }
+
+   /**
+    * @param name simple name for the dictionary
+    * @param file binary dictionary file
+    * @throws IOException if the file could not be mapped or is not a mapped dictionary
+    */
+   public MappedRareWordDictionary( final String name, final File file ) throws IOException {
+      super( name );
+      final MappedByteBuffer buffer;
+      try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+         if ( channel.size() > Integer.MAX_VALUE ) {
+            throw new IOException( "Mapped dictionary " + file.getPath() + " is larger than 2GB" );
+         }
+         // The mapping remains valid after the channel is closed.
+         buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+      }
+      if ( buffer.getInt( 0 ) != MAGIC ) {
+         throw new IOException( file.getPath() + " is not a mapped rare word dictionary" );
+      }
+      if ( buffer.getInt( Integer.BYTES ) != VERSION ) {
+         throw new IOException( "Unsupported mapped dictionary version " + buffer.getInt( Integer.BYTES ) );
+      }
+      _tokenCount = buffer.getInt( 2 * Integer.BYTES );
+      final int termCount = buffer.getInt( 3 * Integer.BYTES );
+      final int termTokenTotal = buffer.getInt( 4 * Integer.BYTES );
+      final int tokenByteTotal = buffer.getInt( 5 * Integer.BYTES );
+      int position = HEADER_BYTES;
+      _tokenByteOffsets = slice( buffer, position, (_tokenCount + 1) * Integer.BYTES ).asIntBuffer();
+      position += (_tokenCount + 1) * Integer.BYTES;
+      _rareWordTermStarts = slice( buffer, position, (_tokenCount + 1) * Integer.BYTES ).asIntBuffer();
+      position += (_tokenCount + 1) * Integer.BYTES;
+      _termTokenOffsets = slice( buffer, position, (termCount + 1) * Integer.BYTES ).asIntBuffer();
+      position += (termCount + 1) * Integer.BYTES;
+      _termRareWordIndices = slice( buffer, position, termCount * Integer.BYTES ).asIntBuffer();
+      position += termCount * Integer.BYTES;
+      _termCuis = slice( buffer, position, termCount * Long.BYTES ).asLongBuffer();
+      position += termCount * Long.BYTES;
+      _termTokenIds = slice( buffer, position, termTokenTotal * Integer.BYTES ).asIntBuffer();
+      position += termTokenTotal * Integer.BYTES;
+      _tokenBytes = slice( buffer, position, tokenByteTotal );
+      LOGGER.info( "Mapped dictionary " + name + " with " + termCount + " terms and " + _tokenCount
+            + " distinct tokens from " + file.getPath() );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getRareWordHits( final String rareWordText ) {
+      final int tokenId = getTokenId( rareWordText );
+      if ( tokenId < 0 ) {
+         return Collections.emptyList();
+      }
+      return createTerms( tokenId, rareWordText, new ArrayList<>() );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public TokenIdTable getTokenIdTable() {
+      return _tokenIdTable;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getAllTerms() {
+      final List<RareWordTerm> terms = new ArrayList<>();
+      for ( int tokenId = 0; tokenId < _tokenCount; tokenId++ ) {
+         if ( _rareWordTermStarts.get( tokenId ) < _rareWordTermStarts.get( tokenId + 1 ) ) {
+            createTerms( tokenId, getToken( tokenId ), terms );
+         }
+      }
+      return terms;
+   }
+
+   /**
+    * @param tokenId      id of the rare word in the token table
+    * @param rareWordText text of the rare word
+    * @param terms        list to which terms with the rare word are added
+    * @return the list of terms
+    */
+   private List<RareWordTerm> createTerms( final int tokenId, final String rareWordText,
+                                           final List<RareWordTerm> terms ) {
+      final int termStart = _rareWordTermStarts.get( tokenId );
+      final int termEnd = _rareWordTermStarts.get( tokenId + 1 );
+      final StringBuilder sb = new StringBuilder();
+      for ( int term = termStart; term < termEnd; term++ ) {
+         final int tokenStart = _termTokenOffsets.get( term );
+         final int tokenEnd = _termTokenOffsets.get( term + 1 );
+         final int[] tokenIds = new int[ tokenEnd - tokenStart ];
+         sb.setLength( 0 );
+         for ( int i = tokenStart; i < tokenEnd; i++ ) {
+            if ( i > tokenStart ) {
+               sb.append( ' ' );
+            }
+            tokenIds[ i - tokenStart ] = _termTokenIds.get( i );
+            sb.append( getToken( tokenIds[ i - tokenStart ] ) );
+         }
+         terms.add( new RareWordTerm( sb.toString(), _termCuis.get( term ), rareWordText,
+               _termRareWordIndices.get( term ), tokenIds.length, _tokenIdTable, tokenIds ) );
+      }
+      return terms;
+   }
+
+   /**
+    * @param text token text
+    * @return id of the token in the token table, or -1 if the token is not in the dictionary
+    */
+   int getTokenId( final String text ) {
+      final byte[] textBytes = text.getBytes( StandardCharsets.UTF_8 );
+      int low = 0;
+      int high = _tokenCount - 1;
+      while ( low <= high ) {
+         final int mid = (low + high) >>> 1;
+         final int compare = compareToken( mid, textBytes );
+         if ( compare < 0 ) {
+            low = mid + 1;
+         } else if ( compare > 0 ) {
+            high = mid - 1;
+         } else {
+            return mid;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * @param tokenId id of the token in the token table
+    * @return text of the token
+    */
+   String getToken( final int tokenId ) {
+      final int start = _tokenByteOffsets.get( tokenId );
+      final byte[] bytes = new byte[ _tokenByteOffsets.get( tokenId + 1 ) - start ];
+      for ( int i = 0; i < bytes.length; i++ ) {
+         bytes[ i ] = _tokenBytes.get( start + i );
+      }
+      return new String( bytes, StandardCharsets.UTF_8 );
+   }
+
+   /**
+    * Compares without decoding the stored token, using the same unsigned byte order as the writer.
+    *
+    * @param tokenId   id of the token in the token table
+    * @param textBytes utf-8 bytes of text
+    * @return comparison of the stored token to the text
+    */
+   private int compareToken( final int tokenId, final byte[] textBytes ) {
+      final int start = _tokenByteOffsets.get( tokenId );
+      final int length = _tokenByteOffsets.get( tokenId + 1 ) - start;
+      final int shared = Math.min( length, textBytes.length );
+      for ( int i = 0; i < shared; i++ ) {
+         final int diff = (_tokenBytes.get( start + i ) & 0xff) - (textBytes[ i ] & 0xff);
+         if ( diff != 0 ) {
+            return diff;
+         }
+      }
+      return length - textBytes.length;
+   }
+
+   /**
+    * Finds document tokens in the token table of the file, so that they match the stored term token ids
+    * without interning any token on the heap.
+    */
+   private final class MappedTokenIdTable extends TokenIdTable {
+      /**
+       * Term tokens all have stored ids, so no id is created.
+       * {@inheritDoc}
+       */
+      @Override
+      public int getId( final String token ) {
+         final int id = findId( token );
+         return id == UNKNOWN_ID ? NO_TOKEN_ID : id;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public int findId( final String token ) {
+         if ( token == null ) {
+            return UNKNOWN_ID;
+         }
+         final int id = getTokenId( token );
+         return id < 0 ? UNKNOWN_ID : id;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public int size() {
+         return _tokenCount;
+      }
+   }
+
+   static private ByteBuffer slice( final ByteBuffer buffer, final int position, final int length ) {
+      final ByteBuffer duplicate = buffer.duplicate();
+      duplicate.position( position );
+      duplicate.limit( position + length );
+      return duplicate.slice();
+   }
+
+   /**
+    * @param mappedPath path to the binary dictionary file
+    * @param bsvPath    optional path to a bsv file from which the binary file can be created
+    * @return the binary dictionary file, created if necessary
+    * @throws IOException if the file does not exist and could not be created
+    */
+   static private File getMappedFile( final String mappedPath, final String bsvPath ) throws IOException {
+      if ( mappedPath == null || mappedPath.isEmpty() ) {
+         throw new IOException( "No " + MAPPED_FILE_PATH + " specified for mapped dictionary" );
+      }
+      try {
+         return FileLocator.getFile( mappedPath );
+      } catch ( FileNotFoundException fnfE ) {
+         if ( bsvPath == null || bsvPath.isEmpty() ) {
+            throw fnfE;
+         }
+      }
+      final File mappedFile = new File( mappedPath );
+      LOGGER.info( "Creating mapped dictionary " + mappedPath + " from " + bsvPath );
+      MappedRareWordDictionaryWriter.writeDictionary( BsvRareWordDictionary.parseBsvFile( bsvPath ), mappedFile );
+      return mappedFile;
+   }
+
+}
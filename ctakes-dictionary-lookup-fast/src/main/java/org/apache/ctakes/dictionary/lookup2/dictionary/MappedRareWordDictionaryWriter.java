@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm;
+
+/**
+ * Writes the compact binary file used by {@link MappedRareWordDictionary}.
+ * <p>
+ * All values are big-endian.  The file contains, in order:
+ * <ol>
+ * <li>header: magic, version, token count T, term count N, term token id count M, token byte count B</li>
+ * <li>int[T+1] offset of each token in the token bytes</li>
+ * <li>int[T+1] index of the first term for which each token is the rare word</li>
+ * <li>int[N+1] offset of each term in the term token ids</li>
+ * <li>int[N] index of the rare word within each term</li>
+ * <li>long[N] cui code of each term</li>
+ * <li>int[M] token ids of all terms</li>
+ * <li>byte[B] utf-8 bytes of all tokens, sorted by unsigned byte order</li>
+ * </ol>
+ * Tokens are interned, so each distinct token is stored exactly once.
+ * Terms are sorted by rare word token id, so the terms for a rare word are one contiguous range.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MappedRareWordDictionaryWriter {
+
+   static private final Logger LOGGER = Logger.getLogger( "MappedRareWordDictionaryWriter" );
+
+   static final int MAGIC = 0x43544457;
+   static final int VERSION = 1;
+   static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+   private MappedRareWordDictionaryWriter() {
+   }
+
+   /**
+    * @param cuiTerms terms from which to create a rare word dictionary
+    * @param file     file to write
+    * @throws IOException if the file could not be written
+    */
+   static public void writeDictionary( final Iterable<CuiTerm> cuiTerms, final File file ) throws IOException {
+      writeDictionary( RareWordTermMapCreator.createRareWordTermMap( cuiTerms ), file );
+   }
+
+   /**
+    * @param rareWordTermMap map of rare words to the terms that contain them
+    * @param file            file to write
+    * @throws IOException if the file could not be written
+    */
+   static public void writeDictionary( final Map<String, ? extends Collection<RareWordTerm>> rareWordTermMap,
+                                       final File file ) throws IOException {
+      final Collection<String> tokens = new HashSet<>();
+      for ( Collection<RareWordTerm> terms : rareWordTermMap.values() ) {
+         for ( RareWordTerm term : terms ) {
+            tokens.addAll( Arrays.asList( term.getTokens() ) );
+         }
+      }
+      final TermStreamWriter writer = new TermStreamWriter( tokens, file );
+      try {
+         // Add terms in rare word token id order
+         for ( int i = 0; i < writer.getTokenCount(); i++ ) {
+            final Collection<RareWordTerm> terms = rareWordTermMap.get( writer.getToken( i ) );
+            if ( terms == null ) {
+               continue;
+            }
+            for ( RareWordTerm term : terms ) {
+               final String[] termTokens = term.getTokens();
+               final int[] tokenIds = new int[ termTokens.length ];
+               for ( int t = 0; t < termTokens.length; t++ ) {
+                  tokenIds[ t ] = writer.getTokenId( termTokens[ t ] );
+               }
+               writer.addTerm( tokenIds, term.getRareWordIndex(), term.getCuiCode() );
+            }
+         }
+      } catch ( IOException | RuntimeException e ) {
+         writer.abort();
+         throw e;
+      }
+      writer.close();
+   }
+
+   /**
+    * @param bytes1 -
+    * @param bytes2 -
+    * @return comparison of the arrays by unsigned byte value, then by length
+    */
+   static int compareBytes( final byte[] bytes1, final byte[] bytes2 ) {
+      final int length = Math.min( bytes1.length, bytes2.length );
+      for ( int i = 0; i < length; i++ ) {
+         final int diff = (bytes1[ i ] & 0xff) - (bytes2[ i ] & 0xff);
+         if ( diff != 0 ) {
+            return diff;
+         }
+      }
+      return bytes1.length - bytes2.length;
+   }
+
+   /**
+    * Writes a dictionary file from terms that are added one at a time, so the terms need never all be in memory.
+    * All tokens must be known before the first term is added, and terms must be added in order of rare word token id.
+    * Term sections are spooled to temporary files beside the dictionary file and joined when the writer is closed.
+    * If the terms cannot all be added then the writer should be aborted, which writes nothing.
+    */
+   static public final class TermStreamWriter implements Closeable {
+      private final File _file;
+      private final List<String> _tokens;
+      private final List<byte[]> _tokenBytes;
+      private final Map<String, Integer> _tokenIds;
+      private final int[] _rareWordTermStarts;
+      private final File[] _sectionFiles = new File[ 4 ];
+      private final DataOutputStream[] _sections = new DataOutputStream[ 4 ];
+      private int _nextStartToken;
+      private int _termCount;
+      private int _termTokenTotal;
+      private boolean _closed;
+
+      /**
+       * @param tokens every token of every term that will be added
+       * @param file   file to write
+       * @throws IOException if the temporary files could not be created
+       */
+      public TermStreamWriter( final Collection<String> tokens, final File file ) throws IOException {
+         _file = file;
+         // Intern every token and sort by utf-8 byte order so that lookup can binary search on raw bytes.
+         final Map<String, byte[]> tokenBytes = new HashMap<>( tokens.size() );
+         for ( String token : tokens ) {
+            tokenBytes.computeIfAbsent( token, t -> t.getBytes( StandardCharsets.UTF_8 ) );
+         }
+         _tokens = new ArrayList<>( tokenBytes.keySet() );
+         _tokens.sort( ( t1, t2 ) -> compareBytes( tokenBytes.get( t1 ), tokenBytes.get( t2 ) ) );
+         _tokenBytes = new ArrayList<>( _tokens.size() );
+         _tokenIds = new HashMap<>( _tokens.size() );
+         for ( int i = 0; i < _tokens.size(); i++ ) {
+            _tokenBytes.add( tokenBytes.get( _tokens.get( i ) ) );
+            _tokenIds.put( _tokens.get( i ), i );
+         }
+         _rareWordTermStarts = new int[ _tokens.size() + 1 ];
+         final File directory = file.getAbsoluteFile().getParentFile();
+         try {
+            for ( int i = 0; i < _sections.length; i++ ) {
+               _sectionFiles[ i ] = File.createTempFile( file.getName(), ".section" + i, directory );
+               _sections[ i ] = new DataOutputStream(
+                     new BufferedOutputStream( new FileOutputStream( _sectionFiles[ i ] ), 65536 ) );
+            }
+         } catch ( IOException ioE ) {
+            deleteSections();
+            throw ioE;
+         }
+      }
+
+      /**
+       * @return number of distinct tokens
+       */
+      public int getTokenCount() {
+         return _tokens.size();
+      }
+
+      /**
+       * @param tokenId id of a token
+       * @return the token
+       */
+      public String getToken( final int tokenId ) {
+         return _tokens.get( tokenId );
+      }
+
+      /**
+       * @param token some token
+       * @return id of the token, or -1 if the token was not given to the writer
+       */
+      public int getTokenId( final String token ) {
+         final Integer tokenId = _tokenIds.get( token );
+         return tokenId == null ? -1 : tokenId;
+      }
+
+      /**
+       * @param tokenIds      ids of the tokens in the term
+       * @param rareWordIndex index of the rare word within the term
+       * @param cuiCode       cui code of the term
+       * @throws IOException if the term could not be written
+       */
+      public void addTerm( final int[] tokenIds, final int rareWordIndex, final long cuiCode ) throws IOException {
+         for ( int tokenId : tokenIds ) {
+            if ( tokenId < 0 || tokenId >= _tokens.size() ) {
+               throw new IOException( "Unknown token id " + tokenId + " for cui code " + cuiCode );
+            }
+         }
+         final int rareTokenId = tokenIds[ rareWordIndex ];
+         if ( rareTokenId < _nextStartToken - 1 ) {
+            throw new IOException( "Terms must be added in rare word order, " + _tokens.get( rareTokenId )
+                  + " follows " + _tokens.get( _nextStartToken - 1 ) );
+         }
+         while ( _nextStartToken <= rareTokenId ) {
+            _rareWordTermStarts[ _nextStartToken++ ] = _termCount;
+         }
+         _sections[ 0 ].writeInt( _termTokenTotal );
+         _sections[ 1 ].writeInt( rareWordIndex );
+         _sections[ 2 ].writeLong( cuiCode );
+         for ( int tokenId : tokenIds ) {
+            _sections[ 3 ].writeInt( tokenId );
+         }
+         _termCount++;
+         _termTokenTotal += tokenIds.length;
+      }
+
+      /**
+       * Removes the temporary files without writing the dictionary file , and deletes any existing dictionary file.
+       * Call when terms could not all be added , so that no truncated dictionary is left behind.
+       */
+      public void abort() {
+         if ( _closed ) {
+            return;
+         }
+         _closed = true;
+         deleteSections();
+         if ( _file.exists() && !_file.delete() ) {
+            LOGGER.warn( "Could not delete " + _file.getPath() );
+         }
+      }
+
+      /**
+       * Writes the dictionary file and removes the temporary files.
+       * If the dictionary file cannot be completely written then it is deleted.
+       *
+       * @throws IOException if the file could not be written
+       */
+      @Override
+      public void close() throws IOException {
+         if ( _closed ) {
+            return;
+         }
+         _closed = true;
+         boolean written = false;
+         try {
+            _sections[ 0 ].writeInt( _termTokenTotal );
+            for ( DataOutputStream section : _sections ) {
+               section.close();
+            }
+            while ( _nextStartToken <= _tokens.size() ) {
+               _rareWordTermStarts[ _nextStartToken++ ] = _termCount;
+            }
+            int tokenByteTotal = 0;
+            for ( byte[] bytes : _tokenBytes ) {
+               tokenByteTotal += bytes.length;
+            }
+            LOGGER.info( "Writing " + _termCount + " terms with " + _tokens.size()
+                  + " distinct tokens to " + _file.getPath() );
+            try ( DataOutputStream output
+                        = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( _file ), 65536 ) ) ) {
+               output.writeInt( MAGIC );
+               output.writeInt( VERSION );
+               output.writeInt( _tokens.size() );
+               output.writeInt( _termCount );
+               output.writeInt( _termTokenTotal );
+               output.writeInt( tokenByteTotal );
+               int offset = 0;
+               for ( byte[] bytes : _tokenBytes ) {
+                  output.writeInt( offset );
+                  offset += bytes.length;
+               }
+               output.writeInt( offset );
+               for ( int start : _rareWordTermStarts ) {
+                  output.writeInt( start );
+               }
+               for ( File sectionFile : _sectionFiles ) {
+                  Files.copy( sectionFile.toPath(), output );
+               }
+               for ( byte[] bytes : _tokenBytes ) {
+                  output.write( bytes );
+               }
+            }
+            written = true;
+         } finally {
+            deleteSections();
+            if ( !written ) {
+               _file.delete();
+            }
+         }
+      }
+
+      /**
+       * Closes and deletes whichever temporary section files exist.
+       */
+      private void deleteSections() {
+         for ( int i = 0; i < _sections.length; i++ ) {
+            if ( _sections[ i ] != null ) {
+               try {
+                  _sections[ i ].close();
+               } catch ( IOException ioE ) {
+                  LOGGER.warn( ioE.getMessage() );
+               }
+            }
+            if ( _sectionFiles[ i ] != null ) {
+               _sectionFiles[ i ].delete();
+            }
+         }
+      }
+   }
+
+   /**
+    * Converts a bsv dictionary file to a mapped dictionary file.
+    *
+    * @param args path to the bsv file and path to the binary file to write
+    * @throws IOException if the binary file could not be written
+    */
+   public static void main( final String... args ) throws IOException {
+      if ( args.length != 2 ) {
+         LOGGER.error( "Usage: MappedRareWordDictionaryWriter <bsvPath> <mappedPath>" );
+         System.exit( 1 );
+      }
+      writeDictionary( BsvRareWordDictionary.parseBsvFile( args[ 0 ] ), new File( args[ 1 ] ) );
+   }
+
+}
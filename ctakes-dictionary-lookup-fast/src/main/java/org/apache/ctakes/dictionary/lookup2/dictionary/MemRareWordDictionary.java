@@ -21,6 +21,7 @@ package org.apache.ctakes.dictionary.lookup2.dictionary;
 import org.apache.ctakes.core.util.collection.CollectionMap;
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 /**
@@ -54,4 +55,17 @@ final public class MemRareWordDictionary extends AbstractRareWordDictionary {
       return _rareWordTermMap.getCollection( rareWordText );
    }
 
+   /**
+    * Each term is stored under its single rare word, so no term is listed twice.
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getAllTerms() {
+      final Collection<RareWordTerm> allTerms = new ArrayList<>();
+      for ( Collection<RareWordTerm> terms : _rareWordTermMap.getAllCollections() ) {
+         allTerms.addAll( terms );
+      }
+      return allTerms;
+   }
+
 }
@@ -20,6 +20,7 @@ package org.apache.ctakes.dictionary.lookup2.dictionary;
 
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
 
 import java.util.Collection;
 
@@ -56,4 +57,30 @@ public interface RareWordDictionary {
     */
    public Collection<RareWordTerm> getRareWordHits( final String rareWordText );
 
+   /**
+    * Term tokens and document tokens are matched by their ids in this table.
+    *
+    * @return the token id table of this dictionary, the same table for every call
+    */
+   public TokenIdTable getTokenIdTable();
+
+   /**
+    * Called with all lookup words in a document before any calls to {@link #getRareWordHits(String)}.
+    * Dictionaries with expensive single lookups, such as database dictionaries, can fetch all hits at once
+    * and cache them.  The default implementation does nothing.
+    *
+    * @param rareWordTexts text of all words that may be looked up
+    */
+   default void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+   }
+
+   /**
+    * Used to compile a dictionary into another form, such as a {@link TermAutomaton}.
+    *
+    * @return all terms in the dictionary, or null if the dictionary cannot list its terms
+    */
+   default Collection<RareWordTerm> getAllTerms() {
+      return null;
+   }
+
 }
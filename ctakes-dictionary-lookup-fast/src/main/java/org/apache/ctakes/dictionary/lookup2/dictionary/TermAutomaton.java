@@ -0,0 +1,523 @@
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A token level Aho-Corasick automaton compiled from all terms in a dictionary.
+ * <p>
+ * Each state is a sequence of term tokens.  Transitions are labeled with token ids from the automaton's own
+ * {@link TokenIdTable}, so document tokens are matched by the ids that
+ * {@link org.apache.ctakes.dictionary.lookup2.util.FastLookupToken} finds in {@link #getTokenIdTable()}.
+ * All terms in a window, including overlapping terms, are found in a single pass over the window tokens.
+ * A document token may match a term token by its text or by its variant, so the pass keeps the (usually single)
+ * set of states reached by either.
+ * </p>
+ * The automaton is {@link Serializable}.  Token text is serialized, and token ids are resolved again when read,
+ * so a serialized automaton can be loaded by any jvm.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class TermAutomaton implements Serializable {
+
+   static private final long serialVersionUID = 1L;
+
+   static private final Logger LOGGER = Logger.getLogger( "TermAutomaton" );
+
+   static private final int ROOT = 0;
+   static private final int NO_STATE = -1;
+
+   /**
+    * Receives each term match found in a window.
+    */
+   @FunctionalInterface
+   public interface MatchListener {
+      /**
+       * @param termIndex    index of the matched term, used to get its cui, rare word index and text length
+       * @param tokenIndices window indices of the tokens matching each term token.
+       *                     Only the first tokenCount values are valid, and the array is reused between calls.
+       * @param tokenCount   number of tokens in the term
+       */
+      void onMatch( int termIndex, int[] tokenIndices, int tokenCount );
+   }
+
+   // term token vocabulary, serialized so that ids can be resolved in another jvm
+   private final String[] _tokens;
+   // transitions for state s are at indices _transitionStarts[s] to _transitionStarts[s+1], as vocabulary indices
+   private final int[] _transitionStarts;
+   private final int[] _transitionTokens;
+   private final int[] _transitionTargets;
+   private final int[] _failures;
+   private final int[] _depths;
+   // terms ending at state s are at indices _outputStarts[s] to _outputStarts[s+1]
+   private final int[] _outputStarts;
+   private final int[] _outputTerms;
+   // nearest state on the failure path that has terms, or NO_STATE
+   private final int[] _outputLinks;
+   private final long[] _termCuis;
+   private final int[] _termRareWordIndices;
+   private final int[] _termTextLengths;
+
+   // Resolved from the vocabulary after creation or deserialization
+   private transient TokenIdTable _tokenIdTable;
+   private transient int[] _transitionIds;
+   private transient int[] _resolvedTargets;
+   private transient int[] _rootTargets;
+   private transient int _maxDepth;
+
+
+   private TermAutomaton( final String[] tokens,
+                          final int[] transitionStarts, final int[] transitionTokens, final int[] transitionTargets,
+                          final int[] failures, final int[] depths,
+                          final int[] outputStarts, final int[] outputTerms, final int[] outputLinks,
+                          final long[] termCuis, final int[] termRareWordIndices, final int[] termTextLengths ) {
+      _tokens = tokens;
+      _transitionStarts = transitionStarts;
+      _transitionTokens = transitionTokens;
+      _transitionTargets = transitionTargets;
+      _failures = failures;
+      _depths = depths;
+      _outputStarts = outputStarts;
+      _outputTerms = outputTerms;
+      _outputLinks = outputLinks;
+      _termCuis = termCuis;
+      _termRareWordIndices = termRareWordIndices;
+      _termTextLengths = termTextLengths;
+      resolveTokenIds();
+   }
+
+   /**
+    * @return table of the ids used to label transitions, in which document tokens should be found
+    */
+   public TokenIdTable getTokenIdTable() {
+      return _tokenIdTable;
+   }
+
+   /**
+    * @return number of states in the automaton
+    */
+   public int getStateCount() {
+      return _depths.length;
+   }
+
+   /**
+    * @return number of terms in the automaton
+    */
+   public int getTermCount() {
+      return _termCuis.length;
+   }
+
+   public long getCuiCode( final int termIndex ) {
+      return _termCuis[ termIndex ];
+   }
+
+   public int getRareWordIndex( final int termIndex ) {
+      return _termRareWordIndices[ termIndex ];
+   }
+
+   /**
+    * @param termIndex -
+    * @return number of characters in the term text
+    */
+   public int getTextLength( final int termIndex ) {
+      return _termTextLengths[ termIndex ];
+   }
+
+   /**
+    * Finds all terms whose tokens match consecutive window tokens.
+    *
+    * @param textIds    token id of the text of each window token
+    * @param variantIds token id of the variant of each window token
+    * @param tokenCount number of tokens in the window
+    * @param listener   receives every match
+    */
+   public void findMatches( final int[] textIds, final int[] variantIds, final int tokenCount,
+                            final MatchListener listener ) {
+      final int[] tokenIndices = new int[ Math.max( 1, Math.min( _maxDepth, tokenCount ) ) ];
+      int[] states = new int[ 4 ];
+      int[] nextStates = new int[ 4 ];
+      int stateCount = 1;
+      states[ 0 ] = ROOT;
+      final Set<Integer> reportedTerms = new HashSet<>();
+      for ( int i = 0; i < tokenCount; i++ ) {
+         int nextCount = 0;
+         for ( int s = 0; s < stateCount; s++ ) {
+            if ( nextCount + 2 > nextStates.length ) {
+               nextStates = Arrays.copyOf( nextStates, nextStates.length * 2 );
+            }
+            nextCount = addState( nextStates, nextCount, getNextState( states[ s ], textIds[ i ] ) );
+            if ( variantIds[ i ] != textIds[ i ] && variantIds[ i ] >= 0 ) {
+               nextCount = addState( nextStates, nextCount, getNextState( states[ s ], variantIds[ i ] ) );
+            }
+         }
+         final int[] swap = states;
+         states = nextStates;
+         nextStates = swap;
+         stateCount = nextCount;
+         reportedTerms.clear();
+         for ( int s = 0; s < stateCount; s++ ) {
+            int outputState = hasOutput( states[ s ] ) ? states[ s ] : _outputLinks[ states[ s ] ];
+            while ( outputState != NO_STATE ) {
+               final int depth = _depths[ outputState ];
+               for ( int o = _outputStarts[ outputState ]; o < _outputStarts[ outputState + 1 ]; o++ ) {
+                  final int termIndex = _outputTerms[ o ];
+                  if ( stateCount > 1 && !reportedTerms.add( termIndex ) ) {
+                     continue;
+                  }
+                  for ( int t = 0; t < depth; t++ ) {
+                     tokenIndices[ t ] = i - depth + 1 + t;
+                  }
+                  listener.onMatch( termIndex, tokenIndices, depth );
+               }
+               outputState = _outputLinks[ outputState ];
+            }
+         }
+      }
+   }
+
+   /**
+    * Finds all terms whose tokens match window tokens in order, allowing window tokens to be skipped between
+    * term tokens.  Commas are not counted as consecutive skips, so that "blood, urine, sputum cultures" can match
+    * "blood cultures" and "urine cultures".
+    *
+    * @param textIds            token id of the text of each window token
+    * @param variantIds         token id of the variant of each window token
+    * @param isComma            true for each window token that is a comma
+    * @param tokenCount         number of tokens in the window
+    * @param consecutiveSkipMax maximum number of consecutive non-comma tokens that can be skipped
+    * @param totalSkipMax       maximum number of tokens that can be skipped in a term
+    * @param listener           receives every match
+    */
+   public void findSkipMatches( final int[] textIds, final int[] variantIds, final boolean[] isComma,
+                                final int tokenCount, final int consecutiveSkipMax, final int totalSkipMax,
+                                final MatchListener listener ) {
+      final int[] tokenIndices = new int[ Math.max( 1, Math.min( _maxDepth, tokenCount ) ) ];
+      for ( int start = 0; start < tokenCount; start++ ) {
+         tokenIndices[ 0 ] = start;
+         walkSkips( getChild( ROOT, textIds[ start ] ), start, textIds, variantIds, isComma, tokenCount,
+               consecutiveSkipMax, totalSkipMax, 0, 0, tokenIndices, listener );
+         if ( variantIds[ start ] != textIds[ start ] ) {
+            walkSkips( getChild( ROOT, variantIds[ start ] ), start, textIds, variantIds, isComma, tokenCount,
+                  consecutiveSkipMax, totalSkipMax, 0, 0, tokenIndices, listener );
+         }
+      }
+   }
+
+   /**
+    * Depth first walk down the trie, matching or skipping each following window token.
+    */
+   private void walkSkips( final int state, final int index,
+                           final int[] textIds, final int[] variantIds, final boolean[] isComma, final int tokenCount,
+                           final int consecutiveSkipMax, final int totalSkipMax,
+                           final int consecutiveSkips, final int totalSkips,
+                           final int[] tokenIndices, final MatchListener listener ) {
+      if ( state == NO_STATE ) {
+         return;
+      }
+      final int depth = _depths[ state ];
+      tokenIndices[ depth - 1 ] = index;
+      for ( int o = _outputStarts[ state ]; o < _outputStarts[ state + 1 ]; o++ ) {
+         listener.onMatch( _outputTerms[ o ], tokenIndices, depth );
+      }
+      if ( _transitionStarts[ state ] == _transitionStarts[ state + 1 ] ) {
+         return;
+      }
+      int consecutive = consecutiveSkips;
+      int total = totalSkips;
+      for ( int next = index + 1; next < tokenCount; next++ ) {
+         walkSkips( getChild( state, textIds[ next ] ), next, textIds, variantIds, isComma, tokenCount,
+               consecutiveSkipMax, totalSkipMax, 0, total, tokenIndices, listener );
+         if ( variantIds[ next ] != textIds[ next ] ) {
+            walkSkips( getChild( state, variantIds[ next ] ), next, textIds, variantIds, isComma, tokenCount,
+                  consecutiveSkipMax, totalSkipMax, 0, total, tokenIndices, listener );
+         }
+         // skip the token and try to match the next one
+         if ( !isComma[ next ] ) {
+            consecutive++;
+         }
+         total++;
+         if ( consecutive > consecutiveSkipMax || total > totalSkipMax ) {
+            return;
+         }
+      }
+   }
+
+   /**
+    * @param state   current state
+    * @param tokenId id of the next token, may be unknown
+    * @return the state for the longest term prefix that is a suffix of the current state plus the token
+    */
+   private int getNextState( final int state, final int tokenId ) {
+      if ( tokenId < 0 ) {
+         return ROOT;
+      }
+      int current = state;
+      while ( current != ROOT ) {
+         final int child = getChild( current, tokenId );
+         if ( child != NO_STATE ) {
+            return child;
+         }
+         current = _failures[ current ];
+      }
+      final int child = getChild( ROOT, tokenId );
+      return child == NO_STATE ? ROOT : child;
+   }
+
+   /**
+    * @param state   current state
+    * @param tokenId id of the next token, may be unknown
+    * @return the child state of the current state for the token, or NO_STATE
+    */
+   private int getChild( final int state, final int tokenId ) {
+      if ( tokenId < 0 ) {
+         return NO_STATE;
+      }
+      if ( state == ROOT ) {
+         return tokenId < _rootTargets.length ? _rootTargets[ tokenId ] : NO_STATE;
+      }
+      int low = _transitionStarts[ state ];
+      int high = _transitionStarts[ state + 1 ] - 1;
+      while ( low <= high ) {
+         final int mid = (low + high) >>> 1;
+         final int midId = _transitionIds[ mid ];
+         if ( midId < tokenId ) {
+            low = mid + 1;
+         } else if ( midId > tokenId ) {
+            high = mid - 1;
+         } else {
+            return _resolvedTargets[ mid ];
+         }
+      }
+      return NO_STATE;
+   }
+
+   private boolean hasOutput( final int state ) {
+      return _outputStarts[ state ] < _outputStarts[ state + 1 ];
+   }
+
+   /**
+    * Adds a state if it is not already in the set.  The root state is only kept if it is the only state,
+    * as every other state falls back to the root.
+    *
+    * @param states set of states with room for one more
+    * @param count  number of states in the set
+    * @param state  state to add
+    * @return new number of states in the set
+    */
+   static private int addState( final int[] states, final int count, final int state ) {
+      if ( state == ROOT ) {
+         return count == 0 ? addRoot( states ) : count;
+      }
+      if ( count == 1 && states[ 0 ] == ROOT ) {
+         states[ 0 ] = state;
+         return 1;
+      }
+      for ( int i = 0; i < count; i++ ) {
+         if ( states[ i ] == state ) {
+            return count;
+         }
+      }
+      states[ count ] = state;
+      return count + 1;
+   }
+
+   static private int addRoot( final int[] states ) {
+      states[ 0 ] = ROOT;
+      return 1;
+   }
+
+   /**
+    * Interns the vocabulary in a new {@link TokenIdTable} and sorts each state's transitions by token id.
+    */
+   private void resolveTokenIds() {
+      _tokenIdTable = new TokenIdTable();
+      final int[] vocabularyIds = new int[ _tokens.length ];
+      int maxId = -1;
+      for ( int i = 0; i < _tokens.length; i++ ) {
+         vocabularyIds[ i ] = _tokenIdTable.getId( _tokens[ i ] );
+         maxId = Math.max( maxId, vocabularyIds[ i ] );
+      }
+      _transitionIds = new int[ _transitionTokens.length ];
+      _resolvedTargets = new int[ _transitionTargets.length ];
+      final int stateCount = _depths.length;
+      for ( int state = 0; state < stateCount; state++ ) {
+         final int start = _transitionStarts[ state ];
+         final int end = _transitionStarts[ state + 1 ];
+         final long[] sorted = new long[ end - start ];
+         for ( int i = start; i < end; i++ ) {
+            // pack id and target so that one sort orders both
+            sorted[ i - start ] = ((long)vocabularyIds[ _transitionTokens[ i ] ] << 32) | _transitionTargets[ i ];
+         }
+         Arrays.sort( sorted );
+         for ( int i = start; i < end; i++ ) {
+            _transitionIds[ i ] = (int)(sorted[ i - start ] >>> 32);
+            _resolvedTargets[ i ] = (int)sorted[ i - start ];
+         }
+      }
+      _maxDepth = 1;
+      for ( int depth : _depths ) {
+         _maxDepth = Math.max( _maxDepth, depth );
+      }
+      _rootTargets = new int[ maxId + 1 ];
+      Arrays.fill( _rootTargets, NO_STATE );
+      for ( int i = _transitionStarts[ ROOT ]; i < _transitionStarts[ ROOT + 1 ]; i++ ) {
+         _rootTargets[ _transitionIds[ i ] ] = _resolvedTargets[ i ];
+      }
+   }
+
+   private void readObject( final ObjectInputStream input ) throws IOException, ClassNotFoundException {
+      input.defaultReadObject();
+      resolveTokenIds();
+   }
+
+   /**
+    * @param file file to which the automaton should be written
+    * @throws IOException if the file could not be written
+    */
+   public void writeAutomaton( final File file ) throws IOException {
+      final File parent = file.getAbsoluteFile().getParentFile();
+      if ( parent != null && !parent.exists() && !parent.mkdirs() ) {
+         throw new IOException( "Could not create directory " + parent.getPath() );
+      }
+      try ( ObjectOutputStream output
+                  = new ObjectOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) ) {
+         output.writeObject( this );
+      }
+      LOGGER.info( "Wrote term automaton to " + file.getPath() );
+   }
+
+   /**
+    * @param file file written by {@link #writeAutomaton(File)}
+    * @return the automaton in the file
+    * @throws IOException if the file could not be read or does not contain an automaton
+    */
+   static public TermAutomaton readAutomaton( final File file ) throws IOException {
+      try ( ObjectInputStream input
+                  = new ObjectInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+         final TermAutomaton automaton = (TermAutomaton)input.readObject();
+         LOGGER.info( "Read term automaton with " + automaton.getTermCount() + " terms from " + file.getPath() );
+         return automaton;
+      } catch ( ClassNotFoundException | ClassCastException multE ) {
+         throw new IOException( file.getPath() + " does not contain a term automaton", multE );
+      }
+   }
+
+   /**
+    * @param terms all terms in a dictionary
+    * @return an automaton that finds the terms
+    */
+   static public TermAutomaton compile( final Iterable<RareWordTerm> terms ) {
+      final Map<String, Integer> vocabulary = new HashMap<>();
+      final List<String> tokens = new ArrayList<>();
+      final List<Map<Integer, Integer>> children = new ArrayList<>();
+      final List<Integer> depths = new ArrayList<>();
+      final List<List<Integer>> outputs = new ArrayList<>();
+      final List<Long> cuis = new ArrayList<>();
+      final List<Integer> rareWordIndices = new ArrayList<>();
+      final List<Integer> textLengths = new ArrayList<>();
+      children.add( new HashMap<>() );
+      depths.add( 0 );
+      outputs.add( null );
+      for ( RareWordTerm term : terms ) {
+         int state = ROOT;
+         for ( String token : term.getTokens() ) {
+            Integer tokenIndex = vocabulary.get( token );
+            if ( tokenIndex == null ) {
+               tokenIndex = tokens.size();
+               vocabulary.put( token, tokenIndex );
+               tokens.add( token );
+            }
+            Integer child = children.get( state ).get( tokenIndex );
+            if ( child == null ) {
+               child = children.size();
+               children.get( state ).put( tokenIndex, child );
+               children.add( new HashMap<>( 2 ) );
+               depths.add( depths.get( state ) + 1 );
+               outputs.add( null );
+            }
+            state = child;
+         }
+         if ( outputs.get( state ) == null ) {
+            outputs.set( state, new ArrayList<>( 1 ) );
+         }
+         outputs.get( state ).add( cuis.size() );
+         cuis.add( term.getCuiCode() );
+         rareWordIndices.add( term.getRareWordIndex() );
+         textLengths.add( term.getText().length() );
+      }
+      final int stateCount = children.size();
+      // Breadth first creation of failure and output links
+      final int[] failures = new int[ stateCount ];
+      final int[] outputLinks = new int[ stateCount ];
+      Arrays.fill( outputLinks, NO_STATE );
+      final Deque<Integer> queue = new ArrayDeque<>();
+      for ( Integer child : children.get( ROOT ).values() ) {
+         failures[ child ] = ROOT;
+         queue.add( child );
+      }
+      while ( !queue.isEmpty() ) {
+         final int state = queue.poll();
+         for ( Map.Entry<Integer, Integer> transition : children.get( state ).entrySet() ) {
+            final int tokenIndex = transition.getKey();
+            final int child = transition.getValue();
+            int failure = failures[ state ];
+            while ( failure != ROOT && !children.get( failure ).containsKey( tokenIndex ) ) {
+               failure = failures[ failure ];
+            }
+            final Integer failureChild = children.get( failure ).get( tokenIndex );
+            failures[ child ] = failureChild == null ? ROOT : failureChild;
+            outputLinks[ child ] = outputs.get( failures[ child ] ) != null
+                                   ? failures[ child ] : outputLinks[ failures[ child ] ];
+            queue.add( child );
+         }
+      }
+      // Compact the trie into arrays
+      final int[] transitionStarts = new int[ stateCount + 1 ];
+      final int[] outputStarts = new int[ stateCount + 1 ];
+      for ( int state = 0; state < stateCount; state++ ) {
+         transitionStarts[ state + 1 ] = transitionStarts[ state ] + children.get( state ).size();
+         outputStarts[ state + 1 ] = outputStarts[ state ]
+                                     + (outputs.get( state ) == null ? 0 : outputs.get( state ).size());
+      }
+      final int[] transitionTokens = new int[ transitionStarts[ stateCount ] ];
+      final int[] transitionTargets = new int[ transitionStarts[ stateCount ] ];
+      final int[] outputTerms = new int[ outputStarts[ stateCount ] ];
+      final int[] depthArray = new int[ stateCount ];
+      for ( int state = 0; state < stateCount; state++ ) {
+         int i = transitionStarts[ state ];
+         for ( Map.Entry<Integer, Integer> transition : children.get( state ).entrySet() ) {
+            transitionTokens[ i ] = transition.getKey();
+            transitionTargets[ i ] = transition.getValue();
+            i++;
+         }
+         if ( outputs.get( state ) != null ) {
+            int o = outputStarts[ state ];
+            for ( Integer termIndex : outputs.get( state ) ) {
+               outputTerms[ o ] = termIndex;
+               o++;
+            }
+         }
+         depthArray[ state ] = depths.get( state );
+      }
+      final long[] termCuis = new long[ cuis.size() ];
+      final int[] termRareWordIndices = new int[ cuis.size() ];
+      final int[] termTextLengths = new int[ cuis.size() ];
+      for ( int i = 0; i < termCuis.length; i++ ) {
+         termCuis[ i ] = cuis.get( i );
+         termRareWordIndices[ i ] = rareWordIndices.get( i );
+         termTextLengths[ i ] = textLengths.get( i );
+      }
+      LOGGER.info( "Compiled term automaton with " + termCuis.length + " terms, " + tokens.size()
+                   + " distinct tokens and " + stateCount + " states" );
+      return new TermAutomaton( tokens.toArray( new String[ tokens.size() ] ),
+            transitionStarts, transitionTokens, transitionTargets, failures, depthArray,
+            outputStarts, outputTerms, outputLinks, termCuis, termRareWordIndices, termTextLengths );
+   }
+
+}
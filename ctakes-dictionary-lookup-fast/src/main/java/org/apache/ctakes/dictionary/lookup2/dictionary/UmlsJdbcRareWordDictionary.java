@@ -1,7 +1,9 @@
 package org.apache.ctakes.dictionary.lookup2.dictionary;
 
 import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.CachingLookup;
 import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
 import org.apache.ctakes.dictionary.lookup2.util.UmlsUserApprover;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
@@ -15,11 +17,11 @@ import java.util.Properties;
  * @version %I%
  * @since 9/23/2014
  */
-final public class UmlsJdbcRareWordDictionary implements RareWordDictionary {
+final public class UmlsJdbcRareWordDictionary implements RareWordDictionary, CachingLookup {
 
    static private final Logger LOGGER = Logger.getLogger( "UmlsJdbcRareWordDictionary" );
 
-   final private RareWordDictionary _delegateDictionary;
+   final private JdbcRareWordDictionary _delegateDictionary;
 
 
    public UmlsJdbcRareWordDictionary( final String name, final UimaContext uimaContext, final Properties properties )
@@ -56,5 +58,37 @@ final public class UmlsJdbcRareWordDictionary implements RareWordDictionary {
       return _delegateDictionary.getRareWordHits( rareWordText );
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public TokenIdTable getTokenIdTable() {
+      return _delegateDictionary.getTokenIdTable();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Collection<RareWordTerm> getAllTerms() {
+      return _delegateDictionary.getAllTerms();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void prefetchRareWordHits( final Collection<String> rareWordTexts ) {
+      _delegateDictionary.prefetchRareWordHits( rareWordTexts );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public String getCacheStatistics() {
+      return _delegateDictionary.getCacheStatistics();
+   }
+
 
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.ctakes.dictionary.lookup2.term;
 
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+
 import javax.annotation.concurrent.Immutable;
 
 /**
@@ -35,6 +37,8 @@ final public class RareWordTerm {
    final private int _rareWordIndex;
    final private int _tokenCount;
    final private int _hashCode;
+   // Token ids for the table of the dictionary holding the term, computed once for that table
+   private volatile TokenIds _tokenIds;
 
    /**
     * @param text          full text of term
@@ -54,6 +58,24 @@ final public class RareWordTerm {
       _hashCode = (_cuiCode + _text).hashCode();
    }
 
+   /**
+    * For dictionaries that store term token ids, so that the text does not need to be split for every hit.
+    *
+    * @param text          full text of term
+    * @param cuiCode       umls cui for the term
+    * @param rareWord      rare word in the term that is used for lookup
+    * @param rareWordIndex index of the rare word within the term
+    * @param tokenCount    number of tokens within the term
+    * @param tokenIdTable  token id table of the dictionary holding the term
+    * @param tokenIds      id of each token in the term from the token id table
+    */
+   public RareWordTerm( final String text, final Long cuiCode,
+                        final String rareWord, final int rareWordIndex,
+                        final int tokenCount, final TokenIdTable tokenIdTable, final int[] tokenIds ) {
+      this( text, cuiCode, rareWord, rareWordIndex, tokenCount );
+      _tokenIds = new TokenIds( tokenIdTable, tokenIds );
+   }
+
    /**
     * @return full text of term
     */
@@ -109,6 +131,28 @@ final public class RareWordTerm {
       return tokens;
    }
 
+   /**
+    * Ids are computed on the first call and kept with the term, so a dictionary that holds its terms
+    * only splits the text of each term once.
+    *
+    * @param tokenIdTable token id table of the dictionary holding the term
+    * @return the id of each token in the term.  The returned array must not be modified.
+    */
+   public int[] getTokenIds( final TokenIdTable tokenIdTable ) {
+      final TokenIds tokenIds = _tokenIds;
+      if ( tokenIds != null && tokenIds.__tokenIdTable == tokenIdTable ) {
+         return tokenIds.__ids;
+      }
+      final String[] tokens = getTokens();
+      final int[] ids = new int[ tokens.length ];
+      for ( int i = 0; i < tokens.length; i++ ) {
+         ids[ i ] = tokenIdTable.getId( tokens[ i ] );
+      }
+      // Threads that race here compute the same ids
+      _tokenIds = new TokenIds( tokenIdTable, ids );
+      return ids;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -129,4 +173,17 @@ final public class RareWordTerm {
       return _hashCode;
    }
 
+   /**
+    * Token ids and the table that they are from, held together so that both are published at once
+    */
+   static private final class TokenIds {
+      private final TokenIdTable __tokenIdTable;
+      private final int[] __ids;
+
+      private TokenIds( final TokenIdTable tokenIdTable, final int[] ids ) {
+         __tokenIdTable = tokenIdTable;
+         __ids = ids;
+      }
+   }
+
 }
@@ -0,0 +1,17 @@
+package org.apache.ctakes.dictionary.lookup2.util;
+
+/**
+ * A dictionary or concept factory that caches lookup results and can report how well the cache is working.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public interface CachingLookup {
+
+   /**
+    * @return a single line with cache size, hit rate and eviction counts
+    */
+   String getCacheStatistics();
+
+}
@@ -38,6 +38,8 @@ import java.util.Map;
 final public class DefaultDictionarySpec implements DictionarySpec {
 
    static private final RareWordDictionary EMPTY_DICTIONARY = new RareWordDictionary() {
+      private final TokenIdTable _tokenIdTable = new TokenIdTable();
+
       public String getName() {
          return "Empty Dictionary";
       }
@@ -49,6 +51,10 @@ final public class DefaultDictionarySpec implements DictionarySpec {
       public Collection<RareWordTerm> getRareWordHits( final String rareWordText ) {
          return Collections.emptySet();
       }
+
+      public TokenIdTable getTokenIdTable() {
+         return _tokenIdTable;
+      }
    };
 
    static private final ConceptFactory EMPTY_CONCEPT_FACTORY = new ConceptFactory() {
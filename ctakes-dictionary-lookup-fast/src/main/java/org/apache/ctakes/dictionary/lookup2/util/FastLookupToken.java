@@ -39,6 +39,11 @@ final public class FastLookupToken {
    final private TextSpan _textSpan;
    final private String _text;
    private String _variant;
+   // Ids are for the table of the last dictionary checked.  They are resolved again for another table,
+   // and while unknown, as terms read from a database can add tokens after the ids are found
+   private TokenIdTable _tokenIdTable;
+   private int _textId;
+   private int _variantId;
 
    public FastLookupToken( final Annotation jcasAnnotation ) {
       _textSpan = new DefaultTextSpan( jcasAnnotation.getBegin(), jcasAnnotation.getEnd() );
@@ -52,6 +57,17 @@ final public class FastLookupToken {
       }
    }
 
+   /**
+    * @param textSpan span of the token
+    * @param text     lowercase text of the token
+    * @param variant  lowercase canonical variant of the token, or null if none
+    */
+   public FastLookupToken( final TextSpan textSpan, final String text, final String variant ) {
+      _textSpan = textSpan;
+      _text = text;
+      _variant = variant;
+   }
+
    /**
     * @return a span with the start and end indices used for this lookup token
     */
@@ -94,6 +110,38 @@ final public class FastLookupToken {
       return _variant;
    }
 
+   /**
+    * @param tokenIdTable token id table of the dictionary being checked
+    * @return the id of the text, or {@link TokenIdTable#UNKNOWN_ID} if not in any term
+    */
+   public int getTextId( final TokenIdTable tokenIdTable ) {
+      if ( tokenIdTable != _tokenIdTable ) {
+         setTokenIdTable( tokenIdTable );
+      } else if ( _textId == TokenIdTable.UNKNOWN_ID ) {
+         _textId = tokenIdTable.findId( _text );
+      }
+      return _textId;
+   }
+
+   /**
+    * @param tokenIdTable token id table of the dictionary being checked
+    * @return the id of the variant, or {@link TokenIdTable#UNKNOWN_ID} if none or not in any term
+    */
+   public int getVariantId( final TokenIdTable tokenIdTable ) {
+      if ( tokenIdTable != _tokenIdTable ) {
+         setTokenIdTable( tokenIdTable );
+      } else if ( _variantId == TokenIdTable.UNKNOWN_ID && _variant != null ) {
+         _variantId = tokenIdTable.findId( _variant );
+      }
+      return _variantId;
+   }
+
+   private void setTokenIdTable( final TokenIdTable tokenIdTable ) {
+      _tokenIdTable = tokenIdTable;
+      _textId = tokenIdTable.findId( _text );
+      _variantId = tokenIdTable.findId( _variant );
+   }
+
    /**
     * Two lookup tokens are equal iff the spans are equal.
     *
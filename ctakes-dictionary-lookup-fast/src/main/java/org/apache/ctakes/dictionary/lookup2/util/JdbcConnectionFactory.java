@@ -10,7 +10,12 @@ import java.util.*;
 
 /**
  * Some JDBC Connections can be reused, for instance by a Dictionary and Concept Factory.
- * This Singleton keeps a map of JDBC URLs to open and reusable Connections
+ * This Singleton keeps a map of JDBC URLs to open and reusable Connections.
+ * <p>
+ * A single Connection must not be used by several threads at once.
+ * Dictionaries that may be used by several pipeline threads should use a {@link JdbcConnectionPool}
+ * from {@link #getConnectionPool(String, String, String, String, int, long)}, which is also shared per JDBC URL.
+ * </p>
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -23,6 +28,11 @@ public enum JdbcConnectionFactory {
    static public final String JDBC_URL = "jdbcUrl";
    static public final String JDBC_USER = "jdbcUser";
    static public final String JDBC_PASS = "jdbcPass";
+   static public final String JDBC_POOL_SIZE = "jdbcPoolSize";
+   static public final String JDBC_POOL_WAIT = "jdbcPoolWait";
+
+   static public final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+   static public final long DEFAULT_POOL_WAIT = 30000;
 
    static final private Logger LOGGER = Logger.getLogger( "JdbcConnectionFactory" );
    static final private Logger DOT_LOGGER = Logger.getLogger( "ProgressAppender" );
@@ -32,7 +42,9 @@ public enum JdbcConnectionFactory {
    static private final String FILE_PREFIX = "file:";
    static private final String HSQL_FILE_PREFIX = HSQL_PREFIX + FILE_PREFIX;
    static private final String HSQL_DB_EXT = ".script";
+   static private final String HSQL_SHUTDOWN = "SHUTDOWN";
    private final Map<String, Connection> CONNECTIONS = Collections.synchronizedMap( new HashMap<String, Connection>() );
+   private final Map<String, JdbcConnectionPool> POOLS = new HashMap<>();
 
    public static JdbcConnectionFactory getInstance() {
       return INSTANCE;
@@ -57,24 +69,8 @@ public enum JdbcConnectionFactory {
       if ( connection != null ) {
          return connection;
       }
-      String trueJdbcUrl = jdbcUrl;
-      if ( jdbcUrl.startsWith( HSQL_FILE_PREFIX ) ) {
-         // Hack for hsqldb file needing to be absolute or relative to current working directory
-//         trueJdbcUrl = HSQL_FILE_PREFIX + getConnectionUrl( jdbcUrl );
-         trueJdbcUrl = HSQL_PREFIX + getConnectionUrl( jdbcUrl );
-      }
-      try {
-         // DO NOT use try with resources here.
-         // Try with resources uses a closable and closes it when exiting the try block
-         final Driver driver = (Driver)Class.forName( jdbcDriver ).newInstance();
-         DriverManager.registerDriver( driver );
-      } catch ( SQLException sqlE ) {
-         LOGGER.error( "Could not register Driver " + jdbcDriver, sqlE );
-         throw sqlE;
-      } catch ( ClassNotFoundException | InstantiationException | IllegalAccessException multE ) {
-         LOGGER.error( "Could not create Driver " + jdbcDriver, multE );
-         throw new SQLException( multE );
-      }
+      final String trueJdbcUrl = getTrueJdbcUrl( jdbcUrl );
+      registerDriver( jdbcDriver );
       LOGGER.info( "Connecting to " + jdbcUrl + ":" );
       final Timer timer = new Timer();
       timer.scheduleAtFixedRate( new DotPlotter(), 333, 333 );
@@ -97,6 +93,117 @@ public enum JdbcConnectionFactory {
       return connection;
    }
 
+   /**
+    * Get an existing Connection Pool or create and store a new one.
+    * The pool size and wait time are set by the first caller for a JDBC URL.
+    *
+    * @param jdbcDriver    -
+    * @param jdbcUrl       -
+    * @param jdbcUser      -
+    * @param jdbcPass      -
+    * @param poolSize      maximum number of connections in the pool
+    * @param maxWaitMillis maximum time to wait for a connection when all are in use
+    * @return a previously created or new Connection Pool
+    * @throws SQLException if a JDBC Driver could not be created or registered,
+    *                      or if a Connection could not be made to the given <code>jdbcUrl</code>
+    */
+   public synchronized JdbcConnectionPool getConnectionPool( final String jdbcDriver,
+                                                             final String jdbcUrl,
+                                                             final String jdbcUser,
+                                                             final String jdbcPass,
+                                                             final int poolSize,
+                                                             final long maxWaitMillis ) throws SQLException {
+      JdbcConnectionPool pool = POOLS.get( jdbcUrl );
+      if ( pool != null ) {
+         return pool;
+      }
+      final String trueJdbcUrl = getTrueJdbcUrl( jdbcUrl );
+      registerDriver( jdbcDriver );
+      pool = new JdbcConnectionPool( jdbcUrl,
+            () -> DriverManager.getConnection( trueJdbcUrl, jdbcUser, jdbcPass ), poolSize, maxWaitMillis );
+      // Open the first connection now so that a bad url or user is reported at initialization
+      pool.borrowConnection().close();
+      LOGGER.info( "Created pool of up to " + poolSize + " connections to " + jdbcUrl );
+      POOLS.put( jdbcUrl, pool );
+      final JdbcConnectionPool shutdownPool = pool;
+      final String shutdownSql = jdbcUrl.startsWith( HSQL_PREFIX ) ? HSQL_SHUTDOWN : null;
+      Runtime.getRuntime().addShutdownHook( new Thread( () -> shutdownPool.close( shutdownSql ) ) );
+      return pool;
+   }
+
+   /**
+    * Get an existing Connection Pool or create and store a new one using the jdbc properties of a dictionary
+    * or concept factory.  Optional properties "jdbcPoolSize" and "jdbcPoolWait" set the pool size and wait time.
+    *
+    * @param properties properties with jdbc driver, url, user and password
+    * @return a previously created or new Connection Pool
+    * @throws SQLException if a JDBC Driver could not be created or registered,
+    *                      or if a Connection could not be made to the given <code>jdbcUrl</code>
+    */
+   public JdbcConnectionPool getConnectionPool( final Properties properties ) throws SQLException {
+      return getConnectionPool( properties.getProperty( JDBC_DRIVER ), properties.getProperty( JDBC_URL ),
+            properties.getProperty( JDBC_USER ), properties.getProperty( JDBC_PASS ),
+            (int)parseLong( properties.getProperty( JDBC_POOL_SIZE ), DEFAULT_POOL_SIZE ),
+            parseLong( properties.getProperty( JDBC_POOL_WAIT ), DEFAULT_POOL_WAIT ) );
+   }
+
+   /**
+    * @return all connection pools
+    */
+   public synchronized Collection<JdbcConnectionPool> getConnectionPools() {
+      return new ArrayList<>( POOLS.values() );
+   }
+
+   /**
+    * @param value        property value, possibly null or empty
+    * @param defaultValue value to use if the property is not set or is not a number
+    * @return the property value as a number
+    */
+   static public long parseLong( final String value, final long defaultValue ) {
+      if ( value == null || value.trim().isEmpty() ) {
+         return defaultValue;
+      }
+      try {
+         return Long.parseLong( value.trim() );
+      } catch ( NumberFormatException nfE ) {
+         LOGGER.warn( "Could not parse " + value + " as a number, using " + defaultValue );
+         return defaultValue;
+      }
+   }
+
+   /**
+    * @param jdbcUrl -
+    * @return the url with hsql file paths adjusted to absolute paths
+    * @throws SQLException if an hsql file database does not exist
+    */
+   static private String getTrueJdbcUrl( final String jdbcUrl ) throws SQLException {
+      if ( jdbcUrl.startsWith( HSQL_FILE_PREFIX ) ) {
+         // Hack for hsqldb file needing to be absolute or relative to current working directory
+//         return HSQL_FILE_PREFIX + getConnectionUrl( jdbcUrl );
+         return HSQL_PREFIX + getConnectionUrl( jdbcUrl );
+      }
+      return jdbcUrl;
+   }
+
+   /**
+    * @param jdbcDriver -
+    * @throws SQLException if the JDBC Driver could not be created or registered
+    */
+   static private void registerDriver( final String jdbcDriver ) throws SQLException {
+      try {
+         // DO NOT use try with resources here.
+         // Try with resources uses a closable and closes it when exiting the try block
+         final Driver driver = (Driver)Class.forName( jdbcDriver ).newInstance();
+         DriverManager.registerDriver( driver );
+      } catch ( SQLException sqlE ) {
+         LOGGER.error( "Could not register Driver " + jdbcDriver, sqlE );
+         throw sqlE;
+      } catch ( ClassNotFoundException | InstantiationException | IllegalAccessException multE ) {
+         LOGGER.error( "Could not create Driver " + jdbcDriver, multE );
+         throw new SQLException( multE );
+      }
+   }
+
    /**
     * Uses {@link org.apache.ctakes.core.resource.FileLocator} to get the canonical path to the database file
     *
@@ -127,7 +234,7 @@ public enum JdbcConnectionFactory {
       Runtime.getRuntime().addShutdownHook( new Thread( () -> {
          try {
             final Statement shutdown = connection.createStatement();
-            shutdown.execute( "SHUTDOWN" );
+            shutdown.execute( HSQL_SHUTDOWN );
             shutdown.close();
             // The db is read-only, so there should be no need to roll back any transactions.
             connection.clearWarnings();
@@ -0,0 +1,277 @@
+package org.apache.ctakes.dictionary.lookup2.util;
+
+import org.apache.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC Connections to a single database.
+ * <p>
+ * A thread borrows a connection, runs its queries and returns the connection by closing the
+ * {@link PooledConnection}.  Each pooled connection keeps its own cache of prepared statements,
+ * and is only used by one thread at a time, so statements never need to be locked.
+ * Connections are created as needed up to the maximum pool size.  When all connections are in use
+ * a thread waits up to the maximum wait time for one to be returned.
+ * </p>
+ * Borrow counts, wait times and pool sizes are kept for monitoring.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class JdbcConnectionPool {
+
+   static private final Logger LOGGER = Logger.getLogger( "JdbcConnectionPool" );
+
+   /**
+    * Creates a new connection to the database.
+    */
+   @FunctionalInterface
+   public interface ConnectionCreator {
+      Connection createConnection() throws SQLException;
+   }
+
+   private final String _name;
+   private final ConnectionCreator _connectionCreator;
+   private final int _maxSize;
+   private final long _maxWaitMillis;
+   private final BlockingQueue<PooledConnection> _idleConnections;
+   private final AtomicInteger _size = new AtomicInteger();
+   private final AtomicLong _borrowCount = new AtomicLong();
+   private final AtomicLong _waitCount = new AtomicLong();
+   private final AtomicLong _totalBorrowNanos = new AtomicLong();
+   private final AtomicLong _maxBorrowNanos = new AtomicLong();
+   private volatile boolean _isClosed;
+
+   /**
+    * @param name              name of the pool, used for statistics
+    * @param connectionCreator creates new connections to the database
+    * @param maxSize           maximum number of open connections
+    * @param maxWaitMillis     maximum time to wait for a connection when all are in use
+    */
+   public JdbcConnectionPool( final String name, final ConnectionCreator connectionCreator,
+                              final int maxSize, final long maxWaitMillis ) {
+      _name = name;
+      _connectionCreator = connectionCreator;
+      _maxSize = Math.max( 1, maxSize );
+      _maxWaitMillis = maxWaitMillis;
+      _idleConnections = new LinkedBlockingQueue<>( _maxSize );
+   }
+
+   /**
+    * Borrow a connection.  Use with try with resources so that the connection is returned to the pool.
+    *
+    * @return a connection for use by the current thread only
+    * @throws SQLException if a connection could not be created or none was returned within the maximum wait time
+    */
+   public PooledConnection borrowConnection() throws SQLException {
+      final long startNanos = System.nanoTime();
+      PooledConnection connection = _idleConnections.poll();
+      if ( connection == null ) {
+         connection = createConnection();
+      }
+      if ( connection == null ) {
+         _waitCount.incrementAndGet();
+         try {
+            connection = _idleConnections.poll( _maxWaitMillis, TimeUnit.MILLISECONDS );
+         } catch ( InterruptedException intE ) {
+            Thread.currentThread().interrupt();
+            throw new SQLException( "Interrupted waiting for a connection to " + _name, intE );
+         }
+         if ( connection == null ) {
+            throw new SQLException( "No connection to " + _name + " became available within "
+                                    + _maxWaitMillis + " milliseconds" );
+         }
+      }
+      final long borrowNanos = System.nanoTime() - startNanos;
+      _borrowCount.incrementAndGet();
+      _totalBorrowNanos.addAndGet( borrowNanos );
+      _maxBorrowNanos.accumulateAndGet( borrowNanos, Math::max );
+      return connection;
+   }
+
+   /**
+    * @return a new connection or null if the pool is at its maximum size
+    * @throws SQLException if the connection could not be created
+    */
+   private PooledConnection createConnection() throws SQLException {
+      int size = _size.get();
+      while ( size < _maxSize ) {
+         if ( _size.compareAndSet( size, size + 1 ) ) {
+            try {
+               final PooledConnection connection = new PooledConnection( _connectionCreator.createConnection() );
+               LOGGER.info( "Opened connection " + (size + 1) + " of " + _maxSize + " to " + _name );
+               return connection;
+            } catch ( SQLException sqlE ) {
+               _size.decrementAndGet();
+               throw sqlE;
+            }
+         }
+         size = _size.get();
+      }
+      return null;
+   }
+
+   private void returnConnection( final PooledConnection connection ) {
+      boolean isClosed;
+      try {
+         isClosed = connection.__connection.isClosed();
+      } catch ( SQLException sqlE ) {
+         isClosed = true;
+      }
+      if ( !isClosed && _isClosed ) {
+         connection.closeConnection();
+         isClosed = true;
+      }
+      if ( isClosed ) {
+         // Discard the connection so that a new one can be created in its place
+         _size.decrementAndGet();
+         return;
+      }
+      _idleConnections.offer( connection );
+   }
+
+   /**
+    * @return the number of open connections
+    */
+   public int getSize() {
+      return _size.get();
+   }
+
+   /**
+    * @return the number of open connections that are not in use
+    */
+   public int getIdleCount() {
+      return _idleConnections.size();
+   }
+
+   public long getBorrowCount() {
+      return _borrowCount.get();
+   }
+
+   /**
+    * @return the number of times that a thread had to wait for a connection to be returned
+    */
+   public long getWaitCount() {
+      return _waitCount.get();
+   }
+
+   /**
+    * @return average time in milliseconds to obtain a connection, including creation and waiting
+    */
+   public double getAverageBorrowMillis() {
+      final long borrowCount = _borrowCount.get();
+      return borrowCount == 0 ? 0 : _totalBorrowNanos.get() / 1000000d / borrowCount;
+   }
+
+   /**
+    * @return longest time in milliseconds to obtain a connection, including creation and waiting
+    */
+   public double getMaxBorrowMillis() {
+      return _maxBorrowNanos.get() / 1000000d;
+   }
+
+   /**
+    * @return a single line with the pool name, size and statistics
+    */
+   public String getStatistics() {
+      return String.format( "%s pool : %d of %d connections , %d idle , %d borrows , %d waits ,"
+                            + " %.3f ms average borrow , %.3f ms max borrow",
+            _name, getSize(), _maxSize, getIdleCount(), getBorrowCount(), getWaitCount(),
+            getAverageBorrowMillis(), getMaxBorrowMillis() );
+   }
+
+   /**
+    * Close all idle connections.  Connections that are in use are closed when they are returned.
+    *
+    * @param shutdownSql optional sql to execute on one connection before closing, for instance "SHUTDOWN" for hsql
+    */
+   public void close( final String shutdownSql ) {
+      _isClosed = true;
+      boolean isShutdown = shutdownSql == null;
+      PooledConnection connection = _idleConnections.poll();
+      while ( connection != null ) {
+         try {
+            if ( !isShutdown ) {
+               try ( Statement shutdown = connection.__connection.createStatement() ) {
+                  shutdown.execute( shutdownSql );
+               }
+               isShutdown = true;
+            }
+         } catch ( SQLException sqlE ) {
+            // ignore
+         }
+         connection.closeConnection();
+         _size.decrementAndGet();
+         connection = _idleConnections.poll();
+      }
+   }
+
+   /**
+    * A borrowed connection with its own prepared statement cache.  Closing returns it to the pool.
+    */
+   public final class PooledConnection implements AutoCloseable {
+      private final Connection __connection;
+      private final Map<String, PreparedStatement> __statements = new HashMap<>();
+
+      private PooledConnection( final Connection connection ) {
+         __connection = connection;
+      }
+
+      /**
+       * @return the underlying connection.  It must not be closed or used after this pooled connection is returned.
+       */
+      public Connection getConnection() {
+         return __connection;
+      }
+
+      /**
+       * @param sql sql for a prepared statement
+       * @return a cached prepared statement for the sql, created if necessary
+       * @throws SQLException if the statement could not be prepared
+       */
+      public PreparedStatement getStatement( final String sql ) throws SQLException {
+         PreparedStatement statement = __statements.get( sql );
+         if ( statement == null ) {
+            statement = __connection.prepareStatement( sql );
+            __statements.put( sql, statement );
+         }
+         return statement;
+      }
+
+      private void closeConnection() {
+         for ( PreparedStatement statement : __statements.values() ) {
+            try {
+               statement.close();
+            } catch ( SQLException sqlE ) {
+               // ignore
+            }
+         }
+         __statements.clear();
+         try {
+            __connection.close();
+         } catch ( SQLException sqlE ) {
+            // ignore
+         }
+      }
+
+      /**
+       * Return the connection to the pool
+       */
+      @Override
+      public void close() {
+         returnConnection( this );
+      }
+   }
+
+}
@@ -0,0 +1,73 @@
+package org.apache.ctakes.dictionary.lookup2.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns dictionary term tokens as int ids so that term matching can compare primitives instead of Strings.
+ * Ids are only assigned to tokens in dictionary terms.  Document tokens that do not appear in any term
+ * are given {@link #UNKNOWN_ID}, which never matches a term token, so the table never grows with document text.
+ * <p>
+ * Each dictionary has its own table, so ids are only compared between tokens checked against the same dictionary
+ * and the table is released with the dictionary.
+ * A dictionary that already stores term token ids can extend this class to find document tokens in its own table.
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class TokenIdTable {
+
+   /**
+    * Id for a token that is not in any dictionary term
+    */
+   static public final int UNKNOWN_ID = -1;
+   /**
+    * Id for a missing (null) term token.  It never matches any document token.
+    */
+   static public final int NO_TOKEN_ID = -2;
+
+   private final Map<String, Integer> _tokenIds = new ConcurrentHashMap<>();
+   private final AtomicInteger _nextId = new AtomicInteger();
+
+   /**
+    * Get or create the id for a dictionary term token.
+    *
+    * @param token text of a token in a dictionary term, may be null
+    * @return id for the token, or {@link #NO_TOKEN_ID} if the token is null
+    */
+   public int getId( final String token ) {
+      if ( token == null ) {
+         return NO_TOKEN_ID;
+      }
+      final Integer id = _tokenIds.get( token );
+      if ( id != null ) {
+         return id;
+      }
+      return _tokenIds.computeIfAbsent( token, t -> _nextId.getAndIncrement() );
+   }
+
+   /**
+    * Find the id for a document token without creating a new one.
+    *
+    * @param token text of a token in a document, may be null
+    * @return id for the token or {@link #UNKNOWN_ID} if the token is not in any dictionary term
+    */
+   public int findId( final String token ) {
+      if ( token == null ) {
+         return UNKNOWN_ID;
+      }
+      final Integer id = _tokenIds.get( token );
+      return id == null ? UNKNOWN_ID : id;
+   }
+
+   /**
+    * @return number of interned tokens
+    */
+   public int size() {
+      return _tokenIds.size();
+   }
+
+}
@@ -0,0 +1,47 @@
+package org.apache.ctakes.dictionary.lookup2.ae;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.fit.factory.UimaContextFactory;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that dictionary specifications are only shared by annotators with the same descriptor and context.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class AbstractJCasTermAnnotatorTester {
+
+   static private final String DESCRIPTOR = JCasTermAnnotator.DEFAULT_DICT_DESC_PATH;
+
+   @Test
+   public void testSameContext() throws ResourceInitializationException {
+      assertEquals( getKey( DESCRIPTOR, "jdbc:hsqldb:file:a", "secret" ),
+            getKey( DESCRIPTOR, "jdbc:hsqldb:file:a", "secret" ) );
+      assertEquals( "Array values should be compared by content",
+            AbstractJCasTermAnnotator.getDictionarySpecKey( DESCRIPTOR,
+                  UimaContextFactory.createUimaContext( "exclusionTags", new String[] { "VB", "CC" } ) ),
+            AbstractJCasTermAnnotator.getDictionarySpecKey( DESCRIPTOR,
+                  UimaContextFactory.createUimaContext( "exclusionTags", new String[] { "VB", "CC" } ) ) );
+   }
+
+   @Test
+   public void testDifferentContext() throws ResourceInitializationException {
+      final String key = getKey( DESCRIPTOR, "jdbc:hsqldb:file:a", "secret" );
+      assertNotEquals( key, getKey( DESCRIPTOR, "jdbc:hsqldb:file:b", "secret" ) );
+      assertNotEquals( key, getKey( DESCRIPTOR, "jdbc:hsqldb:file:a", "other" ) );
+      assertNotEquals( key, getKey( "other.xml", "jdbc:hsqldb:file:a", "secret" ) );
+      assertFalse( "Credentials should not be in the key", key.contains( "secret" ) );
+   }
+
+   static private String getKey( final String descriptor, final String url, final String password )
+         throws ResourceInitializationException {
+      final UimaContext context = UimaContextFactory.createUimaContext( "jdbcUrl", url, "umlsPass", password );
+      return AbstractJCasTermAnnotator.getDictionarySpecKey( descriptor, context );
+   }
+
+}
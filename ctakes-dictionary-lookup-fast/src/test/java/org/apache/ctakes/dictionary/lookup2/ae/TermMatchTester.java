@@ -0,0 +1,167 @@
+package org.apache.ctakes.dictionary.lookup2.ae;
+
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.textspan.DefaultTextSpan;
+import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that token id term matching agrees with String term matching, and compares their speed.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class TermMatchTester {
+
+   static private final Logger LOGGER = Logger.getLogger( "TermMatchTester" );
+
+   static private final String[] WORDS = { "chest", "pain", "left", "arm", "heart", "attack", "acute",
+                                           "myocardial", "infarction", "blood", "pressure", "high", "of", "the" };
+
+   @Test
+   public void testMatchAgreement() {
+      final Random random = new Random( 7 );
+      final List<RareWordTerm> terms = createTerms( random, 500 );
+      final List<FastLookupToken> window = createWindow( random, 2000 );
+      final TokenIdTable tokenIdTable = new TokenIdTable();
+      int matches = 0;
+      for ( RareWordTerm term : terms ) {
+         for ( int start = 0; start + term.getTokenCount() <= window.size(); start++ ) {
+            final int end = start + term.getTokenCount() - 1;
+            final boolean stringMatch = isStringMatch( term, window, start, end );
+            assertEquals( "Match differs for " + term.getText() + " at " + start,
+                  stringMatch, DefaultJCasTermAnnotator.isTermMatch( term, window, start, end, tokenIdTable ) );
+            if ( stringMatch ) {
+               matches++;
+            }
+         }
+      }
+      assertTrue( "No matches to compare", matches > 0 );
+   }
+
+   @Test
+   public void testVariantMatch() {
+      final RareWordTerm term = new RareWordTerm( "heart attack", 27051L, "attack", 1, 2 );
+      final List<FastLookupToken> window = new ArrayList<>();
+      window.add( new FastLookupToken( new DefaultTextSpan( 0, 6 ), "hearts", "heart" ) );
+      window.add( new FastLookupToken( new DefaultTextSpan( 7, 13 ), "attack", null ) );
+      assertTrue( DefaultJCasTermAnnotator.isTermMatch( term, window, 0, 1, new TokenIdTable() ) );
+   }
+
+   @Test
+   public void testDictionaryTables() {
+      final TokenIdTable heartTable = new TokenIdTable();
+      final TokenIdTable chestTable = new TokenIdTable();
+      final RareWordTerm heartAttack = new RareWordTerm( "heart attack", 27051L, "attack", 1, 2 );
+      final RareWordTerm chestPain = new RareWordTerm( "chest pain", 8031L, "chest", 0, 2 );
+      assertSame( "Ids should be computed once for a table",
+            heartAttack.getTokenIds( heartTable ), heartAttack.getTokenIds( heartTable ) );
+      // Both tables give their first two tokens the same ids
+      assertArrayEquals( heartAttack.getTokenIds( heartTable ), chestPain.getTokenIds( chestTable ) );
+      assertEquals( TokenIdTable.UNKNOWN_ID, chestTable.findId( "heart" ) );
+      final List<FastLookupToken> window = new ArrayList<>();
+      window.add( new FastLookupToken( new DefaultTextSpan( 0, 5 ), "heart", null ) );
+      window.add( new FastLookupToken( new DefaultTextSpan( 6, 12 ), "attack", null ) );
+      window.add( new FastLookupToken( new DefaultTextSpan( 13, 18 ), "chest", null ) );
+      window.add( new FastLookupToken( new DefaultTextSpan( 19, 23 ), "pain", null ) );
+      assertTrue( DefaultJCasTermAnnotator.isTermMatch( heartAttack, window, 0, 1, heartTable ) );
+      assertFalse( "Token ids of another table should not be used",
+            DefaultJCasTermAnnotator.isTermMatch( chestPain, window, 0, 1, chestTable ) );
+      assertTrue( DefaultJCasTermAnnotator.isTermMatch( chestPain, window, 2, 3, chestTable ) );
+      assertTrue( DefaultJCasTermAnnotator.isTermMatch( heartAttack, window, 0, 1, heartTable ) );
+      assertEquals( "Document tokens should not be added", 2, chestTable.size() );
+      assertEquals( 2, heartTable.size() );
+   }
+
+   @Test
+   public void benchmarkMatch() {
+      final Random random = new Random( 11 );
+      final List<RareWordTerm> terms = createTerms( random, 200 );
+      final List<FastLookupToken> window = createWindow( random, 5000 );
+      final TokenIdTable tokenIdTable = new TokenIdTable();
+      // warm up both paths
+      runMatches( terms, window, tokenIdTable, true );
+      runMatches( terms, window, tokenIdTable, false );
+      final long stringStart = System.nanoTime();
+      final int stringCount = runMatches( terms, window, tokenIdTable, true );
+      final long stringTime = System.nanoTime() - stringStart;
+      final long idStart = System.nanoTime();
+      final int idCount = runMatches( terms, window, tokenIdTable, false );
+      final long idTime = System.nanoTime() - idStart;
+      assertEquals( stringCount, idCount );
+      LOGGER.info( String.format( "String match %d ms , token id match %d ms",
+            stringTime / 1000000, idTime / 1000000 ) );
+   }
+
+   static private int runMatches( final List<RareWordTerm> terms, final List<FastLookupToken> window,
+                                  final TokenIdTable tokenIdTable, final boolean useStrings ) {
+      int count = 0;
+      for ( RareWordTerm term : terms ) {
+         for ( int start = 0; start + term.getTokenCount() <= window.size(); start++ ) {
+            final int end = start + term.getTokenCount() - 1;
+            final boolean match = useStrings ? isStringMatch( term, window, start, end )
+                                             : DefaultJCasTermAnnotator.isTermMatch( term, window, start, end,
+                                                   tokenIdTable );
+            if ( match ) {
+               count++;
+            }
+         }
+      }
+      return count;
+   }
+
+   /**
+    * The original String comparison, splitting term text for every call.
+    */
+   static private boolean isStringMatch( final RareWordTerm rareWordHit, final List<FastLookupToken> allTokens,
+                                         final int termStartIndex, final int termEndIndex ) {
+      final String[] hitTokens = rareWordHit.getTokens();
+      int hit = 0;
+      for ( int i = termStartIndex; i < termEndIndex + 1; i++ ) {
+         if ( hitTokens[ hit ].equals( allTokens.get( i ).getText() )
+              || hitTokens[ hit ].equals( allTokens.get( i ).getVariant() ) ) {
+            hit++;
+            continue;
+         }
+         return false;
+      }
+      return true;
+   }
+
+   static private List<RareWordTerm> createTerms( final Random random, final int count ) {
+      final List<RareWordTerm> terms = new ArrayList<>( count );
+      for ( int i = 0; i < count; i++ ) {
+         final int tokenCount = 2 + random.nextInt( 3 );
+         final StringBuilder sb = new StringBuilder();
+         for ( int j = 0; j < tokenCount; j++ ) {
+            if ( j > 0 ) {
+               sb.append( ' ' );
+            }
+            sb.append( WORDS[ random.nextInt( 6 ) ] );
+         }
+         terms.add( new RareWordTerm( sb.toString(), (long)i, WORDS[ 0 ], 0, tokenCount ) );
+      }
+      return terms;
+   }
+
+   static private List<FastLookupToken> createWindow( final Random random, final int count ) {
+      final List<FastLookupToken> window = new ArrayList<>( count );
+      int offset = 0;
+      for ( int i = 0; i < count; i++ ) {
+         final String word = WORDS[ random.nextInt( WORDS.length ) ];
+         window.add( new FastLookupToken( new DefaultTextSpan( offset, offset + word.length() ), word, null ) );
+         offset += word.length() + 1;
+      }
+      return window;
+   }
+
+}
@@ -0,0 +1,130 @@
+package org.apache.ctakes.dictionary.lookup2.ae;
+
+import org.apache.ctakes.core.util.collection.CollectionMap;
+import org.apache.ctakes.core.util.collection.LongSetMap;
+import org.apache.ctakes.dictionary.lookup2.dictionary.MemRareWordDictionary;
+import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordDictionary;
+import org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator;
+import org.apache.ctakes.dictionary.lookup2.textspan.DefaultTextSpan;
+import org.apache.ctakes.dictionary.lookup2.textspan.TextSpan;
+import org.apache.ctakes.dictionary.lookup2.util.FastLookupToken;
+import org.apache.log4j.Logger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that parallel window lookup gives exactly the same terms in the same order as single threaded lookup
+ * when terms are kept in insertion ordered {@link LongSetMap}s,
+ * and logs the lookup time for a long synthetic note with increasing numbers of threads.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class WindowLookupTaskTester {
+
+   static private final Logger LOGGER = Logger.getLogger( "WindowLookupTaskTester" );
+
+   static private final String[] WORDS = { "chest", "pain", "left", "arm", "heart", "attack", "acute",
+                                           "myocardial", "infarction", "blood", "pressure", "high", "renal",
+                                           "failure", "chronic", "kidney", "disease", "fever", "cough", "with" };
+
+   static private RareWordDictionary _dictionary;
+   static private List<List<FastLookupToken>> _windowsAllTokens;
+   static private List<List<Integer>> _windowsLookupIndices;
+
+   @BeforeClass
+   static public void createNote() {
+      final Random random = new Random( 17 );
+      final Collection<CuiTerm> cuiTerms = new ArrayList<>();
+      for ( int i = 0; i < 2000; i++ ) {
+         final int tokenCount = 1 + random.nextInt( 3 );
+         final StringBuilder sb = new StringBuilder();
+         for ( int j = 0; j < tokenCount; j++ ) {
+            if ( j > 0 ) {
+               sb.append( ' ' );
+            }
+            sb.append( WORDS[ random.nextInt( WORDS.length ) ] );
+         }
+         cuiTerms.add( new CuiTerm( String.format( "C%07d", i ), sb.toString() ) );
+      }
+      _dictionary = new MemRareWordDictionary( "synthetic",
+            RareWordTermMapCreator.createRareWordTermMap( cuiTerms ) );
+      // about 300 pages of 25 sentences
+      _windowsAllTokens = new ArrayList<>();
+      _windowsLookupIndices = new ArrayList<>();
+      int offset = 0;
+      for ( int w = 0; w < 7500; w++ ) {
+         final List<FastLookupToken> allTokens = new ArrayList<>();
+         final List<Integer> lookupIndices = new ArrayList<>();
+         final int tokenCount = 5 + random.nextInt( 25 );
+         for ( int t = 0; t < tokenCount; t++ ) {
+            final String word = WORDS[ random.nextInt( WORDS.length ) ];
+            allTokens.add( new FastLookupToken( new DefaultTextSpan( offset, offset + word.length() ), word, null ) );
+            lookupIndices.add( t );
+            offset += word.length() + 1;
+         }
+         _windowsAllTokens.add( allTokens );
+         _windowsLookupIndices.add( lookupIndices );
+      }
+   }
+
+   @Test
+   public void testDeterministicLookup() {
+      final JCasTermAnnotator annotator = new DefaultJCasTermAnnotator();
+      final CollectionMap<TextSpan, Long, ? extends Collection<Long>> sequential = findSequential( annotator );
+      assertFalse( "No terms to compare", sequential.isEmpty() );
+      for ( int threads : new int[] { 2, 3, 8 } ) {
+         final ForkJoinPool pool = new ForkJoinPool( threads );
+         for ( int run = 0; run < 3; run++ ) {
+            final CollectionMap<TextSpan, Long, ? extends Collection<Long>> parallel
+                  = WindowLookupTask.findTerms( pool, annotator, Collections.singletonList( _dictionary ),
+                  _windowsAllTokens, _windowsLookupIndices ).get( _dictionary );
+            assertEquals( new HashMap<>( sequential ), new HashMap<>( parallel ) );
+            assertEquals( "Term order differs with " + threads + " threads",
+                  new ArrayList<>( sequential.keySet() ), new ArrayList<>( parallel.keySet() ) );
+         }
+         pool.shutdown();
+      }
+   }
+
+   @Test
+   public void benchmarkScaling() {
+      final JCasTermAnnotator annotator = new DefaultJCasTermAnnotator();
+      // warm up
+      findSequential( annotator );
+      final long sequentialStart = System.nanoTime();
+      final int termCount = findSequential( annotator ).size();
+      LOGGER.info( String.format( "1 thread : %d ms", (System.nanoTime() - sequentialStart) / 1000000 ) );
+      final int processors = Runtime.getRuntime().availableProcessors();
+      for ( int threads = 2; threads <= Math.max( 2, processors ); threads *= 2 ) {
+         final ForkJoinPool pool = new ForkJoinPool( threads );
+         WindowLookupTask.findTerms( pool, annotator, Collections.singletonList( _dictionary ),
+               _windowsAllTokens, _windowsLookupIndices );
+         final long start = System.nanoTime();
+         final int parallelCount = WindowLookupTask.findTerms( pool, annotator,
+               Collections.singletonList( _dictionary ), _windowsAllTokens, _windowsLookupIndices )
+               .get( _dictionary ).size();
+         LOGGER.info( String.format( "%d threads : %d ms", threads, (System.nanoTime() - start) / 1000000 ) );
+         assertEquals( termCount, parallelCount );
+         pool.shutdown();
+      }
+   }
+
+   static private CollectionMap<TextSpan, Long, ? extends Collection<Long>> findSequential(
+         final JCasTermAnnotator annotator ) {
+      final CollectionMap<TextSpan, Long, ? extends Collection<Long>> terms = new LongSetMap<>();
+      for ( int i = 0; i < _windowsAllTokens.size(); i++ ) {
+         annotator.findTerms( _dictionary, _windowsAllTokens.get( i ), _windowsLookupIndices.get( i ), terms );
+      }
+      return terms;
+   }
+
+}
@@ -0,0 +1,169 @@
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.dictionary.lookup2.concept.Concept;
+import org.apache.ctakes.dictionary.lookup2.concept.JdbcConceptFactory;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionFactory;
+import org.apache.ctakes.dictionary.lookup2.util.JdbcConnectionPool;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that batched and cached jdbc lookups return the same hits and concepts as single lookups,
+ * that failed concept queries are not cached, and that pooled lookups are safe on several threads.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class JdbcLookupCacheTester {
+
+   static private final String DRIVER = "org.hsqldb.jdbcDriver";
+   static private final String URL = "jdbc:hsqldb:mem:lookupCacheTest";
+   static private final String USER = "sa";
+   static private final String PASS = "";
+
+   @BeforeClass
+   static public void createDatabase() throws SQLException {
+      final Connection connection = JdbcConnectionFactory.getInstance().getConnection( DRIVER, URL, USER, PASS );
+      try ( Statement statement = connection.createStatement() ) {
+         statement.execute( "CREATE TABLE CUI_TERMS ( CUI BIGINT, RINDEX INTEGER, TCOUNT INTEGER,"
+                            + " TEXT VARCHAR(255), RWORD VARCHAR(48) )" );
+         statement.execute( "INSERT INTO CUI_TERMS VALUES ( 27051, 1, 2, 'heart attack', 'attack' )" );
+         statement.execute( "INSERT INTO CUI_TERMS VALUES ( 27051, 0, 2, 'myocardial infarction', 'myocardial' )" );
+         statement.execute( "INSERT INTO CUI_TERMS VALUES ( 18787, 0, 1, 'heart', 'heart' )" );
+         statement.execute( "INSERT INTO CUI_TERMS VALUES ( 8031, 1, 2, 'chest pain', 'chest' )" );
+         statement.execute( "INSERT INTO CUI_TERMS VALUES ( 8031, 0, 3, 'pain in chest', 'chest' )" );
+         statement.execute( "INSERT INTO CUI_TERMS VALUES ( 4057, 0, 1, 'aspirin', 'aspirin' )" );
+         statement.execute( "CREATE TABLE TUI ( CUI BIGINT, TUI INTEGER )" );
+         statement.execute( "INSERT INTO TUI VALUES ( 27051, 47 )" );
+         statement.execute( "INSERT INTO TUI VALUES ( 18787, 23 )" );
+         statement.execute( "INSERT INTO TUI VALUES ( 4057, 109 )" );
+         statement.execute( "INSERT INTO TUI VALUES ( 4057, 121 )" );
+      }
+   }
+
+   @Test
+   public void testPrefetchMatchesSingleLookup() throws SQLException {
+      final JdbcRareWordDictionary single
+            = new JdbcRareWordDictionary( "single", getPool(), "CUI_TERMS", 100, 4 );
+      final JdbcRareWordDictionary batched
+            = new JdbcRareWordDictionary( "batched", getPool(), "CUI_TERMS", 100, 4 );
+      final List<String> words = Arrays.asList( "attack", "myocardial", "heart", "chest", "aspirin",
+            "the", "of", "pain", "zzz" );
+      batched.prefetchRareWordHits( words );
+      for ( String word : words ) {
+         assertEquals( "Hits differ for " + word,
+               getTexts( single.getRareWordHits( word ) ), getTexts( batched.getRareWordHits( word ) ) );
+      }
+      assertTrue( batched.getCacheStatistics(), batched.getCacheStatistics().contains( words.size() + " hits" ) );
+      assertEquals( 2, batched.getRareWordHits( "chest" ).size() );
+   }
+
+   @Test
+   public void testBatchedConcepts() throws SQLException {
+      final Map<String, String> tables = Collections.singletonMap( "TUITABLE", "TUI" );
+      final JdbcConceptFactory single = new JdbcConceptFactory( "single", getPool(), tables, 100, 3 );
+      final JdbcConceptFactory batched = new JdbcConceptFactory( "batched", getPool(), tables, 100, 3 );
+      final Collection<Long> cuis = Arrays.asList( 27051L, 18787L, 8031L, 4057L, 99L );
+      final Map<Long, Concept> concepts = batched.createConcepts( cuis );
+      for ( Long cui : cuis ) {
+         final Concept concept = single.createConcept( cui );
+         if ( concept.isEmpty() ) {
+            assertTrue( "Concept should not exist for " + cui, !concepts.containsKey( cui ) );
+         } else {
+            assertEquals( new HashSet<>( concept.getCodes( Concept.TUI ) ),
+                  new HashSet<>( concepts.get( cui ).getCodes( Concept.TUI ) ) );
+         }
+      }
+      assertEquals( 3, concepts.size() );
+      assertEquals( 2, concepts.get( 4057L ).getCodes( Concept.TUI ).size() );
+      // A second request should come entirely from the cache
+      batched.createConcepts( cuis );
+      assertTrue( batched.getCacheStatistics(), batched.getCacheStatistics().contains( cuis.size() + " hits" ) );
+   }
+
+   @Test
+   public void testFailedQueriesNotCached() throws SQLException {
+      // Reading a tui that is not a number fails
+      execute( "CREATE TABLE FLAKY_TUI ( CUI BIGINT, TUI VARCHAR(8) )",
+            "INSERT INTO FLAKY_TUI VALUES ( 27051, 'T047' )",
+            "INSERT INTO FLAKY_TUI VALUES ( 4057, 'T109' )" );
+      final JdbcConceptFactory factory = new JdbcConceptFactory( "flaky", getPool(),
+            Collections.singletonMap( "FLAKY_TUITABLE", "TUI" ), 100, 3 );
+      assertTrue( factory.createConcept( 27051L ).isEmpty() );
+      assertTrue( factory.createConcepts( Collections.singletonList( 4057L ) ).isEmpty() );
+      execute( "UPDATE FLAKY_TUI SET TUI = SUBSTRING( TUI, 2 )" );
+      assertEquals( Collections.singletonList( "T047" ),
+            new ArrayList<>( factory.createConcept( 27051L ).getCodes( "FLAKY_TUI" ) ) );
+      assertEquals( Collections.singletonList( "T109" ),
+            new ArrayList<>( factory.createConcepts( Collections.singletonList( 4057L ) ).get( 4057L )
+                                    .getCodes( "FLAKY_TUI" ) ) );
+   }
+
+   @Test
+   public void testConcurrentLookups() throws Exception {
+      final JdbcRareWordDictionary dictionary
+            = new JdbcRareWordDictionary( "concurrent", getPool(), "CUI_TERMS", 2, 2 );
+      final List<String> words = Arrays.asList( "attack", "myocardial", "heart", "chest", "aspirin", "zzz" );
+      final Map<String, Set<String>> expected = new HashMap<>();
+      for ( String word : words ) {
+         expected.put( word, getTexts( dictionary.getRareWordHits( word ) ) );
+      }
+      // The tiny cache forces most lookups to the database
+      final ExecutorService executor = Executors.newFixedThreadPool( 8 );
+      final List<Future<Boolean>> results = new ArrayList<>();
+      for ( int i = 0; i < 8; i++ ) {
+         final int offset = i;
+         results.add( executor.submit( () -> {
+            for ( int j = 0; j < 500; j++ ) {
+               final String word = words.get( (j + offset) % words.size() );
+               if ( !expected.get( word ).equals( getTexts( dictionary.getRareWordHits( word ) ) ) ) {
+                  return false;
+               }
+            }
+            return true;
+         } ) );
+      }
+      for ( Future<Boolean> result : results ) {
+         assertTrue( "Concurrent lookup returned different hits", result.get() );
+      }
+      executor.shutdown();
+      final JdbcConnectionPool pool = getPool();
+      assertTrue( pool.getStatistics(), pool.getSize() <= 4 );
+      assertEquals( pool.getStatistics(), pool.getSize(), pool.getIdleCount() );
+   }
+
+   static private void execute( final String... sqls ) throws SQLException {
+      final Connection connection = JdbcConnectionFactory.getInstance().getConnection( DRIVER, URL, USER, PASS );
+      try ( Statement statement = connection.createStatement() ) {
+         for ( String sql : sqls ) {
+            statement.execute( sql );
+         }
+      }
+   }
+
+   static private JdbcConnectionPool getPool() throws SQLException {
+      return JdbcConnectionFactory.getInstance().getConnectionPool( DRIVER, URL, USER, PASS, 4, 10000 );
+   }
+
+   static private Set<String> getTexts( final Collection<RareWordTerm> terms ) {
+      final Set<String> texts = new HashSet<>();
+      for ( RareWordTerm term : terms ) {
+         texts.add( term.getCuiCode() + " " + term.getText() + " " + term.getRareWordIndex() );
+      }
+      return texts;
+   }
+
+}
@@ -0,0 +1,118 @@
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.core.util.collection.CollectionMap;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.apache.ctakes.dictionary.lookup2.dictionary.RareWordTermMapCreator.CuiTerm;
+import static org.junit.Assert.*;
+
+/**
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class MappedRareWordDictionaryTester {
+
+   @Rule
+   public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+   static private final List<CuiTerm> CUI_TERMS = Arrays.asList(
+         new CuiTerm( "C0027051", "heart attack" ),
+         new CuiTerm( "C0027051", "myocardial infarction" ),
+         new CuiTerm( "C0018787", "heart" ),
+         new CuiTerm( "C0004057", "aspirin" ),
+         new CuiTerm( "C0008031", "chest pain" ),
+         new CuiTerm( "C0008031", "pain in chest" ),
+         new CuiTerm( "C0030193", "pain" ),
+         new CuiTerm( "C0015967", "fi\u00e8vre" ) );
+
+   @Test
+   public void testMatchesMemDictionary() throws IOException {
+      final CollectionMap<String, RareWordTerm, List<RareWordTerm>> rareWordTermMap
+            = RareWordTermMapCreator.createRareWordTermMap( CUI_TERMS );
+      final File file = _tempFolder.newFile( "test.dict" );
+      MappedRareWordDictionaryWriter.writeDictionary( rareWordTermMap, file );
+      final RareWordDictionary memDictionary = new MemRareWordDictionary( "mem", rareWordTermMap );
+      final MappedRareWordDictionary mappedDictionary = new MappedRareWordDictionary( "mapped", file );
+      final Collection<String> words = new HashSet<>( rareWordTermMap.keySet() );
+      words.addAll( Arrays.asList( "infarction", "in", "chest", "zzz", "", "fi\u00e8vre" ) );
+      for ( String word : words ) {
+         assertEquals( "Hits differ for " + word,
+               new HashSet<>( memDictionary.getRareWordHits( word ) ),
+               new HashSet<>( mappedDictionary.getRareWordHits( word ) ) );
+      }
+      for ( RareWordTerm term : mappedDictionary.getRareWordHits( "attack" ) ) {
+         assertEquals( 2, term.getTokenCount() );
+         assertEquals( "attack", term.getTokens()[ term.getRareWordIndex() ] );
+      }
+   }
+
+   @Test
+   public void testTokenTable() throws IOException {
+      final File file = _tempFolder.newFile( "tokens.dict" );
+      MappedRareWordDictionaryWriter.writeDictionary( CUI_TERMS, file );
+      final MappedRareWordDictionary dictionary = new MappedRareWordDictionary( "mapped", file );
+      final TokenIdTable tokenIdTable = dictionary.getTokenIdTable();
+      for ( String token : Arrays.asList( "heart", "attack", "in", "chest", "fi\u00e8vre" ) ) {
+         final int tokenId = dictionary.getTokenId( token );
+         assertTrue( "No id for " + token, tokenId >= 0 );
+         assertEquals( token, dictionary.getToken( tokenId ) );
+         assertEquals( tokenId, tokenIdTable.findId( token ) );
+      }
+      assertEquals( -1, dictionary.getTokenId( "aardvark" ) );
+      assertEquals( TokenIdTable.UNKNOWN_ID, tokenIdTable.findId( "aardvark" ) );
+      // Hits hold the stored ids, which are those of the token table
+      for ( RareWordTerm term : dictionary.getRareWordHits( "chest" ) ) {
+         final String[] tokens = term.getTokens();
+         final int[] tokenIds = term.getTokenIds( tokenIdTable );
+         for ( int i = 0; i < tokens.length; i++ ) {
+            assertEquals( dictionary.getTokenId( tokens[ i ] ), tokenIds[ i ] );
+         }
+      }
+   }
+
+   @Test( expected = IOException.class )
+   public void testStreamOrder() throws IOException {
+      final File file = _tempFolder.newFile( "order.dict" );
+      final MappedRareWordDictionaryWriter.TermStreamWriter writer
+            = new MappedRareWordDictionaryWriter.TermStreamWriter( Arrays.asList( "chest", "pain" ), file );
+      try {
+         final int chestId = writer.getTokenId( "chest" );
+         final int painId = writer.getTokenId( "pain" );
+         writer.addTerm( new int[] { painId }, 0, 30193 );
+         writer.addTerm( new int[] { chestId, painId }, 0, 8031 );
+      } catch ( IOException ioE ) {
+         writer.abort();
+         // Neither the dictionary nor the temporary section files should be left behind
+         assertFalse( file.exists() );
+         assertArrayEquals( new String[ 0 ], _tempFolder.getRoot().list() );
+         throw ioE;
+      }
+   }
+
+   @Test
+   public void testFailedWriteLeavesNoFile() throws IOException {
+      final File file = new File( _tempFolder.getRoot(), "failed.dict" );
+      final Map<String, List<RareWordTerm>> rareWordTermMap = new HashMap<>();
+      // A term whose rare word index is out of range can't be written
+      rareWordTermMap.put( "pain", Collections.singletonList(
+            new RareWordTerm( "chest pain", 8031L, "pain", 2, 2 ) ) );
+      try {
+         MappedRareWordDictionaryWriter.writeDictionary( rareWordTermMap, file );
+      } catch ( IOException | RuntimeException e ) {
+         assertFalse( file.exists() );
+         assertArrayEquals( new String[ 0 ], _tempFolder.getRoot().list() );
+         return;
+      }
+      fail( "Dictionary with a bad term should not be written" );
+   }
+
+}
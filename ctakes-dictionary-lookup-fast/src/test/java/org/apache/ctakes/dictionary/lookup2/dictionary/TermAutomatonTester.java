@@ -0,0 +1,173 @@
+package org.apache.ctakes.dictionary.lookup2.dictionary;
+
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.dictionary.lookup2.util.TokenIdTable;
+import org.apache.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the term automaton finds the same terms as a brute force comparison of every term at every position.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class TermAutomatonTester {
+
+   static private final Logger LOGGER = Logger.getLogger( "TermAutomatonTester" );
+
+   static private final String[] WORDS = { "chest", "pain", "left", "arm", "heart", "attack", "acute",
+                                           "myocardial", "infarction", "of", "the" };
+
+   @Rule
+   public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+   @Test
+   public void testExactMatches() {
+      final Random random = new Random( 3 );
+      final List<RareWordTerm> terms = createTerms( random, 400 );
+      final TermAutomaton automaton = TermAutomaton.compile( terms );
+      final String[][] window = createWindow( random, 3000 );
+      final Set<String> expected = findBruteMatches( terms, automaton.getTokenIdTable(), window );
+      assertFalse( "No matches to compare", expected.isEmpty() );
+      assertEquals( expected, findMatches( automaton, window ) );
+   }
+
+   @Test
+   public void testSerialization() throws IOException {
+      final Random random = new Random( 5 );
+      final List<RareWordTerm> terms = createTerms( random, 200 );
+      final TermAutomaton automaton = TermAutomaton.compile( terms );
+      final File file = _tempFolder.newFile( "terms.automaton" );
+      automaton.writeAutomaton( file );
+      final TermAutomaton readAutomaton = TermAutomaton.readAutomaton( file );
+      assertEquals( automaton.getStateCount(), readAutomaton.getStateCount() );
+      assertEquals( automaton.getTermCount(), readAutomaton.getTermCount() );
+      final String[][] window = createWindow( random, 1000 );
+      assertEquals( findMatches( automaton, window ), findMatches( readAutomaton, window ) );
+   }
+
+   @Test
+   public void testSkipMatches() {
+      final TermAutomaton automaton = TermAutomaton.compile( Arrays.asList(
+            new RareWordTerm( "blood cultures", 1L, "cultures", 1, 2 ),
+            new RareWordTerm( "urine cultures", 2L, "cultures", 1, 2 ) ) );
+      final String[] text = { "blood", ",", "urine", "cultures" };
+      final int[] textIds = getIds( automaton.getTokenIdTable(), text );
+      final boolean[] isComma = new boolean[ text.length ];
+      for ( int i = 0; i < text.length; i++ ) {
+         isComma[ i ] = text[ i ].equals( "," );
+      }
+      final Set<String> matches = new HashSet<>();
+      automaton.findSkipMatches( textIds, textIds, isComma, text.length, 2, 4,
+            ( termIndex, tokenIndices, tokenCount ) -> matches.add( automaton.getCuiCode( termIndex ) + ":"
+                                                                   + Arrays.toString( Arrays.copyOf( tokenIndices, tokenCount ) ) ) );
+      assertEquals( new HashSet<>( Arrays.asList( "1:[0, 3]", "2:[2, 3]" ) ), matches );
+      matches.clear();
+      automaton.findMatches( textIds, textIds, text.length,
+            ( termIndex, tokenIndices, tokenCount ) -> matches.add( automaton.getCuiCode( termIndex ) + ":"
+                                                                   + Arrays.toString( Arrays.copyOf( tokenIndices, tokenCount ) ) ) );
+      assertEquals( Collections.singleton( "2:[2, 3]" ), matches );
+   }
+
+   @Test
+   public void benchmarkMatch() {
+      final Random random = new Random( 11 );
+      final List<RareWordTerm> terms = createTerms( random, 2000 );
+      final TermAutomaton automaton = TermAutomaton.compile( terms );
+      final String[][] window = createWindow( random, 5000 );
+      // warm up both paths
+      findBruteMatches( terms, automaton.getTokenIdTable(), window );
+      findMatches( automaton, window );
+      final long bruteStart = System.nanoTime();
+      final int bruteCount = findBruteMatches( terms, automaton.getTokenIdTable(), window ).size();
+      final long bruteTime = System.nanoTime() - bruteStart;
+      final long automatonStart = System.nanoTime();
+      final int automatonCount = findMatches( automaton, window ).size();
+      final long automatonTime = System.nanoTime() - automatonStart;
+      assertEquals( bruteCount, automatonCount );
+      LOGGER.info( String.format( "Term by term match %d ms , automaton match %d ms",
+            bruteTime / 1000000, automatonTime / 1000000 ) );
+   }
+
+   /**
+    * @param window text and variant of each window token
+    */
+   static private Set<String> findMatches( final TermAutomaton automaton, final String[][] window ) {
+      final int[] textIds = getIds( automaton.getTokenIdTable(), window[ 0 ] );
+      final int[] variantIds = getIds( automaton.getTokenIdTable(), window[ 1 ] );
+      final Set<String> matches = new HashSet<>();
+      automaton.findMatches( textIds, variantIds, textIds.length,
+            ( termIndex, tokenIndices, tokenCount ) -> assertTrue( "Duplicate match",
+                  matches.add( automaton.getCuiCode( termIndex ) + ":" + tokenIndices[ 0 ] + ":" + tokenCount ) ) );
+      return matches;
+   }
+
+   static private Set<String> findBruteMatches( final List<RareWordTerm> terms, final TokenIdTable tokenIdTable,
+                                                final String[][] window ) {
+      final int[] textIds = getIds( tokenIdTable, window[ 0 ] );
+      final int[] variantIds = getIds( tokenIdTable, window[ 1 ] );
+      final Set<String> matches = new HashSet<>();
+      for ( RareWordTerm term : terms ) {
+         final int[] termIds = term.getTokenIds( tokenIdTable );
+         for ( int start = 0; start + termIds.length <= textIds.length; start++ ) {
+            boolean isMatch = true;
+            for ( int i = 0; i < termIds.length && isMatch; i++ ) {
+               isMatch = termIds[ i ] == textIds[ start + i ] || termIds[ i ] == variantIds[ start + i ];
+            }
+            if ( isMatch ) {
+               matches.add( term.getCuiCode() + ":" + start + ":" + termIds.length );
+            }
+         }
+      }
+      return matches;
+   }
+
+   static private List<RareWordTerm> createTerms( final Random random, final int count ) {
+      final List<RareWordTerm> terms = new ArrayList<>( count );
+      for ( int i = 0; i < count; i++ ) {
+         final int tokenCount = 1 + random.nextInt( 4 );
+         final String[] tokens = new String[ tokenCount ];
+         for ( int j = 0; j < tokenCount; j++ ) {
+            tokens[ j ] = WORDS[ random.nextInt( 7 ) ];
+         }
+         final int rareWordIndex = random.nextInt( tokenCount );
+         terms.add( new RareWordTerm( String.join( " ", tokens ), (long)i, tokens[ rareWordIndex ],
+               rareWordIndex, tokenCount ) );
+      }
+      return terms;
+   }
+
+   /**
+    * @return texts and variants for a window, with some tokens having a variant
+    */
+   static private String[][] createWindow( final Random random, final int count ) {
+      final String[] texts = new String[ count ];
+      final String[] variants = new String[ count ];
+      for ( int i = 0; i < count; i++ ) {
+         texts[ i ] = WORDS[ random.nextInt( WORDS.length ) ];
+         variants[ i ] = random.nextInt( 4 ) == 0 ? WORDS[ random.nextInt( 7 ) ] : texts[ i ];
+      }
+      return new String[][] { texts, variants };
+   }
+
+   /**
+    * @return the id of each text in the table, as document tokens find them
+    */
+   static private int[] getIds( final TokenIdTable tokenIdTable, final String[] texts ) {
+      final int[] ids = new int[ texts.length ];
+      for ( int i = 0; i < texts.length; i++ ) {
+         ids[ i ] = tokenIdTable.findId( texts[ i ] );
+      }
+      return ids;
+   }
+
+}
@@ -20,9 +20,11 @@ package org.apache.ctakes.drugner.ae;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -185,6 +187,8 @@ public class DrugMentionAnnotator extends JCasAnnotator_ImplBase
 	private static boolean handledRanges;
 	private Set<String> iv_exclusionTagSet = null;
 	private Set<String> iv_medicationRelatedSections = new HashSet<String>();
+	// FSM tokens of the document, adapted once and shared by every window and machine
+	private Map<BaseToken, org.apache.ctakes.core.fsm.token.BaseToken> iv_fsmTokenMap = new HashMap<BaseToken, org.apache.ctakes.core.fsm.token.BaseToken>();
 
 
 	public void initialize(UimaContext annotCtx)
@@ -247,7 +251,7 @@ public class DrugMentionAnnotator extends JCasAnnotator_ImplBase
 			while (baseTokenItr.hasNext())
 			{
 				BaseToken bta = (BaseToken) baseTokenItr.next();
-				baseTokenList.add(adaptToFSMBaseToken(bta));
+				baseTokenList.add(getFSMBaseToken(bta));
 			}
 
 			prepareSubSection(jcas, indexes, 
@@ -272,6 +276,10 @@ public class DrugMentionAnnotator extends JCasAnnotator_ImplBase
 		{
 			throw new AnalysisEngineProcessException(e);
 		}
+		finally
+		{
+			iv_fsmTokenMap.clear();
+		}
 	}
 
 	private int [] intermediateTypesToRemove = { 
@@ -1181,8 +1189,7 @@ public class DrugMentionAnnotator extends JCasAnnotator_ImplBase
 		List list = getAnnotationsInSpan(jcas, type, begin, end);
 		for (int i = 0; i < list.size(); i++)
 		{
-			list.add(i, adaptToFSMBaseToken((BaseToken) list.get(i)));
-			list.remove(i + 1);
+			list.set(i, getFSMBaseToken((BaseToken) list.get(i)));
 		}
 		return list;
 			}
@@ -2501,6 +2508,23 @@ public class DrugMentionAnnotator extends JCasAnnotator_ImplBase
 		return updatedSpan;
 			}
 
+	/**
+	 * Windows overlap and each is run through every machine, so a token is
+	 * adapted once per document and the adapter keeps its text for all of the
+	 * conditions that check it.
+	 */
+	private org.apache.ctakes.core.fsm.token.BaseToken getFSMBaseToken(BaseToken obj)
+	throws Exception
+	{
+		org.apache.ctakes.core.fsm.token.BaseToken fsmToken = iv_fsmTokenMap.get(obj);
+		if (fsmToken == null)
+		{
+			fsmToken = adaptToFSMBaseToken(obj);
+			iv_fsmTokenMap.put(obj, fsmToken);
+		}
+		return fsmToken;
+	}
+
 	private org.apache.ctakes.core.fsm.token.BaseToken adaptToFSMBaseToken(BaseToken obj)
 	throws Exception
 	{
@@ -2762,7 +2786,7 @@ private int[] getNarrativeSpansContainingGivenSpanType(JCas jcas, int begin, int
 		while (btaItr.hasNext()) {
 			BaseToken bta = (BaseToken) btaItr.next();
 
-			baseTokenList.add(adaptToFSMBaseToken(bta));
+			baseTokenList.add(getFSMBaseToken(bta));
 		}
 
 		// execute FSM logic
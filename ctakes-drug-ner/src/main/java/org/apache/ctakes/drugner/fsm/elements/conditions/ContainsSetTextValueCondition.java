@@ -54,35 +54,18 @@ public class ContainsSetTextValueCondition extends Condition {
 			TextToken t = (TextToken) conditional;
 			String text = t.getText();
 			String subText = "";
-			boolean containsNums = false;
-			boolean doneHere = false;
 			int textSize = text.length();
-			int pos = 0;
-			Integer posInt = null;
-			while (!doneHere && (textSize > pos) && (textSize > 1)) {
-				try {
-					String numString = text.substring(pos, pos + 1);
-
-					Integer posNum = posInt.decode(numString);
-					int checkInt = posNum.intValue();
-
-					if ((checkInt >= 0) && (checkInt <= 9)) {
-						containsNums = true;
-						subText = text.substring(pos + 1, textSize);
-						pos++;
-					} else
-						return false;
+			if (textSize > 1) {
+				// the text must start with digits, and the rest is the unit.
+				// Scan the digits rather than decode each character, which
+				// threw an exception for every token that is not a number.
+				int pos = 0;
+				while (pos < textSize && Character.digit(text.charAt(pos), 10) >= 0) {
+					pos++;
 				}
-
-				catch (NullPointerException npe) {
+				if (pos == 0)
 					return false;
-				} catch (NumberFormatException nfe) {
-					if (!containsNums)
-						return false;
-					else
-						doneHere = true;
-
-				}
+				subText = text.substring(pos);
 			}
 			if ((subText.length() > 1)
 					&& (subText.substring(0, 1).compareTo("-") == 0))
@@ -0,0 +1,420 @@
+package org.apache.ctakes.drugner.fsm.machines;
+
+import org.apache.ctakes.core.ae.TokenizerAnnotator;
+import org.apache.ctakes.core.fsm.adapters.DecimalTokenAdapter;
+import org.apache.ctakes.core.fsm.adapters.IntegerTokenAdapter;
+import org.apache.ctakes.core.fsm.adapters.PunctuationTokenAdapter;
+import org.apache.ctakes.core.fsm.adapters.WordTokenAdapter;
+import org.apache.ctakes.core.fsm.token.BaseToken;
+import org.apache.ctakes.core.fsm.token.TextToken;
+import org.apache.ctakes.drugner.fsm.elements.conditions.ContainsSetTextValueCondition;
+import org.apache.ctakes.drugner.fsm.machines.elements.*;
+import org.apache.ctakes.drugner.fsm.machines.util.SubSectionIndicatorFSM;
+import org.apache.ctakes.drugner.fsm.machines.util.SuffixStrengthFSM;
+import org.apache.ctakes.typesystem.type.syntax.NumToken;
+import org.apache.ctakes.typesystem.type.syntax.PunctuationToken;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.log4j.Logger;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the drug FSMs find the same elements in medication text with fsm tokens that are adapted once
+ * per document and keep their text as with tokens that are adapted per window and cut their text for every check,
+ * which is how the {@link org.apache.ctakes.drugner.ae.DrugMentionAnnotator} ran them before.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class DrugFsmTokenTester {
+
+   static private final Logger LOGGER = Logger.getLogger( "DrugFsmTokenTester" );
+
+   static private final String[] LINES = {
+         "Metoprolol 25mg PO BID for 30 days.",
+         "Lisinopril 10 mg tablet by mouth once daily.",
+         "Aspirin 81mg 1 tab q.d. with food.",
+         "Prednisone 5-mg taper over 2 weeks, then stop.",
+         "Insulin 10 units subcutaneously every 6 hours as needed.",
+         "Amoxicillin 500 mg capsule three times a day for 10 days.",
+         "Increase furosemide to 40MG twice daily.",
+         "Warfarin 2.5 mg orally at bedtime, hold if INR > 3.",
+         "Albuterol 2 puffs inhaled q4h prn wheezing.",
+         "Tylenol 1/2 tablet every 4-6 hours as needed for pain.",
+         "Discontinue simvastatin 20 mg and start atorvastatin 40 mg nightly.",
+         "Vancomycin 1 gram IV q12h for 14 days.",
+         "Medications: 1. Lasix 20mg po qam 2. KCl 10 mEq PO BID" };
+
+   static private final Pattern TOKEN_PATTERN
+         = Pattern.compile( "\\d+\\.\\d+|\\d+-[A-Za-z]+|\\d+[A-Za-z]+|[A-Za-z]+\\d*|\\d+|\\S" );
+
+   static private final Set<String> UNITS = new HashSet<>( Arrays.asList( "mg", "mcg", "ml", "tab", "units", "MG" ) );
+
+   static private String _text;
+   static private JCas _jcas;
+   static private List<Annotation> _tokens;
+   static private List<int[]> _windows;
+
+   @BeforeClass
+   static public void setUp() throws Exception {
+      _text = String.join( "\n", LINES );
+      _jcas = JCasFactory.createJCas();
+      _jcas.setDocumentText( _text );
+      _tokens = createTokens( _jcas, _text );
+      // every line, and overlapping windows of three lines as the annotator has for lists
+      _windows = new ArrayList<>();
+      int lineBegin = 0;
+      final List<Integer> lineBegins = new ArrayList<>();
+      for ( String line : LINES ) {
+         _windows.add( new int[] { lineBegin, lineBegin + line.length() } );
+         lineBegins.add( lineBegin );
+         lineBegin += line.length() + 1;
+      }
+      for ( int i = 0; i + 3 <= LINES.length; i++ ) {
+         _windows.add( new int[] { lineBegins.get( i ), lineBegins.get( i + 2 ) + LINES[ i + 2 ].length() } );
+      }
+      _windows.add( new int[] { 0, _text.length() } );
+   }
+
+   /**
+    * Tokens that are adapted once and shared by all windows give the same elements in every window.
+    */
+   @Test
+   public void testSameElements() throws Exception {
+      final DrugFsms fsms = new DrugFsms();
+      final Map<Annotation, BaseToken> cache = new HashMap<>();
+      int elementCount = 0;
+      for ( int[] window : _windows ) {
+         final List<String> legacy = fsms.execute( getLegacyTokens( window ) );
+         final List<String> cached = fsms.execute( getCachedTokens( window, cache ) );
+         assertEquals( _text.substring( window[ 0 ], window[ 1 ] ), legacy, cached );
+         elementCount += legacy.size();
+      }
+      // run every window again now that the shared tokens have kept their text
+      for ( int[] window : _windows ) {
+         assertEquals( fsms.execute( getLegacyTokens( window ) ), fsms.execute( getCachedTokens( window, cache ) ) );
+      }
+      // Make sure that the fixture exercises the machines and not only empty results
+      final List<String> all = fsms.execute( getLegacyTokens( new int[] { 0, _text.length() } ) );
+      for ( String element : new String[] { "StrengthUnit", "Route", "FrequencyUnit" } ) {
+         assertTrue( "No " + element + " in " + all, all.stream().anyMatch( e -> e.startsWith( element ) ) );
+      }
+      assertTrue( elementCount > 0 );
+   }
+
+   /**
+    * The digit scan of the unit condition gives the same result as decoding each character did.
+    */
+   @Test
+   public void testContainsSetTextValue() {
+      final ContainsSetTextValueCondition caseSensitive = new ContainsSetTextValueCondition( UNITS, true );
+      final ContainsSetTextValueCondition caseInsensitive = new ContainsSetTextValueCondition( UNITS, false );
+      final List<String> texts = new ArrayList<>( Arrays.asList( "10mg", "5-mg", "250mcg", "40MG", "40Mg", "5ml",
+            "2tab", "10units", "10-units", "mg", "m", "1", "10", "-", "-mg", "1-", "1--mg", "12mg5", "1.5mg", "#1mg",
+            "+1mg", "0x1mg", "1 mg", "", "bid", "q4h", "x10mg", "\u0661\u0662mg" ) );
+      for ( String line : LINES ) {
+         Collections.addAll( texts, line.split( " " ) );
+      }
+      final Random random = new Random( 18 );
+      final String characters = "0123456789-mgcMGltabuns#+x. ";
+      for ( int i = 0; i < 20000; i++ ) {
+         final StringBuilder sb = new StringBuilder();
+         final int length = random.nextInt( 7 );
+         for ( int j = 0; j < length; j++ ) {
+            sb.append( characters.charAt( random.nextInt( characters.length() ) ) );
+         }
+         texts.add( sb.toString() );
+      }
+      int satisfiedCount = 0;
+      for ( String text : texts ) {
+         final TextToken token = new SimpleTextToken( text );
+         final boolean expected = isLegacyContainsSetTextValue( text, UNITS, true );
+         assertEquals( text, expected, caseSensitive.satisfiedBy( token ) );
+         assertEquals( text, isLegacyContainsSetTextValue( text, UNITS, false ),
+               caseInsensitive.satisfiedBy( token ) );
+         if ( expected ) {
+            satisfiedCount++;
+         }
+      }
+      assertTrue( satisfiedCount > 0 );
+   }
+
+   @Test
+   public void benchmarkFsms() throws Exception {
+      final DrugFsms fsms = new DrugFsms();
+      // warm up both paths
+      runLegacy( fsms, 5 );
+      runCached( fsms, 5 );
+      final long legacyStart = System.nanoTime();
+      final int legacyCount = runLegacy( fsms, 50 );
+      final long legacyTime = System.nanoTime() - legacyStart;
+      final long cachedStart = System.nanoTime();
+      final int cachedCount = runCached( fsms, 50 );
+      final long cachedTime = System.nanoTime() - cachedStart;
+      assertEquals( legacyCount, cachedCount );
+      LOGGER.info( String.format( "Per window tokens %d ms , per document tokens %d ms",
+            legacyTime / 1000000, cachedTime / 1000000 ) );
+   }
+
+   static private int runLegacy( final DrugFsms fsms, final int documentCount ) throws Exception {
+      int count = 0;
+      for ( int i = 0; i < documentCount; i++ ) {
+         for ( int[] window : _windows ) {
+            count += fsms.execute( getLegacyTokens( window ) ).size();
+         }
+      }
+      return count;
+   }
+
+   static private int runCached( final DrugFsms fsms, final int documentCount ) throws Exception {
+      int count = 0;
+      for ( int i = 0; i < documentCount; i++ ) {
+         final Map<Annotation, BaseToken> cache = new HashMap<>();
+         for ( int[] window : _windows ) {
+            count += fsms.execute( getCachedTokens( window, cache ) ).size();
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return tokens of the text with the attributes that the ctakes tokenizer sets
+    */
+   static private List<Annotation> createTokens( final JCas jcas, final String text ) {
+      final List<Annotation> tokens = new ArrayList<>();
+      final Matcher matcher = TOKEN_PATTERN.matcher( text );
+      while ( matcher.find() ) {
+         final String tokenText = matcher.group();
+         final Annotation token;
+         if ( tokenText.matches( "\\d+" ) ) {
+            final NumToken numToken = new NumToken( jcas, matcher.start(), matcher.end() );
+            numToken.setNumType( TokenizerAnnotator.TOKEN_NUM_TYPE_INTEGER );
+            token = numToken;
+         } else if ( tokenText.matches( "\\d+\\.\\d+" ) ) {
+            final NumToken numToken = new NumToken( jcas, matcher.start(), matcher.end() );
+            numToken.setNumType( TokenizerAnnotator.TOKEN_NUM_TYPE_DECIMAL );
+            token = numToken;
+         } else if ( !Character.isLetterOrDigit( tokenText.charAt( 0 ) ) ) {
+            token = new PunctuationToken( jcas, matcher.start(), matcher.end() );
+         } else {
+            final WordToken wordToken = new WordToken( jcas, matcher.start(), matcher.end() );
+            wordToken.setCapitalization( getCapitalization( tokenText ) );
+            wordToken.setNumPosition( getNumPosition( tokenText ) );
+            token = wordToken;
+         }
+         token.addToIndexes();
+         tokens.add( token );
+      }
+      return tokens;
+   }
+
+   static private int getCapitalization( final String text ) {
+      final String letters = text.replaceAll( "[^A-Za-z]", "" );
+      if ( letters.isEmpty() || letters.equals( letters.toLowerCase() ) ) {
+         return TokenizerAnnotator.TOKEN_CAP_NONE;
+      } else if ( letters.equals( letters.toUpperCase() ) ) {
+         return TokenizerAnnotator.TOKEN_CAP_ALL;
+      } else if ( Character.isUpperCase( letters.charAt( 0 ) )
+                  && letters.substring( 1 ).equals( letters.substring( 1 ).toLowerCase() ) ) {
+         return TokenizerAnnotator.TOKEN_CAP_FIRST_ONLY;
+      }
+      return TokenizerAnnotator.TOKEN_CAP_MIXED;
+   }
+
+   static private int getNumPosition( final String text ) {
+      if ( Character.isDigit( text.charAt( 0 ) ) ) {
+         return TokenizerAnnotator.TOKEN_NUM_POS_FIRST;
+      } else if ( Character.isDigit( text.charAt( text.length() - 1 ) ) ) {
+         return TokenizerAnnotator.TOKEN_NUM_POS_LAST;
+      } else if ( text.matches( ".*\\d.*" ) ) {
+         return TokenizerAnnotator.TOKEN_NUM_POS_MIDDLE;
+      }
+      return TokenizerAnnotator.TOKEN_NUM_POS_NONE;
+   }
+
+   /**
+    * @return new tokens that cut their text from the document for every check
+    */
+   static private List<BaseToken> getLegacyTokens( final int[] window ) {
+      final List<BaseToken> fsmTokens = new ArrayList<>();
+      for ( Annotation token : _tokens ) {
+         if ( token.getBegin() >= window[ 0 ] && token.getEnd() <= window[ 1 ] ) {
+            fsmTokens.add( token instanceof WordToken ? new UncachedWordTokenAdapter( (WordToken)token )
+                                                      : adapt( token ) );
+         }
+      }
+      return fsmTokens;
+   }
+
+   /**
+    * @return tokens that are adapted once and shared with other windows
+    */
+   static private List<BaseToken> getCachedTokens( final int[] window, final Map<Annotation, BaseToken> cache ) {
+      final List<BaseToken> fsmTokens = new ArrayList<>();
+      for ( Annotation token : _tokens ) {
+         if ( token.getBegin() >= window[ 0 ] && token.getEnd() <= window[ 1 ] ) {
+            fsmTokens.add( cache.computeIfAbsent( token, DrugFsmTokenTester::adapt ) );
+         }
+      }
+      return fsmTokens;
+   }
+
+   static private BaseToken adapt( final Annotation token ) {
+      if ( token instanceof WordToken ) {
+         return new WordTokenAdapter( (WordToken)token );
+      } else if ( token instanceof NumToken ) {
+         return ((NumToken)token).getNumType() == TokenizerAnnotator.TOKEN_NUM_TYPE_INTEGER
+                ? new IntegerTokenAdapter( (NumToken)token )
+                : new DecimalTokenAdapter( (NumToken)token );
+      }
+      return new PunctuationTokenAdapter( (PunctuationToken)token );
+   }
+
+   /**
+    * The unit check of {@link ContainsSetTextValueCondition} as it was, decoding the text one character at a time.
+    */
+   static private boolean isLegacyContainsSetTextValue( final String text, final Set<String> textSet,
+                                                        final boolean isCaseSensitive ) {
+      String subText = "";
+      boolean containsNums = false;
+      boolean doneHere = false;
+      final int textSize = text.length();
+      int pos = 0;
+      while ( !doneHere && textSize > pos && textSize > 1 ) {
+         try {
+            final int checkInt = Integer.decode( text.substring( pos, pos + 1 ) );
+            if ( checkInt >= 0 && checkInt <= 9 ) {
+               containsNums = true;
+               subText = text.substring( pos + 1, textSize );
+               pos++;
+            } else {
+               return false;
+            }
+         } catch ( NumberFormatException nfE ) {
+            if ( !containsNums ) {
+               return false;
+            }
+            doneHere = true;
+         }
+      }
+      if ( subText.length() > 1 && subText.substring( 0, 1 ).compareTo( "-" ) == 0 ) {
+         subText = subText.substring( 1 );
+      }
+      if ( !isCaseSensitive ) {
+         subText = subText.toLowerCase();
+      }
+      return textSet.contains( subText );
+   }
+
+
+   /**
+    * The machines in the order that the drug mention annotator runs them, each fed the sets that it is fed there.
+    */
+   static private final class DrugFsms {
+      private final FractionStrengthFSM _fractionFSM = new FractionStrengthFSM();
+      private final DecimalStrengthFSM _decimalFSM = new DecimalStrengthFSM();
+      private final DrugChangeStatusFSM _statusFSM = new DrugChangeStatusFSM();
+      private final RangeStrengthFSM _rangeFSM = new RangeStrengthFSM();
+      private final StrengthUnitFSM _strengthUnitFSM = new StrengthUnitFSM();
+      private final FormFSM _formFSM = new FormFSM();
+      private final StrengthFSM _strengthFSM = new StrengthFSM();
+      private final DosagesFSM _dosagesFSM = new DosagesFSM();
+      private final SuffixStrengthFSM _suffixFSM = new SuffixStrengthFSM();
+      private final RouteFSM _routeFSM = new RouteFSM();
+      private final FrequencyUnitFSM _frequencyUnitFSM = new FrequencyUnitFSM();
+      private final FrequencyFSM _frequencyFSM = new FrequencyFSM();
+      private final DurationFSM _durationFSM = new DurationFSM();
+      private final SubSectionIndicatorFSM _subSectionFSM = new SubSectionIndicatorFSM();
+
+      /**
+       * @return sorted names and spans of all elements found by the machines
+       */
+      private List<String> execute( final List<BaseToken> tokens ) throws Exception {
+         final List<String> elements = new ArrayList<>();
+         final Set fractionSet = add( "Fraction", _fractionFSM.execute( tokens ), elements );
+         add( "Decimal", _decimalFSM.execute( tokens ), elements );
+         add( "Status", _statusFSM.execute( tokens ), elements );
+         final Set rangeSet = add( "Range", _rangeFSM.execute( tokens ), elements );
+         final Set strengthUnitSet = add( "StrengthUnit", _strengthUnitFSM.execute( tokens, rangeSet ), elements );
+         final Set formSet = add( "Form", _formFSM.execute( tokens, new HashSet() ), elements );
+         add( "Strength", _strengthFSM.execute( tokens, strengthUnitSet, fractionSet ), elements );
+         add( "Dosage", _dosagesFSM.execute( tokens, formSet, strengthUnitSet ), elements );
+         add( "Suffix", _suffixFSM.execute( tokens, strengthUnitSet ), elements );
+         add( "Route", _routeFSM.execute( tokens ), elements );
+         final Set frequencyUnitSet = add( "FrequencyUnit", _frequencyUnitFSM.execute( tokens ), elements );
+         add( "Frequency", _frequencyFSM.execute( tokens, frequencyUnitSet, rangeSet ), elements );
+         add( "Duration", _durationFSM.execute( tokens, rangeSet ), elements );
+         add( "SubSection", _subSectionFSM.execute( tokens ), elements );
+         Collections.sort( elements );
+         return elements;
+      }
+
+      static private Set add( final String name, final Set found, final List<String> elements ) {
+         for ( Object element : found ) {
+            final BaseToken token = (BaseToken)element;
+            elements.add( name + " " + element.getClass().getSimpleName()
+                          + "[" + token.getStartOffset() + "," + token.getEndOffset() + "]" );
+         }
+         return found;
+      }
+   }
+
+
+   /**
+    * A word token adapter as it was, cutting its text from the document and lowercasing it for every check.
+    */
+   static private final class UncachedWordTokenAdapter extends WordTokenAdapter {
+      private final WordToken _wordToken;
+
+      private UncachedWordTokenAdapter( final WordToken wordToken ) {
+         super( wordToken );
+         _wordToken = wordToken;
+      }
+
+      @Override
+      public String getText() {
+         return _wordToken.getCoveredText();
+      }
+
+      @Override
+      public String getLowerCaseText() {
+         return getText().toLowerCase();
+      }
+   }
+
+
+   static private final class SimpleTextToken implements TextToken {
+      private final String _text;
+
+      private SimpleTextToken( final String text ) {
+         _text = text;
+      }
+
+      @Override
+      public String getText() {
+         return _text;
+      }
+
+      @Override
+      public int getStartOffset() {
+         return 0;
+      }
+
+      @Override
+      public int getEndOffset() {
+         return _text.length();
+      }
+   }
+
+}
@@ -1,11 +1,11 @@
 package org.apache.ctakes.fhir.cc;
 
-import ca.uhn.fhir.context.FhirContext;
-import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.parser.DataFormatException;
 import org.apache.ctakes.core.cc.AbstractJCasFileWriter;
 import org.apache.ctakes.core.config.ConfigParameterConstants;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.fhir.resource.PractitionerCtakes;
+import org.apache.ctakes.fhir.util.FhirParserUtil;
 import org.apache.log4j.Logger;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
@@ -14,7 +14,11 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.hl7.fhir.dstu3.model.Bundle;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 
 /**
@@ -49,14 +53,12 @@ public class FhirJsonFileWriter extends AbstractJCasFileWriter {
                           final String documentId, final String fileName ) throws IOException {
       final Bundle bundle = FhirDocComposer.composeDocFhir( jCas, PractitionerCtakes.getInstance(), _writeNlpFhir );
 
-      final FhirContext fhirContext = FhirContext.forDstu3();
-      final IParser jsonParser = fhirContext.newJsonParser();
-      jsonParser.setPrettyPrint( true );
-      final String json = jsonParser.encodeResourceToString( bundle );
-
       final File file = new File( outputDir, fileName + ".json" );
-      try ( Writer writer = new BufferedWriter( new FileWriter( file ) ) ) {
-         writer.write( json );
+      // Stream the json to the file instead of building the whole document as a string
+      try ( Writer writer = Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 ) ) {
+         FhirParserUtil.getJsonParser().encodeResourceToWriter( bundle, writer );
+      } catch ( DataFormatException dfE ) {
+         throw new IOException( dfE );
       }
    }
 
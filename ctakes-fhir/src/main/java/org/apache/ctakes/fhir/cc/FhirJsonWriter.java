@@ -1,9 +1,9 @@
 package org.apache.ctakes.fhir.cc;
 
-import ca.uhn.fhir.context.FhirContext;
-import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.parser.DataFormatException;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.fhir.resource.PractitionerCtakes;
+import org.apache.ctakes.fhir.util.FhirParserUtil;
 import org.apache.log4j.Logger;
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -12,6 +12,11 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.hl7.fhir.dstu3.model.Bundle;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
 /**
  * Prototype writer for fhir json.
  *
@@ -49,13 +54,17 @@ final public class FhirJsonWriter extends JCasAnnotator_ImplBase {
 
       final Bundle bundle = FhirDocComposer.composeDocFhir( jCas, PractitionerCtakes.getInstance(), false );
 
-      final FhirContext fhirContext = FhirContext.forDstu3();
-      final IParser jsonParser = fhirContext.newJsonParser();
-      jsonParser.setPrettyPrint( true );
-      final String json = jsonParser.encodeResourceToString( bundle );
-      System.out.println( json );
-      System.out.println();
-      System.out.println();
+      // Not closed, as that would close standard output
+      final Writer writer = new BufferedWriter( new OutputStreamWriter( System.out ) );
+      try {
+         FhirParserUtil.getJsonParser().encodeResourceToWriter( bundle, writer );
+         writer.write( System.lineSeparator() );
+         writer.write( System.lineSeparator() );
+         writer.write( System.lineSeparator() );
+         writer.flush();
+      } catch ( IOException | DataFormatException multE ) {
+         throw new AnalysisEngineProcessException( multE );
+      }
 
       LOGGER.info( "Finished." );
    }
@@ -0,0 +1,250 @@
+package org.apache.ctakes.fhir.cc;
+
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.IParser;
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.core.pipeline.PipeBitInfo;
+import org.apache.ctakes.fhir.resource.PractitionerCtakes;
+import org.apache.ctakes.fhir.util.FhirParserUtil;
+import org.apache.log4j.Logger;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.hl7.fhir.dstu3.model.Bundle;
+import org.hl7.fhir.dstu3.model.Resource;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Writes fhir resources in the newline delimited json format used for fhir bulk data.
+ * The resources of every document are appended to files of a single resource type, e.g. Basic.000001.ndjson,
+ * with one resource per line.  A new file is started when a file holds the maximum number of resources.
+ * Files for an output directory are shared by all writers and threads, and are closed when the collection is complete.
+ * The ctakes practitioner is common to all documents and is only written once in each set of files.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+@PipeBitInfo(
+      name = "FHIR NDJSON Bulk Writer",
+      description = "Appends the FHIR resources of all documents to rolling ndjson files, one set of files per resource type.",
+      role = PipeBitInfo.Role.WRITER,
+      dependencies = { PipeBitInfo.TypeProduct.DOCUMENT_ID }
+)
+final public class FhirNdjsonWriter extends JCasAnnotator_ImplBase {
+
+   static private final Logger LOGGER = Logger.getLogger( "FhirNdjsonWriter" );
+
+   static public final String PARAM_MAX_FILE_RESOURCES = "MaxFileResources";
+   static public final String PARAM_GZIP = "GzipNdjson";
+
+   @ConfigurationParameter(
+         name = ConfigParameterConstants.PARAM_OUTPUTDIR,
+         description = ConfigParameterConstants.DESC_OUTPUTDIR
+   )
+   private File _outputDir;
+
+   @ConfigurationParameter(
+         name = "WriteNlpFhir",
+         description = "Write all nlp information (paragraph, sentence, base annotations) to FHIR.",
+         mandatory = false,
+         defaultValue = "false"
+   )
+   private boolean _writeNlpFhir;
+
+   @ConfigurationParameter(
+         name = PARAM_MAX_FILE_RESOURCES,
+         description = "Maximum number of resources in a file before a new file is started.",
+         mandatory = false,
+         defaultValue = "100000"
+   )
+   private int _maxFileResources;
+
+   @ConfigurationParameter(
+         name = PARAM_GZIP,
+         description = "Compress the ndjson files with gzip.",
+         mandatory = false,
+         defaultValue = "false"
+   )
+   private boolean _gzip;
+
+   // Files for each output directory, shared by all writers.  The first writer for a directory sets its options.
+   static private final Map<File, NdjsonFiles> DIRECTORY_FILES = new ConcurrentHashMap<>();
+
+   private NdjsonFiles _ndjsonFiles;
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void initialize( final UimaContext context ) throws ResourceInitializationException {
+      super.initialize( context );
+      if ( !_outputDir.exists() ) {
+         _outputDir.mkdirs();
+      }
+      _ndjsonFiles = DIRECTORY_FILES.computeIfAbsent( _outputDir.getAbsoluteFile(),
+            d -> new NdjsonFiles( d, _maxFileResources, _gzip ) );
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void process( final JCas jCas ) throws AnalysisEngineProcessException {
+      final Resource practitioner = PractitionerCtakes.getInstance().getPractitioner();
+      final Bundle bundle = FhirDocComposer.composeDocFhir( jCas, PractitionerCtakes.getInstance(), _writeNlpFhir );
+      // Encode before appending so that other threads only wait for the file writes
+      final IParser ndjsonParser = FhirParserUtil.getNdjsonParser();
+      final Map<String, List<String>> typeLines = new HashMap<>();
+      try {
+         for ( Bundle.BundleEntryComponent entry : bundle.getEntry() ) {
+            final Resource resource = entry.getResource();
+            if ( resource == null || (resource == practitioner && !_ndjsonFiles.writePractitioner()) ) {
+               continue;
+            }
+            typeLines.computeIfAbsent( resource.getResourceType().name(), t -> new ArrayList<>() )
+                     .add( ndjsonParser.encodeResourceToString( resource ) );
+         }
+         for ( Map.Entry<String, List<String>> lines : typeLines.entrySet() ) {
+            _ndjsonFiles.getTypeFile( lines.getKey() ).write( lines.getValue() );
+         }
+      } catch ( IOException | DataFormatException multE ) {
+         throw new AnalysisEngineProcessException( multE );
+      }
+   }
+
+   /**
+    * Closes the ndjson files and forgets them, so that a later run starts new files with its own practitioner.
+    * {@inheritDoc}
+    */
+   @Override
+   public void collectionProcessComplete() throws AnalysisEngineProcessException {
+      super.collectionProcessComplete();
+      DIRECTORY_FILES.remove( _outputDir.getAbsoluteFile(), _ndjsonFiles );
+      try {
+         _ndjsonFiles.close();
+      } catch ( IOException ioE ) {
+         throw new AnalysisEngineProcessException( ioE );
+      }
+   }
+
+   public static AnalysisEngine createEngine( final String outputDirectory ) throws ResourceInitializationException {
+      return AnalysisEngineFactory
+            .createEngine( FhirNdjsonWriter.class, ConfigParameterConstants.PARAM_OUTPUTDIR, outputDirectory );
+   }
+
+
+   /**
+    * The rolling files of every resource type in an output directory
+    */
+   static private final class NdjsonFiles {
+      private final File _directory;
+      private final int _maxFileResources;
+      private final boolean _gzip;
+      private final Map<String, TypeFile> _typeFiles = new ConcurrentHashMap<>();
+      private final AtomicBoolean _practitionerWritten = new AtomicBoolean();
+
+      private NdjsonFiles( final File directory, final int maxFileResources, final boolean gzip ) {
+         _directory = directory;
+         _maxFileResources = maxFileResources;
+         _gzip = gzip;
+      }
+
+      /**
+       * @return true only for the first call
+       */
+      private boolean writePractitioner() {
+         return _practitionerWritten.compareAndSet( false, true );
+      }
+
+      private TypeFile getTypeFile( final String resourceType ) {
+         return _typeFiles.computeIfAbsent( resourceType, TypeFile::new );
+      }
+
+      /**
+       * Closes the files.  Anything written afterwards starts new files, which need the practitioner again.
+       *
+       * @throws IOException if a file could not be closed
+       */
+      private void close() throws IOException {
+         _practitionerWritten.set( false );
+         for ( TypeFile typeFile : _typeFiles.values() ) {
+            typeFile.close();
+         }
+      }
+
+      /**
+       * The current file for one resource type
+       */
+      private final class TypeFile {
+         private final String _resourceType;
+         private Writer _writer;
+         private int _fileIndex;
+         private int _resourceCount;
+
+         private TypeFile( final String resourceType ) {
+            _resourceType = resourceType;
+         }
+
+         /**
+          * @param lines encoded resources, one per line
+          * @throws IOException if a file could not be written
+          */
+         synchronized private void write( final Collection<String> lines ) throws IOException {
+            for ( String line : lines ) {
+               if ( _writer == null || _resourceCount >= _maxFileResources ) {
+                  startFile();
+               }
+               _writer.write( line );
+               _writer.write( '\n' );
+               _resourceCount++;
+            }
+         }
+
+         /**
+          * Closes the current file and opens the next file that does not yet exist
+          *
+          * @throws IOException if the file could not be opened
+          */
+         private void startFile() throws IOException {
+            close();
+            final String extension = _gzip ? ".ndjson.gz" : ".ndjson";
+            File file;
+            do {
+               _fileIndex++;
+               file = new File( _directory, String.format( "%s.%06d%s", _resourceType, _fileIndex, extension ) );
+            } while ( file.exists() );
+            LOGGER.info( "Writing " + file.getPath() );
+            OutputStream stream = Files.newOutputStream( file.toPath(), StandardOpenOption.CREATE_NEW );
+            if ( _gzip ) {
+               stream = new GZIPOutputStream( stream, 65536 );
+            }
+            _writer = new BufferedWriter( new OutputStreamWriter( stream, StandardCharsets.UTF_8 ), 65536 );
+            _resourceCount = 0;
+         }
+
+         synchronized private void close() throws IOException {
+            if ( _writer != null ) {
+               _writer.close();
+               _writer = null;
+            }
+         }
+      }
+   }
+
+
+}
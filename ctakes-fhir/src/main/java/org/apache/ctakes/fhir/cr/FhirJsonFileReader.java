@@ -1,7 +1,6 @@
 package org.apache.ctakes.fhir.cr;
 
 import ca.uhn.fhir.context.ConfigurationException;
-import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.DataFormatException;
 import ca.uhn.fhir.parser.IParser;
 import org.apache.ctakes.core.cr.AbstractFileTreeReader;
@@ -9,6 +8,7 @@ import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.util.RelationArgumentUtil;
 import org.apache.ctakes.fhir.element.FhirElementParser;
 import org.apache.ctakes.fhir.resource.*;
+import org.apache.ctakes.fhir.util.FhirParserUtil;
 import org.apache.ctakes.typesystem.type.relation.BinaryTextRelation;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.log4j.Logger;
@@ -174,8 +174,7 @@ public class FhirJsonFileReader extends AbstractFileTreeReader {
 
    static private Bundle readBundle( final File file ) throws IOException {
       IBaseResource baseResource;
-      final FhirContext fhirContext = FhirContext.forDstu3();
-      final IParser jsonParser = fhirContext.newJsonParser();
+      final IParser jsonParser = FhirParserUtil.getJsonParser();
       try ( Reader reader = new BufferedReader( new FileReader( file ) ) ) {
          baseResource = jsonParser.parseResource( reader );
 
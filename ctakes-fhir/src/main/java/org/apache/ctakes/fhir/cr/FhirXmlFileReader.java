@@ -1,7 +1,6 @@
 package org.apache.ctakes.fhir.cr;
 
 import ca.uhn.fhir.context.ConfigurationException;
-import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.DataFormatException;
 import ca.uhn.fhir.parser.IParser;
 import org.apache.ctakes.core.cr.AbstractFileTreeReader;
@@ -11,6 +10,7 @@ import org.apache.ctakes.fhir.element.FhirElementParser;
 import org.apache.ctakes.fhir.resource.AnnotationParser;
 import org.apache.ctakes.fhir.resource.IdentifiedAnnotationParser;
 import org.apache.ctakes.fhir.resource.SectionParser;
+import org.apache.ctakes.fhir.util.FhirParserUtil;
 import org.apache.ctakes.typesystem.type.relation.BinaryTextRelation;
 import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
 import org.apache.log4j.Logger;
@@ -154,8 +154,7 @@ public class FhirXmlFileReader extends AbstractFileTreeReader {
 
    static private Bundle readBundle( final File file ) throws IOException {
       IBaseResource baseResource;
-      final FhirContext fhirContext = FhirContext.forDstu3();
-      final IParser xmlParser = fhirContext.newXmlParser();
+      final IParser xmlParser = FhirParserUtil.getXmlParser();
       try ( Reader reader = new BufferedReader( new FileReader( file ) ) ) {
          baseResource = xmlParser.parseResource( reader );
 
@@ -0,0 +1,69 @@
+package org.apache.ctakes.fhir.util;
+
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import org.apache.log4j.Logger;
+
+/**
+ * Creating a fhir context scans the structure classes of the whole fhir model, which is very slow.
+ * One dstu3 context is kept and shared by every reader and writer.
+ * The context is thread safe, but its parsers are not, so each thread is given its own parsers.
+ * Callers must not change the configuration of a parser obtained here.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class FhirParserUtil {
+
+   static private final Logger LOGGER = Logger.getLogger( "FhirParserUtil" );
+
+   private FhirParserUtil() {
+   }
+
+   static private final class ContextHolder {
+      static private final FhirContext CONTEXT = createContext();
+   }
+
+   static private final ThreadLocal<IParser> JSON_PARSER
+         = ThreadLocal.withInitial( () -> getContext().newJsonParser().setPrettyPrint( true ) );
+   static private final ThreadLocal<IParser> NDJSON_PARSER
+         = ThreadLocal.withInitial( () -> getContext().newJsonParser().setPrettyPrint( false ) );
+   static private final ThreadLocal<IParser> XML_PARSER
+         = ThreadLocal.withInitial( () -> getContext().newXmlParser().setPrettyPrint( true ) );
+
+   static private FhirContext createContext() {
+      LOGGER.info( "Creating FHIR DSTU3 Context ..." );
+      return FhirContext.forDstu3();
+   }
+
+   /**
+    * @return the shared dstu3 fhir context
+    */
+   static public FhirContext getContext() {
+      return ContextHolder.CONTEXT;
+   }
+
+   /**
+    * @return a json parser that pretty prints, for use by the current thread only
+    */
+   static public IParser getJsonParser() {
+      return JSON_PARSER.get();
+   }
+
+   /**
+    * @return a json parser that writes each resource on a single line, for use by the current thread only
+    */
+   static public IParser getNdjsonParser() {
+      return NDJSON_PARSER.get();
+   }
+
+   /**
+    * @return an xml parser that pretty prints, for use by the current thread only
+    */
+   static public IParser getXmlParser() {
+      return XML_PARSER.get();
+   }
+
+}
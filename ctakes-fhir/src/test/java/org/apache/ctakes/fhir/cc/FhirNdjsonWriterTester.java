@@ -0,0 +1,180 @@
+package org.apache.ctakes.fhir.cc;
+
+import org.apache.ctakes.core.config.ConfigParameterConstants;
+import org.apache.ctakes.typesystem.type.structured.DocumentID;
+import org.apache.ctakes.typesystem.type.syntax.WordToken;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the rolling and gzip ndjson files written by the {@link FhirNdjsonWriter}.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class FhirNdjsonWriterTester {
+
+   static private final int MAX_FILE_RESOURCES = 5;
+   static private final int DOCUMENT_COUNT = 4;
+
+   static private final Pattern FILE_PATTERN = Pattern.compile( "(\\w+)\\.(\\d{6})\\.ndjson(\\.gz)?" );
+
+   private File _outputDir;
+
+   @Before
+   public void createOutputDir() throws IOException {
+      _outputDir = Files.createTempDirectory( "ndjson" ).toFile();
+   }
+
+   @After
+   public void deleteOutputDir() {
+      final File[] files = _outputDir.listFiles();
+      if ( files != null ) {
+         Arrays.stream( files ).forEach( File::delete );
+      }
+      _outputDir.delete();
+   }
+
+   @Test
+   public void testRollingFiles() throws Exception {
+      writeDocuments( false, DOCUMENT_COUNT );
+      final Map<String, List<List<String>>> typeFiles = readFiles( false );
+      assertRolled( typeFiles );
+      assertEquals( "Practitioner should be written once", 1, countLines( typeFiles.get( "Practitioner" ) ) );
+      assertEquals( DOCUMENT_COUNT, countLines( typeFiles.get( "Composition" ) ) );
+      assertTrue( "Basic resources should roll over", typeFiles.get( "Basic" ).size() > 1 );
+      // A later run in the same directory starts new files, with its own practitioner
+      writeDocuments( false, 1 );
+      final Map<String, List<List<String>>> allFiles = readFiles( false );
+      assertEquals( 2, allFiles.get( "Practitioner" ).size() );
+      assertEquals( 2, countLines( allFiles.get( "Practitioner" ) ) );
+      assertEquals( DOCUMENT_COUNT + 1, countLines( allFiles.get( "Composition" ) ) );
+      assertEquals( "Earlier files should be kept", typeFiles.get( "Basic" ),
+            allFiles.get( "Basic" ).subList( 0, typeFiles.get( "Basic" ).size() ) );
+   }
+
+   @Test
+   public void testGzipFiles() throws Exception {
+      writeDocuments( true, DOCUMENT_COUNT );
+      final Map<String, List<List<String>>> gzipFiles = readFiles( true );
+      assertRolled( gzipFiles );
+      assertEquals( 1, countLines( gzipFiles.get( "Practitioner" ) ) );
+      assertEquals( DOCUMENT_COUNT, countLines( gzipFiles.get( "Composition" ) ) );
+      deleteOutputDir();
+      createOutputDir();
+      writeDocuments( false, DOCUMENT_COUNT );
+      final Map<String, List<List<String>>> plainFiles = readFiles( false );
+      assertEquals( plainFiles.keySet(), gzipFiles.keySet() );
+      for ( String type : plainFiles.keySet() ) {
+         assertEquals( type, countLines( plainFiles.get( type ) ), countLines( gzipFiles.get( type ) ) );
+      }
+   }
+
+   /**
+    * Runs a writer over documents and completes the collection
+    *
+    * @param gzip          true to compress the files
+    * @param documentCount number of documents to write
+    */
+   private void writeDocuments( final boolean gzip, final int documentCount ) throws Exception {
+      final AnalysisEngine writer = AnalysisEngineFactory.createEngine( FhirNdjsonWriter.class,
+            ConfigParameterConstants.PARAM_OUTPUTDIR, _outputDir.getPath(),
+            "WriteNlpFhir", true,
+            FhirNdjsonWriter.PARAM_MAX_FILE_RESOURCES, MAX_FILE_RESOURCES,
+            FhirNdjsonWriter.PARAM_GZIP, gzip );
+      for ( int i = 0; i < documentCount; i++ ) {
+         writer.process( createJCas( i ) );
+      }
+      writer.collectionProcessComplete();
+      writer.destroy();
+   }
+
+   /**
+    * @param index document index
+    * @return a document with a sentence and word tokens, which are written as basic resources
+    */
+   static private JCas createJCas( final int index ) throws Exception {
+      final JCas jCas = JCasFactory.createJCas();
+      final String text = "Patient " + index + " denies chest pain today .";
+      jCas.setDocumentText( text );
+      final DocumentID documentId = new DocumentID( jCas );
+      documentId.setDocumentID( "note_" + index );
+      documentId.addToIndexes();
+      new Sentence( jCas, 0, text.length() ).addToIndexes();
+      int begin = 0;
+      for ( String word : text.split( " " ) ) {
+         new WordToken( jCas, begin, begin + word.length() ).addToIndexes();
+         begin += word.length() + 1;
+      }
+      return jCas;
+   }
+
+   /**
+    * @param gzip true to read compressed files
+    * @return lines of each file in file order, by resource type
+    */
+   private Map<String, List<List<String>>> readFiles( final boolean gzip ) throws IOException {
+      final File[] files = _outputDir.listFiles();
+      Arrays.sort( files );
+      final Map<String, List<List<String>>> typeFiles = new TreeMap<>();
+      for ( File file : files ) {
+         final Matcher matcher = FILE_PATTERN.matcher( file.getName() );
+         assertTrue( file.getName(), matcher.matches() );
+         assertEquals( file.getName(), gzip, matcher.group( 3 ) != null );
+         final List<List<String>> fileLines = typeFiles.computeIfAbsent( matcher.group( 1 ), t -> new ArrayList<>() );
+         assertEquals( "Files should be numbered in order", fileLines.size() + 1, Integer.parseInt( matcher.group( 2 ) ) );
+         InputStream stream = new FileInputStream( file );
+         if ( gzip ) {
+            stream = new GZIPInputStream( stream );
+         }
+         final List<String> lines = new ArrayList<>();
+         try ( BufferedReader reader = new BufferedReader( new InputStreamReader( stream, StandardCharsets.UTF_8 ) ) ) {
+            String line = reader.readLine();
+            while ( line != null ) {
+               assertTrue( line, line.startsWith( "{\"resourceType\":\"" + matcher.group( 1 ) + "\"" ) );
+               lines.add( line );
+               line = reader.readLine();
+            }
+         }
+         fileLines.add( lines );
+      }
+      return typeFiles;
+   }
+
+   /**
+    * Every file but the last of a type holds the maximum number of resources
+    */
+   static private void assertRolled( final Map<String, List<List<String>>> typeFiles ) {
+      for ( Map.Entry<String, List<List<String>>> files : typeFiles.entrySet() ) {
+         final List<List<String>> fileLines = files.getValue();
+         for ( int i = 0; i < fileLines.size() - 1; i++ ) {
+            assertEquals( files.getKey(), MAX_FILE_RESOURCES, fileLines.get( i ).size() );
+         }
+         final int lastCount = fileLines.get( fileLines.size() - 1 ).size();
+         assertTrue( files.getKey(), lastCount > 0 && lastCount <= MAX_FILE_RESOURCES );
+      }
+   }
+
+   static private int countLines( final List<List<String>> fileLines ) {
+      return fileLines.stream().mapToInt( List::size ).sum();
+   }
+
+}
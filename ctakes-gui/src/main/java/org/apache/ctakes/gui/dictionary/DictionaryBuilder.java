@@ -23,16 +23,16 @@ final class DictionaryBuilder {
 
    static private final Logger LOGGER = Logger.getLogger( "DictionaryBuilder" );
 
-   static private final String DEFAULT_DATA_DIR = "org/apache/ctakes/gui/dictionary/data/tiny";
+   static final String DEFAULT_DATA_DIR = "org/apache/ctakes/gui/dictionary/data/tiny";
    static public final String CTAKES_APP_DB_PATH = "resources/org/apache/ctakes/dictionary/lookup/fast";
    static private final String CTAKES_RES_MODULE = "ctakes-dictionary-lookup-fast-res";
    static private final String CTAKES_RES_DB_PATH = CTAKES_RES_MODULE + "/src/main/" + CTAKES_APP_DB_PATH;
-   static private final int MIN_CHAR_LENGTH = 2;
-   static private final int MAX_CHAR_LENGTH = 48;
-   static private final int MAX_WORD_COUNT = 12;
-   static private final int MAX_SYM_COUNT = 7;
-   static private final int WSD_DIVISOR = 2;
-   static private final int ANAT_MULTIPLIER = 2;
+   static final int MIN_CHAR_LENGTH = 2;
+   static final int MAX_CHAR_LENGTH = 48;
+   static final int MAX_WORD_COUNT = 12;
+   static final int MAX_SYM_COUNT = 7;
+   static final int WSD_DIVISOR = 2;
+   static final int ANAT_MULTIPLIER = 2;
 
 
    private DictionaryBuilder() {
@@ -54,12 +54,12 @@ final class DictionaryBuilder {
    }
 
 
-   static private Map<Long, Concept> parseAll( final UmlsTermUtil umlsTermUtil,
-                                               final String umlsDirPath,
-                                               final Collection<String> wantedLanguages,
-                                               final Collection<String> wantedSources,
-                                               final Collection<String> wantedTargets,
-                                               final Collection<Tui> wantedTuis ) {
+   static Map<Long, Concept> parseAll( final UmlsTermUtil umlsTermUtil,
+                                       final String umlsDirPath,
+                                       final Collection<String> wantedLanguages,
+                                       final Collection<String> wantedSources,
+                                       final Collection<String> wantedTargets,
+                                       final Collection<Tui> wantedTuis ) {
       LOGGER.info( "Parsing Concepts" );
       // Create a map of Cuis to empty Concepts for all wanted Tuis and source vocabularies
       final Map<Long, Concept> conceptMap
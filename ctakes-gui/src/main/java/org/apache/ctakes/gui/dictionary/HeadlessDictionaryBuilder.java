@@ -0,0 +1,1059 @@
+package org.apache.ctakes.gui.dictionary;
+
+
+import com.lexicalscope.jewel.cli.ArgumentValidationException;
+import com.lexicalscope.jewel.cli.CliFactory;
+import com.lexicalscope.jewel.cli.Option;
+import org.apache.ctakes.dictionary.lookup2.dictionary.MappedRareWordDictionaryWriter;
+import org.apache.ctakes.gui.dictionary.umls.*;
+import org.apache.ctakes.gui.dictionary.util.*;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Builds a dictionary from UMLS rrf files without the gui and without holding all of the concepts in memory.
+ * <p>
+ * The {@link DictionaryCreator} gui loads every wanted concept of MRCONSO into a map on one thread,
+ * which for a full UMLS needs a very large heap and a long time.
+ * This builder streams MRCONSO in chunks of lines that are parsed by a pool of threads,
+ * and passes rows between stages through {@link ExternalSorter}s, so memory holds only sort buffers,
+ * the cui to tui map, and the counts of distinct dictionary tokens.
+ * </p>
+ * Stages:
+ * <ol>
+ * <li>MRSTY is read for the cuis of wanted tuis.</li>
+ * <li>MRCONSO rows are parsed in parallel into code, preferred text and text rows sorted by cui.</li>
+ * <li>Rows are grouped into one concept at a time, which is culled as in the gui builder.</li>
+ * <li>Synonyms sorted by text are given the same poor man's word sense disambiguation as the gui builder,
+ * and dictionary token counts are collected.</li>
+ * <li>Surviving texts sorted by cui are given rare words and written as hsql, bsv and/or binary dictionaries.</li>
+ * </ol>
+ * Each stage logs its progress and throughput.
+ * <p>
+ * Usage: HeadlessDictionaryBuilder -u umlsDir -o outputDir -n dictionaryName [--formats hsql bsv binary]
+ * </p>
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class HeadlessDictionaryBuilder {
+
+   static private final Logger LOGGER = Logger.getLogger( "HeadlessDictionaryBuilder" );
+
+   static private final String MR_CONSO_SUB_PATH = "/META/MRCONSO.RRF";
+   static private final String MRSTY_SUB_PATH = "/META/MRSTY.RRF";
+
+   static private final int CHUNK_LINES = 10000;
+   static private final int BATCH_SIZE = 10000;
+   static private final int MAX_TEXT_LENGTH = 255;
+   static private final int MAX_PREFTERM_LENGTH = 511;
+
+   // Row types for rows sorted by cui.  The concept record sorts before its texts.
+   static private final String CODE_ROW = "C";
+   static private final String PREF_ROW = "P";
+   static private final String TEXT_ROW = "T";
+   static private final String RECORD_ROW = "R";
+
+   static private final Pattern TAB_PATTERN = Pattern.compile( "\t" );
+   static private final Pattern SPACE_PATTERN = Pattern.compile( "\\s+" );
+
+   /**
+    * Output formats for the dictionary
+    */
+   public enum Format {
+      HSQL, BSV, BINARY
+   }
+
+   /**
+    * Command line options for the builder
+    */
+   public interface Options {
+      @Option(
+            shortName = "u",
+            longName = "umlsDir",
+            description = "path to the UMLS root directory, which contains META/MRCONSO.RRF and META/MRSTY.RRF." )
+      String getUmlsDirectory();
+
+      @Option(
+            shortName = "o",
+            longName = "outputDir",
+            description = "path to the directory where the dictionary files are to be written." )
+      String getOutputDirectory();
+
+      @Option(
+            shortName = "n",
+            longName = "name",
+            description = "name of the dictionary.",
+            defaultValue = "custom" )
+      String getDictionaryName();
+
+      @Option(
+            longName = "sources",
+            description = "source vocabularies of wanted concepts.",
+            defaultValue = { "SNOMEDCT_US", "RXNORM" } )
+      List<String> getSources();
+
+      @Option(
+            longName = "targets",
+            description = "source vocabularies whose codes are to be stored with concepts.",
+            defaultValue = { "SNOMEDCT_US", "RXNORM" } )
+      List<String> getTargets();
+
+      @Option(
+            longName = "languages",
+            description = "languages of wanted texts.",
+            defaultValue = "ENG" )
+      List<String> getLanguages();
+
+      @Option(
+            longName = "tuis",
+            description = "wanted semantic types, e.g. T047.  The default is the standard ctakes semantic types.",
+            defaultValue = "" )
+      List<String> getTuis();
+
+      @Option(
+            shortName = "f",
+            longName = "formats",
+            description = "output formats, any of hsql, bsv and binary.",
+            defaultValue = "hsql" )
+      List<String> getFormats();
+
+      @Option(
+            shortName = "t",
+            longName = "threads",
+            description = "number of threads that parse MRCONSO, 0 for the number of processors.",
+            defaultValue = "0" )
+      int getThreads();
+
+      @Option(
+            longName = "sortLines",
+            description = "number of rows held in memory by each sort before rows are written to temporary files.",
+            defaultValue = "1000000" )
+      int getSortLines();
+
+      @Option(
+            longName = "tempDir",
+            description = "path to the directory for temporary sort files.  The default is the system temp directory.",
+            defaultValue = "" )
+      String getTempDirectory();
+   }
+
+
+   private final String _umlsDirPath;
+   private final File _outputDir;
+   private final String _dictionaryName;
+   private final Collection<String> _wantedLanguages;
+   private final Collection<String> _wantedSources;
+   private final Collection<String> _wantedTargets;
+   private final Collection<Tui> _wantedTuis;
+   private final Collection<Tui> _wantedAnatTuis;
+   private final Collection<Format> _formats;
+   private final int _threadCount;
+   private final int _sortLines;
+   private final File _tempDir;
+   private final UmlsTermUtil _umlsTermUtil;
+   private final List<String> _stageReports = new ArrayList<>();
+
+   public HeadlessDictionaryBuilder( final String umlsDirPath,
+                                     final File outputDir,
+                                     final String dictionaryName,
+                                     final Collection<String> wantedLanguages,
+                                     final Collection<String> wantedSources,
+                                     final Collection<String> wantedTargets,
+                                     final Collection<Tui> wantedTuis,
+                                     final Collection<Format> formats,
+                                     final int threadCount,
+                                     final int sortLines,
+                                     final File tempDir ) {
+      _umlsDirPath = umlsDirPath;
+      _outputDir = outputDir;
+      _dictionaryName = dictionaryName;
+      _wantedLanguages = new HashSet<>( wantedLanguages );
+      _wantedSources = new HashSet<>( wantedSources );
+      _wantedTargets = new HashSet<>( wantedTargets );
+      _wantedTuis = EnumSet.copyOf( wantedTuis );
+      _wantedAnatTuis = EnumSet.copyOf( wantedTuis );
+      _wantedAnatTuis.retainAll( Arrays.asList( TuiTableModel.CTAKES_ANAT ) );
+      _formats = EnumSet.copyOf( formats );
+      _threadCount = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+      _sortLines = sortLines;
+      _tempDir = tempDir;
+      _umlsTermUtil = new UmlsTermUtil( DictionaryBuilder.DEFAULT_DATA_DIR );
+   }
+
+   /**
+    * @return true if the dictionary was written
+    */
+   public boolean buildDictionary() {
+      if ( _wantedSources.isEmpty() || _wantedTuis.isEmpty() ) {
+         LOGGER.error( "No source vocabularies or TUIs specified" );
+         return false;
+      }
+      if ( !_outputDir.isDirectory() && !_outputDir.mkdirs() ) {
+         LOGGER.error( "Could not create directory " + _outputDir.getPath() );
+         return false;
+      }
+      final long startNanos = System.nanoTime();
+      try {
+         final Map<String, Collection<Tui>> cuiTuis = parseMrsty();
+         final Collection<String> vocabularyCuis = ConcurrentHashMap.newKeySet();
+         try ( ExternalSorter conceptRows = parseMrconso( cuiTuis, vocabularyCuis );
+               ExternalSorter synonymRows = new ExternalSorter( "synonyms", _tempDir, _sortLines );
+               ExternalSorter termRows = new ExternalSorter( "terms", _tempDir, _sortLines ) ) {
+            createConcepts( conceptRows, cuiTuis, vocabularyCuis, synonymRows, termRows );
+            conceptRows.close();
+            final Map<String, Long> tokenCounts = new HashMap<>();
+            final Collection<String> termTokens = new HashSet<>();
+            removeWsdRarities( synonymRows, termRows, tokenCounts, termTokens );
+            synonymRows.close();
+            writeDictionaries( termRows, tokenCounts, termTokens );
+         }
+      } catch ( IOException | SQLException multE ) {
+         LOGGER.error( multE.getMessage() );
+         return false;
+      }
+      _stageReports.forEach( LOGGER::info );
+      LOGGER.info( "Built dictionary " + _dictionaryName + " in " + getSeconds( startNanos ) + " seconds" );
+      return true;
+   }
+
+   /**
+    * Stage 1
+    *
+    * @return map of cuis with wanted tuis to those tuis
+    * @throws IOException if MRSTY could not be read
+    */
+   private Map<String, Collection<Tui>> parseMrsty() throws IOException {
+      final String mrstyPath = _umlsDirPath + MRSTY_SUB_PATH;
+      LOGGER.info( "Compiling map of Cuis with wanted Tuis using " + mrstyPath );
+      final Collection<String> wantedTuiNames = new HashSet<>();
+      _wantedTuis.forEach( t -> wantedTuiNames.add( t.name() ) );
+      final Map<String, Collection<Tui>> cuiTuis = new HashMap<>();
+      final Progress progress = new Progress( "MRSTY", "lines", 1000000 );
+      try ( BufferedReader reader = FileUtil.createReader( mrstyPath ) ) {
+         List<String> tokens = FileUtil.readBsvTokens( reader, mrstyPath );
+         while ( tokens != null ) {
+            progress.add( 1 );
+            if ( tokens.size() > MrstyIndex.TUI._index
+                 && wantedTuiNames.contains( tokens.get( MrstyIndex.TUI._index ) ) ) {
+               cuiTuis.computeIfAbsent( tokens.get( MrstyIndex.CUI._index ), c -> EnumSet.noneOf( Tui.class ) )
+                      .add( Tui.valueOf( tokens.get( MrstyIndex.TUI._index ) ) );
+            }
+            tokens = FileUtil.readBsvTokens( reader, mrstyPath );
+         }
+      }
+      finishStage( progress, cuiTuis.size() + " cuis with wanted tuis" );
+      return cuiTuis;
+   }
+
+   /**
+    * Stage 2.  Lines are read on the current thread and parsed in chunks by a pool of threads.
+    *
+    * @param cuiTuis        cuis with wanted tuis
+    * @param vocabularyCuis filled with the cuis that are in wanted source vocabularies
+    * @return code, preferred text and text rows sorted by cui
+    * @throws IOException if MRCONSO could not be read or a row could not be sorted
+    */
+   private ExternalSorter parseMrconso( final Map<String, Collection<Tui>> cuiTuis,
+                                        final Collection<String> vocabularyCuis ) throws IOException {
+      final String mrconsoPath = _umlsDirPath + MR_CONSO_SUB_PATH;
+      LOGGER.info( "Parsing " + mrconsoPath + " with " + _threadCount + " threads" );
+      final Collection<String> invalidTypeSet = MrconsoParser.getInvalidTermTypes();
+      final ExternalSorter conceptRows = new ExternalSorter( "concepts", _tempDir, _sortLines );
+      final Progress progress = new Progress( "MRCONSO", "lines", 1000000 );
+      final ExecutorService executor = Executors.newFixedThreadPool( _threadCount );
+      // Limit the number of chunks waiting in memory
+      final Semaphore chunkPermits = new Semaphore( _threadCount * 2 );
+      final List<Future<?>> futures = new ArrayList<>();
+      try ( BufferedReader reader = FileUtil.createReader( mrconsoPath ) ) {
+         long lineNumber = 0;
+         List<String> chunk = new ArrayList<>( CHUNK_LINES );
+         String line = reader.readLine();
+         while ( line != null ) {
+            chunk.add( line );
+            if ( chunk.size() == CHUNK_LINES ) {
+               futures.add( submitChunk( executor, chunkPermits, chunk, lineNumber, cuiTuis, vocabularyCuis,
+                     invalidTypeSet, conceptRows, progress ) );
+               lineNumber += chunk.size();
+               chunk = new ArrayList<>( CHUNK_LINES );
+            }
+            line = reader.readLine();
+         }
+         if ( !chunk.isEmpty() ) {
+            futures.add( submitChunk( executor, chunkPermits, chunk, lineNumber, cuiTuis, vocabularyCuis,
+                  invalidTypeSet, conceptRows, progress ) );
+         }
+         for ( Future<?> future : futures ) {
+            future.get();
+         }
+      } catch ( InterruptedException | ExecutionException multE ) {
+         conceptRows.close();
+         throw new IOException( "Could not parse " + mrconsoPath, multE );
+      } finally {
+         executor.shutdownNow();
+      }
+      finishStage( progress, conceptRows.getLineCount() + " concept rows, "
+                             + vocabularyCuis.size() + " cuis in wanted vocabularies" );
+      return conceptRows;
+   }
+
+   private Future<?> submitChunk( final ExecutorService executor,
+                                  final Semaphore chunkPermits,
+                                  final List<String> lines,
+                                  final long firstLineNumber,
+                                  final Map<String, Collection<Tui>> cuiTuis,
+                                  final Collection<String> vocabularyCuis,
+                                  final Collection<String> invalidTypeSet,
+                                  final ExternalSorter conceptRows,
+                                  final Progress progress ) throws InterruptedException {
+      chunkPermits.acquire();
+      return executor.submit( () -> {
+         try {
+            conceptRows.add( parseChunk( lines, firstLineNumber, cuiTuis, vocabularyCuis, invalidTypeSet ) );
+            progress.add( lines.size() );
+         } finally {
+            chunkPermits.release();
+         }
+         return null;
+      } );
+   }
+
+   /**
+    * Applies the same row and text rules as {@link MrconsoParser#parseAllConcepts}, but only with thread safe methods.
+    *
+    * @return rows for the chunk, each starting with the cui
+    */
+   private List<String> parseChunk( final List<String> lines,
+                                    final long firstLineNumber,
+                                    final Map<String, Collection<Tui>> cuiTuis,
+                                    final Collection<String> vocabularyCuis,
+                                    final Collection<String> invalidTypeSet ) {
+      final List<String> rows = new ArrayList<>();
+      for ( int i = 0; i < lines.size(); i++ ) {
+         final String line = lines.get( i );
+         if ( line.trim().isEmpty() || line.trim().startsWith( "//" ) ) {
+            continue;
+         }
+         final List<String> tokens = TokenUtil.getBsvItems( line );
+         if ( tokens.size() <= MrconsoIndex.CUI._index ) {
+            continue;
+         }
+         final String cui = MrconsoParser.getCui( tokens );
+         if ( !cuiTuis.containsKey( cui ) ) {
+            continue;
+         }
+         if ( MrconsoParser.isVocabularyRowOk( tokens, _wantedSources, invalidTypeSet ) ) {
+            vocabularyCuis.add( cui );
+         }
+         if ( !MrconsoParser.isConceptRowOk( tokens, _wantedLanguages, invalidTypeSet ) ) {
+            continue;
+         }
+         final String text = MrconsoParser.getText( tokens );
+         if ( !MrconsoParser.isTextValid( text, _umlsTermUtil ) ) {
+            continue;
+         }
+         if ( MrconsoParser.isPreferredTerm( tokens ) ) {
+            // The line number keeps the last preferred text in the file as the preferred text
+            rows.add( String.join( "\t", cui, PREF_ROW, String.format( "%012d", firstLineNumber + i ),
+                  clean( text ) ) );
+         }
+         final Collection<String> formattedTexts = MrconsoParser.getFormattedTexts( text, _umlsTermUtil, true,
+               DictionaryBuilder.MIN_CHAR_LENGTH, DictionaryBuilder.MAX_CHAR_LENGTH,
+               DictionaryBuilder.MAX_WORD_COUNT, DictionaryBuilder.MAX_SYM_COUNT );
+         if ( formattedTexts.isEmpty() ) {
+            continue;
+         }
+         for ( String formattedText : formattedTexts ) {
+            rows.add( String.join( "\t", cui, TEXT_ROW, clean( formattedText ) ) );
+         }
+         final String source = MrconsoParser.getSource( tokens );
+         final String code = MrconsoParser.getSourceCode( tokens );
+         if ( _wantedTargets.contains( source ) && !code.equals( "NOCODE" ) ) {
+            rows.add( String.join( "\t", cui, CODE_ROW, clean( source ), clean( code ) ) );
+         }
+      }
+      return rows;
+   }
+
+   /**
+    * Stage 3.  Concepts are created one at a time and culled as in {@link DictionaryBuilder}.
+    *
+    * @param conceptRows    code, preferred text and text rows sorted by cui
+    * @param cuiTuis        cuis with wanted tuis
+    * @param vocabularyCuis cuis in wanted vocabularies
+    * @param synonymRows    filled with a row per concept text, starting with the text
+    * @param termRows       filled with a record row per concept
+    * @throws IOException if rows could not be sorted
+    */
+   private void createConcepts( final ExternalSorter conceptRows,
+                                final Map<String, Collection<Tui>> cuiTuis,
+                                final Collection<String> vocabularyCuis,
+                                final ExternalSorter synonymRows,
+                                final ExternalSorter termRows ) throws IOException {
+      LOGGER.info( "Creating Concepts ..." );
+      final Progress progress = new Progress( "Concepts", "rows", 1000000 );
+      long conceptCount = 0;
+      long textCount = 0;
+      try ( ExternalSorter.SortedLineReader reader = conceptRows.merge() ) {
+         final List<String[]> cuiRows = new ArrayList<>();
+         String line = reader.readLine();
+         while ( line != null ) {
+            final String cui = line.substring( 0, line.indexOf( '\t' ) );
+            final String cuiPrefix = cui + '\t';
+            cuiRows.clear();
+            while ( line != null && line.startsWith( cuiPrefix ) ) {
+               cuiRows.add( TAB_PATTERN.split( line, -1 ) );
+               line = reader.readLine();
+            }
+            progress.add( cuiRows.size() );
+            if ( !vocabularyCuis.contains( cui ) ) {
+               continue;
+            }
+            final Concept concept = createConcept( cuiRows, cuiTuis.get( cui ) );
+            if ( concept.isEmpty() ) {
+               continue;
+            }
+            concept.cullExtensions();
+            conceptCount++;
+            textCount += concept.getSynonymCount();
+            final boolean isAnat = _wantedAnatTuis.containsAll( concept.getTuis() );
+            final List<String> synonyms = new ArrayList<>( concept.getSynonymCount() );
+            for ( String text : concept.getTexts() ) {
+               synonyms.add( String.join( "\t", text, cui, String.valueOf( concept.getCount( text ) ),
+                     isAnat ? "1" : "0" ) );
+            }
+            synonymRows.add( synonyms );
+            termRows.add( createRecordRow( cui, concept ) );
+         }
+      }
+      finishStage( progress, conceptCount + " concepts with " + textCount + " texts" );
+   }
+
+   static private Concept createConcept( final Collection<String[]> cuiRows, final Collection<Tui> tuis ) {
+      final Concept concept = new Concept();
+      tuis.forEach( concept::addTui );
+      // Rows of a cui are sorted by type, and preferred text rows by line number
+      for ( String[] row : cuiRows ) {
+         switch ( row[ 1 ] ) {
+            case CODE_ROW:
+               concept.addCode( row[ 2 ], row[ 3 ] );
+               break;
+            case PREF_ROW:
+               concept.setPreferredText( row[ 3 ] );
+               break;
+            case TEXT_ROW:
+               concept.addTexts( Collections.singletonList( row[ 2 ] ) );
+               break;
+         }
+      }
+      return concept;
+   }
+
+   /**
+    * @return cui, record type, tuis, preferred text, then pairs of vocabulary and code
+    */
+   static private String createRecordRow( final String cui, final Concept concept ) {
+      final StringBuilder sb = new StringBuilder( cui ).append( '\t' ).append( RECORD_ROW ).append( '\t' );
+      final StringJoiner tuis = new StringJoiner( "," );
+      concept.getTuis().forEach( t -> tuis.add( t.name() ) );
+      sb.append( tuis.toString() ).append( '\t' ).append( concept.getPreferredText() );
+      for ( String vocabulary : concept.getVocabularies() ) {
+         for ( String code : concept.getCodes( vocabulary ) ) {
+            sb.append( '\t' ).append( vocabulary ).append( '\t' ).append( code );
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Stage 4.  Poor man's WSD, as in {@link DictionaryBuilder}, on all concepts that share each text.
+    *
+    * @param synonymRows rows sorted by text
+    * @param termRows    filled with a text row for each text that is kept by a concept
+    * @param tokenCounts filled with the number of kept texts that contain each rarable token
+    * @param termTokens  filled with every token of every kept text short enough to be a term
+    * @throws IOException if rows could not be sorted
+    */
+   private void removeWsdRarities( final ExternalSorter synonymRows,
+                                   final ExternalSorter termRows,
+                                   final Map<String, Long> tokenCounts,
+                                   final Collection<String> termTokens ) throws IOException {
+      LOGGER.info( "Performing Poor man's WSD ..." );
+      final Progress progress = new Progress( "WSD", "synonyms", 1000000 );
+      long keptCount = 0;
+      try ( ExternalSorter.SortedLineReader reader = synonymRows.merge() ) {
+         final List<String[]> textRows = new ArrayList<>();
+         String line = reader.readLine();
+         while ( line != null ) {
+            final String text = line.substring( 0, line.indexOf( '\t' ) );
+            final String textPrefix = text + '\t';
+            textRows.clear();
+            while ( line != null && line.startsWith( textPrefix ) ) {
+               textRows.add( TAB_PATTERN.split( line, -1 ) );
+               line = reader.readLine();
+            }
+            progress.add( textRows.size() );
+            int maxCount = 0;
+            for ( String[] row : textRows ) {
+               maxCount = Math.max( maxCount, getWsdCount( row ) );
+            }
+            final int threshold = (int)Math.floor( (double)maxCount / (double)DictionaryBuilder.WSD_DIVISOR );
+            final boolean keepAll = textRows.size() == 1 || maxCount <= 1;
+            final String[] tokens = SPACE_PATTERN.split( text );
+            for ( String[] row : textRows ) {
+               if ( !keepAll && getWsdCount( row ) <= threshold ) {
+                  continue;
+               }
+               termRows.add( String.join( "\t", row[ 1 ], TEXT_ROW, text ) );
+               keptCount++;
+               for ( String token : tokens ) {
+                  if ( RareWordUtil.isRarableToken( token ) ) {
+                     tokenCounts.merge( token, 1L, Long::sum );
+                  }
+               }
+               if ( text.length() < MAX_TEXT_LENGTH ) {
+                  termTokens.addAll( Arrays.asList( tokens ) );
+               }
+            }
+         }
+      }
+      finishStage( progress, keptCount + " texts kept, " + tokenCounts.size() + " distinct rarable tokens" );
+   }
+
+   /**
+    * @param row text, cui, count, anatomy flag
+    * @return count of the text in the concept, multiplied for anatomy concepts
+    */
+   static private int getWsdCount( final String[] row ) {
+      final int count = Integer.parseInt( row[ 2 ] );
+      return row[ 3 ].equals( "1" ) ? count * DictionaryBuilder.ANAT_MULTIPLIER : count;
+   }
+
+   /**
+    * Stage 5.  Writes the concepts that have at least one text with a rare word, as in {@link RareWordDbWriter}.
+    *
+    * @param termRows    concept records and kept texts sorted by cui
+    * @param tokenCounts number of kept texts that contain each rarable token
+    * @param termTokens  every token of every kept text short enough to be a term
+    * @throws IOException  if a dictionary file could not be written
+    * @throws SQLException if the hsql database could not be written
+    */
+   private void writeDictionaries( final ExternalSorter termRows,
+                                   final Map<String, Long> tokenCounts,
+                                   final Collection<String> termTokens ) throws IOException, SQLException {
+      LOGGER.info( "Writing " + _formats + " dictionaries to " + _outputDir.getPath() );
+      final List<DictionaryOutput> outputs = new ArrayList<>();
+      boolean streamed = false;
+      try {
+         if ( _formats.contains( Format.HSQL ) ) {
+            outputs.add( new HsqlOutput( _outputDir, _dictionaryName ) );
+         }
+         if ( _formats.contains( Format.BSV ) ) {
+            outputs.add( new BsvOutput( new File( _outputDir, _dictionaryName + ".bsv" ) ) );
+         }
+         if ( _formats.contains( Format.BINARY ) ) {
+            outputs.add( new BinaryOutput( new File( _outputDir, _dictionaryName + ".dict" ), termTokens,
+                  _tempDir, _sortLines ) );
+         }
+         final Progress progress = new Progress( "Write", "rows", 1000000 );
+         long conceptCount = 0;
+         long termCount = 0;
+         try ( ExternalSorter.SortedLineReader reader = termRows.merge() ) {
+            final List<RareWordTerm> terms = new ArrayList<>();
+            String line = reader.readLine();
+            while ( line != null ) {
+               final String cui = line.substring( 0, line.indexOf( '\t' ) );
+               final String cuiPrefix = cui + '\t';
+               String[] record = null;
+               terms.clear();
+               long rowCount = 0;
+               while ( line != null && line.startsWith( cuiPrefix ) ) {
+                  rowCount++;
+                  final String[] row = TAB_PATTERN.split( line, -1 );
+                  if ( row[ 1 ].equals( RECORD_ROW ) ) {
+                     record = row;
+                  } else if ( row[ 2 ].length() < MAX_TEXT_LENGTH ) {
+                     final RareWordUtil.IndexedRareWord rareWord
+                           = RareWordUtil.getIndexedRareWord( row[ 2 ], tokenCounts );
+                     if ( !RareWordUtil.NULL_RARE_WORD.equals( rareWord ) ) {
+                        terms.add( new RareWordTerm( row[ 2 ], rareWord ) );
+                     }
+                  }
+                  line = reader.readLine();
+               }
+               progress.add( rowCount );
+               if ( record == null || terms.isEmpty() ) {
+                  continue;
+               }
+               final ConceptRecord concept = new ConceptRecord( record );
+               for ( DictionaryOutput output : outputs ) {
+                  output.writeConcept( concept, terms );
+               }
+               conceptCount++;
+               termCount += terms.size();
+            }
+         }
+         finishStage( progress, conceptCount + " concepts with " + termCount + " terms" );
+         streamed = true;
+      } finally {
+         if ( !streamed ) {
+            // Don't leave truncated dictionaries behind
+            outputs.forEach( DictionaryOutput::abort );
+         }
+      }
+      for ( int i = 0; i < outputs.size(); i++ ) {
+         try {
+            outputs.get( i ).close();
+         } catch ( IOException ioE ) {
+            outputs.subList( i + 1, outputs.size() ).forEach( DictionaryOutput::abort );
+            throw ioE;
+         }
+      }
+   }
+
+   private void finishStage( final Progress progress, final String result ) {
+      final String report = progress.getReport() + " , " + result;
+      LOGGER.info( report );
+      _stageReports.add( report );
+   }
+
+   /**
+    * @return text with tabs replaced so that it can be a sort row field
+    */
+   static private String clean( final String text ) {
+      return text.indexOf( '\t' ) < 0 ? text : text.replace( '\t', ' ' );
+   }
+
+   /**
+    * Deletes a file , or a directory and everything in it.
+    */
+   static private void deleteFiles( final File file ) {
+      final File[] children = file.listFiles();
+      if ( children != null ) {
+         for ( File child : children ) {
+            deleteFiles( child );
+         }
+      }
+      if ( file.exists() && !file.delete() ) {
+         LOGGER.warn( "Could not delete " + file.getPath() );
+      }
+   }
+
+   static private long getSeconds( final long startNanos ) {
+      return (System.nanoTime() - startNanos) / 1000000000L;
+   }
+
+
+   /**
+    * Counts items processed by a stage and logs throughput.
+    */
+   static private final class Progress {
+      private final String _stage;
+      private final String _unit;
+      private final long _reportInterval;
+      private final long _startNanos = System.nanoTime();
+      private final AtomicLong _count = new AtomicLong();
+
+      private Progress( final String stage, final String unit, final long reportInterval ) {
+         _stage = stage;
+         _unit = unit;
+         _reportInterval = reportInterval;
+      }
+
+      private void add( final long count ) {
+         final long total = _count.addAndGet( count );
+         if ( total / _reportInterval != (total - count) / _reportInterval ) {
+            LOGGER.info( _stage + " " + total + " " + _unit + " , " + getRate( total ) + " " + _unit + "/s" );
+         }
+      }
+
+      private long getRate( final long total ) {
+         final long nanos = Math.max( 1, System.nanoTime() - _startNanos );
+         return total * 1000000000L / nanos;
+      }
+
+      private String getReport() {
+         final long total = _count.get();
+         return _stage + " done: " + total + " " + _unit + " in " + getSeconds( _startNanos ) + " s , "
+                + getRate( total ) + " " + _unit + "/s";
+      }
+   }
+
+
+   /**
+    * A text of a concept with its rare word
+    */
+   static private final class RareWordTerm {
+      private final String _text;
+      private final RareWordUtil.IndexedRareWord _rareWord;
+
+      private RareWordTerm( final String text, final RareWordUtil.IndexedRareWord rareWord ) {
+         _text = text;
+         _rareWord = rareWord;
+      }
+   }
+
+
+   /**
+    * The tuis, preferred text and codes of a concept, as stored in a record row
+    */
+   static private final class ConceptRecord {
+      private final String _cui;
+      private final long _cuiCode;
+      private final Collection<Tui> _tuis = EnumSet.noneOf( Tui.class );
+      private final String _preferredText;
+      private final List<String[]> _codes = new ArrayList<>();
+
+      private ConceptRecord( final String[] record ) {
+         _cui = record[ 0 ];
+         _cuiCode = CuiCodeUtil.getInstance().getCuiCode( _cui );
+         if ( !record[ 2 ].isEmpty() ) {
+            for ( String tui : record[ 2 ].split( "," ) ) {
+               _tuis.add( Tui.valueOf( tui ) );
+            }
+         }
+         _preferredText = record[ 3 ];
+         for ( int i = 4; i + 1 < record.length; i += 2 ) {
+            _codes.add( new String[] { record[ i ], record[ i + 1 ] } );
+         }
+      }
+
+      private boolean hasPreferredText() {
+         return !_preferredText.isEmpty() && !_preferredText.equals( Concept.PREFERRED_TERM_UNKNOWN );
+      }
+   }
+
+
+   /**
+    * Writes concepts in one dictionary format.
+    * The dictionary is finished by {@link #close()} , or discarded by {@link #abort()} if writing failed.
+    */
+   private interface DictionaryOutput extends Closeable {
+      void writeConcept( ConceptRecord concept, Collection<RareWordTerm> terms ) throws IOException, SQLException;
+
+      /**
+       * Releases resources and deletes whatever has been written.  Close itself deletes the output if it fails.
+       */
+      void abort();
+   }
+
+
+   /**
+    * Writes the same hsql database as {@link RareWordDbWriter}, with batched inserts in a single transaction.
+    */
+   static private final class HsqlOutput implements DictionaryOutput {
+      private final File _databaseDir;
+      private final File _xmlFile;
+      private final Connection _connection;
+      private final PreparedStatement _mainStatement;
+      private final PreparedStatement _tuiStatement;
+      private final PreparedStatement _preftermStatement;
+      private final Map<String, PreparedStatement> _codeStatements = new HashMap<>();
+      private final Map<String, Long> _tableCounts = new LinkedHashMap<>();
+      private int _batchCount;
+
+      private HsqlOutput( final File databaseDir, final String dictionaryName ) throws IOException, SQLException {
+         final String databasePath = databaseDir.getPath().replace( '\\', '/' );
+         final String url = HsqlUtil.URL_PREFIX + databasePath + "/" + dictionaryName + "/" + dictionaryName;
+         _databaseDir = new File( databaseDir, dictionaryName );
+         _xmlFile = new File( databaseDir, dictionaryName + ".xml" );
+         _connection = JdbcUtil.createDatabaseConnection( url, "SA", "" );
+         if ( !HsqlUtil.createDatabase( _connection ) ) {
+            throw new SQLException( "Could not create database " + url );
+         }
+         if ( !DictionaryXmlWriter.writeXmlFile( databasePath, dictionaryName ) ) {
+            throw new IOException( "Could not write " + dictionaryName + ".xml" );
+         }
+         _connection.setAutoCommit( false );
+         _mainStatement = _connection.prepareStatement(
+               JdbcUtil.createRowInsertSql( "CUI_TERMS", "CUI", "RINDEX", "TCOUNT", "TEXT", "RWORD" ) );
+         _tuiStatement = _connection.prepareStatement( JdbcUtil.createCodeInsertSql( "TUI" ) );
+         _preftermStatement = _connection.prepareStatement( JdbcUtil.createCodeInsertSql( "PREFTERM" ) );
+         // Vocabulary tables are named as by HsqlUtil
+         for ( String vocabulary : VocabularyStore.getInstance().getAllVocabularies() ) {
+            final String tableName = vocabulary.replace( '.', '_' ).replace( '-', '_' );
+            _codeStatements.put( vocabulary,
+                  _connection.prepareStatement( JdbcUtil.createCodeInsertSql( tableName ) ) );
+         }
+      }
+
+      @Override
+      public void writeConcept( final ConceptRecord concept, final Collection<RareWordTerm> terms )
+            throws SQLException {
+         for ( RareWordTerm term : terms ) {
+            _mainStatement.setLong( 1, concept._cuiCode );
+            _mainStatement.setInt( 2, term._rareWord.__index );
+            _mainStatement.setInt( 3, term._rareWord.__tokenCount );
+            _mainStatement.setString( 4, term._text );
+            _mainStatement.setString( 5, term._rareWord.__word );
+            addBatch( _mainStatement, "Main" );
+         }
+         for ( Tui tui : concept._tuis ) {
+            _tuiStatement.setLong( 1, concept._cuiCode );
+            _tuiStatement.setInt( 2, tui.getIntValue() );
+            addBatch( _tuiStatement, "Tui" );
+         }
+         if ( concept.hasPreferredText() ) {
+            String preferredText = concept._preferredText;
+            if ( preferredText.length() > MAX_PREFTERM_LENGTH ) {
+               preferredText = preferredText.substring( 0, MAX_PREFTERM_LENGTH - 1 );
+            }
+            _preftermStatement.setLong( 1, concept._cuiCode );
+            _preftermStatement.setString( 2, preferredText );
+            addBatch( _preftermStatement, "Preferred Term" );
+         }
+         for ( String[] code : concept._codes ) {
+            final PreparedStatement statement = _codeStatements.get( code[ 0 ] );
+            statement.setLong( 1, concept._cuiCode );
+            setCode( statement, code[ 1 ], VocabularyStore.getInstance().getVocabularyClass( code[ 0 ] ) );
+            addBatch( statement, code[ 0 ] );
+         }
+      }
+
+      private void addBatch( final PreparedStatement statement, final String tableName ) throws SQLException {
+         statement.addBatch();
+         _tableCounts.merge( tableName, 1L, Long::sum );
+         _batchCount++;
+         if ( _batchCount >= BATCH_SIZE ) {
+            executeBatches();
+         }
+      }
+
+      private void executeBatches() throws SQLException {
+         _mainStatement.executeBatch();
+         _tuiStatement.executeBatch();
+         _preftermStatement.executeBatch();
+         for ( PreparedStatement statement : _codeStatements.values() ) {
+            statement.executeBatch();
+         }
+         _batchCount = 0;
+      }
+
+      static private void setCode( final PreparedStatement statement, final String code, final Class<?> type )
+            throws SQLException {
+         if ( Double.class.equals( type ) ) {
+            statement.setDouble( 2, Double.valueOf( code ) );
+         } else if ( Long.class.equals( type ) ) {
+            statement.setLong( 2, Long.valueOf( code ) );
+         } else if ( Integer.class.equals( type ) ) {
+            statement.setInt( 2, Integer.valueOf( code ) );
+         } else {
+            statement.setString( 2, code );
+         }
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            executeBatches();
+            _connection.commit();
+            _mainStatement.close();
+            _tuiStatement.close();
+            _preftermStatement.close();
+            for ( PreparedStatement statement : _codeStatements.values() ) {
+               statement.close();
+            }
+            try ( Statement shutdownStatement = _connection.createStatement() ) {
+               shutdownStatement.execute( "SHUTDOWN" );
+            }
+            _connection.close();
+         } catch ( SQLException sqlE ) {
+            abort();
+            throw new IOException( sqlE );
+         }
+         _tableCounts.forEach( ( t, c ) -> LOGGER.info( t + " Table Rows " + c ) );
+      }
+
+      @Override
+      public void abort() {
+         try {
+            if ( !_connection.isClosed() ) {
+               _connection.rollback();
+               try ( Statement shutdownStatement = _connection.createStatement() ) {
+                  shutdownStatement.execute( "SHUTDOWN" );
+               }
+               _connection.close();
+            }
+         } catch ( SQLException sqlE ) {
+            LOGGER.warn( sqlE.getMessage() );
+         }
+         deleteFiles( _databaseDir );
+         deleteFiles( _xmlFile );
+      }
+   }
+
+
+   /**
+    * Writes CUI|TUI|TEXT|PREFERRED_TEXT rows for the bsv dictionary and concept factory.
+    * The bsv format holds one tui per concept, so the first tui is used.
+    */
+   static private final class BsvOutput implements DictionaryOutput {
+      private final File _bsvFile;
+      private final Writer _writer;
+      private long _rowCount;
+
+      private BsvOutput( final File bsvFile ) throws IOException {
+         _bsvFile = bsvFile;
+         _writer = Files.newBufferedWriter( bsvFile.toPath(), StandardCharsets.UTF_8 );
+      }
+
+      @Override
+      public void writeConcept( final ConceptRecord concept, final Collection<RareWordTerm> terms )
+            throws IOException {
+         final String tui = concept._tuis.isEmpty() ? "" : concept._tuis.iterator().next().name();
+         final String preferredText = concept.hasPreferredText() ? concept._preferredText.replace( '|', ' ' ) : "";
+         for ( RareWordTerm term : terms ) {
+            if ( term._text.indexOf( '|' ) >= 0 ) {
+               continue;
+            }
+            _writer.write( TokenUtil.createBsvLine( concept._cui, tui, term._text, preferredText ) );
+            _writer.write( '\n' );
+            _rowCount++;
+         }
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            _writer.close();
+         } catch ( IOException ioE ) {
+            deleteFiles( _bsvFile );
+            throw ioE;
+         }
+         LOGGER.info( "Bsv Rows " + _rowCount );
+      }
+
+      @Override
+      public void abort() {
+         try {
+            _writer.close();
+         } catch ( IOException ioE ) {
+            LOGGER.warn( ioE.getMessage() );
+         }
+         deleteFiles( _bsvFile );
+      }
+   }
+
+
+   /**
+    * Writes the compact binary dictionary.  Terms must be written in rare word order,
+    * so they are sorted by rare word token id before they are passed to the binary writer.
+    * The binary writer only writes the dictionary file once every sorted term has been streamed to it.
+    */
+   static private final class BinaryOutput implements DictionaryOutput {
+      private final MappedRareWordDictionaryWriter.TermStreamWriter _writer;
+      private final ExternalSorter _rareWordRows;
+
+      private BinaryOutput( final File dictionaryFile, final Collection<String> termTokens,
+                            final File tempDir, final int sortLines ) throws IOException {
+         _writer = new MappedRareWordDictionaryWriter.TermStreamWriter( termTokens, dictionaryFile );
+         _rareWordRows = new ExternalSorter( "rareWords", tempDir, sortLines );
+      }
+
+      @Override
+      public void writeConcept( final ConceptRecord concept, final Collection<RareWordTerm> terms )
+            throws IOException {
+         final List<String> rows = new ArrayList<>( terms.size() );
+         for ( RareWordTerm term : terms ) {
+            final int rareTokenId = _writer.getTokenId( term._rareWord.__word );
+            rows.add( String.format( "%010d\t%d\t%d\t%s", rareTokenId, term._rareWord.__index, concept._cuiCode,
+                  term._text ) );
+         }
+         _rareWordRows.add( rows );
+      }
+
+      @Override
+      public void close() throws IOException {
+         try ( ExternalSorter.SortedLineReader reader = _rareWordRows.merge() ) {
+            String line = reader.readLine();
+            while ( line != null ) {
+               final String[] row = TAB_PATTERN.split( line, -1 );
+               final String[] tokens = SPACE_PATTERN.split( row[ 3 ] );
+               final int[] tokenIds = new int[ tokens.length ];
+               for ( int i = 0; i < tokens.length; i++ ) {
+                  tokenIds[ i ] = _writer.getTokenId( tokens[ i ] );
+               }
+               _writer.addTerm( tokenIds, Integer.parseInt( row[ 1 ] ), Long.parseLong( row[ 2 ] ) );
+               line = reader.readLine();
+            }
+         } catch ( IOException | RuntimeException e ) {
+            abort();
+            throw e;
+         }
+         _rareWordRows.close();
+         _writer.close();
+      }
+
+      @Override
+      public void abort() {
+         _rareWordRows.close();
+         _writer.abort();
+      }
+   }
+
+
+   static private Collection<Tui> getWantedTuis( final Collection<String> tuiNames ) {
+      final Collection<Tui> wantedTuis = EnumSet.noneOf( Tui.class );
+      for ( String tuiName : tuiNames ) {
+         if ( !tuiName.isEmpty() ) {
+            wantedTuis.add( Tui.valueOf( tuiName.toUpperCase() ) );
+         }
+      }
+      if ( wantedTuis.isEmpty() ) {
+         wantedTuis.addAll( new TuiTableModel().getWantedTuis() );
+      }
+      return wantedTuis;
+   }
+
+   static private Collection<Format> getFormats( final Collection<String> formatNames ) {
+      final Collection<Format> formats = EnumSet.noneOf( Format.class );
+      for ( String formatName : formatNames ) {
+         formats.add( Format.valueOf( formatName.toUpperCase() ) );
+      }
+      return formats;
+   }
+
+   public static void main( final String... args ) {
+      final Options options;
+      try {
+         options = CliFactory.parseArguments( Options.class, args );
+      } catch ( ArgumentValidationException avE ) {
+         LOGGER.error( avE.getMessage() );
+         System.exit( 1 );
+         return;
+      }
+      final File tempDir = options.getTempDirectory().isEmpty() ? null : new File( options.getTempDirectory() );
+      if ( tempDir != null && !tempDir.isDirectory() ) {
+         tempDir.mkdirs();
+      }
+      final HeadlessDictionaryBuilder builder = new HeadlessDictionaryBuilder(
+            options.getUmlsDirectory(),
+            new File( options.getOutputDirectory() ),
+            options.getDictionaryName(),
+            options.getLanguages(),
+            options.getSources(),
+            options.getTargets(),
+            getWantedTuis( options.getTuis() ),
+            getFormats( options.getFormats() ),
+            options.getThreads(),
+            options.getSortLines(),
+            tempDir );
+      if ( !builder.buildDictionary() ) {
+         System.exit( 1 );
+      }
+   }
+
+
+}
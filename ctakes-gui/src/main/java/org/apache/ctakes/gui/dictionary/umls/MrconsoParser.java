@@ -119,7 +119,7 @@ final public class MrconsoParser {
                                                       final int maxWordCount,
                                                       final int maxSymCount ) {
       final String mrconsoPath = umlsDirPath + MR_CONSO_SUB_PATH;
-      final Collection<String> invalidTypeSet = new HashSet<>( Arrays.asList( getNonRxnormExclusions() ) );
+      final Collection<String> invalidTypeSet = getInvalidTermTypes();
       LOGGER.info( "Compiling map of Concepts from " + mrconsoPath );
       long lineCount = 0;
       long textCount = 0;
@@ -130,51 +130,33 @@ final public class MrconsoParser {
             if ( lineCount % 100000 == 0 ) {
                LOGGER.info( "File Line " + lineCount + "   Texts " + textCount );
             }
-            if ( !isRowLengthOk( tokens )
-                 || !isLanguageOk( tokens, languages )
-                 || !isTermTypeOk( tokens, invalidTypeSet ) ) {
+            if ( !isConceptRowOk( tokens, languages, invalidTypeSet ) ) {
                tokens = FileUtil.readBsvTokens( reader, mrconsoPath );
                continue;
             }
-            final Long cuiCode = CuiCodeUtil.getInstance().getCuiCode( getToken( tokens, CUI ) );
+            final Long cuiCode = CuiCodeUtil.getInstance().getCuiCode( getCui( tokens ) );
             final Concept concept = conceptMap.get( cuiCode );
             if ( concept == null ) {
                // cui for current row is unwanted
                tokens = FileUtil.readBsvTokens( reader, mrconsoPath );
                continue;
             }
-            final String text = getToken( tokens, TEXT );
-            if ( !umlsTermUtil.isTextValid( text.toLowerCase() ) ) {
+            final String text = getText( tokens );
+            if ( !isTextValid( text, umlsTermUtil ) ) {
                tokens = FileUtil.readBsvTokens( reader, mrconsoPath );
                continue;
             }
             if ( isPreferredTerm( tokens ) ) {
                concept.setPreferredText( text );
             }
-            // Get tokenized text
-            final String tokenizedText = TextTokenizer.getTokenizedText( text );
-            if ( tokenizedText == null || tokenizedText.isEmpty()
-                 || !umlsTermUtil.isTextValid( tokenizedText )
-                 || DoseUtil.hasUnit( tokenizedText ) ) {
-               tokens = FileUtil.readBsvTokens( reader, mrconsoPath );
-               continue;
-            }
-            // Remove unwanted prefixes and suffixes
-            final String strippedText = umlsTermUtil.getStrippedText( tokenizedText );
-            if ( strippedText == null || strippedText.isEmpty()
-                 || UmlsTermUtil.isTextTooShort( strippedText, minCharLength )
-                 || UmlsTermUtil.isTextTooLong( strippedText, maxCharLength, maxWordCount, maxSymCount ) ) {
-               tokens = FileUtil.readBsvTokens( reader, mrconsoPath );
-               continue;
-            }
             final Collection<String> formattedTexts
-                  = umlsTermUtil.getFormattedTexts( strippedText, extractAbbreviations, minCharLength,
+                  = getFormattedTexts( text, umlsTermUtil, extractAbbreviations, minCharLength,
                   maxCharLength, maxWordCount, maxSymCount );
-            if ( formattedTexts != null && !formattedTexts.isEmpty() ) {
+            if ( !formattedTexts.isEmpty() ) {
                textCount += concept.addTexts( formattedTexts );
                // Add secondary codes
-               final String source = getToken( tokens, SOURCE );
-               final String code = getToken( tokens, SOURCE_CODE );
+               final String source = getSource( tokens );
+               final String code = getSourceCode( tokens );
                if ( wantedTargets.contains( source ) && !code.equals( "NOCODE" ) ) {
                   concept.addCode( source, code );
                }
@@ -193,6 +175,103 @@ final public class MrconsoParser {
       return conceptMap;
    }
 
+   /**
+    * @return term types that are never used for a dictionary
+    */
+   static public Collection<String> getInvalidTermTypes() {
+      return new HashSet<>( Arrays.asList( getNonRxnormExclusions() ) );
+   }
+
+   /**
+    * Methods that examine a single row are thread safe, so rows can be examined in parallel.
+    *
+    * @param tokens         tokens of a row in MRCONSO.RRF
+    * @param languages      wanted languages
+    * @param invalidTypeSet unwanted term types
+    * @return true if the row may hold a text for a concept
+    */
+   static public boolean isConceptRowOk( final List<String> tokens,
+                                         final Collection<String> languages,
+                                         final Collection<String> invalidTypeSet ) {
+      return isRowLengthOk( tokens )
+             && isLanguageOk( tokens, languages )
+             && isTermTypeOk( tokens, invalidTypeSet );
+   }
+
+   /**
+    * @param tokens             tokens of a row in MRCONSO.RRF
+    * @param sourceVocabularies wanted source vocabularies
+    * @param invalidTypeSet     unwanted term types
+    * @return true if the row places its cui in a wanted vocabulary
+    */
+   static public boolean isVocabularyRowOk( final List<String> tokens,
+                                            final Collection<String> sourceVocabularies,
+                                            final Collection<String> invalidTypeSet ) {
+      return tokens.size() > SOURCE._index
+             && sourceVocabularies.contains( getToken( tokens, SOURCE ) )
+             && !invalidTypeSet.contains( getToken( tokens, TERM_TYPE ) );
+   }
+
+   static public String getCui( final List<String> tokens ) {
+      return getToken( tokens, CUI );
+   }
+
+   static public String getText( final List<String> tokens ) {
+      return getToken( tokens, TEXT );
+   }
+
+   static public String getSource( final List<String> tokens ) {
+      return getToken( tokens, SOURCE );
+   }
+
+   static public String getSourceCode( final List<String> tokens ) {
+      return getToken( tokens, SOURCE_CODE );
+   }
+
+   /**
+    * @param text         text of a row in MRCONSO.RRF
+    * @param umlsTermUtil -
+    * @return true if the text can be used, either as a preferred text or to create dictionary texts
+    */
+   static public boolean isTextValid( final String text, final UmlsTermUtil umlsTermUtil ) {
+      return umlsTermUtil.isTextValid( text.toLowerCase() );
+   }
+
+   /**
+    * @param text         valid text of a row in MRCONSO.RRF
+    * @param umlsTermUtil -
+    * @return tokenized and formatted dictionary texts, empty if the text is not wanted in the dictionary
+    */
+   static public Collection<String> getFormattedTexts( final String text,
+                                                       final UmlsTermUtil umlsTermUtil,
+                                                       final boolean extractAbbreviations,
+                                                       final int minCharLength,
+                                                       final int maxCharLength,
+                                                       final int maxWordCount,
+                                                       final int maxSymCount ) {
+      // Get tokenized text
+      final String tokenizedText = TextTokenizer.getTokenizedText( text );
+      if ( tokenizedText == null || tokenizedText.isEmpty()
+           || !umlsTermUtil.isTextValid( tokenizedText )
+           || DoseUtil.hasUnit( tokenizedText ) ) {
+         return Collections.emptyList();
+      }
+      // Remove unwanted prefixes and suffixes
+      final String strippedText = umlsTermUtil.getStrippedText( tokenizedText );
+      if ( strippedText == null || strippedText.isEmpty()
+           || UmlsTermUtil.isTextTooShort( strippedText, minCharLength )
+           || UmlsTermUtil.isTextTooLong( strippedText, maxCharLength, maxWordCount, maxSymCount ) ) {
+         return Collections.emptyList();
+      }
+      final Collection<String> formattedTexts
+            = umlsTermUtil.getFormattedTexts( strippedText, extractAbbreviations, minCharLength,
+            maxCharLength, maxWordCount, maxSymCount );
+      if ( formattedTexts == null ) {
+         return Collections.emptyList();
+      }
+      return formattedTexts;
+   }
+
    static private boolean isRowLengthOk( final List<String> tokens ) {
       return tokens.size() >= TEXT._index;
    }
@@ -217,7 +296,7 @@ final public class MrconsoParser {
       return wantedSources.contains( getToken( tokens, SOURCE ) );
    }
 
-   static private boolean isPreferredTerm( final List<String> tokens ) {
+   static public boolean isPreferredTerm( final List<String> tokens ) {
       return getToken( tokens, STATUS ).equals( "P" ) && getToken( tokens, FORM ).equals( "PF" );
    }
 
@@ -261,6 +340,7 @@ final public class MrconsoParser {
       for ( String target : sourceVocabularies ) {
          sourceCuis.put( target, 0L );
       }
+      final Collection<String> invalidTypeSet = new HashSet<>( Arrays.asList( invalidTypes ) );
       final Collection<Long> validCuis = new HashSet<>();
       long lineCount = 0;
       try ( final BufferedReader reader = FileUtil.createReader( mrconsoPath ) ) {
@@ -272,9 +352,7 @@ final public class MrconsoParser {
                      .collect( Collectors.joining( ", " ) );
                LOGGER.info( "File Lines " + lineCount + "\t Cuis: " + cuis );
             }
-            if ( tokens.size() > SOURCE._index
-                 && sourceVocabularies.stream().anyMatch( getToken( tokens, SOURCE )::equals )
-                 && Arrays.stream( invalidTypes ).noneMatch( getToken( tokens, TERM_TYPE )::equals ) ) {
+            if ( isVocabularyRowOk( tokens, sourceVocabularies, invalidTypeSet ) ) {
                final Long cuiCode = CuiCodeUtil.getInstance().getCuiCode( getToken( tokens, CUI ) );
                if ( validCuis.add( cuiCode ) ) {
                   final String source = getToken( tokens, SOURCE );
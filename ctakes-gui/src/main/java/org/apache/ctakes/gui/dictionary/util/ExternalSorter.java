@@ -0,0 +1,249 @@
+package org.apache.ctakes.gui.dictionary.util;
+
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Sorts more lines of text than fit in memory.
+ * Lines are buffered until the buffer is full, then the buffer is sorted and written to a temporary run file.
+ * When all lines have been added the run files are merged, several levels deep if there are very many runs.
+ * Lines can be added by several threads at once.  A thread that fills the buffer sorts and writes it,
+ * so at most one full buffer per adding thread is held in memory at any time.
+ * Lines are ordered by {@link String#compareTo(String)} and must not contain line breaks.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+final public class ExternalSorter implements Closeable {
+
+   static private final Logger LOGGER = Logger.getLogger( "ExternalSorter" );
+
+   // More runs than this are merged in groups to keep the number of open files reasonable
+   static private final int MAX_MERGE_RUNS = 128;
+   static private final int BUFFER_SIZE = 65536;
+
+   private final String _name;
+   private final File _tempDir;
+   private final int _maxLines;
+   private final List<File> _runFiles = new ArrayList<>();
+   private List<String> _buffer = new ArrayList<>();
+   private long _lineCount;
+
+   /**
+    * @param name     name used for temporary files and logging
+    * @param tempDir  directory for temporary run files, null for the system temporary directory
+    * @param maxLines number of lines held in memory before a run file is written
+    */
+   public ExternalSorter( final String name, final File tempDir, final int maxLines ) {
+      _name = name;
+      _tempDir = tempDir;
+      _maxLines = Math.max( 1, maxLines );
+   }
+
+   /**
+    * @param line line to sort
+    * @throws IOException if a run file could not be written
+    */
+   public void add( final String line ) throws IOException {
+      add( Collections.singletonList( line ) );
+   }
+
+   /**
+    * @param lines lines to sort
+    * @throws IOException if a run file could not be written
+    */
+   public void add( final Collection<String> lines ) throws IOException {
+      List<String> fullBuffer = null;
+      synchronized ( this ) {
+         _buffer.addAll( lines );
+         _lineCount += lines.size();
+         if ( _buffer.size() >= _maxLines ) {
+            fullBuffer = _buffer;
+            _buffer = new ArrayList<>();
+         }
+      }
+      if ( fullBuffer != null ) {
+         // Sort and write outside of the lock so that other threads can keep adding
+         final File runFile = writeRun( fullBuffer );
+         synchronized ( this ) {
+            _runFiles.add( runFile );
+         }
+      }
+   }
+
+   /**
+    * @return number of lines added
+    */
+   synchronized public long getLineCount() {
+      return _lineCount;
+   }
+
+   /**
+    * Call once all lines have been added.
+    *
+    * @return reader of all lines in sorted order.  The reader must be closed.
+    * @throws IOException if the run files could not be merged
+    */
+   synchronized public SortedLineReader merge() throws IOException {
+      if ( _runFiles.isEmpty() ) {
+         // Everything fits in memory
+         final List<String> lines = _buffer;
+         _buffer = new ArrayList<>();
+         lines.sort( null );
+         return new SortedLineReader( lines.iterator(), Collections.emptyList() );
+      }
+      if ( !_buffer.isEmpty() ) {
+         _runFiles.add( writeRun( _buffer ) );
+         _buffer = new ArrayList<>();
+      }
+      while ( _runFiles.size() > MAX_MERGE_RUNS ) {
+         LOGGER.info( _name + " merging " + _runFiles.size() + " runs in groups of " + MAX_MERGE_RUNS );
+         final List<File> mergedFiles = new ArrayList<>();
+         for ( int i = 0; i < _runFiles.size(); i += MAX_MERGE_RUNS ) {
+            final List<File> group = _runFiles.subList( i, Math.min( i + MAX_MERGE_RUNS, _runFiles.size() ) );
+            mergedFiles.add( mergeRuns( group ) );
+            group.forEach( File::delete );
+         }
+         _runFiles.clear();
+         _runFiles.addAll( mergedFiles );
+      }
+      LOGGER.info( _name + " merging " + _lineCount + " lines from " + _runFiles.size() + " runs" );
+      return new SortedLineReader( null, openRuns( _runFiles ) );
+   }
+
+   /**
+    * Deletes all temporary run files.
+    */
+   @Override
+   synchronized public void close() {
+      _runFiles.forEach( File::delete );
+      _runFiles.clear();
+      _buffer = new ArrayList<>();
+   }
+
+   private File writeRun( final List<String> lines ) throws IOException {
+      lines.sort( null );
+      final File runFile = File.createTempFile( _name + "_run", ".txt", _tempDir );
+      runFile.deleteOnExit();
+      try ( Writer writer = createWriter( runFile ) ) {
+         for ( String line : lines ) {
+            writer.write( line );
+            writer.write( '\n' );
+         }
+      }
+      return runFile;
+   }
+
+   private File mergeRuns( final List<File> runFiles ) throws IOException {
+      final File mergedFile = File.createTempFile( _name + "_run", ".txt", _tempDir );
+      mergedFile.deleteOnExit();
+      try ( SortedLineReader reader = new SortedLineReader( null, openRuns( runFiles ) );
+            Writer writer = createWriter( mergedFile ) ) {
+         String line = reader.readLine();
+         while ( line != null ) {
+            writer.write( line );
+            writer.write( '\n' );
+            line = reader.readLine();
+         }
+      }
+      return mergedFile;
+   }
+
+   static private Writer createWriter( final File file ) throws IOException {
+      return new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ), StandardCharsets.UTF_8 ),
+            BUFFER_SIZE );
+   }
+
+   static private List<BufferedReader> openRuns( final Collection<File> runFiles ) throws IOException {
+      final List<BufferedReader> readers = new ArrayList<>( runFiles.size() );
+      try {
+         for ( File runFile : runFiles ) {
+            readers.add( Files.newBufferedReader( runFile.toPath(), StandardCharsets.UTF_8 ) );
+         }
+      } catch ( IOException ioE ) {
+         for ( BufferedReader reader : readers ) {
+            reader.close();
+         }
+         throw ioE;
+      }
+      return readers;
+   }
+
+
+   /**
+    * Reads sorted lines, either from memory or by merging run files.
+    */
+   static public final class SortedLineReader implements Closeable {
+      private final Iterator<String> _memoryLines;
+      private final List<BufferedReader> _readers;
+      private final PriorityQueue<RunHead> _heads;
+
+      private SortedLineReader( final Iterator<String> memoryLines, final List<BufferedReader> readers )
+            throws IOException {
+         _memoryLines = memoryLines;
+         _readers = readers;
+         _heads = new PriorityQueue<>( Math.max( 1, readers.size() ) );
+         for ( BufferedReader reader : readers ) {
+            final String line = reader.readLine();
+            if ( line != null ) {
+               _heads.add( new RunHead( reader, line ) );
+            }
+         }
+      }
+
+      /**
+       * @return the next line in sort order, or null if there are no more lines
+       * @throws IOException if a run file could not be read
+       */
+      public String readLine() throws IOException {
+         if ( _memoryLines != null ) {
+            return _memoryLines.hasNext() ? _memoryLines.next() : null;
+         }
+         final RunHead head = _heads.poll();
+         if ( head == null ) {
+            return null;
+         }
+         final String line = head._line;
+         head._line = head._reader.readLine();
+         if ( head._line != null ) {
+            _heads.add( head );
+         }
+         return line;
+      }
+
+      @Override
+      public void close() throws IOException {
+         for ( BufferedReader reader : _readers ) {
+            reader.close();
+         }
+         _heads.clear();
+      }
+   }
+
+
+   /**
+    * The current line of one run file
+    */
+   static private final class RunHead implements Comparable<RunHead> {
+      private final BufferedReader _reader;
+      private String _line;
+
+      private RunHead( final BufferedReader reader, final String line ) {
+         _reader = reader;
+         _line = line;
+      }
+
+      @Override
+      public int compareTo( final RunHead other ) {
+         return _line.compareTo( other._line );
+      }
+   }
+
+
+}
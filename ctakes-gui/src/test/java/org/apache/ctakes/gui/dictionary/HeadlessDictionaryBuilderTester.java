@@ -0,0 +1,152 @@
+package org.apache.ctakes.gui.dictionary;
+
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.dictionary.lookup2.dictionary.MappedRareWordDictionary;
+import org.apache.ctakes.dictionary.lookup2.dictionary.MappedRareWordDictionaryWriter;
+import org.apache.ctakes.dictionary.lookup2.term.RareWordTerm;
+import org.apache.ctakes.gui.dictionary.umls.Concept;
+import org.apache.ctakes.gui.dictionary.umls.CuiCodeUtil;
+import org.apache.ctakes.gui.dictionary.umls.Tui;
+import org.apache.ctakes.gui.dictionary.umls.TuiTableModel;
+import org.apache.ctakes.gui.dictionary.umls.UmlsTermUtil;
+import org.apache.ctakes.gui.dictionary.util.RareWordUtil;
+import org.apache.ctakes.gui.dictionary.util.TokenUtil;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link HeadlessDictionaryBuilder} writes the same bsv rows and binary terms as the
+ * in-memory {@link DictionaryBuilder} flow, with everything sorted in memory and with sorts spilled to disk.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class HeadlessDictionaryBuilderTester {
+
+   static private final String UMLS_DIR = "org/apache/ctakes/gui/dictionary/umls";
+   static private final String NAME = "test";
+
+   static private final Collection<String> LANGUAGES = Collections.singletonList( "ENG" );
+   static private final Collection<String> SOURCES = Arrays.asList( "SNOMEDCT_US", "RXNORM" );
+
+   static private String _umlsDirPath;
+   static private Collection<Tui> _wantedTuis;
+   static private Map<Long, Concept> _conceptMap;
+
+   @Rule
+   public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+   @BeforeClass
+   static public void parseConcepts() throws IOException {
+      _umlsDirPath = FileLocator.getFile( UMLS_DIR + "/META/MRCONSO.RRF" ).getParentFile().getParent();
+      _wantedTuis = new TuiTableModel().getWantedTuis();
+      // MrstyParser removes the tuis that it finds from the given tuis , so it gets a copy
+      _conceptMap = DictionaryBuilder.parseAll( new UmlsTermUtil( DictionaryBuilder.DEFAULT_DATA_DIR ),
+            _umlsDirPath, LANGUAGES, SOURCES, SOURCES, EnumSet.copyOf( _wantedTuis ) );
+   }
+
+   @Test
+   public void testMemorySorts() throws IOException {
+      assertSameDictionary( 1000000 );
+   }
+
+   @Test
+   public void testDiskSorts() throws IOException {
+      // One row per sort run
+      assertSameDictionary( 1 );
+   }
+
+   /**
+    * Builds bsv and binary dictionaries with the headless builder and compares them to those of the in-memory flow
+    *
+    * @param sortLines lines held in memory by each sort
+    */
+   private void assertSameDictionary( final int sortLines ) throws IOException {
+      final File outputDir = _tempFolder.newFolder( "output" );
+      final File tempDir = _tempFolder.newFolder( "sorts" );
+      final HeadlessDictionaryBuilder builder = new HeadlessDictionaryBuilder( _umlsDirPath, outputDir, NAME,
+            LANGUAGES, SOURCES, SOURCES, _wantedTuis,
+            EnumSet.of( HeadlessDictionaryBuilder.Format.BSV, HeadlessDictionaryBuilder.Format.BINARY ),
+            2, sortLines, tempDir );
+      assertTrue( builder.buildDictionary() );
+      assertArrayEquals( "Sort files should be deleted", new String[ 0 ], tempDir.list() );
+
+      final Map<String, Long> tokenCounts = RareWordUtil.getTokenCounts( _conceptMap.values() );
+      final List<String> expectedBsv = new ArrayList<>();
+      final Map<String, List<RareWordTerm>> rareWordTerms = new HashMap<>();
+      for ( Map.Entry<Long, Concept> entry : _conceptMap.entrySet() ) {
+         addTerms( entry.getKey(), entry.getValue(), tokenCounts, expectedBsv, rareWordTerms );
+      }
+      Collections.sort( expectedBsv );
+      final List<String> bsv = Files.readAllLines( new File( outputDir, NAME + ".bsv" ).toPath(),
+            StandardCharsets.UTF_8 );
+      Collections.sort( bsv );
+      assertFalse( bsv.isEmpty() );
+      assertEquals( expectedBsv, bsv );
+      assertTrue( "Culled by wsd",
+            bsv.stream().noneMatch( l -> l.startsWith( "C0085593|" ) && l.contains( "|cold|" ) ) );
+      assertTrue( "Not in a wanted vocabulary", bsv.stream().noneMatch( l -> l.startsWith( "C0028754|" ) ) );
+
+      final File expectedFile = _tempFolder.newFile( "expected.dict" );
+      MappedRareWordDictionaryWriter.writeDictionary( rareWordTerms, expectedFile );
+      assertEquals( describe( new MappedRareWordDictionary( "expected", expectedFile ) ),
+            describe( new MappedRareWordDictionary( NAME, new File( outputDir, NAME + ".dict" ) ) ) );
+   }
+
+   /**
+    * Adds the rows and terms that the headless builder should write for a concept of the in-memory flow
+    */
+   static private void addTerms( final Long cuiCode, final Concept concept, final Map<String, Long> tokenCounts,
+                                 final Collection<String> bsvRows,
+                                 final Map<String, List<RareWordTerm>> rareWordTerms ) {
+      final String cui = CuiCodeUtil.getInstance().getAsCui( cuiCode );
+      final String tui = concept.getTuis().isEmpty()
+                         ? "" : EnumSet.copyOf( concept.getTuis() ).iterator().next().name();
+      String preferredText = concept.getPreferredText();
+      if ( preferredText.equals( Concept.PREFERRED_TERM_UNKNOWN ) ) {
+         preferredText = "";
+      }
+      for ( String text : concept.getTexts() ) {
+         if ( text.length() >= 255 ) {
+            continue;
+         }
+         final RareWordUtil.IndexedRareWord rareWord = RareWordUtil.getIndexedRareWord( text, tokenCounts );
+         if ( RareWordUtil.NULL_RARE_WORD.equals( rareWord ) ) {
+            continue;
+         }
+         if ( text.indexOf( '|' ) < 0 ) {
+            bsvRows.add( TokenUtil.createBsvLine( cui, tui, text, preferredText.replace( '|', ' ' ) ) );
+         }
+         rareWordTerms.computeIfAbsent( rareWord.__word, w -> new ArrayList<>() )
+                      .add( new RareWordTerm( text, cuiCode, rareWord.__word, rareWord.__index,
+                            rareWord.__tokenCount ) );
+      }
+   }
+
+   /**
+    * @param dictionary -
+    * @return sorted cui , rare word index and text of every term
+    */
+   static private List<String> describe( final MappedRareWordDictionary dictionary ) {
+      final List<String> terms = new ArrayList<>();
+      for ( RareWordTerm term : dictionary.getAllTerms() ) {
+         terms.add( term.getCuiCode() + " " + term.getRareWordIndex() + " " + term.getRareWord()
+                    + " " + term.getText() );
+      }
+      Collections.sort( terms );
+      assertFalse( terms.isEmpty() );
+      return terms;
+   }
+
+}
@@ -0,0 +1,181 @@
+package org.apache.ctakes.gui.dictionary.umls;
+
+import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.gui.dictionary.util.TokenUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the row and text methods of the {@link MrconsoParser} that are shared by the dictionary builders,
+ * and that parsing all concepts applies the same rules as those methods.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class MrconsoParserTester {
+
+   static private final String UMLS_DIR = "org/apache/ctakes/gui/dictionary/umls";
+   static private final String DATA_DIR = "org/apache/ctakes/gui/dictionary/data/tiny";
+
+   static private final Collection<String> LANGUAGES = Collections.singletonList( "ENG" );
+   static private final Collection<String> SOURCES = Arrays.asList( "SNOMEDCT_US", "RXNORM" );
+
+   static private String _umlsDirPath;
+   static private UmlsTermUtil _umlsTermUtil;
+
+   @BeforeClass
+   static public void loadUmls() throws IOException {
+      _umlsDirPath = FileLocator.getFile( UMLS_DIR + "/META/MRCONSO.RRF" ).getParentFile().getParent();
+      _umlsTermUtil = new UmlsTermUtil( DATA_DIR );
+   }
+
+   @Test
+   public void testConceptRow() {
+      final Collection<String> invalidTypes = MrconsoParser.getInvalidTermTypes();
+      assertTrue( MrconsoParser.isConceptRowOk(
+            createRow( "C0027051", "ENG", "P", "PF", "SNOMEDCT_US", "PT", "22298006", "Myocardial infarction" ),
+            LANGUAGES, invalidTypes ) );
+      assertTrue( "Other vocabularies can add texts to a wanted concept", MrconsoParser.isConceptRowOk(
+            createRow( "C0027051", "ENG", "S", "PF", "MSH", "MH", "D009203", "Infarction, Myocardial" ),
+            LANGUAGES, invalidTypes ) );
+      assertFalse( MrconsoParser.isConceptRowOk(
+            createRow( "C0027051", "SPA", "S", "PF", "MSHSPA", "MH", "D009203", "Infarto del miocardio" ),
+            LANGUAGES, invalidTypes ) );
+      assertFalse( "Rxnorm synonyms are unwanted", MrconsoParser.isConceptRowOk(
+            createRow( "C0004057", "ENG", "S", "PF", "RXNORM", "SY", "1191", "ASA" ), LANGUAGES, invalidTypes ) );
+      assertTrue( MrconsoParser.isConceptRowOk(
+            createRow( "C0018787", "ENG", "S", "PF", "SNOMEDCT_US", "SY", "80891009", "Heart" ),
+            LANGUAGES, invalidTypes ) );
+      final String invalidType = invalidTypes.iterator().next();
+      assertFalse( invalidType, MrconsoParser.isConceptRowOk(
+            createRow( "C0018787", "ENG", "S", "PF", "SNOMEDCT_US", invalidType, "80891009", "Heart" ),
+            LANGUAGES, invalidTypes ) );
+      assertFalse( MrconsoParser.isConceptRowOk( Arrays.asList( "C0018787", "ENG", "P" ), LANGUAGES, invalidTypes ) );
+   }
+
+   @Test
+   public void testVocabularyRow() {
+      final Collection<String> invalidTypes = MrconsoParser.getInvalidTermTypes();
+      assertTrue( MrconsoParser.isVocabularyRowOk(
+            createRow( "C0008031", "ENG", "P", "PF", "SNOMEDCT_US", "PT", "29857009", "Chest pain" ),
+            SOURCES, invalidTypes ) );
+      assertTrue( MrconsoParser.isVocabularyRowOk(
+            createRow( "C0004057", "ENG", "S", "PF", "RXNORM", "SY", "1191", "ASA" ), SOURCES, invalidTypes ) );
+      assertFalse( MrconsoParser.isVocabularyRowOk(
+            createRow( "C0028754", "ENG", "P", "PF", "MSH", "MH", "D009765", "Obesity" ), SOURCES, invalidTypes ) );
+      final String invalidType = invalidTypes.iterator().next();
+      assertFalse( invalidType, MrconsoParser.isVocabularyRowOk(
+            createRow( "C0008031", "ENG", "S", "PF", "SNOMEDCT_US", invalidType, "29857009", "Chest pain" ),
+            SOURCES, invalidTypes ) );
+      assertFalse( MrconsoParser.isVocabularyRowOk( Arrays.asList( "C0008031", "ENG" ), SOURCES, invalidTypes ) );
+   }
+
+   @Test
+   public void testRowValues() {
+      final List<String> row
+            = createRow( "C0008031", "ENG", "P", "PF", "SNOMEDCT_US", "PT", "29857009", "Chest pain" );
+      assertEquals( "C0008031", MrconsoParser.getCui( row ) );
+      assertEquals( "Chest pain", MrconsoParser.getText( row ) );
+      assertEquals( "SNOMEDCT_US", MrconsoParser.getSource( row ) );
+      assertEquals( "29857009", MrconsoParser.getSourceCode( row ) );
+      assertTrue( MrconsoParser.isPreferredTerm( row ) );
+      assertFalse( MrconsoParser.isPreferredTerm(
+            createRow( "C0008031", "ENG", "S", "PF", "SNOMEDCT_US", "SY", "29857009", "Pain in chest" ) ) );
+      assertFalse( MrconsoParser.isPreferredTerm(
+            createRow( "C0008031", "ENG", "P", "VO", "SNOMEDCT_US", "PT", "29857009", "Chest pain" ) ) );
+   }
+
+   @Test
+   public void testTexts() {
+      assertTrue( MrconsoParser.isTextValid( "Heart attack", _umlsTermUtil ) );
+      assertFalse( MrconsoParser.isTextValid( "Fi\u00e8vre", _umlsTermUtil ) );
+      assertFalse( MrconsoParser.isTextValid( "123", _umlsTermUtil ) );
+      assertTrue( getFormattedTexts( "Heart attack" ).contains( "heart attack" ) );
+      assertEquals( "Texts with doses are unwanted",
+            Collections.emptyList(), getFormattedTexts( "Aspirin 81 MG Oral Tablet" ) );
+      assertEquals( Collections.emptyList(), getFormattedTexts( "A" ) );
+      assertEquals( Collections.emptyList(),
+            getFormattedTexts( "one two three four five six seven eight nine ten eleven twelve thirteen" ) );
+   }
+
+   @Test
+   public void testParseAllConcepts() throws IOException {
+      final Map<Long, Concept> conceptMap
+            = ConceptMapFactory.createInitialConceptMap( _umlsDirPath, SOURCES, new TuiTableModel().getWantedTuis() );
+      assertFalse( "Concept not in a wanted vocabulary",
+            conceptMap.containsKey( CuiCodeUtil.getInstance().getCuiCode( "C0028754" ) ) );
+      MrconsoParser.parseAllConcepts( _umlsDirPath, conceptMap, SOURCES, SOURCES, _umlsTermUtil, LANGUAGES, true,
+            2, 48, 12, 7 );
+      // Apply the row methods to every row, as the headless builder does
+      final Collection<String> invalidTypes = MrconsoParser.getInvalidTermTypes();
+      final Map<Long, Map<String, Integer>> textCounts = new HashMap<>();
+      final Map<Long, String> preferredTexts = new HashMap<>();
+      final Map<Long, Set<String>> codes = new HashMap<>();
+      final File mrconso = new File( _umlsDirPath, "META/MRCONSO.RRF" );
+      for ( String line : Files.readAllLines( mrconso.toPath(), StandardCharsets.UTF_8 ) ) {
+         final List<String> row = TokenUtil.getBsvItems( line );
+         if ( !MrconsoParser.isConceptRowOk( row, LANGUAGES, invalidTypes ) ) {
+            continue;
+         }
+         final Long cuiCode = CuiCodeUtil.getInstance().getCuiCode( MrconsoParser.getCui( row ) );
+         final String text = MrconsoParser.getText( row );
+         if ( !conceptMap.containsKey( cuiCode ) || !MrconsoParser.isTextValid( text, _umlsTermUtil ) ) {
+            continue;
+         }
+         if ( MrconsoParser.isPreferredTerm( row ) ) {
+            preferredTexts.put( cuiCode, text );
+         }
+         final Collection<String> texts = getFormattedTexts( text );
+         if ( texts.isEmpty() ) {
+            continue;
+         }
+         texts.forEach( t -> textCounts.computeIfAbsent( cuiCode, c -> new HashMap<>() ).merge( t, 1, Integer::sum ) );
+         if ( SOURCES.contains( MrconsoParser.getSource( row ) )
+              && !MrconsoParser.getSourceCode( row ).equals( "NOCODE" ) ) {
+            codes.computeIfAbsent( cuiCode, c -> new HashSet<>() )
+                 .add( MrconsoParser.getSource( row ) + ":" + MrconsoParser.getSourceCode( row ) );
+         }
+      }
+      assertFalse( textCounts.isEmpty() );
+      for ( Map.Entry<Long, Concept> entry : conceptMap.entrySet() ) {
+         final Long cuiCode = entry.getKey();
+         final Concept concept = entry.getValue();
+         final Map<String, Integer> expectedCounts = textCounts.getOrDefault( cuiCode, Collections.emptyMap() );
+         assertEquals( expectedCounts.keySet(), new HashSet<>( concept.getTexts() ) );
+         for ( Map.Entry<String, Integer> count : expectedCounts.entrySet() ) {
+            assertEquals( count.getKey(), count.getValue().intValue(), concept.getCount( count.getKey() ) );
+         }
+         assertEquals( preferredTexts.getOrDefault( cuiCode, Concept.PREFERRED_TERM_UNKNOWN ),
+               concept.getPreferredText() );
+         final Set<String> conceptCodes = new HashSet<>();
+         for ( String vocabulary : concept.getVocabularies() ) {
+            concept.getCodes( vocabulary ).forEach( c -> conceptCodes.add( vocabulary + ":" + c ) );
+         }
+         assertEquals( codes.getOrDefault( cuiCode, Collections.emptySet() ), conceptCodes );
+      }
+   }
+
+   static private Collection<String> getFormattedTexts( final String text ) {
+      return MrconsoParser.getFormattedTexts( text, _umlsTermUtil, true, 2, 48, 12, 7 );
+   }
+
+   /**
+    * @return tokens of an MRCONSO.RRF row with the given values and placeholders for the other columns
+    */
+   static private List<String> createRow( final String cui, final String language, final String status,
+                                          final String form, final String source, final String termType,
+                                          final String code, final String text ) {
+      return TokenUtil.getBsvItems( String.join( "|", cui, language, status, "L0000001", form, "S0000001", "Y",
+            "A0000001", "", "", "", source, termType, code, text, "0", "N", "256" ) + "|" );
+   }
+
+}
@@ -0,0 +1,126 @@
+package org.apache.ctakes.gui.dictionary.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the {@link ExternalSorter} returns every line in order, in memory and from merged run files.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class ExternalSorterTester {
+
+   // More than ExternalSorter.MAX_MERGE_RUNS , so that one line per run needs two levels of merging
+   static private final int MANY_LINES = 300;
+
+   @Rule
+   public TemporaryFolder _tempFolder = new TemporaryFolder();
+
+   @Test
+   public void testMemorySort() throws IOException {
+      final List<String> lines = createLines( 50, 1 );
+      try ( ExternalSorter sorter = new ExternalSorter( "memory", _tempFolder.getRoot(), 1000 ) ) {
+         sorter.add( lines );
+         assertEquals( lines.size(), sorter.getLineCount() );
+         assertEquals( sort( lines ), readAll( sorter ) );
+      }
+      assertArrayEquals( "Nothing should be spilled to disk", new String[ 0 ], _tempFolder.getRoot().list() );
+   }
+
+   @Test
+   public void testMultiLevelMerge() throws IOException {
+      final List<String> lines = createLines( MANY_LINES, 2 );
+      final File tempDir = _tempFolder.newFolder( "runs" );
+      try ( ExternalSorter sorter = new ExternalSorter( "merge", tempDir, 1 ) ) {
+         for ( String line : lines ) {
+            sorter.add( line );
+         }
+         assertEquals( MANY_LINES, tempDir.list().length );
+         assertEquals( sort( lines ), readAll( sorter ) );
+      }
+      assertArrayEquals( "Run files should be deleted", new String[ 0 ], tempDir.list() );
+   }
+
+   @Test
+   public void testPartialRuns() throws IOException {
+      // Runs of 7 lines with a partial buffer left over when the merge starts
+      final List<String> lines = createLines( MANY_LINES * 3 + 4, 3 );
+      try ( ExternalSorter sorter = new ExternalSorter( "partial", _tempFolder.getRoot(), 7 ) ) {
+         for ( int i = 0; i < lines.size(); i += 5 ) {
+            sorter.add( lines.subList( i, Math.min( i + 5, lines.size() ) ) );
+         }
+         assertEquals( sort( lines ), readAll( sorter ) );
+      }
+   }
+
+   @Test
+   public void testThreadedAdd() throws Exception {
+      final List<String> lines = createLines( MANY_LINES * 10, 4 );
+      final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+      try ( ExternalSorter sorter = new ExternalSorter( "threads", _tempFolder.getRoot(), 16 ) ) {
+         final List<Future<?>> futures = new ArrayList<>();
+         for ( int i = 0; i < lines.size(); i += 10 ) {
+            final List<String> chunk = lines.subList( i, Math.min( i + 10, lines.size() ) );
+            futures.add( executor.submit( () -> {
+               sorter.add( chunk );
+               return null;
+            } ) );
+         }
+         for ( Future<?> future : futures ) {
+            future.get();
+         }
+         assertEquals( lines.size(), sorter.getLineCount() );
+         assertEquals( sort( lines ), readAll( sorter ) );
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * @param count number of lines
+    * @param seed  random seed
+    * @return lines with duplicates , tabs and non-ascii characters , as in sort rows of the dictionary builder
+    */
+   static private List<String> createLines( final int count, final long seed ) {
+      final Random random = new Random( seed );
+      final String[] words = { "heart", "Heart", "attack", "fi\u00e8vre", "pain", "", "b12", "(finding)" };
+      final List<String> lines = new ArrayList<>( count );
+      for ( int i = 0; i < count; i++ ) {
+         lines.add( String.format( "C%07d\t%s\t%s", random.nextInt( count / 2 + 1 ),
+               words[ random.nextInt( words.length ) ], words[ random.nextInt( words.length ) ] ) );
+      }
+      return lines;
+   }
+
+   static private List<String> sort( final Collection<String> lines ) {
+      final List<String> sorted = new ArrayList<>( lines );
+      Collections.sort( sorted );
+      return sorted;
+   }
+
+   static private List<String> readAll( final ExternalSorter sorter ) throws IOException {
+      final List<String> lines = new ArrayList<>();
+      try ( ExternalSorter.SortedLineReader reader = sorter.merge() ) {
+         String line = reader.readLine();
+         while ( line != null ) {
+            lines.add( line );
+            line = reader.readLine();
+         }
+      }
+      return lines;
+   }
+
+}
@@ -210,6 +210,9 @@ public class ContextAnnotator extends org.apache.uima.fit.component.JCasAnnotato
 	int focusType;
 	int contextType;
 
+	// context annotations of the window being processed
+	private WindowContextIndex windowContextIndex;
+
 	public void initialize(UimaContext uimaContext) throws ResourceInitializationException {
 		super.initialize(uimaContext);
 
@@ -274,6 +277,10 @@ public class ContextAnnotator extends org.apache.uima.fit.component.JCasAnnotato
 			while (windowIterator.hasNext()) {
 				Annotation window = (Annotation) windowIterator.next();
 				List<Annotation> focusList = constrainToWindow(jCas, focusType, window);
+				if (focusList.isEmpty()) {
+					continue;
+				}
+				windowContextIndex = new WindowContextIndex(jCas, contextType, window);
 
 				// why is this list reversed?
 				Collections.reverse(focusList);
@@ -295,10 +302,23 @@ public class ContextAnnotator extends org.apache.uima.fit.component.JCasAnnotato
 			}
 		} catch (Exception e) {
 			throw new AnalysisEngineProcessException(e);
+		} finally {
+			windowContextIndex = null;
 		}
 
 	}
 
+	/**
+	 * @return the context annotations of the window, indexed once for all of
+	 *         the foci and scopes in the window
+	 */
+	private WindowContextIndex getWindowContextIndex(JCas jCas, Annotation window) {
+		if (windowContextIndex != null && windowContextIndex.getWindow() == window) {
+			return windowContextIndex;
+		}
+		return new WindowContextIndex(jCas, contextType, window);
+	}
+
 	protected List<Annotation> getScopeContextAnnotations(JCas jCas, Annotation focus, Annotation window, int scope)
 			throws AnalysisEngineProcessException {
 		List<Annotation> scopeContextAnnotations = new ArrayList<Annotation>();
@@ -331,30 +351,7 @@ public class ContextAnnotator extends org.apache.uima.fit.component.JCasAnnotato
 		if (focus.getBegin() < window.getBegin() || focus.getEnd() > window.getEnd())
 			return scopeContextAnnotations;
 
-		FSIterator subiterator = jCas.getAnnotationIndex(contextType).subiterator(window);
-		subiterator.moveTo(focus);
-		subiterator.moveToNext();
-		if (!subiterator.isValid())
-			subiterator.moveTo(focus);
-
-		while (scopeContextAnnotations.size() < leftScopeSize) {
-			subiterator.moveToPrevious();
-			if (subiterator.isValid()) {
-				Annotation contextAnnotation = (Annotation) subiterator.get();
-				if (contextAnnotation.getEnd() > focus.getBegin()) {
-					continue;
-				}
-				if (!contextAnalyzer.isBoundary(contextAnnotation, LEFT_SCOPE)) {
-					scopeContextAnnotations.add(contextAnnotation);
-				} else {
-					break;
-				}
-			} else {
-				break;
-			}
-		}
-		Collections.reverse(scopeContextAnnotations);
-		return scopeContextAnnotations;
+		return getWindowContextIndex(jCas, window).getLeftScope(focus, leftScopeSize, contextAnalyzer);
 	}
 
 	protected List<Annotation> getRightScopeContextAnnotations(JCas jCas, Annotation focus, Annotation window)
@@ -367,29 +364,7 @@ public class ContextAnnotator extends org.apache.uima.fit.component.JCasAnnotato
 		if (focus.getBegin() < window.getBegin() || focus.getEnd() > window.getEnd())
 			return scopeContextAnnotations;
 
-		FSIterator subiterator = jCas.getAnnotationIndex(contextType).subiterator(window);
-		subiterator.moveTo(focus);
-		subiterator.moveToPrevious();
-		if (!subiterator.isValid())
-			subiterator.moveTo(focus);
-
-		while (scopeContextAnnotations.size() < rightScopeSize) {
-			subiterator.moveToNext();
-			if (subiterator.isValid()) {
-				Annotation contextAnnotation = (Annotation) subiterator.get();
-				if (contextAnnotation.getBegin() < focus.getEnd()) {
-					continue;
-				}
-				if (!contextAnalyzer.isBoundary(contextAnnotation, RIGHT_SCOPE)) {
-					scopeContextAnnotations.add(contextAnnotation);
-				} else {
-					break;
-				}
-			} else {
-				break;
-			}
-		}
-		return scopeContextAnnotations;
+		return getWindowContextIndex(jCas, window).getRightScope(focus, rightScopeSize, contextAnalyzer);
 	}
 
 	protected List<Annotation> getMiddleScopeContextAnnotations(JCas jCas, Annotation focus)
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.necontexts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+/**
+ * The context annotations of one window, in index order, with their offsets in
+ * arrays. Left and right scopes for every focus in the window are found by
+ * binary search instead of a new subiterator over the context index for each
+ * focus and scope.
+ * <p>
+ * The scopes are the same as those of the subiterator moves that
+ * {@link ContextAnnotator} made before, down to the edge cases of a focus that
+ * comes before or after every context annotation.
+ * 
+ * @author Mayo Clinic
+ */
+final class WindowContextIndex {
+	private final Annotation iv_window;
+	private final Annotation[] iv_annotations;
+	private final int[] iv_begins;
+	private final int[] iv_ends;
+
+	WindowContextIndex(JCas jCas, int contextType, Annotation window) {
+		iv_window = window;
+		List<Annotation> list = new ArrayList<Annotation>();
+		FSIterator subiterator = jCas.getAnnotationIndex(contextType).subiterator(window);
+		while (subiterator.hasNext()) {
+			list.add((Annotation) subiterator.next());
+		}
+		iv_annotations = list.toArray(new Annotation[list.size()]);
+		iv_begins = new int[iv_annotations.length];
+		iv_ends = new int[iv_annotations.length];
+		for (int i = 0; i < iv_annotations.length; i++) {
+			iv_begins[i] = iv_annotations[i].getBegin();
+			iv_ends[i] = iv_annotations[i].getEnd();
+		}
+	}
+
+	Annotation getWindow() {
+		return iv_window;
+	}
+
+	/**
+	 * @return up to maxSize context annotations that end at or before the
+	 *         focus begins, nearest last, stopping before a boundary
+	 */
+	List<Annotation> getLeftScope(Annotation focus, int maxSize, ContextAnalyzer contextAnalyzer)
+			throws AnalysisEngineProcessException {
+		List<Annotation> scope = new ArrayList<Annotation>();
+		int size = iv_annotations.length;
+		int position = indexOf(focus);
+		if (position >= size) {
+			// the subiterator was moved past the end and never came back, so a
+			// focus after every context annotation had no left scope
+			return scope;
+		}
+		// the subiterator was moved to the focus and one past it, or back to
+		// the focus when that ran off the end, before stepping back
+		int start = position + 1 < size ? position : position - 1;
+		for (int i = start; i >= 0 && scope.size() < maxSize; i--) {
+			if (iv_ends[i] > focus.getBegin()) {
+				continue;
+			}
+			if (contextAnalyzer.isBoundary(iv_annotations[i], ContextAnnotator.LEFT_SCOPE)) {
+				break;
+			}
+			scope.add(iv_annotations[i]);
+		}
+		Collections.reverse(scope);
+		return scope;
+	}
+
+	/**
+	 * @return up to maxSize context annotations that begin at or after the
+	 *         focus ends, nearest first, stopping before a boundary
+	 */
+	List<Annotation> getRightScope(Annotation focus, int maxSize, ContextAnalyzer contextAnalyzer)
+			throws AnalysisEngineProcessException {
+		List<Annotation> scope = new ArrayList<Annotation>();
+		int position = indexOf(focus);
+		// the subiterator was moved to the focus and one before it, or back
+		// to the focus when that ran off the start, before stepping ahead
+		int start = position > 0 ? position : position + 1;
+		for (int i = start; i < iv_annotations.length && scope.size() < maxSize; i++) {
+			if (iv_begins[i] < focus.getEnd()) {
+				continue;
+			}
+			if (contextAnalyzer.isBoundary(iv_annotations[i], ContextAnnotator.RIGHT_SCOPE)) {
+				break;
+			}
+			scope.add(iv_annotations[i]);
+		}
+		return scope;
+	}
+
+	/**
+	 * @return the index of the first context annotation at or after the focus
+	 *         in annotation index order, begin ascending and end descending
+	 */
+	private int indexOf(Annotation focus) {
+		int begin = focus.getBegin();
+		int end = focus.getEnd();
+		int low = 0;
+		int high = iv_annotations.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (iv_begins[mid] < begin || (iv_begins[mid] == begin && iv_ends[mid] > end)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,299 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.necontexts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.ctakes.typesystem.type.syntax.BaseToken;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.ctakes.typesystem.type.textspan.Sentence;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.Test;
+
+/**
+ * Checks that the left and right scopes of {@link WindowContextIndex} are
+ * those of the subiterator moves that {@link ContextAnnotator} made before
+ * the index, for every scope size and with and without boundaries.
+ */
+public class WindowContextIndexTests {
+
+	@Test
+	public void testFocusAtFirstAndLastAnnotation() throws Exception {
+		JCas jCas = JCasFactory.createJCas();
+		String text = "No chest pain or fever today .";
+		jCas.setDocumentText(text);
+		List<BaseToken> tokens = addTokens(jCas, text);
+		Sentence sentence = new Sentence(jCas, 0, text.length());
+		BaseToken first = tokens.get(0);
+		BaseToken last = tokens.get(tokens.size() - 1);
+		// the focus as a context annotation and as an annotation of another type
+		assertSameScopes(jCas, sentence, first, tokens);
+		assertSameScopes(jCas, sentence, last, tokens);
+		assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, first.getBegin(), first.getEnd()), tokens);
+		assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, last.getBegin(), last.getEnd()), tokens);
+		// foci before and after every context annotation
+		assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, 0, 0), tokens);
+		assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, text.length(), text.length()), tokens);
+		assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, 0, text.length()), tokens);
+
+		WindowContextIndex index = new WindowContextIndex(jCas, BaseToken.type, sentence);
+		ContextAnalyzer noBoundaries = new BoundaryAnalyzer(Collections.<Annotation> emptyList());
+		assertEquals(0, index.getLeftScope(first, 8, noBoundaries).size());
+		assertEquals(tokens.subList(1, 7), index.getRightScope(first, 8, noBoundaries));
+		assertEquals(tokens.subList(0, 6), index.getLeftScope(last, 8, noBoundaries));
+		assertEquals(0, index.getRightScope(last, 8, noBoundaries).size());
+	}
+
+	@Test
+	public void testTiedBegins() throws Exception {
+		JCas jCas = JCasFactory.createJCas();
+		jCas.setDocumentText("chest pain radiating to the left arm");
+		List<Annotation> contexts = new ArrayList<Annotation>();
+		int[][] spans = { { 0, 5 }, { 0, 10 }, { 6, 10 }, { 6, 20 }, { 6, 6 }, { 6, 10 }, { 11, 20 }, { 11, 11 },
+				{ 21, 23 }, { 24, 36 }, { 24, 27 }, { 24, 36 } };
+		for (int[] span : spans) {
+			BaseToken token = new BaseToken(jCas, span[0], span[1]);
+			token.addToIndexes();
+			contexts.add(token);
+		}
+		Sentence sentence = new Sentence(jCas, 0, 36);
+		for (Annotation context : contexts) {
+			assertSameScopes(jCas, sentence, context, contexts);
+		}
+		for (int begin : new int[] { 0, 6, 11, 24 }) {
+			for (int end = begin; end <= 36; end++) {
+				assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, begin, end), contexts);
+			}
+		}
+	}
+
+	@Test
+	public void testWindowLargerThanDocument() throws Exception {
+		JCas jCas = JCasFactory.createJCas();
+		String text = "denies pain";
+		jCas.setDocumentText(text);
+		List<BaseToken> tokens = addTokens(jCas, text);
+		Sentence sentence = new Sentence(jCas, 0, text.length() + 20);
+		for (BaseToken token : tokens) {
+			assertSameScopes(jCas, sentence, token, tokens);
+		}
+		assertSameScopes(jCas, sentence, new IdentifiedAnnotation(jCas, text.length() + 5, text.length() + 10),
+				tokens);
+
+		WindowContextIndex index = new WindowContextIndex(jCas, BaseToken.type, sentence);
+		ContextAnalyzer noBoundaries = new BoundaryAnalyzer(Collections.<Annotation> emptyList());
+		assertEquals(tokens.subList(0, 1), index.getLeftScope(tokens.get(1), 100, noBoundaries));
+		assertEquals(tokens.subList(1, 2), index.getRightScope(tokens.get(0), 100, noBoundaries));
+	}
+
+	@Test
+	public void testEmptyScope() throws Exception {
+		JCas jCas = JCasFactory.createJCas();
+		String text = "Fever . No cough";
+		jCas.setDocumentText(text);
+		List<BaseToken> tokens = addTokens(jCas, text);
+		// a window without context annotations
+		Sentence gap = new Sentence(jCas, 5, 7);
+		IdentifiedAnnotation gapFocus = new IdentifiedAnnotation(jCas, 5, 6);
+		assertSameScopes(jCas, gap, gapFocus, tokens);
+		WindowContextIndex gapIndex = new WindowContextIndex(jCas, BaseToken.type, gap);
+		ContextAnalyzer noBoundaries = new BoundaryAnalyzer(Collections.<Annotation> emptyList());
+		assertEquals(0, gapIndex.getLeftScope(gapFocus, 8, noBoundaries).size());
+		assertEquals(0, gapIndex.getRightScope(gapFocus, 8, noBoundaries).size());
+
+		// a boundary next to the focus
+		Sentence sentence = new Sentence(jCas, 0, text.length());
+		ContextAnalyzer period = new BoundaryAnalyzer(tokens.subList(1, 2));
+		WindowContextIndex index = new WindowContextIndex(jCas, BaseToken.type, sentence);
+		assertEquals(0, index.getLeftScope(tokens.get(2), 8, period).size());
+		assertEquals(0, index.getRightScope(tokens.get(0), 8, period).size());
+		assertEquals(0, index.getLeftScope(tokens.get(2), 0, noBoundaries).size());
+		assertSameScopes(jCas, sentence, tokens.get(2), tokens);
+		assertSameScopes(jCas, sentence, tokens.get(0), tokens);
+	}
+
+	@Test
+	public void testRandomDocuments() throws Exception {
+		Random random = new Random(19);
+		for (int document = 0; document < 30; document++) {
+			JCas jCas = JCasFactory.createJCas();
+			int length = 20 + random.nextInt(30);
+			jCas.setDocumentText(new String(new char[length]).replace('\0', 'x'));
+			List<Annotation> contexts = new ArrayList<Annotation>();
+			int count = random.nextInt(16);
+			for (int i = 0; i < count; i++) {
+				// few distinct begins, so that many begins are tied
+				int begin = random.nextInt(length / 4 + 1) * 4;
+				int end = Math.min(length, begin + random.nextInt(6));
+				BaseToken token = new BaseToken(jCas, begin, end);
+				token.addToIndexes();
+				contexts.add(token);
+			}
+			int windowBegin = random.nextInt(length / 3);
+			int windowEnd = random.nextBoolean() ? length + random.nextInt(10) : length - random.nextInt(length / 3);
+			Sentence window = new Sentence(jCas, windowBegin, windowEnd);
+			for (Annotation context : contexts) {
+				if (context.getBegin() >= windowBegin && context.getEnd() <= windowEnd) {
+					assertSameScopes(jCas, window, context, contexts);
+				}
+			}
+			for (int begin = windowBegin; begin <= windowEnd; begin++) {
+				for (int end = begin; end <= windowEnd; end += 1 + random.nextInt(3)) {
+					assertSameScopes(jCas, window, new IdentifiedAnnotation(jCas, begin, end), contexts);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compares left and right scopes of the window index and of the
+	 * subiterator search for every scope size, without boundaries and with
+	 * every other context annotation as a boundary
+	 */
+	private static void assertSameScopes(JCas jCas, Annotation window, Annotation focus,
+			List<? extends Annotation> contexts) throws AnalysisEngineProcessException {
+		assertTrue(focus.getBegin() >= window.getBegin() && focus.getEnd() <= window.getEnd());
+		WindowContextIndex index = new WindowContextIndex(jCas, BaseToken.type, window);
+		Collection<Annotation> someBoundaries = new ArrayList<Annotation>();
+		for (int i = 0; i < contexts.size(); i += 2) {
+			someBoundaries.add(contexts.get(i));
+		}
+		List<ContextAnalyzer> analyzers = new ArrayList<ContextAnalyzer>();
+		analyzers.add(new BoundaryAnalyzer(Collections.<Annotation> emptyList()));
+		analyzers.add(new BoundaryAnalyzer(someBoundaries));
+		String description = "focus " + focus.getBegin() + "-" + focus.getEnd() + " in window " + window.getBegin()
+				+ "-" + window.getEnd();
+		for (ContextAnalyzer analyzer : analyzers) {
+			for (int size = 0; size <= contexts.size() + 2; size++) {
+				assertEquals("left " + size + " " + description,
+						getSubiteratorLeftScope(jCas, focus, window, size, analyzer),
+						index.getLeftScope(focus, size, analyzer));
+				assertEquals("right " + size + " " + description,
+						getSubiteratorRightScope(jCas, focus, window, size, analyzer),
+						index.getRightScope(focus, size, analyzer));
+			}
+		}
+	}
+
+	/**
+	 * The left scope search of {@link ContextAnnotator} before the window index
+	 */
+	private static List<Annotation> getSubiteratorLeftScope(JCas jCas, Annotation focus, Annotation window,
+			int leftScopeSize, ContextAnalyzer contextAnalyzer) throws AnalysisEngineProcessException {
+		List<Annotation> scopeContextAnnotations = new ArrayList<Annotation>();
+		FSIterator subiterator = jCas.getAnnotationIndex(BaseToken.type).subiterator(window);
+		subiterator.moveTo(focus);
+		subiterator.moveToNext();
+		if (!subiterator.isValid())
+			subiterator.moveTo(focus);
+
+		while (scopeContextAnnotations.size() < leftScopeSize) {
+			subiterator.moveToPrevious();
+			if (subiterator.isValid()) {
+				Annotation contextAnnotation = (Annotation) subiterator.get();
+				if (contextAnnotation.getEnd() > focus.getBegin()) {
+					continue;
+				}
+				if (!contextAnalyzer.isBoundary(contextAnnotation, ContextAnnotator.LEFT_SCOPE)) {
+					scopeContextAnnotations.add(contextAnnotation);
+				} else {
+					break;
+				}
+			} else {
+				break;
+			}
+		}
+		Collections.reverse(scopeContextAnnotations);
+		return scopeContextAnnotations;
+	}
+
+	/**
+	 * The right scope search of {@link ContextAnnotator} before the window index
+	 */
+	private static List<Annotation> getSubiteratorRightScope(JCas jCas, Annotation focus, Annotation window,
+			int rightScopeSize, ContextAnalyzer contextAnalyzer) throws AnalysisEngineProcessException {
+		List<Annotation> scopeContextAnnotations = new ArrayList<Annotation>();
+		FSIterator subiterator = jCas.getAnnotationIndex(BaseToken.type).subiterator(window);
+		subiterator.moveTo(focus);
+		subiterator.moveToPrevious();
+		if (!subiterator.isValid())
+			subiterator.moveTo(focus);
+
+		while (scopeContextAnnotations.size() < rightScopeSize) {
+			subiterator.moveToNext();
+			if (subiterator.isValid()) {
+				Annotation contextAnnotation = (Annotation) subiterator.get();
+				if (contextAnnotation.getBegin() < focus.getEnd()) {
+					continue;
+				}
+				if (!contextAnalyzer.isBoundary(contextAnnotation, ContextAnnotator.RIGHT_SCOPE)) {
+					scopeContextAnnotations.add(contextAnnotation);
+				} else {
+					break;
+				}
+			} else {
+				break;
+			}
+		}
+		return scopeContextAnnotations;
+	}
+
+	/**
+	 * @return a token for every run of characters between spaces
+	 */
+	private static List<BaseToken> addTokens(JCas jCas, String text) {
+		List<BaseToken> tokens = new ArrayList<BaseToken>();
+		int begin = 0;
+		for (String word : text.split(" ")) {
+			BaseToken token = new BaseToken(jCas, begin, begin + word.length());
+			token.addToIndexes();
+			tokens.add(token);
+			begin += word.length() + 1;
+		}
+		return tokens;
+	}
+
+	/**
+	 * Treats the given context annotations as scope boundaries
+	 */
+	private static class BoundaryAnalyzer extends ContextAnalyzerAdapter {
+		private final Collection<Annotation> iv_boundaries;
+
+		private BoundaryAnalyzer(Collection<? extends Annotation> boundaries) {
+			iv_boundaries = new HashSet<Annotation>(boundaries);
+		}
+
+		@Override
+		public boolean isBoundary(Annotation contextAnnotation, int scope) {
+			return iv_boundaries.contains(contextAnnotation);
+		}
+	}
+}
@@ -54,9 +54,12 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.ctakes.core.concurrent.SharedResourceCache;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.core.resource.FileLocator;
+import org.apache.ctakes.core.util.collection.SentenceCache;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
 import org.apache.ctakes.typesystem.type.syntax.NewlineToken;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
@@ -75,6 +78,7 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.ResourceInitializationException;
 
 import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSTaggerME;
 
 @PipeBitInfo(
 		name = "Part of Speech Tagger",
@@ -97,7 +101,21 @@ public class POSTagger extends JCasAnnotator_ImplBase {
 	public static final String PARAM_POS_MODEL_FILE = POS_MODEL_FILE_PARAM;
 	@ConfigurationParameter(name = POS_MODEL_FILE_PARAM, mandatory = false, defaultValue = "org/apache/ctakes/postagger/models/mayo-pos.zip", description = "Model file for OpenNLP POS tagger")
 	private String posModelPath;
-	private opennlp.tools.postag.POSTaggerME tagger;
+
+	@ConfigurationParameter(name = SentenceCache.PARAM_CACHE_SIZE, mandatory = false, description = SentenceCache.CACHE_SIZE_DESC)
+	private int sentenceCacheSize = 0;
+
+	@ConfigurationParameter(name = SentenceCache.PARAM_CACHE_FILE, mandatory = false, description = SentenceCache.CACHE_FILE_DESC)
+	private String sentenceCachePath;
+
+	// The model is immutable and shared, but a decoder is not thread safe, so each thread gets its own decoder
+	private ThreadLocal<POSTaggerME> tagger;
+
+	// printable tokens of the sentence being tagged, reused for every sentence on a thread
+	private final ThreadLocal<List<BaseToken>> tokenBuffer = ThreadLocal.withInitial(ArrayList::new);
+
+	// tags for repeated sentences, shared by all taggers using the same model
+	private SentenceCache<String[]> sentenceCache;
 
 	@Override
 	public void initialize(UimaContext uimaContext)
@@ -106,11 +124,19 @@ public class POSTagger extends JCasAnnotator_ImplBase {
 
 		logger.info("POS tagger model file: " + posModelPath);
 
-		try (InputStream fis = FileLocator.getAsStream(posModelPath)) {
-			POSModel modelFile = new POSModel(fis);
-			tagger = new opennlp.tools.postag.POSTaggerME(modelFile);
+		// The model is immutable and can be shared by all taggers and threads.
+		final POSModel model = SharedResourceCache.getInstance()
+				.getResource(POSModel.class.getName() + ":" + posModelPath, () -> loadModel(posModelPath));
+		tagger = ThreadLocal.withInitial(() -> new POSTaggerME(model));
+		sentenceCache = SentenceCache.getSharedCache("POS Tagger", posModelPath, sentenceCacheSize,
+				sentenceCachePath, SentenceCache.STRING_ARRAY_CODEC);
+	}
+
+	private POSModel loadModel(final String modelPath) throws ResourceInitializationException {
+		try (InputStream fis = FileLocator.getAsStream(modelPath)) {
+			return new POSModel(fis);
 		} catch (Exception e) {
-			logger.info("Error loading POS tagger model: " + posModelPath);
+			logger.info("Error loading POS tagger model: " + modelPath);
 			throw new ResourceInitializationException(e);
 		}
 	}
@@ -120,23 +146,36 @@ public class POSTagger extends JCasAnnotator_ImplBase {
 
 		logger.info("process(JCas)");
 
-		Collection<Sentence> sentences = JCasUtil.select(jCas, Sentence.class);
-		for (Sentence sentence : sentences) {
-
-			List<BaseToken> printableTokens = new ArrayList<>();
-			
-			for(BaseToken token : JCasUtil.selectCovered(BaseToken.class,	sentence)){
-			  if(token instanceof NewlineToken) continue;
-			  printableTokens.add(token);
+		// Index the tokens of every sentence in one pass over the document
+		final Map<Sentence, Collection<BaseToken>> sentenceTokens
+				= JCasUtil.indexCovered(jCas, Sentence.class, BaseToken.class);
+		final POSTaggerME sentenceTagger = tagger.get();
+		final List<BaseToken> printableTokens = tokenBuffer.get();
+		for (Map.Entry<Sentence, Collection<BaseToken>> entry : sentenceTokens.entrySet()) {
+			final Sentence sentence = entry.getKey();
+			printableTokens.clear();
+			for (BaseToken token : entry.getValue()) {
+				if (!(token instanceof NewlineToken)) {
+					printableTokens.add(token);
+				}
 			}
-			
+
+			// A new array for each sentence: the tagger context generator recognizes a sentence by its array
 			String[] words = new String[printableTokens.size()];
 			for (int i = 0; i < words.length; i++) {
 				words[i] = printableTokens.get(i).getCoveredText();
 			}
 
 			if (words.length > 0) {
-				String[] wordTagList = tagger.tag(words);
+				final String key = sentenceCache == null ? null : SentenceCache.createKey(words);
+				String[] wordTagList = key == null ? null : sentenceCache.get(key);
+				if (wordTagList == null) {
+					final long start = System.nanoTime();
+					wordTagList = sentenceTagger.tag(words);
+					if (key != null) {
+						sentenceCache.put(key, wordTagList, System.nanoTime() - start);
+					}
+				}
 
 				try {
 					for (int i = 0; i < printableTokens.size(); i++) {
@@ -151,6 +190,16 @@ public class POSTagger extends JCasAnnotator_ImplBase {
 				}
 			}
 		}
+		// don't hold the document between calls
+		printableTokens.clear();
+	}
+
+	@Override
+	public void collectionProcessComplete() throws AnalysisEngineProcessException {
+		super.collectionProcessComplete();
+		if (sentenceCache != null) {
+			sentenceCache.complete();
+		}
 	}
 
 	public static AnalysisEngineDescription createAnnotatorDescription()
@@ -1,6 +1,7 @@
 package org.apache.ctakes.postagger.concurrent;
 
-import org.apache.ctakes.core.concurrent.ThreadSafeWrapper;
+import org.apache.ctakes.core.concurrent.ThreadLocalDelegates;
+import org.apache.ctakes.core.concurrent.ThreadLocalWrapper;
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.postagger.POSTagger;
 import org.apache.ctakes.typesystem.type.syntax.BaseToken;
@@ -18,7 +19,8 @@ import org.apache.uima.resource.ResourceInitializationException;
 
 /**
  * Normally I would use composition and a singleton, but here extension is done for @ConfigurationParameter discovery.
- * Made a singleton mostly for model memory.
+ * The singleton keeps one delegate per thread, so processing is not blocked by other threads.
+ * Delegates share a single model through the {@link org.apache.ctakes.core.concurrent.SharedResourceCache}.
  *
  * @author SPF , chip-nlp
  * @version %I%
@@ -76,42 +78,23 @@ final public class ThreadSafePosTagger extends POSTagger {
    }
 
 
-   private enum PosSingleton implements ThreadSafeWrapper<POSTagger> {
+   private enum PosSingleton implements ThreadLocalWrapper<POSTagger> {
       INSTANCE;
 
       static public PosSingleton getInstance() {
          return INSTANCE;
       }
 
-      private final POSTagger _delegate;
-      private boolean _initialized;
+      private final ThreadLocalDelegates<POSTagger> _delegates;
 
       PosSingleton() {
-         _delegate = new POSTagger();
-      }
-
-      final private Object LOCK = new Object();
-
-      @Override
-      public Object getLock() {
-         return LOCK;
+         _delegates = new ThreadLocalDelegates<>( POSTagger::new );
       }
 
       @Override
-      public POSTagger getDelegate() {
-         return _delegate;
-      }
-
-      @Override
-      public boolean isInitialized() {
-         return _initialized;
-      }
-
-      @Override
-      public void setInitialized( final boolean initialized ) {
-         _initialized = initialized;
+      public ThreadLocalDelegates<POSTagger> getDelegates() {
+         return _delegates;
       }
    }
 
-
 }
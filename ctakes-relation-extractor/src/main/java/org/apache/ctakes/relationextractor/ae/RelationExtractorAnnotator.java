@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
+import org.apache.ctakes.core.cleartk.CompiledLinearClassifier;
 import org.apache.ctakes.relationextractor.ae.features.DependencyPathFeaturesExtractor;
 import org.apache.ctakes.relationextractor.ae.features.DependencyTreeFeaturesExtractor;
 import org.apache.ctakes.relationextractor.ae.features.NamedEntityFeaturesExtractor;
@@ -70,6 +71,13 @@ public abstract class RelationExtractorAnnotator extends CleartkAnnotator<String
 			description = "probability that a negative example should be retained for training")
 	protected double probabilityOfKeepingANegativeExample = 1.0;
 
+	@ConfigurationParameter(
+			name = CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER,
+			mandatory = false,
+			description = CompiledLinearClassifier.COMPILE_CLASSIFIER_DESCRIPTION,
+			defaultValue = "false")
+	protected boolean compileClassifier;
+
 	protected Random coin = new Random(0);
 
 	private List<RelationFeaturesExtractor<IdentifiedAnnotation,IdentifiedAnnotation>> featureExtractors = this.getFeatureExtractors();
@@ -133,6 +141,9 @@ public abstract class RelationExtractorAnnotator extends CleartkAnnotator<String
 	public void initialize(UimaContext context) throws ResourceInitializationException {
 		allowClassifierModelOnClasspath(context);
 		super.initialize(context);
+		if (compileClassifier && !this.isTraining()) {
+			this.classifier = CompiledLinearClassifier.compile(this.classifier);
+		}
 	}
 
 	/*
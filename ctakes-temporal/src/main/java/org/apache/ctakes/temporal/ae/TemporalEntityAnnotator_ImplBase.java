@@ -18,15 +18,33 @@
  */
 package org.apache.ctakes.temporal.ae;
 
+import org.apache.ctakes.core.cleartk.CompiledLinearClassifier;
 import org.apache.ctakes.temporal.eval.THYMEData;
 import org.apache.ctakes.typesystem.type.textspan.Segment;
+import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
 import org.cleartk.ml.CleartkAnnotator;
 
 public abstract class TemporalEntityAnnotator_ImplBase extends CleartkAnnotator<String> {
 
+  @ConfigurationParameter(
+      name = CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER,
+      mandatory = false,
+      description = CompiledLinearClassifier.COMPILE_CLASSIFIER_DESCRIPTION,
+      defaultValue = "false")
+  protected boolean compileClassifier;
+
+  @Override
+  public void initialize(UimaContext context) throws ResourceInitializationException {
+    super.initialize(context);
+    if (compileClassifier && !this.isTraining()) {
+      this.classifier = CompiledLinearClassifier.compile(this.classifier);
+    }
+  }
 
   @Override
   public void process(JCas jCas) throws AnalysisEngineProcessException {
@@ -23,6 +23,7 @@ package org.apache.ctakes.temporal.ae;
 //import java.net.URI;//for normalization
 
 import com.google.common.collect.Lists;
+import org.apache.ctakes.core.cleartk.CompiledLinearClassifier;
 import org.apache.ctakes.relationextractor.ae.features.*;
 import org.apache.ctakes.typesystem.type.relation.BinaryTextRelation;
 import org.apache.ctakes.typesystem.type.relation.RelationArgument;
@@ -69,6 +70,13 @@ public abstract class TemporalRelationExtractorAnnotator extends CleartkAnnotato
 			description = "probability that a negative example should be retained for training")
 	protected double probabilityOfKeepingANegativeExample = 1.0;
 
+	@ConfigurationParameter(
+			name = CompiledLinearClassifier.PARAM_COMPILE_CLASSIFIER,
+			mandatory = false,
+			description = CompiledLinearClassifier.COMPILE_CLASSIFIER_DESCRIPTION,
+			defaultValue = "false")
+	protected boolean compileClassifier;
+
 	protected Random coin = new Random(0);
 
 	private List<RelationFeaturesExtractor<IdentifiedAnnotation,IdentifiedAnnotation>> featureExtractors = this.getFeatureExtractors();
@@ -150,6 +158,9 @@ public abstract class TemporalRelationExtractorAnnotator extends CleartkAnnotato
 
       allowClassifierModelOnClasspath(context);
 		super.initialize(context);
+		if (compileClassifier && !this.isTraining()) {
+			this.classifier = CompiledLinearClassifier.compile(this.classifier);
+		}
 		//		minmaxExtractor = createMinMaxNormalizationExtractor();
 		/**for normalization
 		if (this.minmaxExtractorURI != null) {
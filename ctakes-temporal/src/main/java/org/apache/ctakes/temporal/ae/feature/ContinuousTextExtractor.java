@@ -28,7 +28,7 @@ NamedFeatureExtractor1<BaseToken>  {
 		super();
 		try {
 			words =
-					WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
+					WordVectorReader.getEmbeddings(FileLocator.getResource(vecFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new CleartkExtractorException(e);
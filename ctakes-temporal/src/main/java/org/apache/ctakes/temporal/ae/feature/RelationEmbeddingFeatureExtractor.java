@@ -48,7 +48,7 @@ public class RelationEmbeddingFeatureExtractor implements RelationFeaturesExtrac
 	CleartkExtractorException {
 		try {
 			words =
-					WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
+					WordVectorReader.getEmbeddings(FileLocator.getResource(vecFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new CleartkExtractorException(e);
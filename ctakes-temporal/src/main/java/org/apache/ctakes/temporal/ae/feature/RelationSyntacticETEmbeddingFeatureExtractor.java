@@ -50,7 +50,7 @@ public class RelationSyntacticETEmbeddingFeatureExtractor implements RelationFea
 	CleartkExtractorException {
 		try {
 			paths =
-					WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
+					WordVectorReader.getEmbeddings(FileLocator.getResource(vecFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new CleartkExtractorException(e);
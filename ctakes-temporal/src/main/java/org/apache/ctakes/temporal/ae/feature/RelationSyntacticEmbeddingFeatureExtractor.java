@@ -55,7 +55,7 @@ public class RelationSyntacticEmbeddingFeatureExtractor implements RelationFeatu
 	CleartkExtractorException {
 		try {
 			paths =
-					WordVectorReader.getEmbeddings(FileLocator.getAsStream(vecFile));
+					WordVectorReader.getEmbeddings(FileLocator.getResource(vecFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new CleartkExtractorException(e);
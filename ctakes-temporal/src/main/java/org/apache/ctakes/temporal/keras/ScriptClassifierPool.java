@@ -0,0 +1,334 @@
+package org.apache.ctakes.temporal.keras;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.util.Level;
+import org.apache.uima.util.Logger;
+import org.cleartk.ml.CleartkProcessingException;
+
+/**
+ * Long lived classify script processes shared by a {@link ScriptStringOutcomeClassifier}.
+ * <p>
+ * Each worker is a classify script process that reads one instance per line from standard input and writes one
+ * outcome per line to standard output, in order. Instances are written without waiting for outcomes, so a batch
+ * of instances is pipelined through the script, and a script may read several waiting lines to classify them
+ * together. A batch is split across the workers.
+ * </p>
+ * <p>
+ * A worker that ends or does not write an outcome within the timeout is killed and restarted, and its unanswered
+ * instances are sent once more to the new process.
+ * </p>
+ */
+class ScriptClassifierPool implements Closeable {
+
+  /**
+   * System property for the number of classify script processes
+   */
+  public static final String WORKERS_PROPERTY = "ctakes.script.classifier.workers";
+  /**
+   * System property for the milliseconds to wait for each outcome
+   */
+  public static final String TIMEOUT_PROPERTY = "ctakes.script.classifier.timeout";
+
+  static final int DEFAULT_WORKERS = 1;
+  static final long DEFAULT_TIMEOUT_MILLIS = 60000;
+
+  // stderr lines kept to log when a process ends
+  private static final int ERROR_LINES = 20;
+
+  private static final Logger logger = UIMAFramework.getLogger(ScriptClassifierPool.class);
+
+  private final String[] command;
+  private final long timeoutMillis;
+  private final AtomicReferenceArray<Worker> workers;
+  private final AtomicInteger nextWorker = new AtomicInteger();
+
+  /**
+   * @param command       classify script and its arguments
+   * @param workerCount   number of script processes
+   * @param timeoutMillis milliseconds to wait for each outcome
+   * @throws IOException if a script process cannot be started
+   */
+  ScriptClassifierPool(String[] command, int workerCount, long timeoutMillis) throws IOException {
+    this.command = command.clone();
+    this.timeoutMillis = timeoutMillis;
+    this.workers = new AtomicReferenceArray<>(Math.max(1, workerCount));
+    for (int i = 0; i < this.workers.length(); i++) {
+      this.workers.set(i, new Worker(i));
+    }
+  }
+
+  /**
+   * @return a pool with the worker count and timeout of the system properties
+   */
+  static ScriptClassifierPool create(String[] command) throws IOException {
+    return new ScriptClassifierPool(command, Integer.getInteger(WORKERS_PROPERTY, DEFAULT_WORKERS),
+        Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS));
+  }
+
+  int getWorkerCount() {
+    return this.workers.length();
+  }
+
+  String classify(String line) throws CleartkProcessingException {
+    return classifyAll(Collections.singletonList(line)).get(0);
+  }
+
+  /**
+   * @param lines one line per instance
+   * @return one outcome per instance, in order
+   * @throws CleartkProcessingException if an outcome could not be obtained even after a restart
+   */
+  List<String> classifyAll(List<String> lines) throws CleartkProcessingException {
+    if (lines.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final int workerCount = this.workers.length();
+    final int chunkCount = Math.min(workerCount, lines.size());
+    final int chunkSize = (lines.size() + chunkCount - 1) / chunkCount;
+    final int firstWorker = this.nextWorker.getAndIncrement();
+    // submit everything before waiting so that all workers run at once
+    final List<Chunk> chunks = new ArrayList<>(chunkCount);
+    for (int begin = 0; begin < lines.size(); begin += chunkSize) {
+      final int workerIndex = Math.floorMod(firstWorker + chunks.size(), workerCount);
+      final List<String> chunkLines = lines.subList(begin, Math.min(lines.size(), begin + chunkSize));
+      final Worker worker = this.workers.get(workerIndex);
+      chunks.add(new Chunk(workerIndex, begin, chunkLines, worker, worker.submit(chunkLines)));
+    }
+    final String[] outcomes = new String[lines.size()];
+    for (Chunk chunk : chunks) {
+      final List<String> chunkOutcomes = await(chunk);
+      for (int i = 0; i < chunkOutcomes.size(); i++) {
+        outcomes[chunk.begin + i] = chunkOutcomes.get(i);
+      }
+    }
+    return Arrays.asList(outcomes);
+  }
+
+  private List<String> await(Chunk chunk) throws CleartkProcessingException {
+    final List<String> outcomes = new ArrayList<>(chunk.lines.size());
+    try {
+      addOutcomes(chunk.futures, outcomes);
+      return outcomes;
+    } catch (IOException | TimeoutException e) {
+      logger.log(Level.WARNING, "Restarting classifier process " + chunk.workerIndex + " after " + outcomes.size()
+          + " of " + chunk.lines.size() + " outcomes : " + describe(e));
+    }
+    final Worker restarted = restart(chunk.workerIndex, chunk.worker);
+    try {
+      // keep the outcomes that arrived and send only the unanswered instances
+      addOutcomes(restarted.submit(chunk.lines.subList(outcomes.size(), chunk.lines.size())), outcomes);
+      return outcomes;
+    } catch (IOException | TimeoutException e) {
+      // leave a fresh process for the next caller
+      restart(chunk.workerIndex, restarted);
+      throw new CleartkProcessingException(e);
+    }
+  }
+
+  /**
+   * Outcomes arrive in order, so each is given the full timeout after the one before it.
+   *
+   * @param outcomes gets the outcome of each future in order, up to the first that fails
+   */
+  private void addOutcomes(List<CompletableFuture<String>> futures, List<String> outcomes)
+      throws IOException, TimeoutException, CleartkProcessingException {
+    try {
+      for (CompletableFuture<String> future : futures) {
+        outcomes.add(future.get(this.timeoutMillis, TimeUnit.MILLISECONDS));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CleartkProcessingException(e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+    }
+  }
+
+  private Worker restart(int workerIndex, Worker failed) throws CleartkProcessingException {
+    synchronized (this.workers) {
+      final Worker current = this.workers.get(workerIndex);
+      if (current != failed) {
+        // another caller already restarted it
+        return current;
+      }
+      failed.kill();
+      try {
+        final Worker worker = new Worker(workerIndex);
+        this.workers.set(workerIndex, worker);
+        return worker;
+      } catch (IOException e) {
+        throw new CleartkProcessingException(e);
+      }
+    }
+  }
+
+  private static String describe(Exception e) {
+    return e instanceof TimeoutException ? "no outcome in time" : e.getMessage();
+  }
+
+  @Override
+  public void close() {
+    for (int i = 0; i < this.workers.length(); i++) {
+      this.workers.get(i).close();
+    }
+  }
+
+  /**
+   * Instances of a batch sent to one worker
+   */
+  private static final class Chunk {
+    private final int workerIndex;
+    private final int begin;
+    private final List<String> lines;
+    private final Worker worker;
+    private final List<CompletableFuture<String>> futures;
+
+    private Chunk(int workerIndex, int begin, List<String> lines, Worker worker,
+        List<CompletableFuture<String>> futures) {
+      this.workerIndex = workerIndex;
+      this.begin = begin;
+      this.lines = lines;
+      this.worker = worker;
+      this.futures = futures;
+    }
+  }
+
+  /**
+   * A classify script process with threads that read its outcomes and errors
+   */
+  private final class Worker {
+    private final int index;
+    private final Process process;
+    private final PrintStream toProcess;
+    private final Queue<CompletableFuture<String>> pending = new ConcurrentLinkedQueue<>();
+    private final Deque<String> errorLines = new ArrayDeque<>();
+    private volatile boolean ended;
+
+    private Worker(int index) throws IOException {
+      this.index = index;
+      this.process = new ProcessBuilder(ScriptClassifierPool.this.command).start();
+      this.toProcess = new PrintStream(this.process.getOutputStream());
+      startDaemon("ScriptClassifier-" + index + "-out", this::readOutcomes);
+      startDaemon("ScriptClassifier-" + index + "-err", this::readErrors);
+    }
+
+    private void startDaemon(String name, Runnable runnable) {
+      final Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    private List<CompletableFuture<String>> submit(List<String> lines) {
+      final List<CompletableFuture<String>> futures = new ArrayList<>(lines.size());
+      synchronized (this.toProcess) {
+        for (String line : lines) {
+          final CompletableFuture<String> future = new CompletableFuture<>();
+          // queue before writing so that the reader always finds the future for an outcome
+          this.pending.add(future);
+          futures.add(future);
+          this.toProcess.println(line);
+        }
+        this.toProcess.flush();
+        if (this.toProcess.checkError()) {
+          this.ended = true;
+        }
+      }
+      if (this.ended) {
+        failPending("Classifier process " + this.index + " has ended");
+      }
+      return futures;
+    }
+
+    private void readOutcomes() {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(this.process.getInputStream()))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          final CompletableFuture<String> future = this.pending.poll();
+          if (future == null) {
+            logger.log(Level.WARNING, "Unexpected output from classifier process " + this.index + " : " + line);
+          } else {
+            future.complete(line);
+          }
+        }
+      } catch (IOException e) {
+        // the process was killed or closed its output, handled below
+      }
+      this.ended = true;
+      synchronized (this.errorLines) {
+        for (String errorLine : this.errorLines) {
+          logger.log(Level.SEVERE, errorLine);
+        }
+      }
+      failPending("Classifier process " + this.index + " has ended");
+    }
+
+    private void readErrors() {
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(this.process.getErrorStream()))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          logger.log(Level.FINE, line);
+          synchronized (this.errorLines) {
+            if (this.errorLines.size() == ERROR_LINES) {
+              this.errorLines.removeFirst();
+            }
+            this.errorLines.addLast(line);
+          }
+        }
+      } catch (IOException e) {
+        // the process has ended
+      }
+    }
+
+    private void failPending(String message) {
+      CompletableFuture<String> future;
+      while ((future = this.pending.poll()) != null) {
+        future.completeExceptionally(new IOException(message));
+      }
+    }
+
+    private void kill() {
+      this.ended = true;
+      this.process.destroyForcibly();
+      failPending("Classifier process " + this.index + " was killed");
+    }
+
+    /**
+     * An empty line asks the script to exit
+     */
+    private void close() {
+      synchronized (this.toProcess) {
+        this.toProcess.print('\n');
+        this.toProcess.close();
+      }
+      try {
+        if (!this.process.waitFor(5, TimeUnit.SECONDS)) {
+          kill();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        kill();
+      }
+    }
+  }
+
+}
@@ -1,16 +1,14 @@
 package org.apache.ctakes.temporal.keras;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.util.Level;
 import org.apache.uima.util.Logger;
+import org.cleartk.ml.Classifier;
 import org.cleartk.ml.CleartkProcessingException;
 import org.cleartk.ml.Feature;
 import org.cleartk.ml.encoder.features.FeaturesEncoder;
@@ -32,10 +30,7 @@ import com.google.common.annotations.Beta;
 @Beta
 public abstract class ScriptStringOutcomeClassifier extends Classifier_ImplBase<FeatureVector, String, Integer> {
   File modelDir = null;
-  Process classifierProcess = null;
-  PrintStream toClassifier = null;
-  BufferedReader reader = null;
-  BufferedReader errReader = null;
+  ScriptClassifierPool classifierPool = null;
   Logger logger = UIMAFramework.getLogger(ScriptStringOutcomeClassifier.class);
 
   public ScriptStringOutcomeClassifier(
@@ -61,15 +56,11 @@ public abstract class ScriptStringOutcomeClassifier extends Classifier_ImplBase<
     }
     
     try {
-      this.classifierProcess = Runtime.getRuntime().exec(new String[]{
+      // start the classifier processes running, each reads the model once and then classifies until closed
+      this.classifierPool = ScriptClassifierPool.create(new String[]{
           classifyScript.getAbsolutePath(),
           modelDir.getAbsolutePath()});
-      // start the classifier process running, give it a chance to read the model, and
-      // set classifierProcess to the running classifier
-      toClassifier = new PrintStream(classifierProcess.getOutputStream());
-      reader = new BufferedReader(new InputStreamReader(classifierProcess.getInputStream()));
-      errReader = new BufferedReader(new InputStreamReader(classifierProcess.getErrorStream()));
-      errReader.readLine(); // read line about which backend it is using.
+      logger.log(Level.INFO, "Started " + this.classifierPool.getWorkerCount() + " classifier processes");
     } catch (IOException e) {
       e.printStackTrace();
       throw new RuntimeException(e);
@@ -78,10 +69,46 @@ public abstract class ScriptStringOutcomeClassifier extends Classifier_ImplBase<
 
   public String classify(List<Feature> features)
       throws CleartkProcessingException {
-    // Encode the features and pass them to the standard input of the classifier process
+    // Encode the features and pass them to the standard input of a classifier process
     // and then read the standard output prediction, which will be in the string format expected by
     // the annotator.    
+    return this.classifierPool.classify(toLine(features));
+  }
+
+  /**
+   * Classifies a batch of instances, such as all candidates in a document, with one round trip
+   * to the classifier processes.
+   * 
+   * @param instances features of each instance
+   * @return the outcome of each instance, in order
+   */
+  public List<String> classifyAll(List<List<Feature>> instances)
+      throws CleartkProcessingException {
+    List<String> lines = new ArrayList<>(instances.size());
+    for (List<Feature> features : instances) {
+      lines.add(toLine(features));
+    }
+    return this.classifierPool.classifyAll(lines);
+  }
+
+  /**
+   * @param classifier any classifier
+   * @param instances features of each instance
+   * @return the outcome of each instance, in one batch if the classifier is a script classifier
+   */
+  public static List<String> classifyAll(Classifier<String> classifier, List<List<Feature>> instances)
+      throws CleartkProcessingException {
+    if (classifier instanceof ScriptStringOutcomeClassifier) {
+      return ((ScriptStringOutcomeClassifier) classifier).classifyAll(instances);
+    }
+    List<String> outcomes = new ArrayList<>(instances.size());
+    for (List<Feature> features : instances) {
+      outcomes.add(classifier.classify(features));
+    }
+    return outcomes;
+  }
 
+  private static String toLine(List<Feature> features) {
     StringBuilder buf = new StringBuilder();
     
 //    for (FeatureVector.Entry featureNode : this.featuresEncoder.encodeAll(features)) {
@@ -93,31 +120,13 @@ public abstract class ScriptStringOutcomeClassifier extends Classifier_ImplBase<
     		buf.append(" ");
     	}
     }
-
-    this.toClassifier.println(buf);
-    this.toClassifier.flush();
-    
-    String line = "";
-    String eLine = "";
-    try {
-      line = reader.readLine();
-      if(line == null){
-         while((eLine = errReader.readLine()) != null){
-           logger.log(Level.SEVERE, eLine);
-         }
-      }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-    
-    return line;
+    return buf.toString();
   }
 
   @Override
   protected void finalize() throws Throwable {
     super.finalize();
     
-    this.toClassifier.print('\n');
-    classifierProcess.waitFor();
+    this.classifierPool.close();
   }
 }
@@ -8,6 +8,7 @@ import java.util.Map;
 
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.temporal.ae.TemporalRelationExtractorAnnotator.IdentifiedAnnotationPair;
+import org.apache.ctakes.temporal.keras.ScriptStringOutcomeClassifier;
 import org.apache.ctakes.temporal.nn.data.ArgContextProvider;
 import org.apache.ctakes.typesystem.type.relation.BinaryTextRelation;
 import org.apache.ctakes.typesystem.type.relation.RelationArgument;
@@ -63,6 +64,8 @@ public class EventEventTokenAndBIOBasedAnnotator extends CleartkAnnotator<String
       }
     }
 
+    List<IdentifiedAnnotationPair> batchPairs = new ArrayList<>();
+    List<List<Feature>> batchFeatures = new ArrayList<>();
     for(Sentence sentence : JCasUtil.select(jCas, Sentence.class)) {
       // collect all relevant relation arguments from the sentence
       List<IdentifiedAnnotationPair> candidatePairs = getCandidateRelationArgumentPairs(jCas, sentence);
@@ -108,26 +111,34 @@ public class EventEventTokenAndBIOBasedAnnotator extends CleartkAnnotator<String
           }
           this.dataWriter.write(new Instance<>(category, feats));
         } else {
-          String predictedCategory = this.classifier.classify(feats);
-
-          // add a relation annotation if a true relation was predicted
-          if (predictedCategory != null && !predictedCategory.equals(NO_RELATION_CATEGORY)) {
-
-            // if we predict an inverted relation, reverse the order of the
-            // arguments
-            if (predictedCategory.endsWith("-1")) {
-              predictedCategory = predictedCategory.substring(0, predictedCategory.length() - 2);
-              IdentifiedAnnotation temp = arg1;
-              arg1 = arg2;
-              arg2 = temp;
-            }
-
-            createRelation(jCas, arg1, arg2, predictedCategory.toUpperCase(), 0.0);
-          }
+          batchPairs.add(pair);
+          batchFeatures.add(feats);
         }
       }
 
     }
+    // classify the candidates of the whole document in one batch
+    List<String> predictions = ScriptStringOutcomeClassifier.classifyAll(this.classifier, batchFeatures);
+    for (int i = 0; i < predictions.size(); i++) {
+      IdentifiedAnnotation arg1 = batchPairs.get(i).getArg1();
+      IdentifiedAnnotation arg2 = batchPairs.get(i).getArg2();
+      String predictedCategory = predictions.get(i);
+
+      // add a relation annotation if a true relation was predicted
+      if (predictedCategory != null && !predictedCategory.equals(NO_RELATION_CATEGORY)) {
+
+        // if we predict an inverted relation, reverse the order of the
+        // arguments
+        if (predictedCategory.endsWith("-1")) {
+          predictedCategory = predictedCategory.substring(0, predictedCategory.length() - 2);
+          IdentifiedAnnotation temp = arg1;
+          arg1 = arg2;
+          arg2 = temp;
+        }
+
+        createRelation(jCas, arg1, arg2, predictedCategory.toUpperCase(), 0.0);
+      }
+    }
   }
 
   /**
@@ -8,6 +8,7 @@ import java.util.Map;
 
 import org.apache.ctakes.core.pipeline.PipeBitInfo;
 import org.apache.ctakes.temporal.ae.TemporalRelationExtractorAnnotator.IdentifiedAnnotationPair;
+import org.apache.ctakes.temporal.keras.ScriptStringOutcomeClassifier;
 import org.apache.ctakes.temporal.nn.data.ArgContextProvider;
 import org.apache.ctakes.typesystem.type.relation.BinaryTextRelation;
 import org.apache.ctakes.typesystem.type.relation.RelationArgument;
@@ -65,6 +66,8 @@ public class EventTimePosBasedAnnotator extends CleartkAnnotator<String> {
       }
     }
 
+    List<IdentifiedAnnotationPair> batchPairs = new ArrayList<>();
+    List<List<Feature>> batchFeatures = new ArrayList<>();
     // go over sentences, extracting event-time relation instances
     for(Sentence sentence : JCasUtil.select(jCas, Sentence.class)) {
       // collect all relevant relation arguments from the sentence
@@ -105,33 +108,41 @@ public class EventTimePosBasedAnnotator extends CleartkAnnotator<String> {
 
         // during classification feed the features to the classifier and create annotations
         else {
-          String predictedCategory = this.classifier.classify(features);
-
-          // add a relation annotation if a true relation was predicted
-          if (predictedCategory != null && !predictedCategory.equals(NO_RELATION_CATEGORY)) {
-
-            // if we predict an inverted relation, reverse the order of the arguments
-            if (predictedCategory.endsWith("-1")) {
-              predictedCategory = predictedCategory.substring(0, predictedCategory.length() - 2);
-              if(arg1 instanceof TimeMention){
-                IdentifiedAnnotation temp = arg1;
-                arg1 = arg2;
-                arg2 = temp;
-              }
-            } else {
-              if(arg1 instanceof EventMention){
-                IdentifiedAnnotation temp = arg1;
-                arg1 = arg2;
-                arg2 = temp;
-              }
-            }
-
-            createRelation(jCas, arg1, arg2, predictedCategory.toUpperCase(), 0.0);
-          }
+          batchPairs.add(pair);
+          batchFeatures.add(features);
         }
       }
 
     }
+    // classify the candidates of the whole document in one batch
+    List<String> predictions = ScriptStringOutcomeClassifier.classifyAll(this.classifier, batchFeatures);
+    for (int i = 0; i < predictions.size(); i++) {
+      IdentifiedAnnotation arg1 = batchPairs.get(i).getArg1();
+      IdentifiedAnnotation arg2 = batchPairs.get(i).getArg2();
+      String predictedCategory = predictions.get(i);
+
+      // add a relation annotation if a true relation was predicted
+      if (predictedCategory != null && !predictedCategory.equals(NO_RELATION_CATEGORY)) {
+
+        // if we predict an inverted relation, reverse the order of the arguments
+        if (predictedCategory.endsWith("-1")) {
+          predictedCategory = predictedCategory.substring(0, predictedCategory.length() - 2);
+          if(arg1 instanceof TimeMention){
+            IdentifiedAnnotation temp = arg1;
+            arg1 = arg2;
+            arg2 = temp;
+          }
+        } else {
+          if(arg1 instanceof EventMention){
+            IdentifiedAnnotation temp = arg1;
+            arg1 = arg2;
+            arg2 = temp;
+          }
+        }
+
+        createRelation(jCas, arg1, arg2, predictedCategory.toUpperCase(), 0.0);
+      }
+    }
   }
   
   /** Dima's way of getting lables
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.temporal.keras;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.cleartk.ml.CleartkProcessingException;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the pool against a shell script that echoes each line with its process id,
+ * and crashes or hangs once on request.
+ */
+public class ScriptClassifierPoolTest {
+
+	private static final String SCRIPT = "while read line; do\n"
+			+ "  case \"$line\" in\n"
+			+ "    \"\") exit 0 ;;\n"
+			+ "    crash) if [ ! -e \"$1/crashed\" ]; then touch \"$1/crashed\"; exit 1; fi ;;\n"
+			+ "    hang) if [ ! -e \"$1/hung\" ]; then touch \"$1/hung\"; exec sleep 10; fi ;;\n"
+			+ "    fail) exit 1 ;;\n"
+			+ "  esac\n"
+			+ "  echo \"$line $$\"\n"
+			+ "done\n";
+
+	private File directory;
+	private String[] command;
+
+	@Before
+	public void setUp() throws IOException {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+		directory = Files.createTempDirectory("script-classifier").toFile();
+		File script = new File(directory, "classify.sh");
+		Files.write(script.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+		command = new String[] { "/bin/sh", script.getPath(), directory.getPath() };
+	}
+
+	@After
+	public void tearDown() {
+		if (directory != null) {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testBatchOrder() throws Exception {
+		try (ScriptClassifierPool pool = new ScriptClassifierPool(command, 3, 10000)) {
+			List<String> lines = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				lines.add("instance" + i);
+			}
+			List<String> outcomes = pool.classifyAll(lines);
+			assertEquals(lines.size(), outcomes.size());
+			Set<String> processes = new HashSet<>();
+			for (int i = 0; i < lines.size(); i++) {
+				String[] outcome = outcomes.get(i).split(" ");
+				assertEquals(lines.get(i), outcome[0]);
+				processes.add(outcome[1]);
+			}
+			// the batch was split across all of the workers
+			assertEquals(3, processes.size());
+			assertEquals("single", pool.classify("single").split(" ")[0]);
+		}
+	}
+
+	@Test
+	public void testRestartAfterCrash() throws Exception {
+		try (ScriptClassifierPool pool = new ScriptClassifierPool(command, 1, 10000)) {
+			String before = pool.classify("a").split(" ")[1];
+			List<String> outcomes = pool.classifyAll(Arrays.asList("b", "crash", "c"));
+			assertEquals("b", outcomes.get(0).split(" ")[0]);
+			// the outcome that arrived before the crash is kept, not classified again
+			assertEquals(before, outcomes.get(0).split(" ")[1]);
+			assertEquals("crash", outcomes.get(1).split(" ")[0]);
+			assertEquals("c", outcomes.get(2).split(" ")[0]);
+			String after = outcomes.get(2).split(" ")[1];
+			assertTrue(!before.equals(after));
+		}
+	}
+
+	@Test
+	public void testRestartAfterTimeout() throws Exception {
+		try (ScriptClassifierPool pool = new ScriptClassifierPool(command, 1, 500)) {
+			long start = System.currentTimeMillis();
+			List<String> outcomes = pool.classifyAll(Arrays.asList("a", "hang", "b"));
+			assertTrue(System.currentTimeMillis() - start < 5000);
+			assertEquals("a", outcomes.get(0).split(" ")[0]);
+			assertEquals("hang", outcomes.get(1).split(" ")[0]);
+			assertEquals("b", outcomes.get(2).split(" ")[0]);
+			String after = outcomes.get(1).split(" ")[1];
+			assertTrue(!after.equals(outcomes.get(0).split(" ")[1]));
+			assertEquals(after, outcomes.get(2).split(" ")[1]);
+		}
+	}
+
+	@Test
+	public void testRepeatedFailure() throws Exception {
+		try (ScriptClassifierPool pool = new ScriptClassifierPool(command, 1, 10000)) {
+			try {
+				pool.classify("fail");
+				fail("a script that always fails should not give an outcome");
+			} catch (CleartkProcessingException e) {
+				// expected
+			}
+			// a fresh process is left for the next instance
+			assertEquals("next", pool.classify("next").split(" ")[0]);
+		}
+	}
+
+}
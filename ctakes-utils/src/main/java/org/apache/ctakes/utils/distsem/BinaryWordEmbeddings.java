@@ -0,0 +1,446 @@
+package org.apache.ctakes.utils.distsem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Word embeddings in the binary format written by {@link WordVectorConverter}.
+ * <p>
+ * Vectors are read in place from a memory mapped file (or from one array for a classpath resource), so loading
+ * parses nothing and the vectors take no heap.  Vectors are float32, or int8 with a scale per vector.
+ * Words are stored sorted by their UTF-8 bytes and looked up by binary search.
+ * </p>
+ * <pre>
+ * header      CTWE, version, encoding, word count, dimensionality, 3 reserved ints
+ * norms       float per word
+ * scales      float per word, int8 only
+ * offsets     int per word + 1, into the word bytes
+ * vectors     float32 or int8, one row per word
+ * word bytes  UTF-8
+ * </pre>
+ * All numbers are little endian.
+ */
+public class BinaryWordEmbeddings extends WordEmbeddings {
+
+  static final byte[] MAGIC = { 'C', 'T', 'W', 'E' };
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+  static final int FLOAT32 = 0;
+  static final int INT8 = 1;
+
+  // rows scored per bulk read in the similarity scan
+  private static final int SCAN_ROWS = 256;
+
+  private final ByteBuffer buffer;
+  private final boolean quantized;
+  private final int wordCount;
+  private final int dimensionality;
+  private final int normsStart;
+  private final int scalesStart;
+  private final int offsetsStart;
+  private final int vectorsStart;
+  private final int wordsStart;
+  private final int rowBytes;
+  private WordVector sumVector = null;
+  private HyperplaneIndex index = null;
+
+  BinaryWordEmbeddings(ByteBuffer buffer) throws IOException {
+    super(Collections.<String, WordVector>emptyMap());
+    this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    for(int i = 0; i < MAGIC.length; i++){
+      if(buffer.get(i) != MAGIC[i]){
+        throw new IOException("Not binary word embeddings");
+      }
+    }
+    if(buffer.getInt(4) != VERSION){
+      throw new IOException("Unknown binary word embeddings version " + buffer.getInt(4));
+    }
+    quantized = buffer.getInt(8) == INT8;
+    wordCount = buffer.getInt(12);
+    dimensionality = buffer.getInt(16);
+    normsStart = HEADER_BYTES;
+    scalesStart = normsStart + 4 * wordCount;
+    offsetsStart = scalesStart + (quantized ? 4 * wordCount : 0);
+    vectorsStart = offsetsStart + 4 * (wordCount + 1);
+    rowBytes = dimensionality * (quantized ? 1 : 4);
+    wordsStart = vectorsStart + wordCount * rowBytes;
+    if(wordsStart + getWordOffset(wordCount) != buffer.limit()){
+      throw new IOException("Truncated binary word embeddings");
+    }
+  }
+
+  /**
+   * @return embeddings mapped from the file, without reading it
+   */
+  public static BinaryWordEmbeddings map(File file) throws IOException {
+    try(RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()){
+      if(channel.size() > Integer.MAX_VALUE){
+        throw new IOException("Binary word embeddings over 2GB cannot be mapped: " + file.getPath());
+      }
+      // the mapping stays valid after the channel is closed
+      return new BinaryWordEmbeddings(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * @return embeddings read from a stream, such as a resource in a jar that cannot be mapped
+   */
+  public static BinaryWordEmbeddings read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    byte[] bytes = new byte[1 << 16];
+    int count;
+    while((count = in.read(bytes)) >= 0){
+      out.write(bytes, 0, count);
+    }
+    in.close();
+    return new BinaryWordEmbeddings(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+  /**
+   * @return true if the file starts with the binary word embeddings magic
+   */
+  public static boolean isBinary(File file) throws IOException {
+    if(file.length() < HEADER_BYTES){
+      return false;
+    }
+    byte[] start = new byte[MAGIC.length];
+    try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+      in.readFully(start);
+    }
+    return Arrays.equals(start, MAGIC);
+  }
+
+  @Override
+  public void add(String line){
+    throw new UnsupportedOperationException("Binary word embeddings are read only");
+  }
+
+  @Override
+  public boolean containsKey(String word){
+    return word != null && indexOf(word) >= 0;
+  }
+
+  @Override
+  public WordVector getVector(String word){
+    int row = word == null ? -1 : indexOf(word);
+    if(row < 0){
+      return null;
+    }
+    double[] vector = new double[dimensionality];
+    for(int i = 0; i < dimensionality; i++){
+      vector[i] = getValue(row, i);
+    }
+    return new WordVector(word, vector);
+  }
+
+  @Override
+  public int getDimensionality(){
+    return dimensionality;
+  }
+
+  public int size(){
+    return wordCount;
+  }
+
+  @Override
+  public double getSimilarity(String word1, String word2){
+    int row1 = indexOf(word1);
+    int row2 = indexOf(word2);
+    if(row1 < 0 || row2 < 0){
+      throw new IllegalArgumentException("No vector for " + (row1 < 0 ? word1 : word2));
+    }
+    double sim = 0.0;
+    for(int i = 0; i < dimensionality; i++){
+      sim += getValue(row1, i) * getValue(row2, i);
+    }
+    return sim / ((double)getNorm(row1) * getNorm(row2));
+  }
+
+  /**
+   * Exact search over every word, most similar first.
+   */
+  @Override
+  public List<String> getSimilarWords(String word, int maxWords){
+    int row = indexOf(word);
+    if(row < 0 || maxWords <= 0){
+      return new ArrayList<>();
+    }
+    float[] query = getUnitVector(row);
+    TopK top = new TopK(maxWords);
+    ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    if(quantized){
+      byte[] rows = new byte[SCAN_ROWS * dimensionality];
+      for(int first = 0; first < wordCount; first += SCAN_ROWS){
+        int count = Math.min(SCAN_ROWS, wordCount - first);
+        view.position(vectorsStart + first * rowBytes);
+        view.get(rows, 0, count * rowBytes);
+        for(int r = 0; r < count; r++){
+          int other = first + r;
+          if(other != row){
+            top.offer(other, dot(query, rows, r * dimensionality) * getScale(other) / getNorm(other));
+          }
+        }
+      }
+    }else{
+      float[] rows = new float[SCAN_ROWS * dimensionality];
+      for(int first = 0; first < wordCount; first += SCAN_ROWS){
+        int count = Math.min(SCAN_ROWS, wordCount - first);
+        view.position(vectorsStart + first * rowBytes);
+        view.asFloatBuffer().get(rows, 0, count * dimensionality);
+        for(int r = 0; r < count; r++){
+          int other = first + r;
+          if(other != row){
+            top.offer(other, dot(query, rows, r * dimensionality) / getNorm(other));
+          }
+        }
+      }
+    }
+    return toWords(top);
+  }
+
+  /**
+   * Approximate search that scores only the words that share a random hyperplane bucket with the word.
+   * The index is built on the first call.
+   */
+  public List<String> getApproximateSimilarWords(String word, int maxWords){
+    int row = indexOf(word);
+    if(row < 0 || maxWords <= 0){
+      return new ArrayList<>();
+    }
+    HyperplaneIndex index = getIndex();
+    float[] query = getUnitVector(row);
+    TopK top = new TopK(maxWords);
+    for(int other : index.getCandidates(query)){
+      if(other != row){
+        double sim = 0.0;
+        for(int i = 0; i < dimensionality; i++){
+          sim += query[i] * getValue(other, i);
+        }
+        top.offer(other, (float)(sim / getNorm(other)));
+      }
+    }
+    return toWords(top);
+  }
+
+  private synchronized HyperplaneIndex getIndex(){
+    if(index == null){
+      float[][] unitVectors = new float[wordCount][];
+      for(int row = 0; row < wordCount; row++){
+        unitVectors[row] = getUnitVector(row);
+      }
+      index = new HyperplaneIndex(unitVectors, dimensionality);
+    }
+    return index;
+  }
+
+  /**
+   * The sum of all vectors, as {@link WordEmbeddings#getMeanVector()} gives for text embeddings
+   */
+  @Override
+  public synchronized WordVector getMeanVector(){
+    if(sumVector == null){
+      double[] sum = new double[dimensionality];
+      for(int row = 0; row < wordCount; row++){
+        for(int i = 0; i < dimensionality; i++){
+          sum[i] += getValue(row, i);
+        }
+      }
+      sumVector = new WordVector("_mean_", sum);
+    }
+    return sumVector;
+  }
+
+  /**
+   * @return the words in row order, which is the order of their UTF-8 bytes
+   */
+  public List<String> getWords(){
+    List<String> words = new ArrayList<>(wordCount);
+    for(int row = 0; row < wordCount; row++){
+      words.add(getWord(row));
+    }
+    return words;
+  }
+
+  private int indexOf(String word){
+    byte[] key = word.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = wordCount - 1;
+    while(low <= high){
+      int mid = (low + high) >>> 1;
+      int cmp = compareWord(mid, key);
+      if(cmp < 0){
+        low = mid + 1;
+      }else if(cmp > 0){
+        high = mid - 1;
+      }else{
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  private int compareWord(int row, byte[] key){
+    int start = wordsStart + getWordOffset(row);
+    int length = getWordOffset(row + 1) - getWordOffset(row);
+    int common = Math.min(length, key.length);
+    for(int i = 0; i < common; i++){
+      int cmp = (buffer.get(start + i) & 0xff) - (key[i] & 0xff);
+      if(cmp != 0){
+        return cmp;
+      }
+    }
+    return length - key.length;
+  }
+
+  private String getWord(int row){
+    int start = getWordOffset(row);
+    byte[] bytes = new byte[getWordOffset(row + 1) - start];
+    for(int i = 0; i < bytes.length; i++){
+      bytes[i] = buffer.get(wordsStart + start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int getWordOffset(int row){
+    return buffer.getInt(offsetsStart + 4 * row);
+  }
+
+  private float getNorm(int row){
+    return buffer.getFloat(normsStart + 4 * row);
+  }
+
+  private float getScale(int row){
+    return buffer.getFloat(scalesStart + 4 * row);
+  }
+
+  private double getValue(int row, int i){
+    if(quantized){
+      return buffer.get(vectorsStart + row * rowBytes + i) * (double)getScale(row);
+    }
+    return buffer.getFloat(vectorsStart + row * rowBytes + 4 * i);
+  }
+
+  private float[] getUnitVector(int row){
+    float[] vector = new float[dimensionality];
+    float norm = getNorm(row);
+    for(int i = 0; i < dimensionality; i++){
+      vector[i] = norm > 0 ? (float)(getValue(row, i) / norm) : 0f;
+    }
+    return vector;
+  }
+
+  private List<String> toWords(TopK top){
+    List<String> words = new ArrayList<>(top.size);
+    for(int row : top.getRows()){
+      words.add(getWord(row));
+    }
+    return words;
+  }
+
+  // simple counted loops over plain arrays, which the JIT compiles tightly
+
+  private static float dot(float[] query, float[] rows, int start){
+    float sum = 0f;
+    for(int i = 0; i < query.length; i++){
+      sum += query[i] * rows[start + i];
+    }
+    return sum;
+  }
+
+  private static float dot(float[] query, byte[] rows, int start){
+    float sum = 0f;
+    for(int i = 0; i < query.length; i++){
+      sum += query[i] * rows[start + i];
+    }
+    return sum;
+  }
+
+  /**
+   * Bounded min heap of the best scoring rows
+   */
+  private static final class TopK {
+    private final int[] rows;
+    private final float[] scores;
+    private int size = 0;
+
+    private TopK(int k){
+      rows = new int[k];
+      scores = new float[k];
+    }
+
+    private void offer(int row, float score){
+      if(size < rows.length){
+        rows[size] = row;
+        scores[size] = score;
+        siftUp(size++);
+      }else if(score > scores[0]){
+        rows[0] = row;
+        scores[0] = score;
+        siftDown(0);
+      }
+    }
+
+    private void siftUp(int i){
+      while(i > 0){
+        int parent = (i - 1) >>> 1;
+        if(scores[parent] <= scores[i]){
+          return;
+        }
+        swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int i){
+      while(true){
+        int child = 2 * i + 1;
+        if(child >= size){
+          return;
+        }
+        if(child + 1 < size && scores[child + 1] < scores[child]){
+          child++;
+        }
+        if(scores[i] <= scores[child]){
+          return;
+        }
+        swap(i, child);
+        i = child;
+      }
+    }
+
+    private void swap(int i, int j){
+      int row = rows[i];
+      rows[i] = rows[j];
+      rows[j] = row;
+      float score = scores[i];
+      scores[i] = scores[j];
+      scores[j] = score;
+    }
+
+    /**
+     * @return rows from the highest score down, emptying the heap
+     */
+    private int[] getRows(){
+      int[] sorted = new int[size];
+      for(int i = size - 1; i >= 0; i--){
+        sorted[i] = rows[0];
+        swap(0, --size);
+        siftDown(0);
+      }
+      return sorted;
+    }
+  }
+}
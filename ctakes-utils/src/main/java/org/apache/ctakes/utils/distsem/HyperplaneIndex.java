@@ -0,0 +1,102 @@
+package org.apache.ctakes.utils.distsem;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Random hyperplane (cosine) locality sensitive hashing over unit vectors.
+ * <p>
+ * Each table hashes a vector to the side of a few random hyperplanes that it falls on.  Similar vectors tend to
+ * fall in the same bucket, so only the words in the buckets of the query, and of the buckets one hyperplane away,
+ * are candidates for exact scoring.
+ * </p>
+ */
+class HyperplaneIndex {
+
+  private static final int TABLES = 8;
+  // aim for about this many words per bucket
+  private static final int BUCKET_WORDS = 64;
+  private static final int MAX_BITS = 16;
+  private static final long SEED = 42L;
+
+  private final int wordCount;
+  private final int bits;
+  private final float[][][] planes;
+  // words of each table grouped by bucket, with the start of each bucket
+  private final int[][] bucketStarts;
+  private final int[][] bucketWords;
+
+  HyperplaneIndex(float[][] unitVectors, int dimensionality){
+    wordCount = unitVectors.length;
+    int wanted = 1;
+    while(wanted < MAX_BITS && (wordCount >> (wanted + 1)) >= BUCKET_WORDS){
+      wanted++;
+    }
+    bits = wanted;
+    Random random = new Random(SEED);
+    planes = new float[TABLES][bits][dimensionality];
+    bucketStarts = new int[TABLES][];
+    bucketWords = new int[TABLES][];
+    for(int t = 0; t < TABLES; t++){
+      for(int b = 0; b < bits; b++){
+        for(int i = 0; i < dimensionality; i++){
+          planes[t][b][i] = (float)random.nextGaussian();
+        }
+      }
+      // counting sort of the words by bucket
+      int[] buckets = new int[wordCount];
+      int[] starts = new int[(1 << bits) + 1];
+      for(int row = 0; row < wordCount; row++){
+        buckets[row] = hash(t, unitVectors[row]);
+        starts[buckets[row] + 1]++;
+      }
+      for(int b = 0; b < (1 << bits); b++){
+        starts[b + 1] += starts[b];
+      }
+      int[] next = starts.clone();
+      int[] words = new int[wordCount];
+      for(int row = 0; row < wordCount; row++){
+        words[next[buckets[row]]++] = row;
+      }
+      bucketStarts[t] = starts;
+      bucketWords[t] = words;
+    }
+  }
+
+  /**
+   * @return rows of the words that may be near the query
+   */
+  int[] getCandidates(float[] query){
+    BitSet candidates = new BitSet(wordCount);
+    for(int t = 0; t < TABLES; t++){
+      int bucket = hash(t, query);
+      addBucket(candidates, t, bucket);
+      for(int b = 0; b < bits; b++){
+        addBucket(candidates, t, bucket ^ (1 << b));
+      }
+    }
+    return candidates.stream().toArray();
+  }
+
+  private void addBucket(BitSet candidates, int table, int bucket){
+    int[] words = bucketWords[table];
+    for(int i = bucketStarts[table][bucket]; i < bucketStarts[table][bucket + 1]; i++){
+      candidates.set(words[i]);
+    }
+  }
+
+  private int hash(int table, float[] vector){
+    int bucket = 0;
+    for(int b = 0; b < bits; b++){
+      float[] plane = planes[table][b];
+      float side = 0f;
+      for(int i = 0; i < vector.length; i++){
+        side += plane[i] * vector[i];
+      }
+      if(side >= 0f){
+        bucket |= 1 << b;
+      }
+    }
+    return bucket;
+  }
+}
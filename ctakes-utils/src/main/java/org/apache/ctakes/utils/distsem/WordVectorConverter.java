@@ -0,0 +1,172 @@
+package org.apache.ctakes.utils.distsem;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Converts text word embeddings, as read by {@link WordVectorReader}, to the binary format of
+ * {@link BinaryWordEmbeddings}.  Convert once, then point the extractors at the binary file.  By default the binary
+ * file is written next to the text file as <i>vectors.txt</i>{@value WordVectorReader#BINARY_SUFFIX}, where
+ * {@link WordVectorReader#getEmbeddings(java.net.URL, boolean)} can be asked to use it in place of the text.
+ * <p>
+ * usage: WordVectorConverter textVectors [binaryVectors] [-int8]
+ * </p>
+ * int8 keeps one byte per value and a scale per vector, a quarter of the float32 size, at some loss of precision.
+ */
+public class WordVectorConverter {
+
+  public static void main(String[] args) throws IOException {
+    boolean quantize = false;
+    List<String> files = new ArrayList<>();
+    for(String arg : args){
+      if(arg.equals("-int8")){
+        quantize = true;
+      }else{
+        files.add(arg);
+      }
+    }
+    if(files.isEmpty() || files.size() > 2){
+      System.err.println("Usage: WordVectorConverter textVectors [binaryVectors] [-int8]");
+      System.exit(1);
+    }
+    File text = new File(files.get(0));
+    File binary = new File(files.size() == 2 ? files.get(1) : files.get(0) + WordVectorReader.BINARY_SUFFIX);
+    int count = convert(text, binary, quantize);
+    System.out.println("Wrote " + count + " vectors to " + binary.getPath());
+  }
+
+  /**
+   * @return the number of words written
+   */
+  public static int convert(File text, File binary, boolean quantize) throws IOException {
+    Map<String,float[]> vectors = new HashMap<>();
+    int dimensionality;
+    try(BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new FileInputStream(text), StandardCharsets.UTF_8))){
+      String line = reader.readLine();
+      if(line == null){
+        throw new IOException("Empty word embeddings " + text.getPath());
+      }
+      try(Scanner scanner = new Scanner(line)){
+        scanner.nextInt();
+        dimensionality = scanner.nextInt();
+      }
+      while((line = reader.readLine()) != null){
+        line = line.trim();
+        if(line.isEmpty()){
+          continue;
+        }
+        int wordBreak = line.indexOf(' ');
+        String[] dims = line.substring(wordBreak + 1).split(" ");
+        if(dims.length != dimensionality){
+          throw new IOException("Expected " + dimensionality + " values for " + line.substring(0, wordBreak));
+        }
+        float[] vector = new float[dimensionality];
+        for(int i = 0; i < dims.length; i++){
+          vector[i] = (float)Double.parseDouble(dims[i]);
+        }
+        // later vectors replace earlier ones for the same word, as in WordEmbeddings
+        vectors.put(line.substring(0, wordBreak), vector);
+      }
+    }
+
+    List<byte[]> words = new ArrayList<>(vectors.size());
+    for(String word : vectors.keySet()){
+      words.add(word.getBytes(StandardCharsets.UTF_8));
+    }
+    words.sort(WordVectorConverter::compareBytes);
+    int wordCount = words.size();
+    float[] norms = new float[wordCount];
+    float[] scales = new float[wordCount];
+    byte[][] quantized = quantize ? new byte[wordCount][] : null;
+    for(int row = 0; row < wordCount; row++){
+      float[] vector = vectors.get(new String(words.get(row), StandardCharsets.UTF_8));
+      if(quantize){
+        float max = 0f;
+        for(float value : vector){
+          max = Math.max(max, Math.abs(value));
+        }
+        scales[row] = max / 127f;
+        quantized[row] = new byte[dimensionality];
+        for(int i = 0; i < dimensionality; i++){
+          int q = max == 0f ? 0 : Math.round(vector[i] / scales[row]);
+          quantized[row][i] = (byte)Math.max(-127, Math.min(127, q));
+        }
+      }
+      double length = 0.0;
+      for(int i = 0; i < dimensionality; i++){
+        double value = quantize ? quantized[row][i] * (double)scales[row] : vector[i];
+        length += value * value;
+      }
+      norms[row] = (float)Math.sqrt(length);
+    }
+
+    try(OutputStream out = new BufferedOutputStream(new FileOutputStream(binary), 1 << 16)){
+      out.write(BinaryWordEmbeddings.MAGIC);
+      writeInt(out, BinaryWordEmbeddings.VERSION);
+      writeInt(out, quantize ? BinaryWordEmbeddings.INT8 : BinaryWordEmbeddings.FLOAT32);
+      writeInt(out, wordCount);
+      writeInt(out, dimensionality);
+      for(int i = 20; i < BinaryWordEmbeddings.HEADER_BYTES; i += 4){
+        writeInt(out, 0);
+      }
+      for(float norm : norms){
+        writeInt(out, Float.floatToIntBits(norm));
+      }
+      if(quantize){
+        for(float scale : scales){
+          writeInt(out, Float.floatToIntBits(scale));
+        }
+      }
+      int offset = 0;
+      writeInt(out, offset);
+      for(byte[] word : words){
+        offset += word.length;
+        writeInt(out, offset);
+      }
+      for(int row = 0; row < wordCount; row++){
+        if(quantize){
+          out.write(quantized[row]);
+        }else{
+          for(float value : vectors.get(new String(words.get(row), StandardCharsets.UTF_8))){
+            writeInt(out, Float.floatToIntBits(value));
+          }
+        }
+      }
+      for(byte[] word : words){
+        out.write(word);
+      }
+    }
+    return wordCount;
+  }
+
+  private static void writeInt(OutputStream out, int value) throws IOException {
+    out.write(value);
+    out.write(value >>> 8);
+    out.write(value >>> 16);
+    out.write(value >>> 24);
+  }
+
+  static int compareBytes(byte[] bytes1, byte[] bytes2){
+    int common = Math.min(bytes1.length, bytes2.length);
+    for(int i = 0; i < common; i++){
+      int cmp = (bytes1[i] & 0xff) - (bytes2[i] & 0xff);
+      if(cmp != 0){
+        return cmp;
+      }
+    }
+    return bytes1.length - bytes2.length;
+  }
+}
@@ -1,19 +1,30 @@
 package org.apache.ctakes.utils.distsem;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Scanner;
 
 public class WordVectorReader {
+  /**
+   * A binary copy of text embeddings at the text path plus this suffix can be used in place of the text
+   */
+  public static final String BINARY_SUFFIX = ".bin";
+
   private WordEmbeddings embeddings = null;
   private int dimensionality = 0;
   private int numWords = 0;
   
   public WordVectorReader(InputStream in) throws IOException{
-    BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
     String line = reader.readLine();
     Scanner scanner = new Scanner(line);
     numWords = scanner.nextInt();
@@ -32,12 +43,61 @@ public class WordVectorReader {
   }
   
   public static WordEmbeddings getEmbeddings(String fn) throws IOException{
-    WordVectorReader reader = new WordVectorReader(new FileInputStream(fn));
+    return getEmbeddings(new File(fn));
+  }
+
+  /**
+   * Binary embeddings are memory mapped, text embeddings are read.
+   */
+  public static WordEmbeddings getEmbeddings(File file) throws IOException {
+    if(BinaryWordEmbeddings.isBinary(file)){
+      return BinaryWordEmbeddings.map(file);
+    }
+    WordVectorReader reader = new WordVectorReader(new FileInputStream(file));
     return reader.getEmbeddings();
   }
-  
+
+  /**
+   * Embeddings in a file are memory mapped if binary.  Embeddings in a jar are read from a stream.
+   */
+  public static WordEmbeddings getEmbeddings(URL url) throws IOException {
+    return getEmbeddings(url, false);
+  }
+
+  /**
+   * @param useBinaryCopy true to use a binary copy at the path of file embeddings plus {@value #BINARY_SUFFIX}
+   *                      in their place, if the copy is not older than the embeddings
+   */
+  public static WordEmbeddings getEmbeddings(URL url, boolean useBinaryCopy) throws IOException {
+    if("file".equals(url.getProtocol())){
+      try{
+        File file = new File(url.toURI());
+        File binary = new File(file.getPath() + BINARY_SUFFIX);
+        if(useBinaryCopy && binary.isFile() && binary.lastModified() >= file.lastModified()){
+          return getEmbeddings(binary);
+        }
+        return getEmbeddings(file);
+      }catch(URISyntaxException | IllegalArgumentException e){
+        // not a plain file path, read the stream
+      }
+    }
+    return getEmbeddings(url.openStream());
+  }
+
   public static WordEmbeddings getEmbeddings(InputStream in) throws IOException {
-    WordVectorReader reader = new WordVectorReader(in);
+    InputStream buffered = new BufferedInputStream(in);
+    byte[] start = new byte[BinaryWordEmbeddings.MAGIC.length];
+    buffered.mark(start.length);
+    int count = 0;
+    int read;
+    while(count < start.length && (read = buffered.read(start, count, start.length - count)) > 0){
+      count += read;
+    }
+    buffered.reset();
+    if(Arrays.equals(start, BinaryWordEmbeddings.MAGIC)){
+      return BinaryWordEmbeddings.read(buffered);
+    }
+    WordVectorReader reader = new WordVectorReader(buffered);
     return reader.getEmbeddings();
   }
 }
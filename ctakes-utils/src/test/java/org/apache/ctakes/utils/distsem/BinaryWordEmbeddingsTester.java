@@ -0,0 +1,147 @@
+package org.apache.ctakes.utils.distsem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that text embeddings converted by {@link WordVectorConverter} read back as the same embeddings.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class BinaryWordEmbeddingsTester {
+
+  private static final int WORD_COUNT = 500;
+  private static final int DIMENSIONALITY = 20;
+
+  private File text;
+  private File binary;
+  private List<String> words;
+  private WordEmbeddings textEmbeddings;
+
+  @Before
+  public void setUp() throws IOException {
+    text = File.createTempFile("vectors", ".txt");
+    binary = new File(text.getPath() + WordVectorReader.BINARY_SUFFIX);
+    words = new ArrayList<>(WORD_COUNT);
+    Random random = new Random(7);
+    try(PrintWriter writer = new PrintWriter(text, "UTF-8")){
+      writer.println(WORD_COUNT + " " + DIMENSIONALITY);
+      for(int w = 0; w < WORD_COUNT; w++){
+        // include non ascii words to exercise the UTF-8 byte order of the vocabulary
+        String word = (w % 7 == 0 ? "\u00e9" : "") + "word" + w;
+        words.add(word);
+        StringBuilder line = new StringBuilder(word);
+        for(int i = 0; i < DIMENSIONALITY; i++){
+          line.append(' ').append(String.format(Locale.ROOT, "%.5f", random.nextGaussian()));
+        }
+        writer.println(line);
+      }
+    }
+    textEmbeddings = WordVectorReader.getEmbeddings(text);
+  }
+
+  @After
+  public void tearDown(){
+    text.delete();
+    binary.delete();
+  }
+
+  @Test
+  public void testFloatRoundTrip() throws IOException {
+    assertEquals(WORD_COUNT, WordVectorConverter.convert(text, binary, false));
+    WordEmbeddings mapped = WordVectorReader.getEmbeddings(binary);
+    assertTrue(mapped instanceof BinaryWordEmbeddings);
+    assertEquals(WORD_COUNT, ((BinaryWordEmbeddings)mapped).size());
+    assertEquals(DIMENSIONALITY, mapped.getDimensionality());
+    for(String word : words){
+      assertTrue(word, mapped.containsKey(word));
+      assertVectorEquals(word, textEmbeddings.getVector(word), mapped.getVector(word), 1e-6);
+    }
+    assertFalse(mapped.containsKey("unknown"));
+    assertNull(mapped.getVector("unknown"));
+    for(int w = 0; w < WORD_COUNT; w += 50){
+      String word = words.get(w);
+      assertEquals(word, textEmbeddings.getSimilarWords(word, 10), mapped.getSimilarWords(word, 10));
+      assertEquals(textEmbeddings.getSimilarity(word, words.get(w + 1)),
+          mapped.getSimilarity(word, words.get(w + 1)), 1e-5);
+    }
+  }
+
+  @Test
+  public void testInt8RoundTrip() throws IOException {
+    assertEquals(WORD_COUNT, WordVectorConverter.convert(text, binary, true));
+    WordEmbeddings mapped = WordVectorReader.getEmbeddings(binary);
+    assertEquals(WORD_COUNT, ((BinaryWordEmbeddings)mapped).size());
+    for(String word : words){
+      WordVector expected = textEmbeddings.getVector(word);
+      double max = 0.0;
+      for(int i = 0; i < DIMENSIONALITY; i++){
+        max = Math.max(max, Math.abs(expected.getValue(i)));
+      }
+      // rounding to one of 127 steps of the largest value loses at most half a step
+      assertVectorEquals(word, expected, mapped.getVector(word), max / 127 / 2 + 1e-6);
+    }
+    for(int w = 0; w < WORD_COUNT; w += 50){
+      String word = words.get(w);
+      assertEquals(textEmbeddings.getSimilarity(word, words.get(w + 1)),
+          mapped.getSimilarity(word, words.get(w + 1)), 0.02);
+    }
+  }
+
+  @Test
+  public void testStream() throws IOException {
+    WordVectorConverter.convert(text, binary, false);
+    WordEmbeddings read = WordVectorReader.getEmbeddings(new FileInputStream(binary));
+    assertTrue(read instanceof BinaryWordEmbeddings);
+    WordEmbeddings textRead = WordVectorReader.getEmbeddings(new FileInputStream(text));
+    assertFalse(textRead instanceof BinaryWordEmbeddings);
+    for(String word : words){
+      assertVectorEquals(word, textRead.getVector(word), read.getVector(word), 1e-6);
+    }
+  }
+
+  @Test
+  public void testBinaryCopy() throws IOException {
+    WordVectorConverter.convert(text, binary, false);
+    // the binary copy is used only on request
+    assertFalse(WordVectorReader.getEmbeddings(text.toURI().toURL()) instanceof BinaryWordEmbeddings);
+    assertTrue(WordVectorReader.getEmbeddings(text.toURI().toURL(), true) instanceof BinaryWordEmbeddings);
+    // and never when it is older than the text
+    assertTrue(binary.setLastModified(text.lastModified() - 10000));
+    assertFalse(WordVectorReader.getEmbeddings(text.toURI().toURL(), true) instanceof BinaryWordEmbeddings);
+  }
+
+  @Test
+  public void testWordOrder() throws IOException {
+    WordVectorConverter.convert(text, binary, false);
+    List<String> sorted = BinaryWordEmbeddings.map(binary).getWords();
+    assertEquals(WORD_COUNT, sorted.size());
+    for(int i = 1; i < sorted.size(); i++){
+      assertTrue(WordVectorConverter.compareBytes(sorted.get(i - 1).getBytes(StandardCharsets.UTF_8),
+          sorted.get(i).getBytes(StandardCharsets.UTF_8)) < 0);
+    }
+  }
+
+  private static void assertVectorEquals(String word, WordVector expected, WordVector actual, double delta){
+    assertNotNull(word, actual);
+    assertEquals(word, expected.size(), actual.size());
+    for(int i = 0; i < expected.size(); i++){
+      assertEquals(word, expected.getValue(i), actual.getValue(i), delta);
+    }
+  }
+}
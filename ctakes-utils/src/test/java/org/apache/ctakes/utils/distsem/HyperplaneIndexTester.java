@@ -0,0 +1,142 @@
+package org.apache.ctakes.utils.distsem;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the random hyperplane index to a brute force nearest neighbour search.
+ *
+ * @author SPF , chip-nlp
+ * @version %I%
+ * @since 10/18/2026
+ */
+public class HyperplaneIndexTester {
+
+  private static final int CLUSTERS = 500;
+  private static final int CLUSTER_WORDS = 20;
+  private static final int WORD_COUNT = CLUSTERS * CLUSTER_WORDS;
+  private static final int DIMENSIONALITY = 32;
+  private static final int QUERIES = 500;
+
+  /**
+   * The true nearest neighbour of nearly every query is a candidate, and far fewer than all words are candidates.
+   */
+  @Test
+  public void testNearestNeighbourRecall(){
+    float[][] vectors = createUnitVectors(new Random(11));
+    HyperplaneIndex index = new HyperplaneIndex(vectors, DIMENSIONALITY);
+    Random random = new Random(12);
+    int found = 0;
+    long candidateCount = 0;
+    for(int q = 0; q < QUERIES; q++){
+      int query = random.nextInt(WORD_COUNT);
+      int nearest = -1;
+      float best = Float.NEGATIVE_INFINITY;
+      for(int row = 0; row < WORD_COUNT; row++){
+        float sim = dot(vectors[query], vectors[row]);
+        if(row != query && sim > best){
+          best = sim;
+          nearest = row;
+        }
+      }
+      int[] candidates = index.getCandidates(vectors[query]);
+      candidateCount += candidates.length;
+      assertTrue("Query is not its own candidate", Arrays.binarySearch(candidates, query) >= 0);
+      if(Arrays.binarySearch(candidates, nearest) >= 0){
+        found++;
+      }
+    }
+    assertTrue("Nearest neighbour recall " + found + " / " + QUERIES, found >= QUERIES * 0.95);
+    assertTrue("Mean candidates " + candidateCount / QUERIES, candidateCount / QUERIES < WORD_COUNT / 2);
+  }
+
+  /**
+   * Approximate similar words mostly agree with the exact similar words, and are scored exactly.
+   */
+  @Test
+  public void testApproximateSimilarWords() throws IOException {
+    float[][] vectors = createUnitVectors(new Random(13));
+    File text = File.createTempFile("vectors", ".txt");
+    File binary = File.createTempFile("vectors", WordVectorReader.BINARY_SUFFIX);
+    try{
+      try(PrintWriter writer = new PrintWriter(text, "UTF-8")){
+        writer.println(WORD_COUNT + " " + DIMENSIONALITY);
+        for(int row = 0; row < WORD_COUNT; row++){
+          StringBuilder line = new StringBuilder("w" + row);
+          for(float value : vectors[row]){
+            line.append(' ').append(String.format(Locale.ROOT, "%.6f", value));
+          }
+          writer.println(line);
+        }
+      }
+      WordVectorConverter.convert(text, binary, false);
+      BinaryWordEmbeddings embeddings = BinaryWordEmbeddings.map(binary);
+      Random random = new Random(14);
+      int exactCount = 0;
+      int foundCount = 0;
+      for(int q = 0; q < 100; q++){
+        String word = "w" + random.nextInt(WORD_COUNT);
+        List<String> exact = embeddings.getSimilarWords(word, 5);
+        List<String> approximate = embeddings.getApproximateSimilarWords(word, 5);
+        assertEquals(5, approximate.size());
+        for(int i = 1; i < approximate.size(); i++){
+          assertTrue(embeddings.getSimilarity(word, approximate.get(i - 1))
+              >= embeddings.getSimilarity(word, approximate.get(i)) - 1e-6);
+        }
+        exactCount += exact.size();
+        for(String similar : exact){
+          if(approximate.contains(similar)){
+            foundCount++;
+          }
+        }
+      }
+      assertTrue("Similar word recall " + foundCount + " / " + exactCount, foundCount >= exactCount * 0.9);
+    }finally{
+      text.delete();
+      binary.delete();
+    }
+  }
+
+  /**
+   * @return unit vectors in clusters around random centers, so that every word has close neighbours
+   */
+  private static float[][] createUnitVectors(Random random){
+    float[][] vectors = new float[WORD_COUNT][DIMENSIONALITY];
+    for(int c = 0; c < CLUSTERS; c++){
+      float[] center = new float[DIMENSIONALITY];
+      for(int i = 0; i < DIMENSIONALITY; i++){
+        center[i] = (float)random.nextGaussian();
+      }
+      for(int w = 0; w < CLUSTER_WORDS; w++){
+        float[] vector = vectors[c * CLUSTER_WORDS + w];
+        double length = 0.0;
+        for(int i = 0; i < DIMENSIONALITY; i++){
+          vector[i] = center[i] + 0.3f * (float)random.nextGaussian();
+          length += vector[i] * vector[i];
+        }
+        for(int i = 0; i < DIMENSIONALITY; i++){
+          vector[i] /= (float)Math.sqrt(length);
+        }
+      }
+    }
+    return vectors;
+  }
+
+  private static float dot(float[] vector1, float[] vector2){
+    float sum = 0f;
+    for(int i = 0; i < vector1.length; i++){
+      sum += vector1[i] * vector2[i];
+    }
+    return sum;
+  }
+}
@@ -18,100 +18,168 @@
  */
 package org.apache.ctakes.rest.service;
 
-import org.apache.ctakes.core.pipeline.PipelineBuilder;
-import org.apache.ctakes.core.pipeline.PiperFileReader;
-import org.apache.ctakes.rest.util.JCasParser;
+import org.apache.ctakes.rest.util.JCasJsonWriter;
 import org.apache.log4j.Logger;
-import org.apache.uima.UIMAFramework;
-import org.apache.uima.analysis_engine.AnalysisEngine;
-import org.apache.uima.analysis_engine.AnalysisEngineDescription;
-import org.apache.uima.jcas.JCas;
-import org.apache.uima.util.JCasPool;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.ServletException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 
 /*
  * Rest web service that takes clinical text
- * as input and produces extracted text as output
+ * as input and produces extracted text as output.
+ *
+ * Each pipeline runs on a pool of engine replicas with a bounded request queue.
+ * Pipelines are named by the system property ctakes.rest.pipelines , default "Default" ,
+ * and each is read from pipers/[name].piper .
+ * The replica count and queue size of a pipeline are set by the system properties
+ * ctakes.rest.[name].replicas and ctakes.rest.[name].queueSize .
+ * Requests beyond the queue size are answered with 429 Too Many Requests.
  */
 @RestController
 public class CtakesRestController {
 
     private static final Logger LOGGER = Logger.getLogger(CtakesRestController.class);
-    private static final String DEFAULT_PIPER_FILE_PATH = "pipers/Default.piper";
-    private static final String FULL_PIPER_FILE_PATH = "pipers/Full.piper";
+    private static final String PIPELINES_PROPERTY = "ctakes.rest.pipelines";
+    private static final String PROPERTY_PREFIX = "ctakes.rest.";
+    private static final String REPLICAS_PROPERTY = ".replicas";
+    private static final String QUEUE_SIZE_PROPERTY = ".queueSize";
+    private static final String PIPER_DIRECTORY = "pipers/";
+    private static final String PIPER_EXTENSION = ".piper";
     private static final String DEFAULT_PIPELINE = "Default";
-    private static final String FULL_PIPELINE = "Full";
-    private static final Map<String, PipelineRunner> _pipelineRunners = new HashMap<>();
+    private static final int DEFAULT_REPLICAS = 1;
+    private static final int DEFAULT_QUEUE_SIZE = 10;
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final Map<String, PipelinePool> _pipelinePools = new LinkedHashMap<>();
 
     @PostConstruct
     public void init() throws ServletException {
-        LOGGER.info("Initializing analysis engines and jcas pools");
-        _pipelineRunners.put(DEFAULT_PIPELINE, new PipelineRunner(DEFAULT_PIPER_FILE_PATH));
-//        _pipelineRunners.put(FULL_PIPELINE, new PipelineRunner(FULL_PIPER_FILE_PATH));
+        LOGGER.info("Initializing analysis engine pools");
+        final String pipelines = System.getProperty(PIPELINES_PROPERTY, DEFAULT_PIPELINE);
+        for (String pipeline : pipelines.split(",")) {
+            pipeline = pipeline.trim();
+            if (pipeline.isEmpty()) {
+                continue;
+            }
+            final int replicas = getIntProperty(PROPERTY_PREFIX + pipeline + REPLICAS_PROPERTY, DEFAULT_REPLICAS);
+            final int queueSize = getIntProperty(PROPERTY_PREFIX + pipeline + QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE);
+            addPipelinePool(new PipelinePool(pipeline, PIPER_DIRECTORY + pipeline + PIPER_EXTENSION,
+                    replicas, queueSize));
+        }
+    }
+
+    /**
+     * @param pool pipeline pool to serve, requested by its case insensitive name
+     */
+    void addPipelinePool(final PipelinePool pool) {
+        _pipelinePools.put(pool.getName().toLowerCase(), pool);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (PipelinePool pool : _pipelinePools.values()) {
+            pool.destroy();
+        }
+        _pipelinePools.clear();
     }
 
+    /**
+     * Analyze a document and stream the json results to the response while the document's jcas is walked.
+     *
+     * @param fieldsOptParam optional comma separated annotation fields to write, see {@link JCasJsonWriter.Field}
+     */
     @RequestMapping(value = "/analyze", method = RequestMethod.POST)
+    public void getAnalyzedJSON(@RequestBody String analysisText,
+                                @RequestParam("pipeline") Optional<String> pipelineOptParam,
+                                @RequestParam("fields") Optional<String> fieldsOptParam,
+                                final HttpServletResponse response)
+            throws Exception {
+        final JCasJsonWriter writer = JCasJsonWriter.forFields(fieldsOptParam.orElse(null));
+        response.setContentType(JSON_CONTENT_TYPE);
+        getPipelinePool(pipelineOptParam).process(analysisText, jcas -> {
+            writer.write(jcas, response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Analyze many documents with one call.  Documents are processed in parallel on the pipeline replicas,
+     * and the servlet thread is released while they are processed.
+     *
+     * @param analysisTexts json array of document texts
+     * @return json array of results in the same order as the texts
+     */
+    @RequestMapping(value = "/analyze/batch", method = RequestMethod.POST)
     @ResponseBody
-    public Map<String, List<CuiResponse>> getAnalyzedJSON(@RequestBody String analysisText,
-                                                                  @RequestParam("pipeline") Optional<String> pipelineOptParam)
+    public CompletableFuture<List<Map<String, List<CuiResponse>>>> getAnalyzedBatchJSON(
+            @RequestBody List<String> analysisTexts,
+            @RequestParam("pipeline") Optional<String> pipelineOptParam)
             throws Exception {
-        String pipeline = DEFAULT_PIPELINE;
-        if(pipelineOptParam.isPresent()) {
-            if(FULL_PIPELINE.equalsIgnoreCase(pipelineOptParam.get())) {
-                pipeline = FULL_PIPELINE;
-            }
-        }
-        final PipelineRunner runner = _pipelineRunners.get(pipeline);
-        return runner.process(analysisText);
+        return getPipelinePool(pipelineOptParam).processBatch(analysisTexts);
+    }
 
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, Map<String, Object>> getMetrics() {
+        final Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        for (PipelinePool pool : _pipelinePools.values()) {
+            metrics.put(pool.getName(), pool.getMetrics());
+        }
+        return metrics;
     }
 
-    static private Map<String, List<CuiResponse>> formatResults(JCas jcas) throws Exception {
-        JCasParser parser = new JCasParser();
-        return parser.parse(jcas);
+    @ExceptionHandler(PipelineBusyException.class)
+    public ResponseEntity<String> handleBusy(final PipelineBusyException e) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return new ResponseEntity<>(e.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS);
     }
 
-    static private final class PipelineRunner {
-        private final AnalysisEngine _engine;
-        private final JCasPool _pool;
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(final IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 
-        private PipelineRunner(final String piperPath) throws ServletException {
-            try {
-                PiperFileReader reader = new PiperFileReader(piperPath);
-                PipelineBuilder builder = reader.getBuilder();
-                AnalysisEngineDescription pipeline = builder.getAnalysisEngineDesc();
-                _engine = UIMAFramework.produceAnalysisEngine(pipeline);
-                _pool = new JCasPool(10, _engine);
-            } catch (Exception e) {
-                LOGGER.error("Error loading pipers");
-                throw new ServletException(e);
-            }
+    /**
+     * @param pipelineOptParam requested pipeline name, case insensitive
+     * @return the requested pipeline, or the Default pipeline if the requested one is not loaded
+     */
+    static private PipelinePool getPipelinePool(final Optional<String> pipelineOptParam) throws ServletException {
+        PipelinePool pool = null;
+        if (pipelineOptParam.isPresent()) {
+            pool = _pipelinePools.get(pipelineOptParam.get().toLowerCase());
+        }
+        if (pool == null) {
+            pool = _pipelinePools.get(DEFAULT_PIPELINE.toLowerCase());
         }
+        if (pool == null && !_pipelinePools.isEmpty()) {
+            pool = _pipelinePools.values().iterator().next();
+        }
+        if (pool == null) {
+            throw new ServletException("No pipelines are loaded");
+        }
+        return pool;
+    }
 
-        public Map<String, List<CuiResponse>> process(final String text) throws ServletException {
-            JCas jcas = null;
-            Map<String, List<CuiResponse>> resultMap = null;
-            if (text != null) {
-                try {
-                    jcas = _pool.getJCas(-1);
-                    jcas.setDocumentText(text);
-                    _engine.process(jcas);
-                    resultMap = formatResults(jcas);
-                    _pool.releaseJCas(jcas);
-                } catch (Exception e) {
-                    LOGGER.error("Error processing Analysis engine");
-                    throw new ServletException(e);
-                }
-            }
-            return resultMap;
+    static private int getIntProperty(final String name, final int defaultValue) {
+        final String value = System.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException nfE) {
+            LOGGER.warn("Could not parse " + name + " value " + value + " , using " + defaultValue);
+            return defaultValue;
         }
     }
 }
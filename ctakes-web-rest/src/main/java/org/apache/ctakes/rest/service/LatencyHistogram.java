@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.rest.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of request latencies with fixed millisecond buckets.
+ * Percentiles are estimated as the upper bound of the bucket that holds them.
+ */
+final class LatencyHistogram {
+
+    static private final long[] BUCKET_BOUNDS_MILLIS
+            = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000, Long.MAX_VALUE };
+
+    private final AtomicLongArray _bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _totalNanos = new AtomicLong();
+    private final AtomicLong _maxNanos = new AtomicLong();
+
+    void record(final long nanos) {
+        final long millis = nanos / 1000000;
+        int bucket = 0;
+        while (millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        _bucketCounts.incrementAndGet(bucket);
+        _count.incrementAndGet();
+        _totalNanos.addAndGet(nanos);
+        _maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    long getCount() {
+        return _count.get();
+    }
+
+    /**
+     * @param fraction percentile as a fraction, for instance 0.99
+     * @return upper bound in milliseconds of the bucket holding the percentile, or -1 if there is no bound
+     */
+    long getPercentileMillis(final double fraction) {
+        final long count = _count.get();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(fraction * count);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            cumulative += _bucketCounts.get(i);
+            if (cumulative >= rank) {
+                return BUCKET_BOUNDS_MILLIS[i] == Long.MAX_VALUE ? -1 : BUCKET_BOUNDS_MILLIS[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return counts, mean, max, percentiles and bucket counts keyed by bucket upper bound, for json output
+     */
+    Map<String, Object> getSnapshot() {
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        final long count = _count.get();
+        snapshot.put("count", count);
+        snapshot.put("meanMillis", count == 0 ? 0 : _totalNanos.get() / 1000000d / count);
+        snapshot.put("maxMillis", _maxNanos.get() / 1000000d);
+        snapshot.put("p50Millis", getPercentileMillis(0.50));
+        snapshot.put("p90Millis", getPercentileMillis(0.90));
+        snapshot.put("p99Millis", getPercentileMillis(0.99));
+        final Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            final String bound = BUCKET_BOUNDS_MILLIS[i] == Long.MAX_VALUE ? "+Inf" : "<" + BUCKET_BOUNDS_MILLIS[i];
+            buckets.put(bound, _bucketCounts.get(i));
+        }
+        snapshot.put("buckets", buckets);
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,287 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.rest.service;
+
+import org.apache.ctakes.core.pipeline.PipelineBuilder;
+import org.apache.ctakes.core.pipeline.PiperFileReader;
+import org.apache.ctakes.rest.util.JCasParser;
+import org.apache.log4j.Logger;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs documents on a pool of replicas of one piper pipeline.
+ * <p>
+ * Each replica is a separate AnalysisEngine with its own JCas, so replicas process documents in parallel.
+ * A request waits for an idle replica.  The number of documents that are being processed or waiting is bounded
+ * by the number of replicas plus the queue size.  Documents beyond that are rejected immediately with a
+ * {@link PipelineBusyException} so that clients can back off instead of piling up servlet threads.
+ * </p>
+ * Batches are run asynchronously on a thread per replica.  Latencies, including time waiting for a replica,
+ * are kept in a histogram for the metrics endpoint.
+ * <p>
+ * A document fails if its engine or handler throws anything but an IOException.
+ * Handler IOExceptions are usually clients that disconnected while results were streamed,
+ * so they are passed on to the servlet container as they are and are not counted as failures.
+ * </p>
+ */
+final class PipelinePool {
+
+    private static final Logger LOGGER = Logger.getLogger(PipelinePool.class);
+
+    /**
+     * Uses an analyzed JCas.  The JCas is only valid until the handler returns.
+     */
+    @FunctionalInterface
+    interface JCasHandler<T> {
+        T handle(JCas jcas) throws Exception;
+    }
+
+    private final String _name;
+    private final int _replicaCount;
+    private final int _capacity;
+    private final List<EngineReplica> _replicas;
+    private final BlockingQueue<EngineReplica> _idleReplicas;
+    private final Semaphore _admission;
+    private final ExecutorService _batchExecutor;
+    private final LatencyHistogram _latency = new LatencyHistogram();
+    private final AtomicLong _rejectedCount = new AtomicLong();
+    private final AtomicLong _failedCount = new AtomicLong();
+
+    /**
+     * @param name         name of the pipeline, used in requests and metrics
+     * @param piperPath    path to the piper file
+     * @param replicaCount number of engine replicas
+     * @param queueSize    number of documents that can wait for a replica
+     * @throws ServletException if the piper could not be read or an engine could not be created
+     */
+    PipelinePool(final String name, final String piperPath, final int replicaCount, final int queueSize)
+            throws ServletException {
+        this(name, createEngines(piperPath, Math.max(1, replicaCount)), queueSize);
+    }
+
+    /**
+     * @param name      name of the pipeline, used in requests and metrics
+     * @param engines   one engine per replica.  The engines are destroyed with the pool.
+     * @param queueSize number of documents that can wait for a replica
+     * @throws ServletException if a jcas could not be created for an engine
+     */
+    PipelinePool(final String name, final List<AnalysisEngine> engines, final int queueSize)
+            throws ServletException {
+        _name = name;
+        _replicaCount = engines.size();
+        _capacity = _replicaCount + Math.max(0, queueSize);
+        _replicas = new ArrayList<>(_replicaCount);
+        _idleReplicas = new ArrayBlockingQueue<>(_replicaCount);
+        _admission = new Semaphore(_capacity);
+        try {
+            for (AnalysisEngine engine : engines) {
+                final EngineReplica replica = new EngineReplica(engine, engine.newJCas());
+                _replicas.add(replica);
+                _idleReplicas.add(replica);
+            }
+        } catch (ResourceInitializationException e) {
+            LOGGER.error("Error creating jcas for pipeline " + name, e);
+            engines.forEach(AnalysisEngine::destroy);
+            throw new ServletException(e);
+        }
+        final AtomicInteger threadNumber = new AtomicInteger();
+        _batchExecutor = Executors.newFixedThreadPool(_replicaCount, r -> {
+            final Thread thread = new Thread(r, name + "-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOGGER.info("Pipeline " + name + " started with " + _replicaCount + " replicas and queue size " + queueSize);
+    }
+
+    static private List<AnalysisEngine> createEngines(final String piperPath, final int replicaCount)
+            throws ServletException {
+        final List<AnalysisEngine> engines = new ArrayList<>(replicaCount);
+        try {
+            final PiperFileReader reader = new PiperFileReader(piperPath);
+            final PipelineBuilder builder = reader.getBuilder();
+            final AnalysisEngineDescription pipeline = builder.getAnalysisEngineDesc();
+            for (int i = 0; i < replicaCount; i++) {
+                engines.add(UIMAFramework.produceAnalysisEngine(pipeline));
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error loading piper " + piperPath, e);
+            engines.forEach(AnalysisEngine::destroy);
+            throw new ServletException(e);
+        }
+        return engines;
+    }
+
+    String getName() {
+        return _name;
+    }
+
+    /**
+     * Process a single document on the calling thread and hand the analyzed JCas to a handler,
+     * for instance one that streams results to the client.  The replica is held until the handler returns.
+     *
+     * @param text    document text
+     * @param handler uses the analyzed jcas
+     * @param <T>     type of handler result
+     * @return the handler result
+     * @throws PipelineBusyException if the request queue is full
+     * @throws ServletException      if the document could not be processed or handled
+     * @throws IOException           if the handler could not write, for instance to a disconnected client
+     */
+    <T> T process(final String text, final JCasHandler<T> handler)
+            throws PipelineBusyException, ServletException, IOException {
+        admit(1);
+        try {
+            return runOnReplica(text, handler);
+        } finally {
+            _admission.release();
+        }
+    }
+
+    /**
+     * Process documents in parallel on the batch threads.  The whole batch is admitted or rejected.
+     *
+     * @param texts document texts
+     * @return future results in the same order as the texts
+     * @throws PipelineBusyException    if the request queue cannot hold the batch
+     * @throws IllegalArgumentException if the batch is larger than the pipeline could ever accept
+     */
+    CompletableFuture<List<Map<String, List<CuiResponse>>>> processBatch(final List<String> texts)
+            throws PipelineBusyException {
+        if (texts.size() > _capacity) {
+            throw new IllegalArgumentException("Batch of " + texts.size() + " documents is larger than the "
+                    + _capacity + " documents that pipeline " + _name + " can queue");
+        }
+        admit(texts.size());
+        final List<CompletableFuture<Map<String, List<CuiResponse>>>> futures = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return text == null ? null : runOnReplica(text, jcas -> new JCasParser().parse(jcas));
+                } catch (ServletException | IOException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    _admission.release();
+                }
+            }, _batchExecutor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> {
+                    final List<Map<String, List<CuiResponse>>> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<Map<String, List<CuiResponse>>> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+    }
+
+    private void admit(final int documentCount) throws PipelineBusyException {
+        if (!_admission.tryAcquire(documentCount)) {
+            _rejectedCount.addAndGet(documentCount);
+            throw new PipelineBusyException(_name, documentCount);
+        }
+    }
+
+    private <T> T runOnReplica(final String text, final JCasHandler<T> handler)
+            throws ServletException, IOException {
+        final long startNanos = System.nanoTime();
+        final EngineReplica replica;
+        try {
+            replica = _idleReplicas.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for pipeline " + _name, e);
+        }
+        try {
+            try {
+                replica._jcas.reset();
+                replica._jcas.setDocumentText(text);
+                replica._engine.process(replica._jcas);
+            } catch (AnalysisEngineProcessException | RuntimeException e) {
+                _failedCount.incrementAndGet();
+                LOGGER.error("Error processing document on pipeline " + _name, e);
+                throw new ServletException(e);
+            }
+            try {
+                return handler.handle(replica._jcas);
+            } catch (IOException e) {
+                LOGGER.debug("Could not write results of pipeline " + _name + " , " + e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                _failedCount.incrementAndGet();
+                LOGGER.error("Error handling results of pipeline " + _name, e);
+                throw new ServletException(e);
+            }
+        } finally {
+            _idleReplicas.offer(replica);
+            _latency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @return pool sizes, counts and the latency histogram, for json output
+     */
+    Map<String, Object> getMetrics() {
+        final Map<String, Object> metrics = new LinkedHashMap<>();
+        final int idle = _idleReplicas.size();
+        final int admitted = _capacity - _admission.availablePermits();
+        metrics.put("replicas", _replicaCount);
+        metrics.put("busyReplicas", _replicaCount - idle);
+        metrics.put("queuedDocuments", Math.max(0, admitted - (_replicaCount - idle)));
+        metrics.put("capacity", _capacity);
+        metrics.put("rejectedDocuments", _rejectedCount.get());
+        metrics.put("failedDocuments", _failedCount.get());
+        metrics.put("latency", _latency.getSnapshot());
+        return metrics;
+    }
+
+    void destroy() {
+        if (_batchExecutor != null) {
+            _batchExecutor.shutdownNow();
+        }
+        for (EngineReplica replica : _replicas) {
+            replica._engine.destroy();
+        }
+    }
+
+    static private final class EngineReplica {
+        private final AnalysisEngine _engine;
+        private final JCas _jcas;
+
+        private EngineReplica(final AnalysisEngine engine, final JCas jcas) {
+            _engine = engine;
+            _jcas = jcas;
+        }
+    }
+
+}
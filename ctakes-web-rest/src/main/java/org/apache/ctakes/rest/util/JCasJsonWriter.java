@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.rest.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.ctakes.typesystem.type.refsem.UmlsConcept;
+import org.apache.ctakes.typesystem.type.textsem.IdentifiedAnnotation;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Writes the annotations of a JCas as json straight to an output stream, walking the annotation indexes
+ * instead of building response objects first.  Output is flushed after each annotation type so that
+ * the client receives results while the rest are written.
+ * <p>
+ * Without field selection the json is the same as that of {@link JCasParser} with {@code CuiResponse}.
+ * Callers can select fields to drop the ones they don't need, or add the concept preferred text.
+ * The concept attribute list is only written when a concept field is selected.
+ * </p>
+ */
+public class JCasJsonWriter {
+
+    /**
+     * Fields that can be selected for each annotation.
+     */
+    public enum Field {
+        BEGIN("begin"),
+        END("end"),
+        TEXT("text"),
+        POLARITY("polarity"),
+        CODING_SCHEME("codingScheme"),
+        CUI("cui"),
+        CODE("code"),
+        TUI("tui"),
+        PREFERRED_TEXT("preferredText");
+
+        private final String _name;
+
+        Field(final String name) {
+            _name = name;
+        }
+
+        public String getName() {
+            return _name;
+        }
+
+        private boolean isConceptField() {
+            return ordinal() >= CODING_SCHEME.ordinal();
+        }
+    }
+
+    static private final Set<Field> DEFAULT_FIELDS = EnumSet.range(Field.BEGIN, Field.TUI);
+
+    static private final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final Set<Field> _fields;
+    private final boolean _writeConcepts;
+
+    /**
+     * Write the same fields as {@code CuiResponse}.
+     */
+    public JCasJsonWriter() {
+        this(DEFAULT_FIELDS);
+    }
+
+    /**
+     * @param fields fields to write for each annotation
+     */
+    public JCasJsonWriter(final Collection<Field> fields) {
+        _fields = fields.isEmpty() ? EnumSet.noneOf(Field.class) : EnumSet.copyOf(fields);
+        boolean writeConcepts = false;
+        for (Field field : _fields) {
+            writeConcepts |= field.isConceptField();
+        }
+        _writeConcepts = writeConcepts;
+    }
+
+    /**
+     * @param fieldList comma separated field names, null or empty for the default fields
+     * @return a writer for the fields
+     * @throws IllegalArgumentException for an unknown field name
+     */
+    static public JCasJsonWriter forFields(final String fieldList) {
+        if (fieldList == null || fieldList.trim().isEmpty()) {
+            return new JCasJsonWriter();
+        }
+        final Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (String name : fieldList.split(",")) {
+            fields.add(getField(name.trim()));
+        }
+        return new JCasJsonWriter(fields);
+    }
+
+    static private Field getField(final String name) {
+        for (Field field : Field.values()) {
+            if (field._name.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field " + name);
+    }
+
+    /**
+     * @param jcas         analyzed jcas
+     * @param outputStream stream for the json, not closed
+     * @throws IOException if the json could not be written
+     */
+    public void write(final JCas jcas, final OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            for (Class<? extends Annotation> semClass : JCasParser.getSemClasses()) {
+                generator.writeArrayFieldStart(semClass.getSimpleName());
+                for (Annotation annotation : JCasUtil.select(jcas, semClass)) {
+                    writeAnnotation(generator, annotation);
+                }
+                generator.writeEndArray();
+                generator.flush();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeAnnotation(final JsonGenerator generator, final Annotation annotation) throws IOException {
+        generator.writeStartObject();
+        if (_fields.contains(Field.BEGIN)) {
+            generator.writeNumberField(Field.BEGIN._name, annotation.getBegin());
+        }
+        if (_fields.contains(Field.END)) {
+            generator.writeNumberField(Field.END._name, annotation.getEnd());
+        }
+        if (_fields.contains(Field.TEXT)) {
+            generator.writeStringField(Field.TEXT._name, annotation.getCoveredText());
+        }
+        final IdentifiedAnnotation identified = annotation instanceof IdentifiedAnnotation
+                ? (IdentifiedAnnotation) annotation : null;
+        if (_fields.contains(Field.POLARITY)) {
+            generator.writeNumberField(Field.POLARITY._name, identified == null ? 0 : identified.getPolarity());
+        }
+        if (_writeConcepts) {
+            generator.writeArrayFieldStart("conceptAttributes");
+            if (identified != null && identified.getOntologyConceptArr() != null) {
+                for (UmlsConcept concept : JCasUtil.select(identified.getOntologyConceptArr(), UmlsConcept.class)) {
+                    writeConcept(generator, concept);
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeConcept(final JsonGenerator generator, final UmlsConcept concept) throws IOException {
+        generator.writeStartObject();
+        if (_fields.contains(Field.CODING_SCHEME)) {
+            generator.writeStringField(Field.CODING_SCHEME._name, concept.getCodingScheme());
+        }
+        if (_fields.contains(Field.CUI)) {
+            generator.writeStringField(Field.CUI._name, concept.getCui());
+        }
+        if (_fields.contains(Field.CODE)) {
+            generator.writeStringField(Field.CODE._name, concept.getCode());
+        }
+        if (_fields.contains(Field.TUI)) {
+            generator.writeStringField(Field.TUI._name, concept.getTui());
+        }
+        if (_fields.contains(Field.PREFERRED_TEXT)) {
+            generator.writeStringField(Field.PREFERRED_TEXT._name, concept.getPreferredText());
+        }
+        generator.writeEndObject();
+    }
+
+}
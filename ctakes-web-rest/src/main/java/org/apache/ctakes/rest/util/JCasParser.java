@@ -26,6 +26,7 @@ import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,28 +35,36 @@ import java.util.Map;
  * Created by tmill on 12/20/18.
  */
 public class JCasParser {
-    List<Class<? extends Annotation>> semClasses = new ArrayList<>();
-
-    public JCasParser(){
+    static private final List<Class<? extends Annotation>> SEM_CLASSES = new ArrayList<>();
+    static {
         // CUI types:
-        semClasses.add(DiseaseDisorderMention.class);
-        semClasses.add(SignSymptomMention.class);
-        semClasses.add(ProcedureMention.class);
-        semClasses.add(AnatomicalSiteMention.class);
-        semClasses.add(MedicationMention.class);
+        SEM_CLASSES.add(DiseaseDisorderMention.class);
+        SEM_CLASSES.add(SignSymptomMention.class);
+        SEM_CLASSES.add(ProcedureMention.class);
+        SEM_CLASSES.add(AnatomicalSiteMention.class);
+        SEM_CLASSES.add(MedicationMention.class);
 
         // Temporal types:
-        semClasses.add(TimeMention.class);
-        semClasses.add(DateAnnotation.class);
+        SEM_CLASSES.add(TimeMention.class);
+        SEM_CLASSES.add(DateAnnotation.class);
 
         // Drug-related types:
-        semClasses.add(FractionStrengthAnnotation.class);
-        semClasses.add(DrugChangeStatusAnnotation.class);
-        semClasses.add(StrengthUnitAnnotation.class);
-        semClasses.add(StrengthAnnotation.class);
-        semClasses.add(RouteAnnotation.class);
-        semClasses.add(FrequencyUnitAnnotation.class);
-        semClasses.add(MeasurementAnnotation.class);
+        SEM_CLASSES.add(FractionStrengthAnnotation.class);
+        SEM_CLASSES.add(DrugChangeStatusAnnotation.class);
+        SEM_CLASSES.add(StrengthUnitAnnotation.class);
+        SEM_CLASSES.add(StrengthAnnotation.class);
+        SEM_CLASSES.add(RouteAnnotation.class);
+        SEM_CLASSES.add(FrequencyUnitAnnotation.class);
+        SEM_CLASSES.add(MeasurementAnnotation.class);
+    }
+
+    List<Class<? extends Annotation>> semClasses = new ArrayList<>(SEM_CLASSES);
+
+    /**
+     * @return the annotation types that are returned by the rest service
+     */
+    static public List<Class<? extends Annotation>> getSemClasses() {
+        return Collections.unmodifiableList(SEM_CLASSES);
     }
 
     public Map<String, List<CuiResponse>> parse(JCas jcas) throws Exception {
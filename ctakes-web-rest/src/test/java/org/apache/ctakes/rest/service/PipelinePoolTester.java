@@ -0,0 +1,228 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ctakes.rest.service;
+
+import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.jcas.JCas;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PipelinePoolTester {
+
+    static private final String BLOCK = "block";
+    static private final String FAIL = "fail";
+
+    static private CountDownLatch _blockStarted;
+    static private CountDownLatch _blockRelease;
+
+    /**
+     * Does nothing, fails or waits for the test depending upon the document text.
+     */
+    static public final class TestAnnotator extends JCasAnnotator_ImplBase {
+        @Override
+        public void process(final JCas jcas) throws AnalysisEngineProcessException {
+            if (FAIL.equals(jcas.getDocumentText())) {
+                throw new AnalysisEngineProcessException(new IllegalStateException("Test failure"));
+            }
+            if (BLOCK.equals(jcas.getDocumentText())) {
+                _blockStarted.countDown();
+                try {
+                    _blockRelease.await();
+                } catch (InterruptedException e) {
+                    throw new AnalysisEngineProcessException(e);
+                }
+            }
+        }
+    }
+
+    private PipelinePool _pool;
+    private ExecutorService _clientExecutor;
+
+    @Before
+    public void setUp() {
+        _blockStarted = new CountDownLatch(1);
+        _blockRelease = new CountDownLatch(1);
+        _clientExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        _blockRelease.countDown();
+        _clientExecutor.shutdownNow();
+        if (_pool != null) {
+            _pool.destroy();
+        }
+    }
+
+    static private PipelinePool createPool(final int replicaCount, final int queueSize) throws Exception {
+        final List<AnalysisEngine> engines = new ArrayList<>(replicaCount);
+        for (int i = 0; i < replicaCount; i++) {
+            engines.add(AnalysisEngineFactory.createEngine(TestAnnotator.class));
+        }
+        return new PipelinePool("Test", engines, queueSize);
+    }
+
+    @Test
+    public void testProcess() throws Exception {
+        _pool = createPool(2, 1);
+        final String text = _pool.process("some text", JCas::getDocumentText);
+        assertEquals("Handler did not get the analyzed jcas", "some text", text);
+        final Map<String, Object> metrics = _pool.getMetrics();
+        assertEquals(2, metrics.get("replicas"));
+        assertEquals(0, metrics.get("busyReplicas"));
+        assertEquals(3, metrics.get("capacity"));
+        assertEquals(0L, metrics.get("failedDocuments"));
+        assertEquals(1L, ((Map<?, ?>) metrics.get("latency")).get("count"));
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        _pool = createPool(2, 2);
+        final List<Map<String, List<CuiResponse>>> results
+                = _pool.processBatch(Arrays.asList("one", null, "three")).get(30, TimeUnit.SECONDS);
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0));
+        assertNull("Null text should have a null result", results.get(1));
+        assertNotNull(results.get(2));
+        assertEquals(2L, ((Map<?, ?>) _pool.getMetrics().get("latency")).get("count"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLargerThanCapacity() throws Exception {
+        _pool = createPool(1, 1);
+        _pool.processBatch(Arrays.asList("one", "two", "three"));
+    }
+
+    @Test
+    public void testAdmissionRejection() throws Exception {
+        _pool = createPool(1, 0);
+        final Future<String> blocked = _clientExecutor.submit(() -> _pool.process(BLOCK, JCas::getDocumentText));
+        assertTrue("Blocking document did not start", _blockStarted.await(30, TimeUnit.SECONDS));
+        assertEquals(1, _pool.getMetrics().get("busyReplicas"));
+        try {
+            _pool.process("rejected", JCas::getDocumentText);
+            fail("Document beyond the queue size should be rejected");
+        } catch (PipelineBusyException e) {
+            final ResponseEntity<String> response = new CtakesRestController().handleBusy(e);
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+            assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        }
+        assertEquals(1L, _pool.getMetrics().get("rejectedDocuments"));
+        _blockRelease.countDown();
+        assertEquals(BLOCK, blocked.get(30, TimeUnit.SECONDS));
+        // Once the replica is free the pipeline accepts documents again
+        assertEquals("accepted", _pool.process("accepted", JCas::getDocumentText));
+        assertEquals(0, _pool.getMetrics().get("busyReplicas"));
+    }
+
+    @Test
+    public void testEngineFailure() throws Exception {
+        _pool = createPool(1, 0);
+        try {
+            _pool.process(FAIL, JCas::getDocumentText);
+            fail("Engine failure should be thrown");
+        } catch (ServletException e) {
+            assertTrue(e.getCause() instanceof AnalysisEngineProcessException);
+        }
+        assertEquals(1L, _pool.getMetrics().get("failedDocuments"));
+        // The replica is returned to the pool
+        assertEquals("next", _pool.process("next", JCas::getDocumentText));
+    }
+
+    @Test
+    public void testClientAbortIsNotFailure() throws Exception {
+        _pool = createPool(1, 0);
+        try {
+            _pool.process("aborted", jcas -> {
+                throw new IOException("Broken pipe");
+            });
+            fail("Handler IOException should be thrown");
+        } catch (IOException e) {
+            assertEquals("Broken pipe", e.getMessage());
+        }
+        final Map<String, Object> metrics = _pool.getMetrics();
+        assertEquals(0L, metrics.get("failedDocuments"));
+        assertEquals(0, metrics.get("busyReplicas"));
+        assertEquals("next", _pool.process("next", JCas::getDocumentText));
+    }
+
+    @Test
+    public void testHandlerFailure() throws Exception {
+        _pool = createPool(1, 0);
+        try {
+            _pool.process("text", jcas -> {
+                throw new IllegalStateException("Bad handler");
+            });
+            fail("Handler failure should be thrown");
+        } catch (ServletException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(1L, _pool.getMetrics().get("failedDocuments"));
+    }
+
+    @Test
+    public void testMetricsEndpoint() throws Exception {
+        _pool = createPool(1, 2);
+        _pool.process("text", JCas::getDocumentText);
+        final CtakesRestController controller = new CtakesRestController();
+        controller.addPipelinePool(_pool);
+        try {
+            final Map<String, Map<String, Object>> metrics = controller.getMetrics();
+            final Map<String, Object> poolMetrics = metrics.get("Test");
+            assertNotNull("Pipeline metrics should be keyed by pipeline name", poolMetrics);
+            assertEquals(Arrays.asList("replicas", "busyReplicas", "queuedDocuments", "capacity",
+                    "rejectedDocuments", "failedDocuments", "latency"), new ArrayList<>(poolMetrics.keySet()));
+            assertEquals(3, poolMetrics.get("capacity"));
+            assertEquals(0, poolMetrics.get("queuedDocuments"));
+            final Map<?, ?> latency = (Map<?, ?>) poolMetrics.get("latency");
+            assertEquals(1L, latency.get("count"));
+            long bucketTotal = 0;
+            for (Object count : ((Map<?, ?>) latency.get("buckets")).values()) {
+                bucketTotal += (Long) count;
+            }
+            assertEquals(1L, bucketTotal);
+        } finally {
+            // The controller destroys its pools
+            controller.destroy();
+            _pool = null;
+        }
+    }
+
+}